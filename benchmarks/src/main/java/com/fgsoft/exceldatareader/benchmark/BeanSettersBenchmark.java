@@ -0,0 +1,76 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.benchmark;
+
+import com.fgsoft.exceldatareader.parser.util.BeanSetters;
+import com.fgsoft.exceldatareader.parser.util.PropertySetter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Setting an int property of a bean through {@link BeanSetters}, when the class declares a setter method, generated as
+ * a lambda, and when it does not, the field being set through its method handle. The direct field write is the
+ * baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanSettersBenchmark {
+    /**
+     * Bean with a property having a setter method and a property without setter method
+     */
+    public static class Sample {
+        private int withSetter;
+        private int withoutSetter;
+
+        public void setWithSetter(final int withSetter) {
+            this.withSetter = withSetter;
+        }
+    }
+
+    private final Sample bean = new Sample();
+    private PropertySetter methodSetter;
+    private PropertySetter fieldSetter;
+    private int value;
+
+    @Setup(Level.Trial)
+    public void buildSetters() {
+        final BeanSetters setters = BeanSetters.forClass(Sample.class);
+        methodSetter = setters.getSetter("withSetter");
+        fieldSetter = setters.getSetter("withoutSetter");
+    }
+
+    @Benchmark
+    public Sample directWrite() {
+        bean.withoutSetter = value++;
+        return bean;
+    }
+
+    @Benchmark
+    public Sample setterMethod() {
+        methodSetter.setInt(bean, value++);
+        return bean;
+    }
+
+    @Benchmark
+    public Sample fieldHandle() {
+        fieldSetter.setInt(bean, value++);
+        return bean;
+    }
+}
@@ -0,0 +1,91 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.benchmark;
+
+import com.fgsoft.exceldatareader.parser.HeaderDescriptor;
+import com.fgsoft.exceldatareader.parser.util.MergedRegionIndex;
+import com.fgsoft.exceldatareader.parser.util.WorksheetAnalyser;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analysis of the headers of a worksheet by {@link WorksheetAnalyser#getHeadersMap()}, for a varying number of
+ * merged group titles. Each group title is merged over two field columns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HeaderAnalysisBenchmark {
+    private static final HeaderDescriptor HEADER_DESCRIPTOR = new HeaderDescriptor(0, 1, 1);
+    private static final int SINGLE_COLUMN_COUNT = 10;
+
+    @Param({"0", "10", "100", "1000"})
+    private int mergeCount;
+
+    private XSSFWorkbook workbook;
+    private Sheet sheet;
+    private MergedRegionIndex mergedRegionIndex;
+
+    @Setup(Level.Trial)
+    public void buildSheet() {
+        workbook = new XSSFWorkbook();
+        sheet = workbook.createSheet("Headers");
+        final Row groups = sheet.createRow(0);
+        final Row fields = sheet.createRow(1);
+        int column = 0;
+        for (; column < SINGLE_COLUMN_COUNT; column++) {
+            fields.createCell(column).setCellValue("field" + column);
+        }
+        for (int group = 0; group < mergeCount; group++, column += 2) {
+            groups.createCell(column).setCellValue("group" + group);
+            sheet.addMergedRegionUnsafe(new CellRangeAddress(0, 0, column, column + 1));
+            fields.createCell(column).setCellValue("first");
+            fields.createCell(column + 1).setCellValue("second");
+        }
+        mergedRegionIndex = MergedRegionIndex.forSheet(sheet);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeWorkbook() throws IOException {
+        workbook.close();
+    }
+
+    /**
+     * Analysis with an index of the merged regions built once, as cached by the reader of the workbook
+     */
+    @Benchmark
+    public Map<String, Integer> headersMap() {
+        return new WorksheetAnalyser(sheet, HEADER_DESCRIPTOR, mergedRegionIndex).getHeadersMap();
+    }
+
+    /**
+     * Analysis including the reading of the merged regions of the worksheet and the building of their index
+     */
+    @Benchmark
+    public Map<String, Integer> headersMapWithIndexBuild() {
+        return new WorksheetAnalyser(sheet, HEADER_DESCRIPTOR, new MergedRegionIndex(sheet.getMergedRegions()))
+                .getHeadersMap();
+    }
+}
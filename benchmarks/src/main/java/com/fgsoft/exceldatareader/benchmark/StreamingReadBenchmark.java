@@ -0,0 +1,100 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.benchmark;
+
+import com.fgsoft.exceldatareader.generator.WorkbookGenerator;
+import com.fgsoft.exceldatareader.parser.util.FormulaStrategy;
+import com.fgsoft.exceldatareader.parser.value.AbstractSingleCellValueParser;
+import com.fgsoft.exceldatareader.parser.value.ValueParserRouter;
+import com.fgsoft.exceldatareader.reader.ExcelDataReader;
+import com.fgsoft.exceldatareader.reader.streaming.StreamingExcelDataReader;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading of all the data rows of a worksheet, each cell being parsed as a string, by {@link ExcelDataReader} and by
+ * {@link StreamingExcelDataReader}. Both readers read the same workbook, generated at setup from a fixed seed, and
+ * take formula results from the file. Run with {@code -prof gc} to compare the allocations of both modes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamingReadBenchmark {
+    private static final long SEED = 1;
+    private static final int COLUMN_COUNT = 20;
+    private static final double FORMULA_RATIO = 0.1;
+    private static final AbstractSingleCellValueParser<String> PARSER = ValueParserRouter.getParser(String.class);
+
+    @Param({"10000", "100000"})
+    private int rowCount;
+
+    private WorkbookGenerator generator;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void writeWorkbook() throws IOException {
+        generator = WorkbookGenerator.builder().seed(SEED).rowCount(rowCount).columnCount(COLUMN_COUNT)
+                .formulaRatio(FORMULA_RATIO).build();
+        file = Files.createTempFile("benchmark", ".xlsx");
+        generator.write(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteWorkbook() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Workbook opened by {@link ExcelDataReader} and rows mapped by a sheet parser
+     */
+    @Benchmark
+    public void workbook(final Blackhole blackhole) throws IOException {
+        try (ExcelDataReader reader = new ExcelDataReader(file)) {
+            reader.setFormulaStrategy(FormulaStrategy.CACHED_RESULTS);
+            reader.addParser(generator.getSheetName(0), generator.getHeaderDescriptor(),
+                    schema -> (row, evaluator) -> parseRow(row, evaluator, blackhole))
+                    .stream().forEach(blackhole::consume);
+        }
+    }
+
+    /**
+     * Rows read by {@link StreamingExcelDataReader} and given to a row handler
+     */
+    @Benchmark
+    public void streaming(final Blackhole blackhole) {
+        try (StreamingExcelDataReader reader = new StreamingExcelDataReader(file)) {
+            reader.readSheet(generator.getSheetName(0), generator.getHeaderDescriptor(),
+                    (row, headers) -> parseRow(row, reader.getFormulaEvaluator(), blackhole));
+        }
+    }
+
+    private static Row parseRow(final Row row, final FormulaEvaluator evaluator, final Blackhole blackhole) {
+        for (final Cell cell : row) {
+            blackhole.consume(PARSER.getValue(cell, evaluator));
+        }
+        return row;
+    }
+}
@@ -0,0 +1,142 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.benchmark;
+
+import com.fgsoft.exceldatareader.parser.value.AbstractSingleCellValueParser;
+import com.fgsoft.exceldatareader.parser.value.ValueParserRouter;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Parsing of a single cell by each single cell value parser, on numeric, string and formula cells. Parsers of types
+ * without numeric representation, i.e. Boolean and enums, are measured on boolean cells instead of numeric ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueParserBenchmark {
+    private static final String DATE_FORMAT = "yyyy-mm-dd hh:mm:ss";
+
+    /**
+     * Enum type read by the enum value parser
+     */
+    public enum Sample {
+        ONE, TWO
+    }
+
+    /**
+     * Cases of parsing: type of the parser and content of the cell
+     */
+    public enum CellCase {
+        INTEGER_NUMERIC(Integer.class, (cell, style) -> cell.setCellValue(123)),
+        INTEGER_STRING(Integer.class, (cell, style) -> cell.setCellValue("123")),
+        INTEGER_FORMULA(Integer.class, (cell, style) -> cell.setCellFormula("100+23")),
+        LONG_NUMERIC(Long.class, (cell, style) -> cell.setCellValue(12_345_678_901L)),
+        LONG_STRING(Long.class, (cell, style) -> cell.setCellValue("12345678901")),
+        LONG_FORMULA(Long.class, (cell, style) -> cell.setCellFormula("12345678900+1")),
+        DOUBLE_NUMERIC(Double.class, (cell, style) -> cell.setCellValue(1.5)),
+        DOUBLE_STRING(Double.class, (cell, style) -> cell.setCellValue("1.5")),
+        DOUBLE_FORMULA(Double.class, (cell, style) -> cell.setCellFormula("1+0.5")),
+        BIG_DECIMAL_NUMERIC(BigDecimal.class, (cell, style) -> cell.setCellValue(1.5)),
+        BIG_DECIMAL_STRING(BigDecimal.class, (cell, style) -> cell.setCellValue("1.5")),
+        BIG_DECIMAL_FORMULA(BigDecimal.class, (cell, style) -> cell.setCellFormula("1+0.5")),
+        BOOLEAN_BOOLEAN(Boolean.class, (cell, style) -> cell.setCellValue(true)),
+        BOOLEAN_STRING(Boolean.class, (cell, style) -> cell.setCellValue("Yes")),
+        BOOLEAN_FORMULA(Boolean.class, (cell, style) -> cell.setCellFormula("1=1")),
+        STRING_NUMERIC(String.class, (cell, style) -> cell.setCellValue(123)),
+        STRING_STRING(String.class, (cell, style) -> cell.setCellValue("This is a string value")),
+        STRING_FORMULA(String.class, (cell, style) -> cell.setCellFormula("\"This is \"&\"a string value\"")),
+        ENUM_STRING(Sample.class, (cell, style) -> cell.setCellValue("TWO")),
+        ENUM_FORMULA(Sample.class, (cell, style) -> cell.setCellFormula("\"T\"&\"WO\"")),
+        DATE_NUMERIC(Date.class, CellCase::setDate),
+        DATE_STRING(Date.class, (cell, style) -> cell.setCellValue("2023-07-01T12:15:45")),
+        DATE_FORMULA(Date.class, CellCase::setDateFormula),
+        LOCAL_DATE_NUMERIC(LocalDate.class, CellCase::setDate),
+        LOCAL_DATE_STRING(LocalDate.class, (cell, style) -> cell.setCellValue("2023-07-01")),
+        LOCAL_DATE_FORMULA(LocalDate.class, CellCase::setDateFormula),
+        LOCAL_DATE_TIME_NUMERIC(LocalDateTime.class, CellCase::setDate),
+        LOCAL_DATE_TIME_STRING(LocalDateTime.class, (cell, style) -> cell.setCellValue("2023-07-01T12:15:45")),
+        LOCAL_DATE_TIME_FORMULA(LocalDateTime.class, CellCase::setDateFormula),
+        LOCAL_TIME_NUMERIC(LocalTime.class, CellCase::setDate),
+        LOCAL_TIME_STRING(LocalTime.class, (cell, style) -> cell.setCellValue("12:15:45")),
+        LOCAL_TIME_FORMULA(LocalTime.class, CellCase::setDateFormula);
+
+        private final Class<?> type;
+        private final BiConsumer<Cell, CellStyle> writer;
+
+        CellCase(final Class<?> type, final BiConsumer<Cell, CellStyle> writer) {
+            this.type = type;
+            this.writer = writer;
+        }
+
+        private static void setDate(final Cell cell, final CellStyle dateStyle) {
+            cell.setCellValue(LocalDateTime.of(2023, 7, 1, 12, 15, 45));
+            cell.setCellStyle(dateStyle);
+        }
+
+        private static void setDateFormula(final Cell cell, final CellStyle dateStyle) {
+            cell.setCellFormula("DATE(2023,7,1)+TIME(12,15,45)");
+            cell.setCellStyle(dateStyle);
+        }
+    }
+
+    @Param
+    private CellCase cellCase;
+
+    private Workbook workbook;
+    private Cell cell;
+    private FormulaEvaluator evaluator;
+    private AbstractSingleCellValueParser<?> parser;
+
+    @Setup(Level.Trial)
+    public void buildCell() {
+        workbook = new XSSFWorkbook();
+        final CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat(DATE_FORMAT));
+        cell = workbook.createSheet("Values").createRow(0).createCell(0);
+        cellCase.writer.accept(cell, dateStyle);
+        evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+        if (cell.getCellType() == CellType.FORMULA) {
+            evaluator.evaluateFormulaCell(cell); // Cache the result, as in files saved by Excel
+        }
+        parser = ValueParserRouter.getParser(cellCase.type);
+        if (parser.getValue(cell, evaluator) == null) {
+            throw new IllegalStateException("No value parsed for " + cellCase);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeWorkbook() throws IOException {
+        workbook.close();
+    }
+
+    @Benchmark
+    public Object parse() {
+        return parser.getValue(cell, evaluator);
+    }
+}
@@ -0,0 +1,61 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.benchmark;
+
+import com.fgsoft.exceldatareader.generator.WorkbookGenerator;
+import com.fgsoft.exceldatareader.reader.ExcelDataReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opening of a workbook from a file by {@link ExcelDataReader}. The workbook is generated at setup from a fixed seed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkbookOpenBenchmark {
+    private static final long SEED = 1;
+    private static final int COLUMN_COUNT = 20;
+
+    @Param({"10000", "100000"})
+    private int rowCount;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void writeWorkbook() throws IOException {
+        file = Files.createTempFile("benchmark", ".xlsx");
+        WorkbookGenerator.builder().seed(SEED).rowCount(rowCount).columnCount(COLUMN_COUNT).build().write(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteWorkbook() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int open() throws IOException {
+        try (ExcelDataReader reader = new ExcelDataReader(file)) {
+            return reader.getParsers().size();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.processor;
+
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Field of an {@code @ExcelMapped} class read by the generated mapper
+ */
+final class MappedField {
+    private final String name;
+    private final String header;
+    private final TypeMirror type;
+    private final String parserType;
+    private final String assignment;
+
+    /**
+     * @param name name of the field
+     * @param header header of the column of the field
+     * @param type type of the field
+     * @param parserType simple name of the type of the value parser of the field
+     * @param assignment assignment of the field, with a {@code %s} placeholder for the value
+     */
+    MappedField(final String name, final String header, final TypeMirror type, final String parserType,
+                final String assignment) {
+        this.name = name;
+        this.header = header;
+        this.type = type;
+        this.parserType = parserType;
+        this.assignment = assignment;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getHeader() {
+        return header;
+    }
+
+    TypeMirror getType() {
+        return type;
+    }
+
+    String getParserType() {
+        return parserType;
+    }
+
+    String getAssignment() {
+        return assignment;
+    }
+
+    /**
+     * @return name of the header constant, i.e. the name of the field in upper snake case
+     */
+    String getConstant() {
+        final StringBuilder constant = new StringBuilder(name.length() + 4);
+        for (int index = 0; index < name.length(); index++) {
+            final char character = name.charAt(index);
+            if (Character.isUpperCase(character) && index > 0) {
+                constant.append('_');
+            }
+            constant.append(Character.toUpperCase(character));
+        }
+        return constant.toString();
+    }
+}
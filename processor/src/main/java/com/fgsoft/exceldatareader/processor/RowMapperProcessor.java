@@ -0,0 +1,379 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.processor;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.*;
+
+/**
+ * Annotation processor generating the row mapper of each class annotated with {@code @ExcelMapped}.
+ * <p>
+ * The mapper of a class {@code Sample} is generated in the package of the class as {@code SampleRowMapper}. It
+ * declares a constant for each header, binds the headers to columns in its constructor, given the header schema of a
+ * worksheet, and reads each field with the value parser of its type. Primitive int, long, double fields are read
+ * without boxing, boolean fields through the cached boxed values. As stated by the row mapper contract, fields whose
+ * cell is missing or blank keep their default value, which includes int and long cells holding the smallest value of
+ * their type, as the primitive parsers return it for blank cells. Fields of other types, e.g. inner objects or lists, are not
+ * mapped and reported as warnings.
+ * <p>
+ * The processor only refers to the classes of the library by name, so that it does not depend on it.
+ */
+@SupportedAnnotationTypes(RowMapperProcessor.EXCEL_MAPPED)
+public class RowMapperProcessor extends AbstractProcessor {
+    static final String EXCEL_MAPPED = "com.fgsoft.exceldatareader.parser.mapper.ExcelMapped";
+    private static final String EXCEL_HEADER = "com.fgsoft.exceldatareader.parser.mapper.ExcelHeader";
+    private static final String MAPPER_SUFFIX = "RowMapper";
+    private static final String VALUE_PACKAGE = "com.fgsoft.exceldatareader.parser.value.";
+    private static final Set<String> OBJECT_TYPES = new HashSet<>(Arrays.asList(
+            "java.lang.Boolean",
+            "java.lang.Double",
+            "java.lang.Integer",
+            "java.lang.Long",
+            "java.lang.String",
+            "java.math.BigDecimal",
+            "java.time.LocalDate",
+            "java.time.LocalDateTime",
+            "java.time.LocalTime",
+            "java.util.Date"
+    ));
+    private static final Map<TypeKind, String> PRIMITIVE_PARSERS = new EnumMap<>(TypeKind.class);
+
+    static {
+        PRIMITIVE_PARSERS.put(TypeKind.INT, "IntCellParser");
+        PRIMITIVE_PARSERS.put(TypeKind.LONG, "LongCellParser");
+        PRIMITIVE_PARSERS.put(TypeKind.DOUBLE, "DoubleCellParser");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (final TypeElement annotation : annotations) {
+            for (final TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                if (checkType(type)) {
+                    generateMapper(type, getMappedFields(type));
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean checkType(final TypeElement type) {
+        boolean valid = true;
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)
+                || type.getNestingKind().isNested() && !type.getModifiers().contains(Modifier.STATIC)) {
+            error(type, "@ExcelMapped must annotate a concrete top level or static nested class");
+            valid = false;
+        } else if (ElementFilter.constructorsIn(type.getEnclosedElements()).stream().noneMatch(
+                constructor -> constructor.getParameters().isEmpty()
+                        && !constructor.getModifiers().contains(Modifier.PRIVATE))) {
+            error(type, "@ExcelMapped class must have a non private constructor without argument");
+            valid = false;
+        }
+        return valid;
+    }
+
+    private List<MappedField> getMappedFields(final TypeElement type) {
+        final List<MappedField> fields = new ArrayList<>();
+        final Set<String> names = new HashSet<>();
+        for (TypeElement current = type; current != null; current = getSuperclass(current)) {
+            for (final VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                final Set<Modifier> modifiers = field.getModifiers();
+                final String name = field.getSimpleName().toString();
+                if (!modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.TRANSIENT)
+                        && names.add(name)) {
+                    final MappedField mappedField = toMappedField(type, current, field);
+                    if (mappedField != null) {
+                        fields.add(mappedField);
+                    }
+                }
+            }
+        }
+        return fields;
+    }
+
+    private MappedField toMappedField(final TypeElement type, final TypeElement owner, final VariableElement field) {
+        final TypeMirror fieldType = field.asType();
+        final String parserType;
+        if (PRIMITIVE_PARSERS.containsKey(fieldType.getKind())) {
+            parserType = PRIMITIVE_PARSERS.get(fieldType.getKind());
+        } else if (fieldType.getKind() == TypeKind.BOOLEAN) {
+            parserType = "AbstractSingleCellValueParser<java.lang.Boolean>";
+        } else if (isObjectType(fieldType)) {
+            parserType = "AbstractSingleCellValueParser<" + fieldType + ">";
+        } else {
+            warning(field, "Field type " + fieldType + " cannot be read from a single cell, field not mapped");
+            return null;
+        }
+        final String assignment = getAssignment(type, owner, field);
+        if (assignment == null) {
+            warning(field, "Field is neither accessible nor has an accessible setter, field not mapped");
+            return null;
+        }
+        return new MappedField(field.getSimpleName().toString(), getHeader(field), fieldType, parserType,
+                assignment);
+    }
+
+    private boolean isObjectType(final TypeMirror fieldType) {
+        boolean objectType = false;
+        if (fieldType.getKind() == TypeKind.DECLARED) {
+            final Element element = processingEnv.getTypeUtils().asElement(fieldType);
+            objectType = element.getKind() == ElementKind.ENUM
+                    || OBJECT_TYPES.contains(((TypeElement) element).getQualifiedName().toString());
+        }
+        return objectType;
+    }
+
+    /**
+     * @return the assignment of the field, with a {@code %s} placeholder for the value, null if the field cannot be
+     * set from the package of the mapper
+     */
+    private String getAssignment(final TypeElement type, final TypeElement owner, final VariableElement field) {
+        final String name = field.getSimpleName().toString();
+        final String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        final boolean samePackage = getPackage(type).equals(getPackage(owner));
+        for (TypeElement current = type; current != null; current = getSuperclass(current)) {
+            for (final ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+                if (method.getSimpleName().contentEquals(setterName) && method.getParameters().size() == 1
+                        && processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(),
+                        field.asType())
+                        && isAccessible(method.getModifiers(), getPackage(type).equals(getPackage(current)))) {
+                    return "bean." + setterName + "(%s);";
+                }
+            }
+        }
+        if (!field.getModifiers().contains(Modifier.FINAL) && isAccessible(field.getModifiers(), samePackage)) {
+            return "bean." + name + " = %s;";
+        }
+        return null;
+    }
+
+    private static boolean isAccessible(final Set<Modifier> modifiers, final boolean samePackage) {
+        return !modifiers.contains(Modifier.STATIC) && (modifiers.contains(Modifier.PUBLIC)
+                || samePackage && !modifiers.contains(Modifier.PRIVATE));
+    }
+
+    private String getHeader(final VariableElement field) {
+        for (final AnnotationMirror annotation : field.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName()
+                    .contentEquals(EXCEL_HEADER)) {
+                for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                        : annotation.getElementValues().entrySet()) {
+                    if (entry.getKey().getSimpleName().contentEquals("value")) {
+                        return (String) entry.getValue().getValue();
+                    }
+                }
+            }
+        }
+        return field.getSimpleName().toString();
+    }
+
+    private void generateMapper(final TypeElement type, final List<MappedField> fields) {
+        final String packageName = getPackage(type);
+        final String beanName = type.getQualifiedName().toString();
+        final String mapperName = getMapperName(type);
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(
+                packageName.isEmpty() ? mapperName : packageName + '.' + mapperName, type).openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("/**");
+            out.println(" * Mapper of data rows to {@link " + beanName + "} beans");
+            out.println(" */");
+            out.println("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")");
+            out.println("public final class " + mapperName + " implements "
+                    + "com.fgsoft.exceldatareader.parser.mapper.RowMapper<" + beanName + "> {");
+            for (final MappedField field : fields) {
+                out.println("    public static final String " + field.getConstant() + " = \""
+                        + escape(field.getHeader()) + "\";");
+            }
+            for (final MappedField field : fields) {
+                out.println("    private static final " + VALUE_PACKAGE + field.getParserType() + " "
+                        + field.getConstant() + "_PARSER = " + getParserInitializer(field) + ";");
+            }
+            out.println();
+            for (final MappedField field : fields) {
+                out.println("    private final int " + field.getName() + "Column;");
+            }
+            out.println();
+            out.println("    public " + mapperName + "(final com.fgsoft.exceldatareader.parser.util.HeaderSchema "
+                    + "schema) {");
+            for (final MappedField field : fields) {
+                out.println("        this." + field.getName() + "Column = schema.getColumn(" + field.getConstant()
+                        + ");");
+            }
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public " + beanName + " map(final org.apache.poi.ss.usermodel.Row row,");
+            out.println("                    final org.apache.poi.ss.usermodel.FormulaEvaluator evaluator) {");
+            out.println("        final " + beanName + " bean = new " + beanName + "();");
+            if (!fields.isEmpty()) {
+                out.println("        org.apache.poi.ss.usermodel.Cell cell;");
+            }
+            for (final MappedField field : fields) {
+                out.println("        cell = com.fgsoft.exceldatareader.parser.mapper.RowMapper.getCell(row, "
+                        + field.getName() + "Column);");
+                writeFieldMapping(out, field);
+            }
+            out.println("        return bean;");
+            out.println("    }");
+            out.println("}");
+        } catch (IOException exc) {
+            error(type, "Unable to generate row mapper: " + exc.getMessage());
+        }
+    }
+
+    private static String getParserInitializer(final MappedField field) {
+        final String router = VALUE_PACKAGE + "ValueParserRouter.";
+        switch (field.getType().getKind()) {
+            case INT:
+                return router + "getIntParser()";
+            case LONG:
+                return router + "getLongParser()";
+            case DOUBLE:
+                return router + "getDoubleParser()";
+            default:
+                return router + "getParser(" + getBoxedType(field) + ".class)";
+        }
+    }
+
+    private static void writeFieldMapping(final PrintWriter out, final MappedField field) {
+        final String parser = field.getConstant() + "_PARSER";
+        switch (field.getType().getKind()) {
+            case INT:
+                writePrimitiveMapping(out, field, "final int", parser + ".getInt(cell, evaluator)",
+                        "value != " + VALUE_PACKAGE + "IntCellParser.NULL_VALUE");
+                break;
+            case LONG:
+                writePrimitiveMapping(out, field, "final long", parser + ".getLong(cell, evaluator)",
+                        "value != " + VALUE_PACKAGE + "LongCellParser.NULL_VALUE");
+                break;
+            case DOUBLE:
+                writePrimitiveMapping(out, field, "final double", parser + ".getDouble(cell, evaluator)",
+                        "!Double.isNaN(value)");
+                break;
+            default:
+                // Boolean fields are read boxed, as no boolean value can signal a blank cell
+                writeObjectMapping(out, field, parser + ".getValue(cell, evaluator)");
+        }
+    }
+
+    /**
+     * Write the mapping of a field read as an object, keeping the default value of the field for missing and blank
+     * cells
+     */
+    private static void writeObjectMapping(final PrintWriter out, final MappedField field, final String read) {
+        out.println("        if (cell != null) {");
+        out.println("            final " + getBoxedType(field) + " value = " + read + ";");
+        out.println("            if (value != null) {");
+        out.println("                " + String.format(field.getAssignment(), "value"));
+        out.println("            }");
+        out.println("        }");
+    }
+
+    private static String getBoxedType(final MappedField field) {
+        return field.getType().getKind() == TypeKind.BOOLEAN ? "java.lang.Boolean" : field.getType().toString();
+    }
+
+    private static void writePrimitiveMapping(final PrintWriter out, final MappedField field, final String type,
+                                              final String read, final String condition) {
+        out.println("        {");
+        out.println("            " + type + " value = " + read + ";");
+        out.println("            if (" + condition + ") {");
+        out.println("                " + String.format(field.getAssignment(), "value"));
+        out.println("            }");
+        out.println("        }");
+    }
+
+    private String getPackage(final TypeElement type) {
+        return processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+    }
+
+    private String getMapperName(final TypeElement type) {
+        final String packageName = getPackage(type);
+        final String qualifiedName = type.getQualifiedName().toString();
+        final String simpleNames = packageName.isEmpty() ? qualifiedName
+                : qualifiedName.substring(packageName.length() + 1);
+        return simpleNames.replace('.', '_') + MAPPER_SUFFIX;
+    }
+
+    private TypeElement getSuperclass(final TypeElement type) {
+        final TypeMirror superclass = type.getSuperclass();
+        TypeElement element = null;
+        if (superclass.getKind() == TypeKind.DECLARED) {
+            element = (TypeElement) processingEnv.getTypeUtils().asElement(superclass);
+            if (element.getQualifiedName().contentEquals("java.lang.Object")) {
+                element = null;
+            }
+        }
+        return element;
+    }
+
+    /**
+     * Escape a value to be written as a Java string literal. Control characters, such as the line breaks of multi-line
+     * headers, are written as escape sequences.
+     */
+    private static String escape(final String value) {
+        final StringBuilder escaped = new StringBuilder(value.length());
+        for (int index = 0; index < value.length(); index++) {
+            final char character = value.charAt(index);
+            switch (character) {
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '"':
+                    escaped.append("\\\"");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                case '\t':
+                    escaped.append("\\t");
+                    break;
+                default:
+                    if (Character.isISOControl(character)) {
+                        escaped.append(String.format("\\u%04x", (int) character));
+                    } else {
+                        escaped.append(character);
+                    }
+            }
+        }
+        return escaped.toString();
+    }
+
+    private void error(final Element element, final String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private void warning(final Element element, final String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+}
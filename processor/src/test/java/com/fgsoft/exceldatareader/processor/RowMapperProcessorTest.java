@@ -0,0 +1,203 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.processor;
+
+import com.fgsoft.exceldatareader.parser.mapper.RowMapper;
+import com.fgsoft.exceldatareader.parser.util.HeaderSchema;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.*;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RowMapperProcessorTest {
+    private static final String EXCEL_MAPPED = "package com.fgsoft.exceldatareader.parser.mapper;\n"
+            + "public @interface ExcelMapped {}";
+    private static final String EXCEL_HEADER = "package com.fgsoft.exceldatareader.parser.mapper;\n"
+            + "public @interface ExcelHeader { String value(); }";
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    final void testGenerateMapper() throws IOException {
+        // Given
+        final String bean = "package sample;\n"
+                + "import com.fgsoft.exceldatareader.parser.mapper.*;\n"
+                + "@ExcelMapped public class Bean {\n"
+                + "    int intValue;\n"
+                + "    private double doubleValue;\n"
+                + "    @ExcelHeader(\"composite.label\") String label;\n"
+                + "    private java.util.List<String> values;\n"
+                + "    public void setDoubleValue(double value) { doubleValue = value; }\n"
+                + "}";
+        // When
+        // Only the generation is checked, with stub annotations
+        final List<Diagnostic<? extends JavaFileObject>> diagnostics = process(bean);
+        // Then
+        final String mapper = new String(Files.readAllBytes(outputDir.resolve("sample/BeanRowMapper.java")),
+                StandardCharsets.UTF_8);
+        assertThat(mapper)
+                .contains("public final class BeanRowMapper implements "
+                        + "com.fgsoft.exceldatareader.parser.mapper.RowMapper<sample.Bean>")
+                .contains("public static final String INT_VALUE = \"intValue\";")
+                .contains("public static final String LABEL = \"composite.label\";")
+                .contains("this.intValueColumn = schema.getColumn(INT_VALUE);")
+                .contains("final int value = INT_VALUE_PARSER.getInt(cell, evaluator);")
+                .contains("bean.intValue = value;")
+                .contains("bean.setDoubleValue(value);")
+                .contains("final java.lang.String value = LABEL_PARSER.getValue(cell, evaluator);")
+                .contains("bean.label = value;")
+                .doesNotContain("values");
+        assertThat(diagnostics).filteredOn(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.WARNING)
+                .extracting(diagnostic -> diagnostic.getMessage(null)).containsExactly(
+                        "Field type java.util.List<java.lang.String> cannot be read from a single cell, "
+                                + "field not mapped");
+    }
+
+    @Test
+    final void testGeneratedMapperKeepsDefaults() throws Exception {
+        // Given
+        final String bean = "package sample;\n"
+                + "import com.fgsoft.exceldatareader.parser.mapper.*;\n"
+                + "@ExcelMapped public class Bean {\n"
+                + "    public int intValue = 5;\n"
+                + "    public long longValue = 6L;\n"
+                + "    public double doubleValue = 7.5;\n"
+                + "    public boolean flag = true;\n"
+                + "    public String label = \"default\";\n"
+                + "}";
+        final Map<String, Integer> columns = new HashMap<>();
+        columns.put("intValue", 0);
+        columns.put("longValue", 1);
+        columns.put("doubleValue", 2);
+        columns.put("flag", 3);
+        columns.put("label", 4);
+        try (Workbook workbook = new XSSFWorkbook()) {
+            final Sheet sheet = workbook.createSheet();
+            final Row blankRow = sheet.createRow(0);
+            for (int column = 0; column < 5; column++) {
+                blankRow.createCell(column, CellType.BLANK);
+            }
+            final Row emptyRow = sheet.createRow(1);
+            final Row valuedRow = sheet.createRow(2);
+            valuedRow.createCell(0).setCellValue(1);
+            valuedRow.createCell(1).setCellValue(2);
+            valuedRow.createCell(2).setCellValue(3.5);
+            valuedRow.createCell(3).setCellValue(false);
+            valuedRow.createCell(4).setCellValue("label");
+            final FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+            // When
+            final List<Diagnostic<? extends JavaFileObject>> diagnostics = compile(bean);
+            try (URLClassLoader loader = new URLClassLoader(new URL[]{outputDir.toUri().toURL()},
+                    getClass().getClassLoader())) {
+                @SuppressWarnings("unchecked") final RowMapper<Object> mapper = (RowMapper<Object>) loader
+                        .loadClass("sample.BeanRowMapper").getConstructor(HeaderSchema.class)
+                        .newInstance(new HeaderSchema(columns));
+                final Object blank = mapper.map(blankRow, evaluator);
+                final Object empty = mapper.map(emptyRow, evaluator);
+                final Object valued = mapper.map(valuedRow, evaluator);
+                // Then
+                assertThat(diagnostics).filteredOn(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                        .isEmpty();
+                assertThat(blank).extracting("intValue", "longValue", "doubleValue", "flag", "label")
+                        .containsExactly(5, 6L, 7.5, true, "default");
+                assertThat(empty).extracting("intValue", "longValue", "doubleValue", "flag", "label")
+                        .containsExactly(5, 6L, 7.5, true, "default");
+                assertThat(valued).extracting("intValue", "longValue", "doubleValue", "flag", "label")
+                        .containsExactly(1, 2L, 3.5, false, "label");
+            }
+        }
+    }
+
+    @Test
+    final void testHeaderWithControlCharacters() throws IOException {
+        // Given
+        final String bean = "package sample;\n"
+                + "import com.fgsoft.exceldatareader.parser.mapper.*;\n"
+                + "@ExcelMapped public class Bean {\n"
+                + "    @ExcelHeader(\"Multi\\nline\\r\\n\\ttab \\\"quoted\\\" \\\\ \\u0001\") public String label;\n"
+                + "}";
+        // When
+        final List<Diagnostic<? extends JavaFileObject>> diagnostics = compile(bean);
+        // Then
+        final String mapper = new String(Files.readAllBytes(outputDir.resolve("sample/BeanRowMapper.java")),
+                StandardCharsets.UTF_8);
+        assertThat(diagnostics).filteredOn(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR).isEmpty();
+        assertThat(mapper).contains(
+                "public static final String LABEL = \"Multi\\nline\\r\\n\\ttab \\\"quoted\\\" \\\\ \\u0001\";");
+    }
+
+    @Test
+    final void testMissingConstructor() {
+        // Given
+        final String bean = "package sample;\n"
+                + "@com.fgsoft.exceldatareader.parser.mapper.ExcelMapped public class Bean {\n"
+                + "    private Bean(int value) { }\n"
+                + "}";
+        // When
+        final List<Diagnostic<? extends JavaFileObject>> diagnostics = process(bean);
+        // Then
+        assertThat(diagnostics).extracting(diagnostic -> diagnostic.getMessage(null)).containsExactly(
+                "@ExcelMapped class must have a non private constructor without argument");
+        assertThat(outputDir.resolve("sample/BeanRowMapper.java")).doesNotExist();
+    }
+
+    private List<Diagnostic<? extends JavaFileObject>> process(final String bean) {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+                Arrays.asList("-proc:only", "-s", outputDir.toString()), null,
+                Arrays.asList(source("ExcelMapped", EXCEL_MAPPED), source("ExcelHeader", EXCEL_HEADER),
+                        source("Bean", bean)));
+        task.setProcessors(Arrays.asList(new RowMapperProcessor()));
+        task.call();
+        return diagnostics.getDiagnostics();
+    }
+
+    /**
+     * Generate the mapper of the bean and compile both against the library classes of the test class path
+     */
+    private List<Diagnostic<? extends JavaFileObject>> compile(final String bean) {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+                Arrays.asList("-classpath", System.getProperty("java.class.path"), "-d", outputDir.toString(),
+                        "-s", outputDir.toString()), null, Collections.singletonList(source("Bean", bean)));
+        task.setProcessors(Collections.singletonList(new RowMapperProcessor()));
+        task.call();
+        return diagnostics.getDiagnostics();
+    }
+
+    private static JavaFileObject source(final String name, final String content) {
+        return new SimpleJavaFileObject(URI.create("string:///" + name + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+                return content;
+            }
+        };
+    }
+}
@@ -15,10 +15,16 @@
 package com.fgsoft.exceldatareader.exception;
 
 public enum ExcelReaderErrorCode {
+    DUPLICATE_ENUM_VALUE("Value '%s' is used by several constants of enum '%s'"),
     FILE_NOT_FOUND("file '%s' not found"),
     INCORRECT_VALUE_FOR_TYPE("Incorrect value '%s' for type '%s' in cell (%d, %d) of sheet '%s'"),
     INVALID_TYPE("Unable to find a single cell value parser for type '%s'"),
+    SHEET_NOT_FOUND("sheet '%s' not found"),
+    SNAPSHOT_TOO_LARGE("Snapshot of sheet '%s' exceeds the 2 GB limit of snapshot files"),
     UNABLE_TO_OPEN_FILE("Unable to open file %s"),
+    UNABLE_TO_READ_SHEET("Unable to read sheet '%s'"),
+    UNABLE_TO_SET_PROPERTY("Unable to set property '%s' of class '%s'"),
+    UNABLE_TO_WRITE_FILE("Unable to write file %s"),
     UNEXPECTED_VALUE("Unexpected value in cell (%d, %d) of sheet '%s'"),
     UNKNOWN("Unknown error code");
 
@@ -14,10 +14,10 @@
  */
 package com.fgsoft.exceldatareader.exception;
 
+import com.fgsoft.exceldatareader.metrics.Metrics;
+import com.fgsoft.exceldatareader.metrics.ParseErrorEvent;
 import lombok.NonNull;
-import lombok.extern.slf4j.Slf4j;
 
-@Slf4j
 public class ExcelReaderException extends RuntimeException {
     public ExcelReaderException(@NonNull final ExcelReaderErrorCode code, final Object... args) {
         this(null, code, args);
@@ -29,7 +29,15 @@ public class ExcelReaderException extends RuntimeException {
         if (cause != null) {
             this.initCause(cause);
         }
-        log.error(this.getMessage());
+        Metrics.get().parseError(code);
+        if (ParseErrorEvent.isRecorded()) {
+            final ParseErrorEvent event = new ParseErrorEvent();
+            if (event.shouldCommit()) {
+                event.setCode(code.name());
+                event.setMessage(getMessage());
+                event.commit();
+            }
+        }
     }
 
 }
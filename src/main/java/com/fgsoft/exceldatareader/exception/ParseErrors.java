@@ -0,0 +1,239 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.exception;
+
+import com.fgsoft.exceldatareader.metrics.Metrics;
+import com.fgsoft.exceldatareader.metrics.ParseErrorEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.INCORRECT_VALUE_FOR_TYPE;
+import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.UNEXPECTED_VALUE;
+
+/**
+ * Buffer of the errors found while parsing values in collect-errors mode.
+ * <p>
+ * By default, parsers throw an {@link ExcelReaderException} on the first incorrect cell. Within
+ * {@link #collect(Supplier)}, parsers record errors in this buffer instead and go on, the incorrect cells being read
+ * as blank cells. Errors are stored in parallel arrays, without exception, stack trace, message formatting nor
+ * logging: messages are only formatted when requested with {@link #getMessage(int)} or {@link #getMessages()}.
+ * <p>
+ * A buffer is not thread safe: parallel parsing requires one buffer per thread.
+ */
+public final class ParseErrors {
+    private static final ThreadLocal<ParseErrors> CURRENT = new ThreadLocal<>();
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int size;
+    private int[] rows;
+    private int[] columns;
+    private String[] sheetNames;
+    private ExcelReaderErrorCode[] codes;
+    private String[] typeNames;
+    private Object[] rawValues;
+
+    public ParseErrors() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity expected number of errors. The buffer grows if needed.
+     */
+    public ParseErrors(final int capacity) {
+        final int initialCapacity = Math.max(capacity, 1);
+        this.rows = new int[initialCapacity];
+        this.columns = new int[initialCapacity];
+        this.sheetNames = new String[initialCapacity];
+        this.codes = new ExcelReaderErrorCode[initialCapacity];
+        this.typeNames = new String[initialCapacity];
+        this.rawValues = new Object[initialCapacity];
+    }
+
+    /**
+     * @return the buffer collecting the errors of the calling thread, null outside of {@link #collect(Supplier)}
+     */
+    public static ParseErrors current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Run an action in collect-errors mode: parsing errors raised by the calling thread during the action are
+     * recorded in this buffer instead of being thrown.
+     * @param action action to run
+     * @param <R> type of the result of the action
+     * @return result of the action
+     */
+    public <R> R collect(final Supplier<R> action) {
+        final ParseErrors previous = enter();
+        try {
+            return action.get();
+        } finally {
+            exit(previous);
+        }
+    }
+
+    /**
+     * Same as {@link #collect(Supplier)}, written inline by callers parsing a single value so that no action is
+     * allocated:
+     * <pre>
+     * final ParseErrors previous = errors.enter();
+     * try {
+     *     ...
+     * } finally {
+     *     ParseErrors.exit(previous);
+     * }
+     * </pre>
+     * @return the buffer previously collecting the errors of the calling thread, to give back to {@link #exit}
+     */
+    public ParseErrors enter() {
+        final ParseErrors previous = CURRENT.get();
+        CURRENT.set(this);
+        return previous;
+    }
+
+    /**
+     * Leave collect-errors mode entered with {@link #enter()}
+     * @param previous buffer returned by {@link #enter()}
+     */
+    public static void exit(final ParseErrors previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Record an error
+     * @param row index of the row of the cell
+     * @param column index of the column of the cell
+     * @param sheetName name of the worksheet of the cell
+     * @param code code of the error
+     * @param typeName name of the expected type, null if not relevant for the error
+     * @param rawValue value read from the cell, null if not relevant for the error
+     */
+    public void add(final int row, final int column, final String sheetName, final ExcelReaderErrorCode code,
+                    final String typeName, final Object rawValue) {
+        if (size == rows.length) {
+            grow();
+        }
+        rows[size] = row;
+        columns[size] = column;
+        sheetNames[size] = sheetName;
+        codes[size] = code;
+        typeNames[size] = typeName;
+        rawValues[size] = rawValue;
+        size++;
+        Metrics.get().parseError(code);
+        if (ParseErrorEvent.isRecorded()) {
+            final ParseErrorEvent event = new ParseErrorEvent();
+            if (event.shouldCommit()) {
+                event.setCode(code.name());
+                event.setMessage(getMessage(size - 1));
+                event.setSheet(sheetName);
+                event.setRow(row);
+                event.setColumn(column);
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * @return number of recorded errors
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if no error has been recorded
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getRow(final int index) {
+        return rows[checkIndex(index)];
+    }
+
+    public int getColumn(final int index) {
+        return columns[checkIndex(index)];
+    }
+
+    public String getSheetName(final int index) {
+        return sheetNames[checkIndex(index)];
+    }
+
+    public ExcelReaderErrorCode getCode(final int index) {
+        return codes[checkIndex(index)];
+    }
+
+    public String getTypeName(final int index) {
+        return typeNames[checkIndex(index)];
+    }
+
+    public Object getRawValue(final int index) {
+        return rawValues[checkIndex(index)];
+    }
+
+    /**
+     * @param index index of the error
+     * @return message of the error, as it would have been given by the exception
+     */
+    public String getMessage(final int index) {
+        checkIndex(index);
+        final String message;
+        if (codes[index] == INCORRECT_VALUE_FOR_TYPE) {
+            message = String.format(INCORRECT_VALUE_FOR_TYPE.getMessage(), rawValues[index], typeNames[index],
+                    rows[index], columns[index], sheetNames[index]);
+        } else if (codes[index] == UNEXPECTED_VALUE) {
+            message = String.format(UNEXPECTED_VALUE.getMessage(), rows[index], columns[index], sheetNames[index]);
+        } else {
+            message = codes[index].getMessage();
+        }
+        return message;
+    }
+
+    /**
+     * @return messages of all the recorded errors, in recording order
+     */
+    public List<String> getMessages() {
+        final List<String> messages = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            messages.add(getMessage(index));
+        }
+        return messages;
+    }
+
+    private int checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index;
+    }
+
+    private void grow() {
+        final int capacity = rows.length * 2;
+        rows = Arrays.copyOf(rows, capacity);
+        columns = Arrays.copyOf(columns, capacity);
+        sheetNames = Arrays.copyOf(sheetNames, capacity);
+        codes = Arrays.copyOf(codes, capacity);
+        typeNames = Arrays.copyOf(typeNames, capacity);
+        rawValues = Arrays.copyOf(rawValues, capacity);
+    }
+}
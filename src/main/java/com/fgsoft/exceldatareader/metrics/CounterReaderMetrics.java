@@ -0,0 +1,173 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.metrics;
+
+import com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode;
+import lombok.NonNull;
+import org.apache.poi.ss.usermodel.CellType;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of {@link ReaderMetrics} keeping counters and cumulated times in memory.
+ * <p>
+ * Counters are striped {@link LongAdder}, allocated upfront by cell type and error code, so that concurrent parsers do
+ * not contend on a single counter and that counting a cell does not allocate. Times are given in nanoseconds.
+ */
+public class CounterReaderMetrics implements ReaderMetrics {
+    private final LongAdder workbooksOpened = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder workbookOpenTime = new LongAdder();
+    private final LongAdder headersAnalysed = new LongAdder();
+    private final LongAdder headerAnalysisTime = new LongAdder();
+    private final LongAdder parserLookups = new LongAdder();
+    private final LongAdder[] cellsParsed = newAdders(CellType.values().length);
+    private final LongAdder formulaEvaluations = new LongAdder();
+    private final LongAdder[] parseErrors = newAdders(ExcelReaderErrorCode.values().length);
+    private final Map<String, LongAdder> sheetParseTimes = new ConcurrentHashMap<>();
+
+    @Override
+    public void workbookOpened(final long bytes, final long nanos) {
+        workbooksOpened.increment();
+        bytesRead.add(bytes);
+        workbookOpenTime.add(nanos);
+    }
+
+    @Override
+    public void headersAnalysed(final String sheetName, final long nanos) {
+        headersAnalysed.increment();
+        headerAnalysisTime.add(nanos);
+    }
+
+    @Override
+    public void parserLookedUp(final Class<?> type) {
+        parserLookups.increment();
+    }
+
+    @Override
+    public void cellParsed(final CellType type) {
+        cellsParsed[type.ordinal()].increment();
+    }
+
+    @Override
+    public void formulaEvaluated() {
+        formulaEvaluations.increment();
+    }
+
+    @Override
+    public void parseError(final ExcelReaderErrorCode code) {
+        parseErrors[code.ordinal()].increment();
+    }
+
+    @Override
+    public void sheetParsed(final String sheetName, final long nanos) {
+        sheetParseTimes.computeIfAbsent(sheetName, name -> new LongAdder()).add(nanos);
+    }
+
+    public long getWorkbooksOpened() {
+        return workbooksOpened.sum();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    public long getWorkbookOpenTime() {
+        return workbookOpenTime.sum();
+    }
+
+    public long getHeadersAnalysed() {
+        return headersAnalysed.sum();
+    }
+
+    public long getHeaderAnalysisTime() {
+        return headerAnalysisTime.sum();
+    }
+
+    public long getParserLookups() {
+        return parserLookups.sum();
+    }
+
+    /**
+     * @param type type of the cells
+     * @return number of cells of the given type parsed
+     */
+    public long getCellsParsed(@NonNull final CellType type) {
+        return cellsParsed[type.ordinal()].sum();
+    }
+
+    /**
+     * @return number of cells parsed, whatever their type
+     */
+    public long getCellsParsed() {
+        long count = 0;
+        for (final LongAdder adder : cellsParsed) {
+            count += adder.sum();
+        }
+        return count;
+    }
+
+    public long getFormulaEvaluations() {
+        return formulaEvaluations.sum();
+    }
+
+    /**
+     * @param code code of the errors
+     * @return number of errors with the given code raised
+     */
+    public long getParseErrors(@NonNull final ExcelReaderErrorCode code) {
+        return parseErrors[code.ordinal()].sum();
+    }
+
+    /**
+     * @return cumulated parsing time of each worksheet, sorted by sheet name
+     */
+    public Map<String, Long> getSheetParseTimes() {
+        final Map<String, Long> times = new TreeMap<>();
+        sheetParseTimes.forEach((sheetName, time) -> times.put(sheetName, time.sum()));
+        return times;
+    }
+
+    /**
+     * Reset all the counters to zero
+     */
+    public void reset() {
+        workbooksOpened.reset();
+        bytesRead.reset();
+        workbookOpenTime.reset();
+        headersAnalysed.reset();
+        headerAnalysisTime.reset();
+        parserLookups.reset();
+        for (final LongAdder adder : cellsParsed) {
+            adder.reset();
+        }
+        formulaEvaluations.reset();
+        for (final LongAdder adder : parseErrors) {
+            adder.reset();
+        }
+        sheetParseTimes.clear();
+    }
+
+    private static LongAdder[] newAdders(final int count) {
+        final LongAdder[] adders = new LongAdder[count];
+        for (int cnt = 0; cnt < count; cnt++) {
+            adders[cnt] = new LongAdder();
+        }
+        return adders;
+    }
+}
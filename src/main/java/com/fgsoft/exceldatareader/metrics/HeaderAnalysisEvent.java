@@ -0,0 +1,41 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.metrics;
+
+import jdk.jfr.*;
+import lombok.Setter;
+
+/**
+ * Flight recorder event of the analysis of the header rows of a worksheet, the duration of the event being the
+ * analysis time
+ */
+@Name("com.fgsoft.exceldatareader.HeaderAnalysis")
+@Label("Header Analysis")
+@Category("Excel Data Reader")
+@Description("Analysis of the header rows of a worksheet")
+@StackTrace(false)
+@Setter
+public class HeaderAnalysisEvent extends Event {
+    @Label("Sheet")
+    String sheet;
+
+    @Label("Columns")
+    @Description("Number of headers found")
+    int columns;
+
+    @Label("Merged Regions")
+    @Description("Number of merged regions of the worksheet")
+    int merges;
+}
@@ -0,0 +1,87 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.metrics;
+
+import lombok.NonNull;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * Holder of the {@link ReaderMetrics} notified by the reader pipeline.
+ * <p>
+ * The first implementation found by {@link ServiceLoader} is used, a no-op implementation otherwise. Another
+ * implementation can be registered at any time with {@link #register(ReaderMetrics)}. Timers are only read when
+ * metrics are enabled, so that the no-op implementation costs a single volatile read per notification.
+ */
+public final class Metrics {
+    private static final ReaderMetrics NOOP = new ReaderMetrics() { };
+
+    private static volatile ReaderMetrics instance = load();
+
+    /**
+     * Prevent instanciation.
+     */
+    private Metrics() {
+    }
+
+    /**
+     * @return the metrics notified by the reader pipeline
+     */
+    public static ReaderMetrics get() {
+        return instance;
+    }
+
+    /**
+     * @param metrics metrics to be notified by the reader pipeline from now on
+     */
+    public static void register(@NonNull final ReaderMetrics metrics) {
+        instance = metrics;
+    }
+
+    /**
+     * Go back to the no-op implementation
+     */
+    public static void disable() {
+        instance = NOOP;
+    }
+
+    /**
+     * @return true if metrics other than the no-op implementation are registered
+     */
+    public static boolean isEnabled() {
+        return instance != NOOP;
+    }
+
+    /**
+     * @return current time in nanoseconds if metrics are enabled, 0 otherwise
+     */
+    public static long startTimer() {
+        return instance == NOOP ? 0L : System.nanoTime();
+    }
+
+    /**
+     * @param start time given by {@link #startTimer()}
+     * @return time elapsed since start, in nanoseconds, 0 if metrics are disabled
+     */
+    public static long elapsed(final long start) {
+        return start == 0L ? 0L : System.nanoTime() - start;
+    }
+
+    private static ReaderMetrics load() {
+        final Iterator<ReaderMetrics> metrics = ServiceLoader.load(ReaderMetrics.class).iterator();
+        return metrics.hasNext() ? metrics.next() : NOOP;
+    }
+}
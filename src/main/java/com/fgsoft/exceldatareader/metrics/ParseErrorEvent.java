@@ -0,0 +1,57 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.metrics;
+
+import jdk.jfr.*;
+import lombok.Setter;
+
+/**
+ * Flight recorder event of an error raised by the reader, thrown or recorded in collect-errors mode. The event is only
+ * built when it is recorded, see {@link #isRecorded()}.
+ */
+@Name("com.fgsoft.exceldatareader.ParseError")
+@Label("Parse Error")
+@Category("Excel Data Reader")
+@Description("Error raised while reading a workbook")
+@StackTrace(false)
+@Setter
+public class ParseErrorEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(ParseErrorEvent.class);
+
+    @Label("Code")
+    String code;
+
+    @Label("Message")
+    String message;
+
+    @Label("Sheet")
+    @Description("Name of the worksheet, null if unknown")
+    String sheet;
+
+    @Label("Row")
+    @Description("Index of the row, -1 if unknown")
+    int row = -1;
+
+    @Label("Column")
+    @Description("Index of the column, -1 if unknown")
+    int column = -1;
+
+    /**
+     * @return true if the event is enabled in a running recording
+     */
+    public static boolean isRecorded() {
+        return TYPE.isEnabled();
+    }
+}
@@ -0,0 +1,87 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.metrics;
+
+import com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode;
+import org.apache.poi.ss.usermodel.CellType;
+
+/**
+ * Instrumentation SPI of the reader pipeline, notified of the workbooks opened, headers analysed, cells parsed and
+ * errors raised.
+ * <p>
+ * Every method does nothing by default. The instance in use is given by {@link Metrics#get()}: it is loaded with
+ * {@link java.util.ServiceLoader} or registered with {@link Metrics#register(ReaderMetrics)}. Cell level methods are
+ * called on the hot path of parsing, from several threads at once: implementations must be thread safe, must not
+ * block and should not allocate.
+ */
+public interface ReaderMetrics {
+    /**
+     * A workbook has been opened
+     * @param bytes size of the file, 0 if unknown
+     * @param nanos time spent opening the workbook, in nanoseconds
+     */
+    default void workbookOpened(long bytes, long nanos) {
+        // No-op by default
+    }
+
+    /**
+     * The header rows of a worksheet have been analysed
+     * @param sheetName name of the worksheet
+     * @param nanos time spent analysing the headers, in nanoseconds
+     */
+    default void headersAnalysed(String sheetName, long nanos) {
+        // No-op by default
+    }
+
+    /**
+     * A value parser has been looked up
+     * @param type type of the values to parse
+     */
+    default void parserLookedUp(Class<?> type) {
+        // No-op by default
+    }
+
+    /**
+     * A cell has been parsed
+     * @param type type of the cell, {@link CellType#FORMULA} for formula cells whatever their result
+     */
+    default void cellParsed(CellType type) {
+        // No-op by default
+    }
+
+    /**
+     * A formula has been evaluated, i.e. its result has been asked to a formula evaluator
+     */
+    default void formulaEvaluated() {
+        // No-op by default
+    }
+
+    /**
+     * A parsing error has been raised, thrown or recorded in collect-errors mode
+     * @param code code of the error
+     */
+    default void parseError(ExcelReaderErrorCode code) {
+        // No-op by default
+    }
+
+    /**
+     * A worksheet has been parsed
+     * @param sheetName name of the worksheet
+     * @param nanos time spent parsing the worksheet, in nanoseconds
+     */
+    default void sheetParsed(String sheetName, long nanos) {
+        // No-op by default
+    }
+}
@@ -0,0 +1,77 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.metrics;
+
+import jdk.jfr.*;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Flight recorder event of the parsing of a worksheet, the duration of the event being the parsing time
+ */
+@Name("com.fgsoft.exceldatareader.SheetParse")
+@Label("Sheet Parse")
+@Category("Excel Data Reader")
+@Description("Parsing of the data rows of a worksheet")
+@StackTrace(false)
+public class SheetParseEvent extends Event {
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    @Label("Sheet")
+    String sheet;
+
+    @Label("Rows")
+    @Description("Number of objects read")
+    int rows;
+
+    @Label("Cells")
+    @Description("Number of cells of the data rows, 0 if unknown")
+    long cells;
+
+    @Label("Rows per Second")
+    double rowsPerSecond;
+
+    private transient long startNanos;
+
+    /**
+     * @return new event, begun
+     */
+    public static SheetParseEvent start() {
+        final SheetParseEvent event = new SheetParseEvent();
+        if (event.isEnabled()) {
+            event.startNanos = System.nanoTime();
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End the event and commit it if it is recorded. The cells are only counted in that case.
+     * @param sheetName name of the worksheet
+     * @param rowCount number of objects read
+     * @param cellCount counter of the cells of the data rows
+     */
+    public void complete(final String sheetName, final int rowCount, final LongSupplier cellCount) {
+        end();
+        if (shouldCommit()) {
+            final long nanos = System.nanoTime() - startNanos;
+            this.sheet = sheetName;
+            this.rows = rowCount;
+            this.cells = cellCount.getAsLong();
+            this.rowsPerSecond = nanos > 0 ? rowCount * NANOS_PER_SECOND / nanos : 0.0;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.metrics;
+
+import jdk.jfr.*;
+import lombok.Setter;
+
+/**
+ * Flight recorder event of the opening of a workbook, the duration of the event being the opening time
+ */
+@Name("com.fgsoft.exceldatareader.WorkbookOpen")
+@Label("Workbook Open")
+@Category("Excel Data Reader")
+@Description("Opening of a workbook")
+@StackTrace(false)
+@Setter
+public class WorkbookOpenEvent extends Event {
+    @Label("Source")
+    @Description("File, path or channel the workbook is read from")
+    String source;
+
+    @Label("Size")
+    @Description("Size of the file, 0 if unknown")
+    @DataAmount
+    long size;
+
+    @Label("Format")
+    @Description("Implementation of the workbook, e.g. XSSFWorkbook")
+    String format;
+}
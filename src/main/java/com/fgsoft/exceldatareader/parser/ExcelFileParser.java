@@ -14,13 +14,19 @@
  */
 package com.fgsoft.exceldatareader.parser;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * Common interface for all parsers
+ * Common interface for all parsers.
+ * <p>
+ * Parsers can also be iterated, to read all the objects of the worksheet in sheet order. By default, objects are read
+ * one at a time by test name. Parsers reading rows directly override {@link #iterator()} and {@link #spliterator()}.
  * @param <T> type of objet to be parsed
  */
-public interface ExcelFileParser<T> {
+public interface ExcelFileParser<T> extends Iterable<T> {
     /**
      * Get an object value
      * @param testName reference name as given in the first column of the worksheet
@@ -32,4 +38,30 @@ public interface ExcelFileParser<T> {
      * Get all the test names of the worksheet
      */
     List<String> getAllTestNames();
+
+    /**
+     * Get an iterator reading the objects lazily, one for each test name, in the order of the test names
+     */
+    @Override
+    default Iterator<T> iterator() {
+        final Iterator<String> testNames = getAllTestNames().iterator();
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return testNames.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return getValue(testNames.next());
+            }
+        };
+    }
+
+    /**
+     * Get a sequential stream reading the objects lazily
+     */
+    default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
 }
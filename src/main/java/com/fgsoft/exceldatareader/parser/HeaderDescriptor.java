@@ -14,6 +14,7 @@
  */
 package com.fgsoft.exceldatareader.parser;
 
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
@@ -33,6 +34,7 @@ import lombok.RequiredArgsConstructor;
  * </ul>
  */
 @Getter
+@EqualsAndHashCode
 @RequiredArgsConstructor
 public class HeaderDescriptor {
     private final int firstTitleRow; // Index of the fist title row
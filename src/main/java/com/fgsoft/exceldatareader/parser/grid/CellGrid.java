@@ -0,0 +1,112 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.grid;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+
+/**
+ * Read-only grid of typed cell values copied from the data rows of a worksheet, e.g. a snapshot of a worksheet.
+ * <p>
+ * Formula cells are copied with their cached result, so that a grid never contains formulas. Rows and cells of a grid
+ * are given as POI rows and cells by {@link #getRow(int)}, so that value parsers and row mappers read a grid as they
+ * read a worksheet. These cells have no style and cannot be modified; their worksheet is a read-only view that only
+ * gives the name and the rows of the grid.
+ * <p>
+ * Implementations must support concurrent reads.
+ */
+public interface CellGrid {
+    /**
+     * @return name of the worksheet the grid was copied from
+     */
+    String getSheetName();
+
+    /**
+     * @return true if the dates of the workbook are based on 1904
+     */
+    boolean isDate1904();
+
+    /**
+     * @return index of the first row of the grid
+     */
+    int getFirstRow();
+
+    /**
+     * @return index of the last row of the grid, {@link #getFirstRow()} minus one if the grid is empty
+     */
+    int getLastRow();
+
+    /**
+     * @return number of columns of the grid, i.e. index of the last column plus one
+     */
+    int getColumnCount();
+
+    /**
+     * @param rowIndex index of the row
+     * @return true if the worksheet contains the row
+     */
+    boolean isRowPresent(int rowIndex);
+
+    /**
+     * @param rowIndex index of the row
+     * @param columnIndex index of the column
+     * @return type of the cell, never {@link CellType#FORMULA}, null if the worksheet does not contain the cell
+     */
+    CellType getCellType(int rowIndex, int columnIndex);
+
+    /**
+     * @param rowIndex index of the row
+     * @param columnIndex index of the column
+     * @return true if the cell is numeric and was formatted as a date in the workbook
+     */
+    boolean isDateFormatted(int rowIndex, int columnIndex);
+
+    /**
+     * @param rowIndex index of the row
+     * @param columnIndex index of the column of a numeric cell
+     * @return value of the cell
+     */
+    double getNumericValue(int rowIndex, int columnIndex);
+
+    /**
+     * @param rowIndex index of the row
+     * @param columnIndex index of the column of a string cell
+     * @return value of the cell
+     */
+    String getStringValue(int rowIndex, int columnIndex);
+
+    /**
+     * @param rowIndex index of the row
+     * @param columnIndex index of the column of a boolean cell
+     * @return value of the cell
+     */
+    boolean getBooleanValue(int rowIndex, int columnIndex);
+
+    /**
+     * @param rowIndex index of the row
+     * @param columnIndex index of the column of an error cell
+     * @return error code of the cell
+     */
+    byte getErrorValue(int rowIndex, int columnIndex);
+
+    /**
+     * @param rowIndex index of the row
+     * @return read-only view of the row, null if the worksheet does not contain the row
+     */
+    default Row getRow(final int rowIndex) {
+        return rowIndex >= getFirstRow() && rowIndex <= getLastRow() && isRowPresent(rowIndex)
+                ? new GridRow(this, rowIndex) : null;
+    }
+}
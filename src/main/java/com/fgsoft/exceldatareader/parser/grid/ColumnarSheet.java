@@ -0,0 +1,416 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.grid;
+
+import com.fgsoft.exceldatareader.parser.HeaderDescriptor;
+import com.fgsoft.exceldatareader.parser.util.DateFormatCache;
+import com.fgsoft.exceldatareader.parser.util.HeaderSchema;
+import com.fgsoft.exceldatareader.parser.util.TestNameIndex;
+import com.fgsoft.exceldatareader.parser.util.WorksheetAnalyser;
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.poi.ss.formula.eval.NotImplementedException;
+import org.apache.poi.ss.usermodel.*;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory copy of the data rows of a worksheet, stored by column in primitive arrays.
+ * <p>
+ * Only the columns of the headers and the test name column are loaded. Each column keeps a bitmap of its cells having
+ * a value, and its values in arrays allocated for the types actually found in the column: numbers in a
+ * {@code double[]}, dates flagged in a bitmap, booleans in a bitmap, strings as indexes in a dictionary of the distinct
+ * strings of the column, errors in a {@code byte[]}. The type of the cells is kept once for a column with a single
+ * type, by cell otherwise. A numeric cell thus takes about 8 bytes instead of several hundreds as a POI cell, and
+ * scanning a column reads contiguous memory, see {@link #readColumn(int, double[], BitSet)}.
+ * <p>
+ * Formula cells are stored with their result, given by the formula evaluator used to load the worksheet. Formulas the
+ * evaluator does not implement are stored as {@link FormulaError#FUNCTION_NOT_IMPLEMENTED} errors. A columnar sheet
+ * is immutable once loaded and can be shared by any number of threads.
+ */
+public final class ColumnarSheet implements CellGrid {
+    private static final byte NO_CELL = 0;
+    private static final byte BLANK = 1;
+    private static final byte NUMERIC = 2;
+    private static final byte STRING = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte ERROR = 5;
+    private static final byte MIXED = -1;
+    private static final CellType[] CELL_TYPES = {null, CellType.BLANK, CellType.NUMERIC, CellType.STRING,
+            CellType.BOOLEAN, CellType.ERROR};
+    private static final int TEST_NAME_COLUMN = 0;
+
+    @Getter
+    private final String sheetName;
+    @Getter
+    private final boolean date1904;
+    @Getter
+    private final HeaderSchema headerSchema;
+    @Getter
+    private final TestNameIndex testNameIndex;
+    private final int firstRow;
+    private final int rowCount;
+    private final long[] rowPresence;
+    private final Column[] columns; // Loaded columns by column index, null for columns not loaded
+
+    private ColumnarSheet(final Sheet sheet, final HeaderDescriptor headerDescriptor, final HeaderSchema headerSchema,
+                          final TestNameIndex testNameIndex, final FormulaEvaluator evaluator) {
+        final Workbook workbook = sheet.getWorkbook();
+        this.sheetName = sheet.getSheetName();
+        this.date1904 = workbook instanceof Date1904Support && ((Date1904Support) workbook).isDate1904();
+        this.headerSchema = headerSchema;
+        this.testNameIndex = testNameIndex;
+        this.firstRow = headerDescriptor.getLastHeaderRow() + 1;
+        this.rowCount = Math.max(sheet.getLastRowNum() + 1 - firstRow, 0);
+        this.rowPresence = new long[words(rowCount)];
+        int columnCount = TEST_NAME_COLUMN + 1;
+        for (int position = 0; position < headerSchema.size(); position++) {
+            columnCount = Math.max(columnCount, headerSchema.getColumn(position) + 1);
+        }
+        final DateFormatCache dateFormatCache = DateFormatCache.forSheet(sheet);
+        final ColumnBuilder[] builders = new ColumnBuilder[columnCount];
+        builders[TEST_NAME_COLUMN] = new ColumnBuilder(rowCount, dateFormatCache);
+        for (int position = 0; position < headerSchema.size(); position++) {
+            builders[headerSchema.getColumn(position)] = new ColumnBuilder(rowCount, dateFormatCache);
+        }
+        for (int cnt = 0; cnt < rowCount; cnt++) {
+            final Row row = sheet.getRow(firstRow + cnt);
+            if (row != null) {
+                setBit(rowPresence, cnt);
+                for (int column = 0; column < columnCount; column++) {
+                    final Cell cell = builders[column] == null ? null : row.getCell(column);
+                    if (cell != null) {
+                        builders[column].add(cnt, cell, evaluator);
+                    }
+                }
+            }
+        }
+        this.columns = new Column[columnCount];
+        for (int column = 0; column < columnCount; column++) {
+            columns[column] = builders[column] == null ? null : builders[column].build();
+        }
+    }
+
+    /**
+     * Load a worksheet, evaluating formulas with a new formula evaluator of its workbook
+     * @param sheet worksheet to load
+     * @param headerDescriptor description of the header rows of the worksheet
+     * @return loaded worksheet
+     */
+    public static ColumnarSheet load(@NonNull final Sheet sheet, @NonNull final HeaderDescriptor headerDescriptor) {
+        return load(sheet, headerDescriptor,
+                new WorksheetAnalyser(sheet, headerDescriptor).getHeaderSchema(),
+                TestNameIndex.forSheet(sheet, headerDescriptor),
+                sheet.getWorkbook().getCreationHelper().createFormulaEvaluator());
+    }
+
+    /**
+     * Load the columns of the headers of a worksheet
+     * @param sheet worksheet to load
+     * @param headerDescriptor description of the header rows of the worksheet
+     * @param headerSchema schema of the headers of the worksheet, giving the columns to load
+     * @param testNameIndex index of the test names of the worksheet
+     * @param evaluator formula evaluator giving the results of formula cells
+     * @return loaded worksheet
+     */
+    public static ColumnarSheet load(@NonNull final Sheet sheet, @NonNull final HeaderDescriptor headerDescriptor,
+                                     @NonNull final HeaderSchema headerSchema,
+                                     @NonNull final TestNameIndex testNameIndex,
+                                     @NonNull final FormulaEvaluator evaluator) {
+        return new ColumnarSheet(sheet, headerDescriptor, headerSchema, testNameIndex, evaluator);
+    }
+
+    @Override
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    @Override
+    public int getLastRow() {
+        return firstRow + rowCount - 1;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public boolean isRowPresent(final int rowIndex) {
+        final int position = rowIndex - firstRow;
+        return position >= 0 && position < rowCount && getBit(rowPresence, position);
+    }
+
+    @Override
+    public CellType getCellType(final int rowIndex, final int columnIndex) {
+        final Column column = getColumn(columnIndex);
+        final int position = rowIndex - firstRow;
+        return column == null || position < 0 || position >= rowCount ? null : CELL_TYPES[column.getType(position)];
+    }
+
+    @Override
+    public boolean isDateFormatted(final int rowIndex, final int columnIndex) {
+        final Column column = getColumn(columnIndex);
+        return column != null && column.dates != null && getBit(column.dates, rowIndex - firstRow);
+    }
+
+    @Override
+    public double getNumericValue(final int rowIndex, final int columnIndex) {
+        return columns[columnIndex].numbers[rowIndex - firstRow];
+    }
+
+    @Override
+    public String getStringValue(final int rowIndex, final int columnIndex) {
+        final Column column = columns[columnIndex];
+        return column.dictionary[column.stringIndexes[rowIndex - firstRow]];
+    }
+
+    @Override
+    public boolean getBooleanValue(final int rowIndex, final int columnIndex) {
+        return getBit(columns[columnIndex].booleans, rowIndex - firstRow);
+    }
+
+    @Override
+    public byte getErrorValue(final int rowIndex, final int columnIndex) {
+        return columns[columnIndex].errors[rowIndex - firstRow];
+    }
+
+    /**
+     * Read the numeric values of a column, from the first row of the sheet, the counterpart of
+     * {@link com.fgsoft.exceldatareader.parser.value.DoubleCellParser#readColumn} for columnar sheets. Only numeric
+     * cells are read: the scan does not decode any other cell.
+     * @param columnIndex index of the column to read
+     * @param values array receiving the values, one per row from the first row, {@link Double#NaN} for cells which
+     *               are not numeric
+     * @param presence bitmap receiving, for each row from the first row, whether the cell is numeric
+     */
+    public void readColumn(final int columnIndex, @NonNull final double[] values, @NonNull final BitSet presence) {
+        final Column column = getColumn(columnIndex);
+        final int count = Math.min(values.length, rowCount);
+        Arrays.fill(values, Double.NaN);
+        presence.clear(0, values.length);
+        if (column != null && column.numbers != null) {
+            if (column.type == NUMERIC) {
+                System.arraycopy(column.numbers, 0, values, 0, count);
+                for (int position = 0; position < count; position++) {
+                    if (getBit(column.values, position)) {
+                        presence.set(position);
+                    } else {
+                        values[position] = Double.NaN;
+                    }
+                }
+            } else {
+                for (int position = 0; position < count; position++) {
+                    if (column.getType(position) == NUMERIC) {
+                        values[position] = column.numbers[position];
+                        presence.set(position);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of rows of the sheet, from the first row
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    private Column getColumn(final int columnIndex) {
+        return columnIndex >= 0 && columnIndex < columns.length ? columns[columnIndex] : null;
+    }
+
+    private static int words(final int bitCount) {
+        return (bitCount + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private static void setBit(final long[] bits, final int position) {
+        bits[position >>> 6] |= 1L << position;
+    }
+
+    private static boolean getBit(final long[] bits, final int position) {
+        return position >= 0 && (position >>> 6) < bits.length && (bits[position >>> 6] & (1L << position)) != 0;
+    }
+
+    /**
+     * Column of a columnar sheet. Arrays of the types not found in the column are null.
+     */
+    private static final class Column {
+        private final byte type; // Type of all the cells having a value, or MIXED
+        private final byte[] types; // Types by row, for mixed columns only
+        private final long[] values; // Cells having a value, i.e. existing and not blank
+        private final long[] blanks; // Blank cells
+        private final double[] numbers;
+        private final long[] dates; // Numeric cells formatted as dates
+        private final long[] booleans;
+        private final int[] stringIndexes; // Indexes of the strings in the dictionary
+        private final String[] dictionary; // Distinct strings of the column
+        private final byte[] errors;
+
+        private Column(final ColumnBuilder builder) {
+            this.type = builder.type;
+            this.types = builder.type == MIXED ? builder.types : null;
+            this.values = builder.values;
+            this.blanks = builder.blanks;
+            this.numbers = builder.numbers;
+            this.dates = builder.dates;
+            this.booleans = builder.booleans;
+            this.stringIndexes = builder.stringIndexes;
+            this.dictionary = builder.dictionary == null ? null : new String[builder.dictionary.size()];
+            if (dictionary != null) {
+                builder.dictionary.forEach((value, index) -> dictionary[index] = value);
+            }
+            this.errors = builder.errors;
+        }
+
+        private byte getType(final int position) {
+            final byte cellType;
+            if (getBit(values, position)) {
+                cellType = type == MIXED ? types[position] : type;
+            } else {
+                cellType = blanks != null && getBit(blanks, position) ? BLANK : NO_CELL;
+            }
+            return cellType;
+        }
+    }
+
+    /**
+     * Builder of a column, allocating the arrays of each type on the first cell of the type
+     */
+    private static final class ColumnBuilder {
+        private final int rowCount;
+        private final DateFormatCache dateFormatCache;
+        private final byte[] types;
+        private final long[] values;
+        private byte type = NO_CELL;
+        private long[] blanks;
+        private double[] numbers;
+        private long[] dates;
+        private long[] booleans;
+        private int[] stringIndexes;
+        private Map<String, Integer> dictionary;
+        private byte[] errors;
+
+        private ColumnBuilder(final int rowCount, final DateFormatCache dateFormatCache) {
+            this.rowCount = rowCount;
+            this.dateFormatCache = dateFormatCache;
+            this.types = new byte[rowCount];
+            this.values = new long[words(rowCount)];
+        }
+
+        private void add(final int position, final Cell cell, final FormulaEvaluator evaluator) {
+            final CellType cellType;
+            double number = 0;
+            String string = null;
+            boolean bool = false;
+            byte error = 0;
+            if (cell.getCellType() == CellType.FORMULA) {
+                final CellValue value = evaluate(cell, evaluator);
+                cellType = value == null ? CellType.BLANK : value.getCellType();
+                if (value != null) {
+                    number = cellType == CellType.NUMERIC ? value.getNumberValue() : 0;
+                    string = value.getStringValue();
+                    bool = cellType == CellType.BOOLEAN && value.getBooleanValue();
+                    error = value.getErrorValue();
+                }
+            } else {
+                cellType = cell.getCellType();
+                if (cellType == CellType.NUMERIC) {
+                    number = cell.getNumericCellValue();
+                } else if (cellType == CellType.STRING) {
+                    string = cell.getStringCellValue();
+                } else if (cellType == CellType.BOOLEAN) {
+                    bool = cell.getBooleanCellValue();
+                } else if (cellType == CellType.ERROR) {
+                    error = cell.getErrorCellValue();
+                }
+            }
+            switch (cellType) {
+                case NUMERIC:
+                    if (numbers == null) {
+                        numbers = new double[rowCount];
+                    }
+                    numbers[position] = number;
+                    if (dateFormatCache.isDateFormatted(cell)) {
+                        if (dates == null) {
+                            dates = new long[words(rowCount)];
+                        }
+                        setBit(dates, position);
+                    }
+                    setValueType(position, NUMERIC);
+                    break;
+                case STRING:
+                    if (stringIndexes == null) {
+                        stringIndexes = new int[rowCount];
+                        dictionary = new HashMap<>();
+                    }
+                    stringIndexes[position] = dictionary.computeIfAbsent(string, value -> dictionary.size());
+                    setValueType(position, STRING);
+                    break;
+                case BOOLEAN:
+                    if (booleans == null) {
+                        booleans = new long[words(rowCount)];
+                    }
+                    if (bool) {
+                        setBit(booleans, position);
+                    }
+                    setValueType(position, BOOLEAN);
+                    break;
+                case ERROR:
+                    if (errors == null) {
+                        errors = new byte[rowCount];
+                    }
+                    errors[position] = error;
+                    setValueType(position, ERROR);
+                    break;
+                default:
+                    if (blanks == null) {
+                        blanks = new long[words(rowCount)];
+                    }
+                    setBit(blanks, position);
+            }
+        }
+
+        /**
+         * Formulas using a function POI does not implement are stored as errors, so that only the cells using them fail
+         * when read rather than the whole worksheet
+         */
+        private static CellValue evaluate(final Cell cell, final FormulaEvaluator evaluator) {
+            try {
+                return evaluator.evaluate(cell);
+            } catch (NotImplementedException e) {
+                return CellValue.getError(FormulaError.FUNCTION_NOT_IMPLEMENTED.getCode());
+            }
+        }
+
+        private void setValueType(final int position, final byte valueType) {
+            setBit(values, position);
+            types[position] = valueType;
+            if (type == NO_CELL) {
+                type = valueType;
+            } else if (type != valueType) {
+                type = MIXED;
+            }
+        }
+
+        private Column build() {
+            return new Column(this);
+        }
+    }
+}
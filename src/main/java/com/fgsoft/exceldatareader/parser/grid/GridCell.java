@@ -0,0 +1,269 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.grid;
+
+import com.fgsoft.exceldatareader.parser.util.DetachedCell;
+import lombok.RequiredArgsConstructor;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellAddress;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+
+import java.time.LocalDateTime;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Read-only view of a cell of a {@link CellGrid}. Like POI cells, getters throw an {@link IllegalStateException} when
+ * the value of the cell is not of the requested type, blank cells reading as 0, false or an empty string.
+ */
+@RequiredArgsConstructor
+final class GridCell implements DetachedCell {
+    private static final String READ_ONLY = "Cells of a cell grid are read-only";
+
+    private final CellGrid grid;
+    private final Row row;
+    private final int columnIndex;
+
+    @Override
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    @Override
+    public int getRowIndex() {
+        return row.getRowNum();
+    }
+
+    @Override
+    public Sheet getSheet() {
+        return row.getSheet();
+    }
+
+    @Override
+    public Row getRow() {
+        return row;
+    }
+
+    @Override
+    public CellType getCellType() {
+        final CellType type = columnIndex >= 0 && columnIndex < grid.getColumnCount()
+                ? grid.getCellType(row.getRowNum(), columnIndex) : null;
+        return type == null ? CellType.BLANK : type;
+    }
+
+    @Override
+    public CellType getCachedFormulaResultType() {
+        throw new IllegalStateException("Only formula cells have cached results");
+    }
+
+    @Override
+    public String getCellFormula() {
+        throw new IllegalStateException("Cells of a cell grid have no formula");
+    }
+
+    @Override
+    public boolean isDateFormatted() {
+        return getCellType() == CellType.NUMERIC && grid.isDateFormatted(row.getRowNum(), columnIndex);
+    }
+
+    @Override
+    public double getNumericCellValue() {
+        final CellType type = getCellType();
+        if (type == CellType.BLANK) {
+            return 0.0;
+        }
+        checkType(type, CellType.NUMERIC);
+        return grid.getNumericValue(row.getRowNum(), columnIndex);
+    }
+
+    @Override
+    public Date getDateCellValue() {
+        return getCellType() == CellType.BLANK ? null : DateUtil.getJavaDate(getNumericCellValue(), grid.isDate1904());
+    }
+
+    @Override
+    public LocalDateTime getLocalDateTimeCellValue() {
+        return getCellType() == CellType.BLANK ? null
+                : DateUtil.getLocalDateTime(getNumericCellValue(), grid.isDate1904());
+    }
+
+    @Override
+    public String getStringCellValue() {
+        final CellType type = getCellType();
+        if (type == CellType.BLANK) {
+            return "";
+        }
+        checkType(type, CellType.STRING);
+        return grid.getStringValue(row.getRowNum(), columnIndex);
+    }
+
+    @Override
+    public RichTextString getRichStringCellValue() {
+        return new XSSFRichTextString(getStringCellValue());
+    }
+
+    @Override
+    public boolean getBooleanCellValue() {
+        final CellType type = getCellType();
+        if (type == CellType.BLANK) {
+            return false;
+        }
+        checkType(type, CellType.BOOLEAN);
+        return grid.getBooleanValue(row.getRowNum(), columnIndex);
+    }
+
+    @Override
+    public byte getErrorCellValue() {
+        final CellType type = getCellType();
+        if (type == CellType.BLANK) {
+            return 0;
+        }
+        checkType(type, CellType.ERROR);
+        return grid.getErrorValue(row.getRowNum(), columnIndex);
+    }
+
+    @Override
+    public CellStyle getCellStyle() {
+        return null;
+    }
+
+    @Override
+    public CellAddress getAddress() {
+        return new CellAddress(row.getRowNum(), columnIndex);
+    }
+
+    @Override
+    public Comment getCellComment() {
+        return null;
+    }
+
+    @Override
+    public Hyperlink getHyperlink() {
+        return null;
+    }
+
+    @Override
+    public CellRangeAddress getArrayFormulaRange() {
+        throw new IllegalStateException("Cells of a cell grid are not part of an array formula");
+    }
+
+    @Override
+    public boolean isPartOfArrayFormulaGroup() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return getAddress().formatAsString();
+    }
+
+    @Override
+    @Deprecated
+    public void setCellType(final CellType cellType) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setBlank() {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setCellValue(final double value) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setCellValue(final Date value) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setCellValue(final LocalDateTime value) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setCellValue(final Calendar value) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setCellValue(final RichTextString value) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setCellValue(final String value) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setCellFormula(final String formula) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void removeFormula() {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setCellValue(final boolean value) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setCellErrorValue(final byte value) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setCellStyle(final CellStyle style) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setAsActiveCell() {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setCellComment(final Comment comment) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void removeCellComment() {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setHyperlink(final Hyperlink link) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void removeHyperlink() {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    private static void checkType(final CellType actual, final CellType expected) {
+        if (actual != expected) {
+            throw new IllegalStateException("Cannot get a " + expected + " value from a " + actual + " cell");
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.grid;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.poi.ss.usermodel.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Read-only view of a row of a {@link CellGrid}. Cells are built on each call to {@link #getCell(int)}.
+ */
+@RequiredArgsConstructor
+final class GridRow implements Row {
+    private static final String READ_ONLY = "Rows of a cell grid are read-only";
+
+    private final CellGrid grid;
+    private final int rowIndex;
+
+    @Override
+    public int getRowNum() {
+        return rowIndex;
+    }
+
+    @Override
+    public Cell getCell(final int cellnum) {
+        return cellnum >= 0 && cellnum < grid.getColumnCount() && grid.getCellType(rowIndex, cellnum) != null
+                ? new GridCell(grid, this, cellnum) : null;
+    }
+
+    @Override
+    public Cell getCell(final int cellnum, final MissingCellPolicy policy) {
+        final Cell cell;
+        if (policy == MissingCellPolicy.CREATE_NULL_AS_BLANK) {
+            cell = new GridCell(grid, this, cellnum); // Missing cells read as blank cells
+        } else {
+            final Cell existing = getCell(cellnum);
+            cell = policy == MissingCellPolicy.RETURN_BLANK_AS_NULL && existing != null
+                    && existing.getCellType() == CellType.BLANK ? null : existing;
+        }
+        return cell;
+    }
+
+    @Override
+    public short getFirstCellNum() {
+        for (int column = 0; column < grid.getColumnCount(); column++) {
+            if (grid.getCellType(rowIndex, column) != null) {
+                return (short) column;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public short getLastCellNum() {
+        for (int column = grid.getColumnCount() - 1; column >= 0; column--) {
+            if (grid.getCellType(rowIndex, column) != null) {
+                return (short) (column + 1);
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int getPhysicalNumberOfCells() {
+        int count = 0;
+        for (int column = 0; column < grid.getColumnCount(); column++) {
+            if (grid.getCellType(rowIndex, column) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Iterator<Cell> cellIterator() {
+        final List<Cell> cells = new ArrayList<>();
+        for (int column = 0; column < grid.getColumnCount(); column++) {
+            final Cell cell = getCell(column);
+            if (cell != null) {
+                cells.add(cell);
+            }
+        }
+        return cells.iterator();
+    }
+
+    @Override
+    public Iterator<Cell> iterator() {
+        return cellIterator();
+    }
+
+    @Override
+    public Sheet getSheet() {
+        return new GridSheet(grid);
+    }
+
+    @Override
+    public short getHeight() {
+        return -1;
+    }
+
+    @Override
+    public float getHeightInPoints() {
+        return -1;
+    }
+
+    @Override
+    public boolean getZeroHeight() {
+        return false;
+    }
+
+    @Override
+    public boolean isFormatted() {
+        return false;
+    }
+
+    @Override
+    public CellStyle getRowStyle() {
+        return null;
+    }
+
+    @Override
+    public int getOutlineLevel() {
+        return 0;
+    }
+
+    @Override
+    public Cell createCell(final int column) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public Cell createCell(final int column, final CellType type) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void removeCell(final Cell cell) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setRowNum(final int rowNum) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setHeight(final short height) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setZeroHeight(final boolean zHeight) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setHeightInPoints(final float height) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setRowStyle(final CellStyle style) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void shiftCellsRight(final int firstShiftColumnIndex, final int lastShiftColumnIndex, final int step) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void shiftCellsLeft(final int firstShiftColumnIndex, final int lastShiftColumnIndex, final int step) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+}
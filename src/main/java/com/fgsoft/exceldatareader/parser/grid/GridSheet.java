@@ -0,0 +1,653 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.grid;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellAddress;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.PaneInformation;
+
+import java.util.*;
+
+/**
+ * Read-only view of the worksheet of a {@link CellGrid}, so that the rows and cells of the grid tell which worksheet
+ * they come from. Only the name and the rows of the worksheet are available. This sheet is not attached to any
+ * {@link Workbook} and has no merged region. Two views of the same grid are equal.
+ */
+@RequiredArgsConstructor
+@EqualsAndHashCode
+final class GridSheet implements Sheet {
+    private static final short DEFAULT_ROW_HEIGHT = 300;
+
+    private final CellGrid grid;
+
+    @Override
+    public String getSheetName() {
+        return grid.getSheetName();
+    }
+
+    /**
+     * @param rownum index of the row
+     * @return the row if the grid contains it, null otherwise
+     */
+    @Override
+    public Row getRow(final int rownum) {
+        return grid.getRow(rownum);
+    }
+
+    /**
+     * @return iterator over the rows present in the grid
+     */
+    @Override
+    public Iterator<Row> rowIterator() {
+        final List<Row> rows = new ArrayList<>();
+        for (int rowIndex = grid.getFirstRow(); rowIndex <= grid.getLastRow(); rowIndex++) {
+            final Row row = getRow(rowIndex);
+            if (row != null) {
+                rows.add(row);
+            }
+        }
+        return rows.iterator();
+    }
+
+    @Override
+    public int getPhysicalNumberOfRows() {
+        int count = 0;
+        for (int rowIndex = grid.getFirstRow(); rowIndex <= grid.getLastRow(); rowIndex++) {
+            if (grid.isRowPresent(rowIndex)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int getFirstRowNum() {
+        return grid.getFirstRow();
+    }
+
+    @Override
+    public int getLastRowNum() {
+        return grid.getLastRow();
+    }
+
+    @Override
+    public List<CellRangeAddress> getMergedRegions() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public int getNumMergedRegions() {
+        return 0;
+    }
+
+    @Override
+    public CellRangeAddress getMergedRegion(final int index) {
+        throw new IndexOutOfBoundsException("No merged region in a cell grid");
+    }
+
+    @Override
+    public Workbook getWorkbook() {
+        return null;
+    }
+
+    @Override
+    public short getDefaultRowHeight() {
+        return DEFAULT_ROW_HEIGHT;
+    }
+
+    @Override
+    public float getDefaultRowHeightInPoints() {
+        return DEFAULT_ROW_HEIGHT / 20f;
+    }
+
+    @Override
+    public Row createRow(final int rownum) {
+        throw unsupported();
+    }
+
+    @Override
+    public void removeRow(final Row row) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setColumnHidden(final int columnIndex, final boolean hidden) {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isColumnHidden(final int columnIndex) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setRightToLeft(final boolean value) {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isRightToLeft() {
+        throw unsupported();
+    }
+
+    @Override
+    public void setColumnWidth(final int columnIndex, final int width) {
+        throw unsupported();
+    }
+
+    @Override
+    public int getColumnWidth(final int columnIndex) {
+        throw unsupported();
+    }
+
+    @Override
+    public float getColumnWidthInPixels(final int columnIndex) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setDefaultColumnWidth(final int width) {
+        throw unsupported();
+    }
+
+    @Override
+    public int getDefaultColumnWidth() {
+        throw unsupported();
+    }
+
+    @Override
+    public void setDefaultRowHeight(final short height) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setDefaultRowHeightInPoints(final float height) {
+        throw unsupported();
+    }
+
+    @Override
+    public CellStyle getColumnStyle(final int column) {
+        throw unsupported();
+    }
+
+    @Override
+    public int addMergedRegion(final CellRangeAddress region) {
+        throw unsupported();
+    }
+
+    @Override
+    public int addMergedRegionUnsafe(final CellRangeAddress region) {
+        throw unsupported();
+    }
+
+    @Override
+    public void validateMergedRegions() {
+        throw unsupported();
+    }
+
+    @Override
+    public void setVerticallyCenter(final boolean value) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setHorizontallyCenter(final boolean value) {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean getHorizontallyCenter() {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean getVerticallyCenter() {
+        throw unsupported();
+    }
+
+    @Override
+    public void removeMergedRegion(final int index) {
+        throw unsupported();
+    }
+
+    @Override
+    public void removeMergedRegions(final Collection<Integer> indices) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setForceFormulaRecalculation(final boolean value) {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean getForceFormulaRecalculation() {
+        throw unsupported();
+    }
+
+    @Override
+    public void setAutobreaks(final boolean value) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setDisplayGuts(final boolean value) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setDisplayZeros(final boolean value) {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isDisplayZeros() {
+        throw unsupported();
+    }
+
+    @Override
+    public void setFitToPage(final boolean value) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setRowSumsBelow(final boolean value) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setRowSumsRight(final boolean value) {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean getAutobreaks() {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean getDisplayGuts() {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean getFitToPage() {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean getRowSumsBelow() {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean getRowSumsRight() {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isPrintGridlines() {
+        throw unsupported();
+    }
+
+    @Override
+    public void setPrintGridlines(final boolean show) {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isPrintRowAndColumnHeadings() {
+        throw unsupported();
+    }
+
+    @Override
+    public void setPrintRowAndColumnHeadings(final boolean show) {
+        throw unsupported();
+    }
+
+    @Override
+    public PrintSetup getPrintSetup() {
+        throw unsupported();
+    }
+
+    @Override
+    public Header getHeader() {
+        throw unsupported();
+    }
+
+    @Override
+    public Footer getFooter() {
+        throw unsupported();
+    }
+
+    @Override
+    public void setSelected(final boolean value) {
+        throw unsupported();
+    }
+
+    @Override
+    public double getMargin(final short margin) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setMargin(final short margin, final double size) {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean getProtect() {
+        throw unsupported();
+    }
+
+    @Override
+    public void protectSheet(final String password) {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean getScenarioProtect() {
+        throw unsupported();
+    }
+
+    @Override
+    public void setZoom(final int scale) {
+        throw unsupported();
+    }
+
+    @Override
+    public short getTopRow() {
+        throw unsupported();
+    }
+
+    @Override
+    public short getLeftCol() {
+        throw unsupported();
+    }
+
+    @Override
+    public void showInPane(final int topRow, final int leftCol) {
+        throw unsupported();
+    }
+
+    @Override
+    public void shiftRows(final int startRow, final int endRow, final int n) {
+        throw unsupported();
+    }
+
+    @Override
+    public void shiftRows(final int startRow, final int endRow, final int n, final boolean copyRowHeight,
+                          final boolean resetOriginalRowHeight) {
+        throw unsupported();
+    }
+
+    @Override
+    public void shiftColumns(final int startColumn, final int endColumn, final int n) {
+        throw unsupported();
+    }
+
+    @Override
+    public void createFreezePane(final int colSplit, final int rowSplit, final int leftmostColumn, final int topRow) {
+        throw unsupported();
+    }
+
+    @Override
+    public void createFreezePane(final int colSplit, final int rowSplit) {
+        throw unsupported();
+    }
+
+    @Override
+    public void createSplitPane(final int xSplitPos, final int ySplitPos, final int leftmostColumn, final int topRow,
+                                final int activePane) {
+        throw unsupported();
+    }
+
+    @Override
+    public PaneInformation getPaneInformation() {
+        throw unsupported();
+    }
+
+    @Override
+    public void setDisplayGridlines(final boolean show) {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isDisplayGridlines() {
+        throw unsupported();
+    }
+
+    @Override
+    public void setDisplayFormulas(final boolean show) {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isDisplayFormulas() {
+        throw unsupported();
+    }
+
+    @Override
+    public void setDisplayRowColHeadings(final boolean show) {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isDisplayRowColHeadings() {
+        throw unsupported();
+    }
+
+    @Override
+    public void setRowBreak(final int row) {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isRowBroken(final int row) {
+        throw unsupported();
+    }
+
+    @Override
+    public void removeRowBreak(final int row) {
+        throw unsupported();
+    }
+
+    @Override
+    public int[] getRowBreaks() {
+        throw unsupported();
+    }
+
+    @Override
+    public int[] getColumnBreaks() {
+        throw unsupported();
+    }
+
+    @Override
+    public void setColumnBreak(final int column) {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isColumnBroken(final int column) {
+        throw unsupported();
+    }
+
+    @Override
+    public void removeColumnBreak(final int column) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setColumnGroupCollapsed(final int columnNumber, final boolean collapsed) {
+        throw unsupported();
+    }
+
+    @Override
+    public void groupColumn(final int fromColumn, final int toColumn) {
+        throw unsupported();
+    }
+
+    @Override
+    public void ungroupColumn(final int fromColumn, final int toColumn) {
+        throw unsupported();
+    }
+
+    @Override
+    public void groupRow(final int fromRow, final int toRow) {
+        throw unsupported();
+    }
+
+    @Override
+    public void ungroupRow(final int fromRow, final int toRow) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setRowGroupCollapsed(final int row, final boolean collapse) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setDefaultColumnStyle(final int column, final CellStyle style) {
+        throw unsupported();
+    }
+
+    @Override
+    public void autoSizeColumn(final int column) {
+        throw unsupported();
+    }
+
+    @Override
+    public void autoSizeColumn(final int column, final boolean useMergedCells) {
+        throw unsupported();
+    }
+
+    @Override
+    public Comment getCellComment(final CellAddress ref) {
+        throw unsupported();
+    }
+
+    @Override
+    public Map<CellAddress, ? extends Comment> getCellComments() {
+        throw unsupported();
+    }
+
+    @Override
+    public Drawing<?> getDrawingPatriarch() {
+        throw unsupported();
+    }
+
+    @Override
+    public Drawing<?> createDrawingPatriarch() {
+        throw unsupported();
+    }
+
+    @Override
+    public boolean isSelected() {
+        throw unsupported();
+    }
+
+    @Override
+    public CellRange<? extends Cell> setArrayFormula(final String formula, final CellRangeAddress range) {
+        throw unsupported();
+    }
+
+    @Override
+    public CellRange<? extends Cell> removeArrayFormula(final Cell cell) {
+        throw unsupported();
+    }
+
+    @Override
+    public DataValidationHelper getDataValidationHelper() {
+        throw unsupported();
+    }
+
+    @Override
+    public List<? extends DataValidation> getDataValidations() {
+        throw unsupported();
+    }
+
+    @Override
+    public void addValidationData(final DataValidation dataValidation) {
+        throw unsupported();
+    }
+
+    @Override
+    public AutoFilter setAutoFilter(final CellRangeAddress range) {
+        throw unsupported();
+    }
+
+    @Override
+    public SheetConditionalFormatting getSheetConditionalFormatting() {
+        throw unsupported();
+    }
+
+    @Override
+    public CellRangeAddress getRepeatingRows() {
+        throw unsupported();
+    }
+
+    @Override
+    public CellRangeAddress getRepeatingColumns() {
+        throw unsupported();
+    }
+
+    @Override
+    public void setRepeatingRows(final CellRangeAddress rowRangeRef) {
+        throw unsupported();
+    }
+
+    @Override
+    public void setRepeatingColumns(final CellRangeAddress columnRangeRef) {
+        throw unsupported();
+    }
+
+    @Override
+    public int getColumnOutlineLevel(final int columnIndex) {
+        throw unsupported();
+    }
+
+    @Override
+    public Hyperlink getHyperlink(final int row, final int column) {
+        throw unsupported();
+    }
+
+    @Override
+    public Hyperlink getHyperlink(final CellAddress addr) {
+        throw unsupported();
+    }
+
+    @Override
+    public List<? extends Hyperlink> getHyperlinkList() {
+        throw unsupported();
+    }
+
+    @Override
+    public CellAddress getActiveCell() {
+        throw unsupported();
+    }
+
+    @Override
+    public void setActiveCell(final CellAddress address) {
+        throw unsupported();
+    }
+
+    private static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("Operation not available on the worksheet of a cell grid");
+    }
+}
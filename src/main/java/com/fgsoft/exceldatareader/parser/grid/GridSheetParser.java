@@ -0,0 +1,109 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.grid;
+
+import com.fgsoft.exceldatareader.parser.ExcelFileParser;
+import com.fgsoft.exceldatareader.parser.mapper.RowMapper;
+import com.fgsoft.exceldatareader.parser.util.CachedResultFormulaEvaluator;
+import com.fgsoft.exceldatareader.parser.util.TestNameIndex;
+import lombok.NonNull;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Parser mapping the rows of a {@link CellGrid} to objects with a {@link RowMapper}, the counterpart of
+ * {@link com.fgsoft.exceldatareader.parser.mapper.MappedSheetParser} for cell grids.
+ * <p>
+ * Grids do not contain formulas, so that rows are mapped without any formula evaluation.
+ * @param <T> type of the objects read from the rows
+ */
+public class GridSheetParser<T> implements ExcelFileParser<T> {
+    private static final FormulaEvaluator EVALUATOR = new CachedResultFormulaEvaluator();
+
+    private final CellGrid grid;
+    private final TestNameIndex testNameIndex;
+    private final RowMapper<T> mapper;
+
+    /**
+     * @param grid grid to read
+     * @param testNameIndex index of the test names of the worksheet the grid was copied from
+     * @param mapper mapper of the data rows
+     */
+    public GridSheetParser(@NonNull final CellGrid grid, @NonNull final TestNameIndex testNameIndex,
+                           @NonNull final RowMapper<T> mapper) {
+        this.grid = grid;
+        this.testNameIndex = testNameIndex;
+        this.mapper = mapper;
+    }
+
+    /**
+     * @return the object read from the first row of the test, null if the worksheet does not contain the test name
+     */
+    @Override
+    public T getValue(final String testName) {
+        final int rowIndex = testNameIndex.getFirstRow(testName);
+        final Row row = rowIndex < 0 ? null : grid.getRow(rowIndex);
+        return row == null ? null : mapper.map(row, EVALUATOR);
+    }
+
+    @Override
+    public List<String> getAllTestNames() {
+        return testNameIndex.getAllTestNames();
+    }
+
+    /**
+     * @return iterator mapping the rows of the grid lazily, in sheet order. Missing rows are skipped.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int next = nextRow(grid.getFirstRow());
+
+            @Override
+            public boolean hasNext() {
+                return next <= grid.getLastRow();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final Row row = grid.getRow(next);
+                next = nextRow(next + 1);
+                return mapper.map(row, EVALUATOR);
+            }
+        };
+    }
+
+    /**
+     * @return name of the worksheet the grid was copied from
+     */
+    public String getSheetName() {
+        return grid.getSheetName();
+    }
+
+    private int nextRow(final int from) {
+        int rowIndex = from;
+        while (rowIndex <= grid.getLastRow() && !grid.isRowPresent(rowIndex)) {
+            rowIndex++;
+        }
+        return rowIndex;
+    }
+}
@@ -0,0 +1,45 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.mapper;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a bean class for which a {@link RowMapper} is generated at compile time by the annotation processor of the
+ * {@code ExcelDataReader-processor} module. The processor is declared next to Lombok in the annotation processor
+ * path of the compiler:
+ * <pre>
+ * &lt;annotationProcessorPaths&gt;
+ *     &lt;path&gt;
+ *         &lt;groupId&gt;com.fgsoft&lt;/groupId&gt;
+ *         &lt;artifactId&gt;ExcelDataReader-processor&lt;/artifactId&gt;
+ *         &lt;version&gt;1.0-SNAPSHOT&lt;/version&gt;
+ *     &lt;/path&gt;
+ * &lt;/annotationProcessorPaths&gt;
+ * </pre>
+ * The mapper of a class {@code Sample} is generated in the same package as {@code SampleRowMapper}. It reads the
+ * single cell fields of the class, i.e. primitive, String, BigDecimal, date and enum fields, from the columns of the
+ * headers named after the fields, or given by {@link ExcelHeader}. The class must have a non private constructor
+ * without argument, and its fields must be non private or have a non private setter.
+ * <p>
+ * Primitive int and long fields are read without boxing, the smallest value of their type signalling a blank cell:
+ * a cell holding {@link Integer#MIN_VALUE} or {@link Long#MIN_VALUE} keeps the default value of the field. Fields
+ * that must read these values are to be declared with the boxed type.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface ExcelMapped {
+}
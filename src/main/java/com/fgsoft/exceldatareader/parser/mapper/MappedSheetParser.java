@@ -0,0 +1,306 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.mapper;
+
+import com.fgsoft.exceldatareader.parser.ExcelFileParser;
+import com.fgsoft.exceldatareader.metrics.Metrics;
+import com.fgsoft.exceldatareader.metrics.SheetParseEvent;
+import com.fgsoft.exceldatareader.parser.HeaderDescriptor;
+import com.fgsoft.exceldatareader.parser.util.TestNameIndex;
+import lombok.NonNull;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Parser mapping the data rows of a worksheet, i.e. the rows after the last header row, with a {@link RowMapper}.
+ * <p>
+ * Rows are read lazily, one at a time in sheet order, so that a worksheet is processed in constant memory through
+ * {@link #iterator()} or {@link #stream()}. The spliterator splits by row range: in a parallel stream, each range is
+ * mapped with its own formula evaluator, given by the evaluator factory of the parser. The row mapper is shared and
+ * must be stateless, which generated mappers are.
+ * <p>
+ * {@link #parseParallel()} maps the whole data area of a large worksheet on a fork-join pool: the rows are split in
+ * ranges, each range is mapped by a worker with its own formula evaluator, and the results are merged in sheet order.
+ * <p>
+ * Test name lookups through {@link #getValue(String)} borrow a formula evaluator from a queue held by the parser and
+ * return it afterwards, so that concurrent lookups never share an evaluator and no evaluator outlives the parser.
+ * @param <T> type of the objects read from the rows
+ */
+public class MappedSheetParser<T> implements ExcelFileParser<T> {
+    private static final int MIN_SPLIT_SIZE = 1024;
+    private static final int RANGES_PER_WORKER = 4;
+    private static final Object MISSING_ROW = new Object();
+
+    private final Sheet worksheet;
+    private final HeaderDescriptor headerDescriptor;
+    private final RowMapper<T> mapper;
+    private final Supplier<FormulaEvaluator> evaluatorFactory;
+    private final Supplier<TestNameIndex> testNameIndexFactory;
+    private final Queue<FormulaEvaluator> lookupEvaluators = new ConcurrentLinkedQueue<>(); // Idle, for lookups
+    private volatile TestNameIndex testNameIndex;
+
+    /**
+     * Build a parser evaluating formulas with the formula evaluator of the workbook
+     * @param worksheet worksheet to read
+     * @param headerDescriptor description of the header rows of the worksheet
+     * @param mapper mapper of the data rows
+     */
+    public MappedSheetParser(@NonNull final Sheet worksheet, @NonNull final HeaderDescriptor headerDescriptor,
+                             @NonNull final RowMapper<T> mapper) {
+        this(worksheet, headerDescriptor, mapper,
+                () -> worksheet.getWorkbook().getCreationHelper().createFormulaEvaluator());
+    }
+
+    /**
+     * @param worksheet worksheet to read
+     * @param headerDescriptor description of the header rows of the worksheet
+     * @param mapper mapper of the data rows
+     * @param evaluatorFactory factory of formula evaluators, called once per iterator, per split and per concurrent
+     *                         test name lookup
+     */
+    public MappedSheetParser(@NonNull final Sheet worksheet, @NonNull final HeaderDescriptor headerDescriptor,
+                             @NonNull final RowMapper<T> mapper,
+                             @NonNull final Supplier<FormulaEvaluator> evaluatorFactory) {
+        this(worksheet, headerDescriptor, mapper, evaluatorFactory,
+                () -> TestNameIndex.forSheet(worksheet, headerDescriptor));
+    }
+
+    /**
+     * @param worksheet worksheet to read
+     * @param headerDescriptor description of the header rows of the worksheet
+     * @param mapper mapper of the data rows
+     * @param evaluatorFactory factory of formula evaluators, called once per iterator, per split and per concurrent
+     *                         test name lookup
+     * @param testNameIndexFactory factory of the index of the test names of the worksheet, called on first lookup,
+     *                             e.g. giving the index cached by the reader of the workbook
+     */
+    public MappedSheetParser(@NonNull final Sheet worksheet, @NonNull final HeaderDescriptor headerDescriptor,
+                             @NonNull final RowMapper<T> mapper,
+                             @NonNull final Supplier<FormulaEvaluator> evaluatorFactory,
+                             @NonNull final Supplier<TestNameIndex> testNameIndexFactory) {
+        this.worksheet = worksheet;
+        this.headerDescriptor = headerDescriptor;
+        this.mapper = mapper;
+        this.evaluatorFactory = evaluatorFactory;
+        this.testNameIndexFactory = testNameIndexFactory;
+    }
+
+    /**
+     * @return the object read from the first row of the test, null if the worksheet does not contain the test name
+     */
+    @Override
+    public T getValue(final String testName) {
+        final int rowIndex = getTestNameIndex().getFirstRow(testName);
+        T value = null;
+        if (rowIndex >= 0) {
+            FormulaEvaluator evaluator = lookupEvaluators.poll();
+            if (evaluator == null) {
+                evaluator = evaluatorFactory.get();
+            }
+            try {
+                value = mapper.map(worksheet.getRow(rowIndex), evaluator);
+            } finally {
+                lookupEvaluators.offer(evaluator);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public List<String> getAllTestNames() {
+        return getTestNameIndex().getAllTestNames();
+    }
+
+    /**
+     * @return iterator mapping the data rows lazily, in sheet order. Missing rows are skipped.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * @return spliterator mapping the data rows lazily, in sheet order, and splitting by row range
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new RowRangeSpliterator(headerDescriptor.getLastHeaderRow() + 1, worksheet.getLastRowNum() + 1);
+    }
+
+    /**
+     * Map all the data rows on the common fork-join pool
+     * @return objects read from the data rows, in sheet order. Missing rows are skipped.
+     */
+    public List<T> parseParallel() {
+        return parseParallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Map all the data rows on a fork-join pool. The data rows are split in ranges of at least 1024 rows, about four
+     * ranges per worker of the pool, each range being mapped with its own formula evaluator.
+     * @param pool pool running the mapping
+     * @return objects read from the data rows, in sheet order. Missing rows are skipped.
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> parseParallel(@NonNull final ForkJoinPool pool) {
+        final long start = Metrics.startTimer();
+        final SheetParseEvent event = SheetParseEvent.start();
+        final int first = headerDescriptor.getLastHeaderRow() + 1;
+        final int end = worksheet.getLastRowNum() + 1;
+        final Object[] results = new Object[Math.max(end - first, 0)];
+        final int rangeSize = Math.max(MIN_SPLIT_SIZE, results.length / (pool.getParallelism() * RANGES_PER_WORKER));
+        pool.invoke(new RowRangeTask(first, first, end, rangeSize, results));
+        final List<T> values = new ArrayList<>(results.length);
+        for (final Object result : results) {
+            if (result != MISSING_ROW) {
+                values.add((T) result);
+            }
+        }
+        Metrics.get().sheetParsed(worksheet.getSheetName(), Metrics.elapsed(start));
+        event.complete(worksheet.getSheetName(), values.size(), this::countDataCells);
+        return values;
+    }
+
+    /**
+     * @return number of physical cells of the data rows of the worksheet
+     */
+    public long countDataCells() {
+        long cells = 0;
+        for (int rowIndex = headerDescriptor.getLastHeaderRow() + 1; rowIndex <= worksheet.getLastRowNum();
+             rowIndex++) {
+            final Row row = worksheet.getRow(rowIndex);
+            if (row != null) {
+                cells += row.getPhysicalNumberOfCells();
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * @return name of the worksheet read by this parser
+     */
+    public String getSheetName() {
+        return worksheet.getSheetName();
+    }
+
+    private TestNameIndex getTestNameIndex() {
+        TestNameIndex index = testNameIndex;
+        if (index == null) {
+            index = testNameIndexFactory.get();
+            testNameIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Spliterator over a range of rows, from {@code current} included to {@code end} excluded
+     */
+    private final class RowRangeSpliterator implements Spliterator<T> {
+        private int current;
+        private final int end;
+        private FormulaEvaluator evaluator;
+
+        RowRangeSpliterator(final int first, final int end) {
+            this.current = first;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super T> action) {
+            while (current < end) {
+                final Row row = worksheet.getRow(current++);
+                if (row != null) {
+                    if (evaluator == null) {
+                        evaluator = evaluatorFactory.get();
+                    }
+                    action.accept(mapper.map(row, evaluator));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            Spliterator<T> prefix = null;
+            if (end - current >= 2 * MIN_SPLIT_SIZE) {
+                final int middle = current + (end - current) / 2;
+                prefix = new RowRangeSpliterator(current, middle);
+                current = middle;
+            }
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Math.max(end - current, 0);
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | IMMUTABLE;
+        }
+    }
+
+    /**
+     * Task mapping a range of rows, from {@code first} included to {@code end} excluded, into the results array,
+     * splitting the range until it fits the range size
+     */
+    private final class RowRangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int offset; // Row of the first result
+        private final int first;
+        private final int end;
+        private final int rangeSize;
+        private final transient Object[] results;
+
+        RowRangeTask(final int offset, final int first, final int end, final int rangeSize, final Object[] results) {
+            this.offset = offset;
+            this.first = first;
+            this.end = end;
+            this.rangeSize = rangeSize;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - first > rangeSize) {
+                final int middle = first + (end - first) / 2;
+                invokeAll(new RowRangeTask(offset, first, middle, rangeSize, results),
+                        new RowRangeTask(offset, middle, end, rangeSize, results));
+            } else {
+                final FormulaEvaluator evaluator = evaluatorFactory.get();
+                for (int rowIndex = first; rowIndex < end; rowIndex++) {
+                    final Row row = worksheet.getRow(rowIndex);
+                    results[rowIndex - offset] = row == null ? MISSING_ROW : mapper.map(row, evaluator);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.mapper;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+
+/**
+ * Mapper of a data row to a bean. Mappers of {@link ExcelMapped} classes are generated at compile time: they are
+ * built for the {@link com.fgsoft.exceldatareader.parser.util.HeaderSchema} of a worksheet, which binds their headers
+ * to columns once, and then read each field with the value parser of its type, without reflection.
+ * @param <T> type of the beans
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    /**
+     * Map a row to a new bean. Fields whose header is missing from the worksheet, or whose cell is blank, keep their
+     * default value.
+     * @param row data row to map
+     * @param evaluator formula evaluator used for cells containing a formula
+     * @return bean read from the row
+     */
+    T map(Row row, FormulaEvaluator evaluator);
+
+    /**
+     * @param row row to get the cell from
+     * @param column index of the column, -1 if the header is missing
+     * @return the cell of the row in the column, null if the header or the cell is missing
+     */
+    static Cell getCell(final Row row, final int column) {
+        return column < 0 ? null : row.getCell(column);
+    }
+}
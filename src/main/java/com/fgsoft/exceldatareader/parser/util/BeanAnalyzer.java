@@ -17,15 +17,22 @@ package com.fgsoft.exceldatareader.parser.util;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
+import java.lang.reflect.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
 
+/**
+ * Analysis of the classes of the objects to read.
+ * <p>
+ * Results are cached per class in {@link ClassValue}s: the classification of a type and the metadata of a bean class
+ * are computed on first use only, then shared by any caller.
+ */
 @Slf4j
 public class BeanAnalyzer {
-    private static final List<Class<?>> SINGLE_CELL_TYPES = Arrays.asList(
+    private static final Set<Class<?>> SINGLE_CELL_TYPES = new HashSet<>(Arrays.asList(
             Byte.class,
             Short.class,
             Integer.class,
@@ -42,7 +49,20 @@ public class BeanAnalyzer {
             BigDecimal.class,
             Enumeration.class,
             Currency.class
-    );
+    ));
+    private static final ClassValue<Boolean> SINGLE_CELL = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            log.debug("Checking type '{}' as single cell represented", type);
+            return type.isPrimitive() || type.isEnum() || SINGLE_CELL_TYPES.contains(type);
+        }
+    };
+    private static final ClassValue<BeanMetadata> METADATA = new ClassValue<BeanMetadata>() {
+        @Override
+        protected BeanMetadata computeValue(final Class<?> type) {
+            return analyze(type);
+        }
+    };
 
     /**
      * Checks is an object can be read from a single Excel cell. The following types are considered as single cell value:
@@ -59,10 +79,63 @@ public class BeanAnalyzer {
         return isSingleCellType(object.getClass());
     }
 
-    private boolean isSingleCellType(final Class<?> type) {
-        if (log.isDebugEnabled()) {
-            log.debug(String.format("Checking type '%s' as single cell represented", type));
+    /**
+     * Get the metadata of a bean class. Metadata are computed on first call for a given class.
+     * @param type class of the bean
+     * @return metadata of the class
+     */
+    public BeanMetadata getMetadata(@NonNull final Class<?> type) {
+        return METADATA.get(type);
+    }
+
+    private static boolean isSingleCellType(final Class<?> type) {
+        return type == null || SINGLE_CELL.get(type);
+    }
+
+    private static BeanMetadata analyze(final Class<?> type) {
+        final List<FieldMetadata> fields = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (final Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                    fields.add(analyze(field));
+                }
+            }
+        }
+        return new BeanMetadata(type, fields);
+    }
+
+    private static FieldMetadata analyze(final Field field) {
+        final Class<?> type = field.getType();
+        final FieldMetadata metadata;
+        if (isSingleCellType(type)) {
+            metadata = new FieldMetadata(field, true, null);
+        } else if (type.isArray()) {
+            metadata = new FieldMetadata(field, false, type.getComponentType());
+        } else if (Iterable.class.isAssignableFrom(type)) {
+            metadata = new FieldMetadata(field, false, getElementType(field.getGenericType()));
+        } else {
+            metadata = new FieldMetadata(field, false, type);
+        }
+        return metadata;
+    }
+
+    private static Class<?> getElementType(final Type genericType) {
+        Class<?> elementType = Object.class;
+        if (genericType instanceof ParameterizedType) {
+            final Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+            if (arguments.length == 1) {
+                Type argument = arguments[0];
+                if (argument instanceof WildcardType) {
+                    argument = ((WildcardType) argument).getUpperBounds()[0];
+                }
+                if (argument instanceof ParameterizedType) {
+                    argument = ((ParameterizedType) argument).getRawType();
+                }
+                if (argument instanceof Class) {
+                    elementType = (Class<?>) argument;
+                }
+            }
         }
-        return  type == null || type.isPrimitive() || type.isEnum() || SINGLE_CELL_TYPES.contains(type);
+        return elementType;
     }
 }
@@ -0,0 +1,62 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Metadata of a bean class, computed once per class by {@link BeanAnalyzer}: the fields to read, i.e. the non static
+ * and non synthetic fields of the class and of its superclasses, and their classification.
+ */
+public final class BeanMetadata {
+    private final Class<?> type;
+    private final List<FieldMetadata> fields;
+    private final Map<String, FieldMetadata> fieldsByName;
+
+    BeanMetadata(final Class<?> type, final List<FieldMetadata> fields) {
+        this.type = type;
+        this.fields = Collections.unmodifiableList(fields);
+        final Map<String, FieldMetadata> byName = new LinkedHashMap<>(fields.size() * 4 / 3 + 1);
+        for (final FieldMetadata field : fields) {
+            byName.putIfAbsent(field.getName(), field);
+        }
+        this.fieldsByName = Collections.unmodifiableMap(byName);
+    }
+
+    /**
+     * @return analyzed class
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return unmodifiable list of the fields, in declaration order, fields of the class first
+     */
+    public List<FieldMetadata> getFields() {
+        return fields;
+    }
+
+    /**
+     * @param name name of the field
+     * @return metadata of the field, null if the class does not have this field
+     */
+    public FieldMetadata getField(final String name) {
+        return fieldsByName.get(name);
+    }
+}
@@ -0,0 +1,410 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import com.fgsoft.exceldatareader.exception.ExcelReaderException;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.UNABLE_TO_SET_PROPERTY;
+
+/**
+ * Setters of the properties of a bean class, i.e. of its non static and non final fields, including inherited ones.
+ * <p>
+ * Setters are generated once per class and cached: {@link #forClass(Class)} returns the same instance to any caller.
+ * When the class declares a setter method for a field, e.g. {@code setIntValue(int)}, the property is set through
+ * that method, called from a lambda generated by {@link LambdaMetafactory}: the call is a plain interface call that
+ * the JIT compiler can inline, and primitive values are not boxed. Otherwise the field is set directly through a
+ * {@link MethodHandle}, typed exactly for int, long, double and boolean fields so that their values are not boxed
+ * either. Fields and methods are accessed through a lookup in the class declaring them, so that private members
+ * inherited from a class of another package are supported.
+ * <p>
+ * Field handles are held in instance fields, not in constants, so the JIT compiler cannot constant-fold them and cannot
+ * inline the field write as it does for setter methods: setting a field without setter method costs a few nanoseconds
+ * more per call, as measured by {@code BeanSettersBenchmark} of the benchmarks module. Holding each handle in a
+ * {@code static final} field of a hidden class would remove that cost, but hidden classes require Java 15 while this
+ * library targets Java 11. Beans read in bulk should therefore declare setter methods.
+ */
+@Slf4j
+public final class BeanSetters {
+    private static final ClassValue<BeanSetters> SETTERS = new ClassValue<BeanSetters>() {
+        @Override
+        protected BeanSetters computeValue(final Class<?> type) {
+            return new BeanSetters(type);
+        }
+    };
+    private static final String SAM_NAME = "set";
+
+    private final Map<String, PropertySetter> settersByName;
+
+    private BeanSetters(final Class<?> beanClass) {
+        final Map<String, PropertySetter> setters = new LinkedHashMap<>();
+        for (Class<?> type = beanClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (final Field field : type.getDeclaredFields()) {
+                final int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers) && !field.isSynthetic()
+                        && !setters.containsKey(field.getName())) {
+                    setters.put(field.getName(), buildSetter(beanClass, field));
+                }
+            }
+        }
+        this.settersByName = Collections.unmodifiableMap(setters);
+    }
+
+    /**
+     * Get the setters of a bean class. Setters are generated on first call for a given class.
+     * @param beanClass class of the beans
+     * @return setters of the properties of the class
+     */
+    public static BeanSetters forClass(@NonNull final Class<?> beanClass) {
+        return SETTERS.get(beanClass);
+    }
+
+    /**
+     * @param name name of the property, i.e. of the field
+     * @return setter of the property, null if the class does not have this property
+     */
+    public PropertySetter getSetter(final String name) {
+        return settersByName.get(name);
+    }
+
+    /**
+     * @return names of the properties, in field declaration order, fields of the class first
+     */
+    public Set<String> getPropertyNames() {
+        return settersByName.keySet();
+    }
+
+    private static PropertySetter buildSetter(final Class<?> beanClass, final Field field) {
+        final Method method = findSetterMethod(beanClass, field);
+        PropertySetter setter = null;
+        if (method != null) {
+            try {
+                final MethodHandles.Lookup lookup = lookupIn(method.getDeclaringClass());
+                setter = generateSetter(lookup, method.getDeclaringClass(), field, lookup.unreflect(method));
+            } catch (Throwable exc) {
+                log.debug(String.format("Unable to generate setter for field '%s' of class '%s', using field access",
+                        field.getName(), beanClass.getName()), exc);
+            }
+        }
+        if (setter == null) {
+            try {
+                setter = buildFieldSetter(field, lookupIn(field.getDeclaringClass()).unreflectSetter(field));
+            } catch (IllegalAccessException exc) {
+                throw new ExcelReaderException(exc, UNABLE_TO_SET_PROPERTY, field.getName(), beanClass.getName());
+            }
+        }
+        return setter;
+    }
+
+    private static MethodHandles.Lookup lookupIn(final Class<?> type) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+    }
+
+    /**
+     * Build the setter of a field set through its handle. Handles of int, long, double and boolean fields are typed
+     * exactly so that primitive values are not boxed. The handle is captured by the lambda, so that each call is an
+     * invocation of a non constant handle, see the class documentation.
+     */
+    private static PropertySetter buildFieldSetter(final Field field, final MethodHandle handle) {
+        final String name = field.getName();
+        final Class<?> type = field.getType();
+        final PropertySetter setter;
+        if (type == int.class) {
+            final MethodHandle exact = exactHandle(handle, int.class);
+            setter = new IntPropertySetter(name, (bean, value) -> {
+                try {
+                    exact.invokeExact(bean, value);
+                } catch (Throwable exc) {
+                    throw propagate(exc, name, bean);
+                }
+            });
+        } else if (type == long.class) {
+            final MethodHandle exact = exactHandle(handle, long.class);
+            setter = new LongPropertySetter(name, (bean, value) -> {
+                try {
+                    exact.invokeExact(bean, value);
+                } catch (Throwable exc) {
+                    throw propagate(exc, name, bean);
+                }
+            });
+        } else if (type == double.class) {
+            final MethodHandle exact = exactHandle(handle, double.class);
+            setter = new DoublePropertySetter(name, (bean, value) -> {
+                try {
+                    exact.invokeExact(bean, value);
+                } catch (Throwable exc) {
+                    throw propagate(exc, name, bean);
+                }
+            });
+        } else if (type == boolean.class) {
+            final MethodHandle exact = exactHandle(handle, boolean.class);
+            setter = new BooleanPropertySetter(name, (bean, value) -> {
+                try {
+                    exact.invokeExact(bean, value);
+                } catch (Throwable exc) {
+                    throw propagate(exc, name, bean);
+                }
+            });
+        } else {
+            setter = new HandleSetter(name, type, handle);
+        }
+        return setter;
+    }
+
+    private static MethodHandle exactHandle(final MethodHandle handle, final Class<?> valueType) {
+        return handle.asType(MethodType.methodType(void.class, Object.class, valueType));
+    }
+
+    private static RuntimeException propagate(final Throwable exc, final String name, final Object bean) {
+        if (exc instanceof RuntimeException) {
+            return (RuntimeException) exc;
+        } else if (exc instanceof Error) {
+            throw (Error) exc;
+        }
+        return new ExcelReaderException(exc, UNABLE_TO_SET_PROPERTY, name, bean.getClass().getName());
+    }
+
+    private static Method findSetterMethod(final Class<?> beanClass, final Field field) {
+        final String name = "set" + Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+        for (Class<?> type = beanClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            try {
+                final Method method = type.getDeclaredMethod(name, field.getType());
+                if (!Modifier.isStatic(method.getModifiers())) {
+                    return method;
+                }
+            } catch (NoSuchMethodException exc) {
+                // Look in the superclass
+            }
+        }
+        return null;
+    }
+
+    private static PropertySetter generateSetter(final MethodHandles.Lookup lookup, final Class<?> beanClass,
+                                                 final Field field, final MethodHandle method) throws Throwable {
+        final String name = field.getName();
+        final Class<?> type = field.getType();
+        final MethodType instantiatedType = MethodType.methodType(void.class, beanClass, type);
+        final PropertySetter setter;
+        if (type == int.class) {
+            setter = new IntPropertySetter(name, generate(lookup, IntSetter.class, int.class, method, instantiatedType));
+        } else if (type == long.class) {
+            setter = new LongPropertySetter(name,
+                    generate(lookup, LongSetter.class, long.class, method, instantiatedType));
+        } else if (type == double.class) {
+            setter = new DoublePropertySetter(name,
+                    generate(lookup, DoubleSetter.class, double.class, method, instantiatedType));
+        } else if (type == boolean.class) {
+            setter = new BooleanPropertySetter(name,
+                    generate(lookup, BooleanSetter.class, boolean.class, method, instantiatedType));
+        } else if (type.isPrimitive()) {
+            setter = null; // Other primitive types are set through the field handle
+        } else {
+            setter = new ObjectPropertySetter(name, type,
+                    generate(lookup, ObjectSetter.class, Object.class, method, instantiatedType));
+        }
+        return setter;
+    }
+
+    private static <F> F generate(final MethodHandles.Lookup lookup, final Class<F> functionalType,
+                                  final Class<?> valueType, final MethodHandle method,
+                                  final MethodType instantiatedType) throws Throwable {
+        final CallSite site = LambdaMetafactory.metafactory(lookup, SAM_NAME, MethodType.methodType(functionalType),
+                MethodType.methodType(void.class, Object.class, valueType), method, instantiatedType);
+        return functionalType.cast(site.getTarget().invoke());
+    }
+
+    /**
+     * Generated setter of an object property. Public for the generated classes only.
+     */
+    @FunctionalInterface
+    public interface ObjectSetter {
+        void set(Object bean, Object value);
+    }
+
+    /**
+     * Generated setter of an int property. Public for the generated classes only.
+     */
+    @FunctionalInterface
+    public interface IntSetter {
+        void set(Object bean, int value);
+    }
+
+    /**
+     * Generated setter of a long property. Public for the generated classes only.
+     */
+    @FunctionalInterface
+    public interface LongSetter {
+        void set(Object bean, long value);
+    }
+
+    /**
+     * Generated setter of a double property. Public for the generated classes only.
+     */
+    @FunctionalInterface
+    public interface DoubleSetter {
+        void set(Object bean, double value);
+    }
+
+    /**
+     * Generated setter of a boolean property. Public for the generated classes only.
+     */
+    @FunctionalInterface
+    public interface BooleanSetter {
+        void set(Object bean, boolean value);
+    }
+
+    private static final class ObjectPropertySetter extends PropertySetter {
+        private final ObjectSetter setter;
+
+        ObjectPropertySetter(final String name, final Class<?> type, final ObjectSetter setter) {
+            super(name, type);
+            this.setter = setter;
+        }
+
+        @Override
+        public void set(final Object bean, final Object value) {
+            setter.set(bean, value);
+        }
+    }
+
+    private static final class IntPropertySetter extends PropertySetter {
+        private final IntSetter setter;
+
+        IntPropertySetter(final String name, final IntSetter setter) {
+            super(name, int.class);
+            this.setter = setter;
+        }
+
+        @Override
+        public void set(final Object bean, final Object value) {
+            if (value != null) {
+                setter.set(bean, ((Number) value).intValue());
+            }
+        }
+
+        @Override
+        public void setInt(final Object bean, final int value) {
+            setter.set(bean, value);
+        }
+    }
+
+    private static final class LongPropertySetter extends PropertySetter {
+        private final LongSetter setter;
+
+        LongPropertySetter(final String name, final LongSetter setter) {
+            super(name, long.class);
+            this.setter = setter;
+        }
+
+        @Override
+        public void set(final Object bean, final Object value) {
+            if (value != null) {
+                setter.set(bean, ((Number) value).longValue());
+            }
+        }
+
+        @Override
+        public void setInt(final Object bean, final int value) {
+            setter.set(bean, value);
+        }
+
+        @Override
+        public void setLong(final Object bean, final long value) {
+            setter.set(bean, value);
+        }
+    }
+
+    private static final class DoublePropertySetter extends PropertySetter {
+        private final DoubleSetter setter;
+
+        DoublePropertySetter(final String name, final DoubleSetter setter) {
+            super(name, double.class);
+            this.setter = setter;
+        }
+
+        @Override
+        public void set(final Object bean, final Object value) {
+            if (value != null) {
+                setter.set(bean, ((Number) value).doubleValue());
+            }
+        }
+
+        @Override
+        public void setInt(final Object bean, final int value) {
+            setter.set(bean, value);
+        }
+
+        @Override
+        public void setLong(final Object bean, final long value) {
+            setter.set(bean, value);
+        }
+
+        @Override
+        public void setDouble(final Object bean, final double value) {
+            setter.set(bean, value);
+        }
+    }
+
+    private static final class BooleanPropertySetter extends PropertySetter {
+        private final BooleanSetter setter;
+
+        BooleanPropertySetter(final String name, final BooleanSetter setter) {
+            super(name, boolean.class);
+            this.setter = setter;
+        }
+
+        @Override
+        public void set(final Object bean, final Object value) {
+            if (value != null) {
+                setter.set(bean, (Boolean) value);
+            }
+        }
+
+        @Override
+        public void setBoolean(final Object bean, final boolean value) {
+            setter.set(bean, value);
+        }
+    }
+
+    /**
+     * Setter of a field without setter method, of a type other than int, long, double and boolean
+     */
+    private static final class HandleSetter extends PropertySetter {
+        private final MethodHandle handle;
+
+        HandleSetter(final String name, final Class<?> type, final MethodHandle handle) {
+            super(name, type);
+            this.handle = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        }
+
+        @Override
+        public void set(final Object bean, final Object value) {
+            if (value != null || !getType().isPrimitive()) {
+                try {
+                    handle.invokeExact(bean, value);
+                } catch (Throwable exc) {
+                    throw propagate(exc, getName(), bean);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+
+import java.util.Map;
+
+/**
+ * Formula evaluator that never runs the formula engine: the value of a formula cell is the result cached in the file
+ * when it was last saved. This is the only evaluation available when no workbook has been built (e.g. when reading
+ * in streaming mode), and it is accurate for any file saved by Excel.
+ */
+public class CachedResultFormulaEvaluator implements FormulaEvaluator {
+    @Override
+    public CellValue evaluate(final Cell cell) {
+        final CellValue value;
+        if (cell == null) {
+            value = null;
+        } else {
+            final CellType type = cell.getCellType() == CellType.FORMULA
+                    ? cell.getCachedFormulaResultType() : cell.getCellType();
+            switch (type) {
+                case NUMERIC:
+                    value = new CellValue(cell.getNumericCellValue());
+                    break;
+                case STRING:
+                    value = new CellValue(cell.getStringCellValue());
+                    break;
+                case BOOLEAN:
+                    value = CellValue.valueOf(cell.getBooleanCellValue());
+                    break;
+                case ERROR:
+                    value = CellValue.getError(cell.getErrorCellValue());
+                    break;
+                case BLANK:
+                default:
+                    value = null;
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public CellType evaluateFormulaCell(final Cell cell) {
+        return cell == null || cell.getCellType() != CellType.FORMULA
+                ? CellType._NONE : cell.getCachedFormulaResultType();
+    }
+
+    @Override
+    public Cell evaluateInCell(final Cell cell) {
+        throw new UnsupportedOperationException("Cached results can not be written back to the cell");
+    }
+
+    @Override
+    public void evaluateAll() {
+        // Results are already cached in the file
+    }
+
+    @Override
+    public void clearAllCachedResultValues() {
+        // Nothing is cached by this evaluator
+    }
+
+    @Override
+    public void notifySetFormula(final Cell cell) {
+        // Nothing is cached by this evaluator
+    }
+
+    @Override
+    public void notifyDeleteCell(final Cell cell) {
+        // Nothing is cached by this evaluator
+    }
+
+    @Override
+    public void notifyUpdateCell(final Cell cell) {
+        // Nothing is cached by this evaluator
+    }
+
+    @Override
+    public void setupReferencedWorkbooks(final Map<String, FormulaEvaluator> workbooks) {
+        // External references are never resolved
+    }
+
+    @Override
+    public void setIgnoreMissingWorkbooks(final boolean ignore) {
+        // External references are never resolved
+    }
+
+    @Override
+    public void setDebugEvaluationOutputForNextEval(final boolean value) {
+        // No evaluation to debug
+    }
+}
@@ -0,0 +1,155 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import lombok.NonNull;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Cache of the date format classification of the cell styles of a workbook.
+ * <p>
+ * {@link DateUtil#isCellDateFormatted(Cell)} parses the format string of the cell style on each call. As a workbook
+ * only has a few styles, shared by all its cells, this cache classifies each style once, identified by its index in
+ * the workbook, and answers further calls with an array lookup. Caches are shared per workbook through
+ * {@link #forSheet(Sheet)}, resolved once by the parsers of a worksheet, or through {@link #forCell(Cell)}, which
+ * remembers the last cache resolved by the calling thread so that consecutive cells of a workbook are checked without
+ * locking. Styles are expected not to be modified once cells have been parsed.
+ */
+public final class DateFormatCache {
+    private static final Map<Object, DateFormatCache> CACHES = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final ThreadLocal<DateFormatCache> LAST_CACHE = new ThreadLocal<>();
+    private static final int INITIAL_SIZE = 64;
+    private static final byte UNKNOWN = 0;
+    private static final byte DATE_FORMAT = 1;
+    private static final byte OTHER_FORMAT = 2;
+
+    private final Reference<Object> owner; // Workbook or worksheet sharing the cache, not kept alive by the cache
+    private volatile byte[] classifications = new byte[INITIAL_SIZE]; // Classifications by style index
+
+    /**
+     * Create a cache not shared with other parsers
+     */
+    public DateFormatCache() {
+        this(null);
+    }
+
+    private DateFormatCache(final Object owner) {
+        this.owner = new WeakReference<>(owner);
+    }
+
+    /**
+     * Get the cache of the workbook of a worksheet. When the workbook is not available, as with worksheets read in
+     * streaming mode, the cache is shared per worksheet instead.
+     * @param sheet worksheet to get the cache for
+     * @return the cache of the workbook of the worksheet
+     */
+    public static DateFormatCache forSheet(@NonNull final Sheet sheet) {
+        final Workbook workbook = sheet.getWorkbook();
+        return forOwner(workbook != null ? workbook : sheet);
+    }
+
+    /**
+     * Get the cache of the workbook of a cell, see {@link #forSheet(Sheet)}
+     * @param cell cell to get the cache for
+     * @return the cache of the workbook of the cell
+     */
+    public static DateFormatCache forCell(@NonNull final Cell cell) {
+        final Sheet sheet = cell.getSheet();
+        return sheet == null ? new DateFormatCache() : forSheet(sheet);
+    }
+
+    private static DateFormatCache forOwner(final Object owner) {
+        DateFormatCache cache = LAST_CACHE.get();
+        if (cache == null || cache.owner.get() != owner) {
+            cache = CACHES.computeIfAbsent(owner, DateFormatCache::new);
+            LAST_CACHE.set(cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Same as {@link DateUtil#isCellDateFormatted(Cell)}, using the cache of the workbook of the cell. Detached cells
+     * tell themselves whether they are formatted as a date.
+     * @param cell cell to check, may be null
+     * @return true if the cell contains a valid date value and is formatted as a date
+     */
+    public static boolean isCellDateFormatted(final Cell cell) {
+        final boolean dateFormatted;
+        if (cell instanceof DetachedCell) {
+            dateFormatted = isDetachedCellDateFormatted((DetachedCell) cell);
+        } else {
+            dateFormatted = cell != null && forCell(cell).isDateFormatted(cell);
+        }
+        return dateFormatted;
+    }
+
+    /**
+     * @param cell cell to check
+     * @return true if the cell contains a valid date value and is formatted as a date
+     */
+    public boolean isDateFormatted(@NonNull final Cell cell) {
+        final boolean dateFormatted;
+        if (cell instanceof DetachedCell) {
+            dateFormatted = isDetachedCellDateFormatted((DetachedCell) cell);
+        } else {
+            final CellStyle style = cell.getCellStyle();
+            dateFormatted = style != null && DateUtil.isValidExcelDate(cell.getNumericCellValue())
+                    && isDateFormat(style);
+        }
+        return dateFormatted;
+    }
+
+    /**
+     * @param style cell style to check
+     * @return true if the format of the style is a date format
+     */
+    public boolean isDateFormat(@NonNull final CellStyle style) {
+        final int index = style.getIndex() & 0xFFFF;
+        final byte[] current = classifications;
+        final byte classification = index < current.length ? current[index] : UNKNOWN;
+        final boolean dateFormat;
+        if (classification == UNKNOWN) {
+            dateFormat = DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+            store(index, dateFormat ? DATE_FORMAT : OTHER_FORMAT);
+        } else {
+            dateFormat = classification == DATE_FORMAT;
+        }
+        return dateFormat;
+    }
+
+    private static boolean isDetachedCellDateFormatted(final DetachedCell cell) {
+        return cell.isDateFormatted() && DateUtil.isValidExcelDate(cell.getNumericCellValue());
+    }
+
+    private synchronized void store(final int index, final byte classification) {
+        byte[] updated = classifications;
+        if (index >= updated.length) {
+            updated = Arrays.copyOf(updated, Math.max(updated.length * 2, index + 1));
+        }
+        updated[index] = classification;
+        classifications = updated; // Publish the classification to other threads
+    }
+}
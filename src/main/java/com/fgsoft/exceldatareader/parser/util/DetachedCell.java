@@ -0,0 +1,29 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import org.apache.poi.ss.usermodel.Cell;
+
+/**
+ * Cell read from a copy of a worksheet rather than from a workbook, e.g. a cell of a snapshot. Such a cell has no
+ * cell style and its worksheet, if any, is not attached to a workbook: it tells itself whether it is formatted as a
+ * date.
+ */
+public interface DetachedCell extends Cell {
+    /**
+     * @return true if the cell is numeric and was formatted as a date in the workbook
+     */
+    boolean isDateFormatted();
+}
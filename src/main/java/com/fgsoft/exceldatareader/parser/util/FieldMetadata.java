@@ -0,0 +1,74 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import com.fgsoft.exceldatareader.parser.value.AbstractSingleCellValueParser;
+import com.fgsoft.exceldatareader.parser.value.ValueParserRouter;
+import lombok.Value;
+import org.apache.commons.lang3.ClassUtils;
+
+import java.lang.reflect.Field;
+
+/**
+ * Metadata of a field of a bean class, computed once per class by {@link BeanAnalyzer}. The value parser of the field
+ * is not part of the cached metadata, see {@link #getParser()}.
+ */
+@Value
+public class FieldMetadata {
+    /**
+     * Reflected field
+     */
+    Field field;
+    /**
+     * True when the value of the field is read from a single cell
+     */
+    boolean singleCell;
+    /**
+     * Type of the elements of a collection or array field, type of a nested object field, null for a single cell
+     * field
+     */
+    Class<?> elementType;
+
+    /**
+     * @return name of the field
+     */
+    public String getName() {
+        return field.getName();
+    }
+
+    /**
+     * Get the parser of the value of the field. The parser is looked up in the {@link ValueParserRouter} on each
+     * call, so that parsers registered after the analysis of the class are used.
+     * @return parser of the value of the field, null when the field is not single cell, or when no parser is
+     * registered for its type
+     */
+    public AbstractSingleCellValueParser<?> getParser() {
+        return singleCell ? ValueParserRouter.findParser(ClassUtils.primitiveToWrapper(field.getType())) : null;
+    }
+
+    /**
+     * @return declared type of the field
+     */
+    public Class<?> getType() {
+        return field.getType();
+    }
+
+    /**
+     * @return true for a collection or array field
+     */
+    public boolean isMultiple() {
+        return field.getType().isArray() || Iterable.class.isAssignableFrom(field.getType());
+    }
+}
@@ -0,0 +1,79 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import lombok.NonNull;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.util.function.Supplier;
+
+/**
+ * Strategy used to get the results of the formula cells of a workbook
+ */
+public enum FormulaStrategy {
+    /**
+     * Evaluate formulas with a new POI evaluator for each parser, the default
+     */
+    EVALUATE {
+        @Override
+        public FormulaEvaluator createEvaluator(@NonNull final Workbook workbook,
+                                                @NonNull final Supplier<SharedResultFormulaEvaluator> shared) {
+            return workbook.getCreationHelper().createFormulaEvaluator();
+        }
+    },
+    /**
+     * Trust the results cached in the file when it was last saved, never running the formula engine. Accurate for
+     * any file saved by Excel, and the fastest strategy.
+     */
+    CACHED_RESULTS {
+        @Override
+        public FormulaEvaluator createEvaluator(@NonNull final Workbook workbook,
+                                                @NonNull final Supplier<SharedResultFormulaEvaluator> shared) {
+            return new CachedResultFormulaEvaluator();
+        }
+    },
+    /**
+     * Evaluate each formula once, its result being shared by all the parsers of the workbook
+     */
+    SHARED_CACHE {
+        @Override
+        public FormulaEvaluator createEvaluator(@NonNull final Workbook workbook,
+                                                @NonNull final Supplier<SharedResultFormulaEvaluator> shared) {
+            return shared.get();
+        }
+    },
+    /**
+     * Evaluate all the formulas of the workbook upfront, in parallel, their results being shared by all the parsers
+     * of the workbook
+     */
+    EVALUATE_ALL {
+        @Override
+        public FormulaEvaluator createEvaluator(@NonNull final Workbook workbook,
+                                                @NonNull final Supplier<SharedResultFormulaEvaluator> shared) {
+            final SharedResultFormulaEvaluator evaluator = shared.get();
+            evaluator.evaluateAll();
+            return evaluator;
+        }
+    };
+
+    /**
+     * @param workbook workbook to evaluate the formulas of
+     * @param shared supplier of the evaluator shared by the parsers of the workbook, used by the strategies sharing
+     *               formula results. The owner of the workbook is responsible for closing it.
+     * @return evaluator to be used by a parser
+     */
+    public abstract FormulaEvaluator createEvaluator(Workbook workbook, Supplier<SharedResultFormulaEvaluator> shared);
+}
@@ -0,0 +1,106 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import lombok.NonNull;
+
+import java.util.*;
+
+/**
+ * Immutable result of the analysis of the header rows of a worksheet: the headers, given as dotted keys such as
+ * {@code composite.intValue}, and the columns they are assigned to.
+ * <p>
+ * Headers are stored by position in column order, so that they can be iterated without allocation, and sorted by key
+ * so that the headers of a group, i.e. the headers starting with a given prefix, are found without scanning all the
+ * headers. A schema is computed once for a worksheet and can then be shared by any parser of the worksheet.
+ */
+public final class HeaderSchema {
+    private static final char SEPARATOR = '.';
+
+    private final String[] headers; // Headers by position, in column order
+    private final int[] columns; // Columns by position, in column order
+    private final NavigableMap<String, Integer> columnsByHeader;
+
+    /**
+     * @param columnsByHeader map of headers and columns
+     */
+    public HeaderSchema(@NonNull final Map<String, Integer> columnsByHeader) {
+        final List<Map.Entry<String, Integer>> entries = new ArrayList<>(columnsByHeader.entrySet());
+        entries.sort(Map.Entry.comparingByValue());
+        this.headers = new String[entries.size()];
+        this.columns = new int[entries.size()];
+        for (int position = 0; position < entries.size(); position++) {
+            headers[position] = entries.get(position).getKey();
+            columns[position] = entries.get(position).getValue();
+        }
+        this.columnsByHeader = Collections.unmodifiableNavigableMap(new TreeMap<>(columnsByHeader));
+    }
+
+    /**
+     * @return number of headers
+     */
+    public int size() {
+        return headers.length;
+    }
+
+    /**
+     * @param position position of the header, between 0 and {@link #size()} excluded
+     * @return dotted key of the header at the given position
+     */
+    public String getHeader(final int position) {
+        return headers[position];
+    }
+
+    /**
+     * @param position position of the header, between 0 and {@link #size()} excluded
+     * @return column of the header at the given position
+     */
+    public int getColumn(final int position) {
+        return columns[position];
+    }
+
+    /**
+     * @param header dotted key of the header
+     * @return column of the header, -1 if the worksheet does not have this header
+     */
+    public int getColumn(final String header) {
+        final Integer column = columnsByHeader.get(header);
+        return column == null ? -1 : column;
+    }
+
+    /**
+     * Get the headers of a group, i.e. the headers representing the fields of an inner object or of the elements of
+     * a list of inner objects.
+     * @param prefix dotted key of the group, e.g. {@code composite}
+     * @return map of headers and columns of the group, headers being given relative to the group, e.g.
+     * {@code intValue} for {@code composite.intValue}
+     */
+    public Map<String, Integer> getGroup(@NonNull final String prefix) {
+        final String fromKey = prefix + SEPARATOR;
+        final String toKey = prefix + (char) (SEPARATOR + 1);
+        final Map<String, Integer> group = new LinkedHashMap<>();
+        for (final Map.Entry<String, Integer> entry : columnsByHeader.subMap(fromKey, toKey).entrySet()) {
+            group.put(entry.getKey().substring(fromKey.length()), entry.getValue());
+        }
+        return group;
+    }
+
+    /**
+     * @return unmodifiable map of headers and columns, sorted by header
+     */
+    public Map<String, Integer> asMap() {
+        return columnsByHeader;
+    }
+}
@@ -0,0 +1,261 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.openxml4j.util.ZipSecureFile;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only shared strings table kept in memory-mapped temporary files rather than on heap.
+ * <p>
+ * POI loads the whole shared strings table of a workbook as XML objects, which takes a large part of the heap for
+ * workbooks with millions of distinct strings. This table instead streams the shared strings part once, writing the
+ * UTF-8 bytes of the strings to a data file and the offset of each string to an index file. Both files are then mapped
+ * in memory and deleted, their space being released once the table is garbage collected. Strings are decoded on each
+ * call to {@link #getItemAt(int)}, so that the heap used by the table does not depend on the number of strings.
+ * <p>
+ * Only the text of the strings is kept: formatting runs and phonetic runs are dropped. The table cannot be modified,
+ * nor written back to a workbook.
+ */
+@Slf4j
+public final class MappedSharedStringsTable extends SharedStringsTable {
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT; // Size of the mapped segments of the data file
+    private static final String FILE_PREFIX = "sst";
+
+    private final ByteBuffer[] segments; // Mapped segments of the data file
+    private final LongBuffer offsets; // Mapped offsets of the strings, followed by the size of the data file
+
+    private MappedSharedStringsTable(final int count, final ByteBuffer[] segments, final LongBuffer offsets) {
+        super();
+        this.count = count;
+        this.uniqueCount = offsets.limit() - 1;
+        this.segments = segments;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Build a table from the shared strings part of a workbook, the temporary files being created in the default
+     * temporary directory
+     * @param input content of the shared strings part
+     * @return the mapped table
+     * @throws IOException if the part cannot be read or the temporary files cannot be written
+     */
+    public static MappedSharedStringsTable create(@NonNull final InputStream input) throws IOException {
+        return create(input, null);
+    }
+
+    /**
+     * Build a table from the shared strings part of a workbook, the size of the temporary files being limited to the
+     * maximum entry size of {@link ZipSecureFile}
+     * @param input content of the shared strings part
+     * @param directory directory of the temporary files, null for the default temporary directory
+     * @return the mapped table
+     * @throws IOException if the part cannot be read or the temporary files cannot be written
+     */
+    public static MappedSharedStringsTable create(@NonNull final InputStream input, final Path directory)
+            throws IOException {
+        return create(input, directory, ZipSecureFile.getMaxEntrySize());
+    }
+
+    /**
+     * Build a table from the shared strings part of a workbook
+     * @param input content of the shared strings part
+     * @param directory directory of the temporary files, null for the default temporary directory
+     * @param maxSize maximum size of the temporary files, in bytes
+     * @return the mapped table
+     * @throws IOException if the part cannot be read, the temporary files cannot be written or would exceed the
+     * maximum size
+     */
+    public static MappedSharedStringsTable create(@NonNull final InputStream input, final Path directory,
+                                                  final long maxSize) throws IOException {
+        final Path dataFile = createTempFile(directory, ".data");
+        try {
+            final Path offsetFile = createTempFile(directory, ".offsets");
+            try {
+                final int count = spill(input, dataFile, offsetFile, maxSize);
+                return new MappedSharedStringsTable(count, mapSegments(dataFile),
+                        map(offsetFile, 0L, Files.size(offsetFile)).asLongBuffer());
+            } finally {
+                delete(offsetFile);
+            }
+        } finally {
+            delete(dataFile);
+        }
+    }
+
+    @Override
+    public RichTextString getItemAt(final int idx) {
+        if (idx < 0 || idx >= uniqueCount) {
+            throw new IndexOutOfBoundsException("Shared string index " + idx + " out of bounds for " + uniqueCount);
+        }
+        return new XSSFRichTextString(readString(offsets.get(idx), offsets.get(idx + 1)));
+    }
+
+    @Override
+    public int addSharedStringItem(final RichTextString string) {
+        throw new UnsupportedOperationException("Mapped shared strings table is read-only");
+    }
+
+    @Override
+    protected void commit() throws IOException {
+        throw new UnsupportedOperationException("Mapped shared strings table cannot be written");
+    }
+
+    private String readString(final long start, final long end) {
+        final byte[] bytes = new byte[(int) (end - start)];
+        int copied = 0;
+        long position = start;
+        while (copied < bytes.length) {
+            // Strings may span two segments
+            final ByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)].duplicate();
+            segment.position((int) (position & (SEGMENT_SIZE - 1)));
+            final int length = Math.min(bytes.length - copied, segment.remaining());
+            segment.get(bytes, copied, length);
+            copied += length;
+            position += length;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Stream the shared strings part to the data and offset files
+     * @param maxSize maximum size of the data and offset files together
+     * @return total count of the strings in the workbook, as declared by the part
+     */
+    private static int spill(final InputStream input, final Path dataFile, final Path offsetFile,
+                             final long maxSize) throws IOException {
+        try (OutputStream data = new BufferedOutputStream(Files.newOutputStream(dataFile));
+             DataOutputStream offsets = new DataOutputStream(
+                     new BufferedOutputStream(Files.newOutputStream(offsetFile)))) {
+            final XMLStreamReader reader = XMLHelper.newXMLInputFactory().createXMLStreamReader(input);
+            final StringBuilder text = new StringBuilder();
+            int count = 0;
+            long position = 0L;
+            long spilled = Long.BYTES; // Size of the data and offset files
+            boolean phonetic = false;
+            offsets.writeLong(position);
+            while (reader.hasNext()) {
+                final int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "sst":
+                            count = parseCount(reader.getAttributeValue(null, "count"));
+                            break;
+                        case "si":
+                            text.setLength(0);
+                            break;
+                        case "rPh":
+                            phonetic = true;
+                            break;
+                        case "t":
+                            final String value = reader.getElementText();
+                            if (!phonetic) {
+                                text.append(value);
+                                checkSize(spilled + text.length(), maxSize);
+                            }
+                            break;
+                        default:
+                            // Formatting elements are ignored
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if ("rPh".equals(reader.getLocalName())) {
+                        phonetic = false;
+                    } else if ("si".equals(reader.getLocalName())) {
+                        final byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+                        spilled += bytes.length + Long.BYTES;
+                        checkSize(spilled, maxSize);
+                        data.write(bytes);
+                        position += bytes.length;
+                        offsets.writeLong(position);
+                    }
+                }
+            }
+            reader.close();
+            return count;
+        } catch (XMLStreamException exc) {
+            throw new IOException("Unable to read the shared strings table", exc);
+        }
+    }
+
+    private static void checkSize(final long size, final long maxSize) throws IOException {
+        if (size > maxSize) {
+            throw new IOException("Shared strings table exceeds the maximum spilled size of " + maxSize + " bytes");
+        }
+    }
+
+    private static int parseCount(final String count) {
+        try {
+            return count == null ? 0 : Integer.parseInt(count);
+        } catch (NumberFormatException exc) {
+            return 0;
+        }
+    }
+
+    private static ByteBuffer[] mapSegments(final Path file) throws IOException {
+        final long size = Files.size(file);
+        final ByteBuffer[] segments = new ByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+        for (int cnt = 0; cnt < segments.length; cnt++) {
+            final long start = cnt * SEGMENT_SIZE;
+            segments[cnt] = map(file, start, Math.min(SEGMENT_SIZE, size - start));
+        }
+        return segments;
+    }
+
+    private static ByteBuffer map(final Path file, final long start, final long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Too many shared strings to be mapped: " + file);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        }
+    }
+
+    private static Path createTempFile(final Path directory, final String suffix) throws IOException {
+        return directory == null ? Files.createTempFile(FILE_PREFIX, suffix)
+                : Files.createTempFile(directory, FILE_PREFIX, suffix);
+    }
+
+    private static void delete(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException exc) {
+            // Mapped files cannot be deleted on some platforms
+            log.debug("Unable to delete {}, deleting it on exit", file);
+            file.toFile().deleteOnExit();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import lombok.NonNull;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.util.*;
+
+/**
+ * Index of the merged regions of a worksheet, answering which merged region contains a given cell.
+ * <p>
+ * Merged regions of a worksheet never overlap, so the regions containing a given column are disjoint in rows. The
+ * index keeps, for each column, the regions containing that column sorted by first row: the region containing a cell
+ * is then found with a binary search in its column.
+ * <p>
+ * Building the index requires to get the merged regions from the worksheet, which is costly with XSSF. The index is a
+ * snapshot of the merged regions at build time: {@code ExcelDataReader} builds it once per worksheet it reads and
+ * shares it between the analyses of that worksheet.
+ */
+public final class MergedRegionIndex {
+    private static final int[] NO_ROWS = new int[0];
+    private static final CellRangeAddress[] NO_REGIONS = new CellRangeAddress[0];
+
+    private final int size;
+    private final int[][] firstRows; // First rows of the regions containing the column, by column
+    private final CellRangeAddress[][] regions; // Regions containing the column, by column
+
+    public MergedRegionIndex(@NonNull final List<CellRangeAddress> mergedRegions) {
+        this.size = mergedRegions.size();
+        final int columnCount = mergedRegions.stream().mapToInt(CellRangeAddress::getLastColumn).max().orElse(-1) + 1;
+        final List<List<CellRangeAddress>> regionsByColumn = new ArrayList<>(columnCount);
+        for (int cnt = 0; cnt < columnCount; cnt++) {
+            regionsByColumn.add(null);
+        }
+        for (final CellRangeAddress region : mergedRegions) {
+            for (int column = region.getFirstColumn(); column <= region.getLastColumn(); column++) {
+                List<CellRangeAddress> columnRegions = regionsByColumn.get(column);
+                if (columnRegions == null) {
+                    columnRegions = new ArrayList<>();
+                    regionsByColumn.set(column, columnRegions);
+                }
+                columnRegions.add(region);
+            }
+        }
+        this.firstRows = new int[columnCount][];
+        this.regions = new CellRangeAddress[columnCount][];
+        for (int column = 0; column < columnCount; column++) {
+            final List<CellRangeAddress> columnRegions = regionsByColumn.get(column);
+            if (columnRegions == null) {
+                firstRows[column] = NO_ROWS;
+                regions[column] = NO_REGIONS;
+            } else {
+                columnRegions.sort(Comparator.comparingInt(CellRangeAddress::getFirstRow));
+                regions[column] = columnRegions.toArray(NO_REGIONS);
+                firstRows[column] = columnRegions.stream().mapToInt(CellRangeAddress::getFirstRow).toArray();
+            }
+        }
+    }
+
+    /**
+     * Build the index of the current merged regions of a worksheet
+     * @param worksheet worksheet to index
+     * @return index of the merged regions of the worksheet
+     */
+    public static MergedRegionIndex forSheet(@NonNull final Sheet worksheet) {
+        return new MergedRegionIndex(worksheet.getMergedRegions());
+    }
+
+    /**
+     * @param rowIndex index of the row
+     * @param columnIndex index of the column
+     * @return the merged region containing the cell, null if the cell is not merged
+     */
+    public CellRangeAddress getMergedRegion(final int rowIndex, final int columnIndex) {
+        CellRangeAddress region = null;
+        if (columnIndex >= 0 && columnIndex < regions.length) {
+            final int[] columnFirstRows = firstRows[columnIndex];
+            int position = Arrays.binarySearch(columnFirstRows, rowIndex);
+            if (position < 0) {
+                position = -position - 2; // Last region starting before the row
+            }
+            if (position >= 0 && regions[columnIndex][position].getLastRow() >= rowIndex) {
+                region = regions[columnIndex][position];
+            }
+        }
+        return region;
+    }
+
+    /**
+     * @return number of merged regions in the index
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,58 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import lombok.Getter;
+
+/**
+ * Setter of a property of a bean, built once per class by {@link BeanSetters}.
+ * <p>
+ * Primitive properties are set without boxing with {@link #setInt(Object, int)}, {@link #setLong(Object, long)},
+ * {@link #setDouble(Object, double)} and {@link #setBoolean(Object, boolean)}. Other combinations are supported
+ * through {@link #set(Object, Object)}, boxing the value if needed.
+ */
+@Getter
+public abstract class PropertySetter {
+    private final String name;
+    private final Class<?> type;
+
+    PropertySetter(final String name, final Class<?> type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    /**
+     * Set the property. A null value leaves a primitive property unchanged.
+     * @param bean bean to update
+     * @param value value of the property
+     */
+    public abstract void set(Object bean, Object value);
+
+    public void setInt(final Object bean, final int value) {
+        set(bean, value);
+    }
+
+    public void setLong(final Object bean, final long value) {
+        set(bean, value);
+    }
+
+    public void setDouble(final Object bean, final double value) {
+        set(bean, value);
+    }
+
+    public void setBoolean(final Object bean, final boolean value) {
+        set(bean, value);
+    }
+}
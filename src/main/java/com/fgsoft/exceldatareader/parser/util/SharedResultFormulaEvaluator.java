@@ -0,0 +1,252 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import lombok.NonNull;
+import org.apache.poi.ss.usermodel.*;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Formula evaluator sharing the results of the formulas of a workbook between all the parsers and threads reading it.
+ * <p>
+ * The evaluator is owned by the reader of the workbook, which shares it between its parsers and closes it with the
+ * workbook. Formula results are kept in a concurrent map by cell: each formula is evaluated once, by the formula engine
+ * of POI, whatever the number of parsers reading it. POI evaluators are not thread safe, so each evaluation borrows a
+ * POI evaluator from a pool and returns it afterwards. The pool keeps at most one idle evaluator per processor, so
+ * that the number of POI evaluators, each with its own evaluation cache, does not grow with the number of threads,
+ * e.g. when parsing on virtual threads. {@link #evaluateAll()} evaluates all the formulas of the workbook upfront, in
+ * parallel.
+ * <p>
+ * Threads do not keep any POI evaluator. Closing the evaluator releases the formula results and the pooled POI
+ * evaluators.
+ * <p>
+ * Unlike POI evaluators, this evaluator does not write results into the cells, except
+ * {@link #evaluateFormulaCell(Cell)} when the result differs from the one cached in the cell.
+ */
+public final class SharedResultFormulaEvaluator implements FormulaEvaluator, Closeable {
+    private static final CellValue BLANK_VALUE = new CellValue(""); // Marker of formulas without result
+    private static final int MAX_IDLE_EVALUATORS = Runtime.getRuntime().availableProcessors();
+
+    private final Workbook workbook;
+    private final Map<Cell, CellValue> results = new ConcurrentHashMap<>();
+    private final Set<FormulaEvaluator> evaluators = ConcurrentHashMap.newKeySet(); // Idle and borrowed evaluators
+    private final Deque<FormulaEvaluator> idleEvaluators = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private volatile boolean allEvaluated;
+    private volatile boolean closed;
+    private volatile boolean ignoreMissingWorkbooks;
+    private volatile Map<String, FormulaEvaluator> referencedWorkbooks;
+
+    /**
+     * @param workbook workbook to evaluate the formulas of
+     */
+    public SharedResultFormulaEvaluator(@NonNull final Workbook workbook) {
+        this.workbook = workbook;
+    }
+
+    @Override
+    public CellValue evaluate(final Cell cell) {
+        final CellValue value;
+        if (cell == null) {
+            value = null;
+        } else if (cell.getCellType() != CellType.FORMULA) {
+            value = withEvaluator(evaluator -> evaluator.evaluate(cell));
+        } else {
+            final CellValue result = results.computeIfAbsent(cell, this::evaluateFormula);
+            value = result == BLANK_VALUE ? null : result;
+        }
+        return value;
+    }
+
+    @Override
+    public CellType evaluateFormulaCell(final Cell cell) {
+        final CellType type;
+        if (cell == null || cell.getCellType() != CellType.FORMULA) {
+            type = CellType._NONE;
+        } else {
+            final CellValue value = evaluate(cell);
+            type = value == null ? CellType.BLANK : value.getCellType();
+            if (type != cell.getCachedFormulaResultType() || !isCached(cell, value)) {
+                withEvaluator(evaluator -> evaluator.evaluateFormulaCell(cell)); // Write the result into the cell
+            }
+        }
+        return type;
+    }
+
+    @Override
+    public Cell evaluateInCell(final Cell cell) {
+        if (cell != null) {
+            results.remove(cell);
+        }
+        return withEvaluator(evaluator -> evaluator.evaluateInCell(cell));
+    }
+
+    /**
+     * Evaluate all the formulas of the workbook in parallel, on the common fork-join pool. Does nothing when all the
+     * formulas have already been evaluated since the last change notified to this evaluator.
+     */
+    @Override
+    public void evaluateAll() {
+        if (!allEvaluated) {
+            for (final Sheet sheet : workbook) {
+                IntStream.rangeClosed(sheet.getFirstRowNum(), sheet.getLastRowNum()).parallel()
+                        .mapToObj(sheet::getRow)
+                        .filter(Objects::nonNull)
+                        .flatMap(row -> StreamSupport.stream(row.spliterator(), false))
+                        .filter(cell -> cell.getCellType() == CellType.FORMULA)
+                        .forEach(this::evaluate);
+            }
+            allEvaluated = true;
+        }
+    }
+
+    /**
+     * @return number of formula results kept by this evaluator
+     */
+    public int size() {
+        return results.size();
+    }
+
+    @Override
+    public void clearAllCachedResultValues() {
+        allEvaluated = false;
+        results.clear();
+        evaluators.forEach(FormulaEvaluator::clearAllCachedResultValues);
+    }
+
+    @Override
+    public void notifySetFormula(final Cell cell) {
+        clearAllCachedResultValues(); // Dependent formulas are not tracked
+    }
+
+    @Override
+    public void notifyDeleteCell(final Cell cell) {
+        clearAllCachedResultValues();
+    }
+
+    @Override
+    public void notifyUpdateCell(final Cell cell) {
+        clearAllCachedResultValues();
+    }
+
+    @Override
+    public void setupReferencedWorkbooks(final Map<String, FormulaEvaluator> workbooks) {
+        this.referencedWorkbooks = workbooks;
+        evaluators.forEach(evaluator -> evaluator.setupReferencedWorkbooks(workbooks));
+    }
+
+    @Override
+    public void setIgnoreMissingWorkbooks(final boolean ignore) {
+        this.ignoreMissingWorkbooks = ignore;
+        evaluators.forEach(evaluator -> evaluator.setIgnoreMissingWorkbooks(ignore));
+    }
+
+    @Override
+    public void setDebugEvaluationOutputForNextEval(final boolean value) {
+        // The evaluator is the next one borrowed by the calling thread, unless another thread borrows it first
+        withEvaluator(evaluator -> {
+            evaluator.setDebugEvaluationOutputForNextEval(value);
+            return null;
+        });
+    }
+
+    /**
+     * Release the formula results and the pooled POI evaluators. The evaluator cannot be used afterwards.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        idleEvaluators.clear();
+        evaluators.clear();
+        results.clear();
+    }
+
+    /**
+     * @return number of POI evaluators currently created by this evaluator, idle or borrowed
+     */
+    int getEvaluatorCount() {
+        return evaluators.size();
+    }
+
+    private CellValue evaluateFormula(final Cell cell) {
+        final CellValue value = withEvaluator(evaluator -> evaluator.evaluate(cell));
+        return value == null ? BLANK_VALUE : value;
+    }
+
+    private <T> T withEvaluator(final Function<FormulaEvaluator, T> action) {
+        final FormulaEvaluator evaluator = borrowEvaluator();
+        try {
+            return action.apply(evaluator);
+        } finally {
+            returnEvaluator(evaluator);
+        }
+    }
+
+    private FormulaEvaluator borrowEvaluator() {
+        if (closed) {
+            throw new IllegalStateException("Formula evaluator closed");
+        }
+        FormulaEvaluator evaluator = idleEvaluators.pollFirst();
+        if (evaluator == null) {
+            evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+            evaluator.setIgnoreMissingWorkbooks(ignoreMissingWorkbooks);
+            if (referencedWorkbooks != null) {
+                evaluator.setupReferencedWorkbooks(referencedWorkbooks);
+            }
+            evaluators.add(evaluator);
+        } else {
+            idleCount.decrementAndGet();
+        }
+        return evaluator;
+    }
+
+    private void returnEvaluator(final FormulaEvaluator evaluator) {
+        if (!closed && idleCount.incrementAndGet() <= MAX_IDLE_EVALUATORS) {
+            idleEvaluators.offerFirst(evaluator); // Most recently used first, its evaluation cache being the warmest
+        } else {
+            idleCount.decrementAndGet();
+            evaluators.remove(evaluator);
+        }
+    }
+
+    private static boolean isCached(final Cell cell, final CellValue value) {
+        final boolean cached;
+        switch (cell.getCachedFormulaResultType()) {
+            case NUMERIC:
+                cached = cell.getNumericCellValue() == value.getNumberValue();
+                break;
+            case STRING:
+                cached = cell.getStringCellValue().equals(value.getStringValue());
+                break;
+            case BOOLEAN:
+                cached = cell.getBooleanCellValue() == value.getBooleanValue();
+                break;
+            case ERROR:
+                cached = cell.getErrorCellValue() == value.getErrorValue();
+                break;
+            default:
+                cached = true;
+        }
+        return cached;
+    }
+}
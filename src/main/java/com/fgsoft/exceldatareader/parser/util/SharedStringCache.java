@@ -0,0 +1,223 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import lombok.NonNull;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
+
+import java.io.Closeable;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Cache of the shared strings of XLSX workbooks, giving access to string cells through their shared string index.
+ * <p>
+ * XLSX files store each distinct text once, in the shared strings table of the workbook, string cells only holding the
+ * index of their text in the table. POI however builds a new rich text and a new string on each read of a string
+ * cell. This cache decodes each shared string once and returns the same String instance for all the cells referring
+ * to it. Parsers of low cardinality types, such as enums or booleans, further keep their parsed values by shared
+ * string index in decode tables, so that the text of a cell is parsed once per workbook rather than once per cell.
+ * <p>
+ * Caches are scoped to the readers of the workbooks: a cache is registered with {@link #register(Workbook)} when the
+ * workbook is opened and released by {@link #close()}, or once its workbook is garbage collected, as caches are kept
+ * weakly by the shared strings table of their workbook. The last cache resolved by each thread is remembered, so that
+ * consecutive cells of a workbook are read without locking. Only the
+ * first {@value #MAX_CACHED_STRINGS} shared strings are cached, so that the heap does not grow with the number of
+ * shared strings. Cells of unregistered workbooks, of other workbook formats, inline strings and formula results are
+ * read from the cell itself. Tables mapped out of heap, see {@link MappedSharedStringsTable}, are not cached either.
+ */
+public final class SharedStringCache implements Closeable {
+    /**
+     * Maximum number of shared strings, and of decoded values per decoder, kept by a cache
+     */
+    public static final int MAX_CACHED_STRINGS = 65_536;
+    private static final Map<SharedStrings, SharedStringCache> CACHES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+    private static final ThreadLocal<Reference<SharedStringCache>> LAST_CACHE = new ThreadLocal<>();
+
+    private final Reference<SharedStrings> owner; // Table of the cache, not kept alive by the cache
+    private final Reference<SharedStringCache> self = new WeakReference<>(this); // Remembered by the threads
+    private volatile boolean closed;
+    private final int size;
+    private final AtomicReferenceArray<String> strings; // Canonical strings by index
+    private final Map<Object, AtomicReferenceArray<Object>> decodeTables = new ConcurrentHashMap<>(); // By decoder
+
+    private SharedStringCache(final SharedStrings table, final int maxSize) {
+        this.owner = new WeakReference<>(table);
+        this.size = Math.min(table.getUniqueCount(), maxSize);
+        this.strings = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Register the cache of the shared strings table of a workbook, used until the cache is closed
+     * @param workbook workbook whose string cells will be read
+     * @return the registered cache, null if the workbook has no shared strings table that can be cached
+     */
+    public static SharedStringCache register(@NonNull final Workbook workbook) {
+        return register(workbook, MAX_CACHED_STRINGS);
+    }
+
+    static SharedStringCache register(final Workbook workbook, final int maxSize) {
+        SharedStringCache cache = null;
+        if (workbook instanceof XSSFWorkbook) {
+            final SharedStrings table = ((XSSFWorkbook) workbook).getSharedStringSource();
+            if (table != null && !(table instanceof MappedSharedStringsTable)) {
+                cache = new SharedStringCache(table, maxSize);
+                CACHES.put(table, cache);
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Release the cache, the cells of its workbook being then read from the cells themselves
+     */
+    @Override
+    public void close() {
+        closed = true;
+        final SharedStrings table = owner.get();
+        if (table != null) {
+            CACHES.remove(table, this);
+        }
+    }
+
+    /**
+     * @param cell cell to get the shared string index for, may be null
+     * @return index of the text of the cell in the shared strings table of the workbook, -1 if the cell is not a
+     * string cell referring to the shared strings table
+     */
+    public static int getIndex(final Cell cell) {
+        int index = -1;
+        if (cell instanceof XSSFCell && cell.getCellType() == CellType.STRING) {
+            final CTCell ctCell = ((XSSFCell) cell).getCTCell();
+            if (ctCell.getT() == STCellType.S && ctCell.isSetV()) {
+                try {
+                    index = Integer.parseInt(ctCell.getV());
+                } catch (NumberFormatException exc) {
+                    index = -1;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Same as {@link Cell#getStringCellValue()}, returning the same String instance for all the cells sharing the
+     * same text in the shared strings table
+     * @param cell string cell to read
+     * @return text of the cell
+     */
+    public static String getString(@NonNull final Cell cell) {
+        final int index = getIndex(cell);
+        final String value;
+        if (index < 0) {
+            value = cell.getStringCellValue();
+        } else {
+            final SharedStrings table = getTable(cell);
+            final SharedStringCache cache = forTable(table);
+            value = cache == null ? cell.getStringCellValue() : cache.getString(table, index);
+        }
+        return value;
+    }
+
+    /**
+     * Decode the text of a string cell, the decoded value being kept by shared string index so that further cells
+     * sharing the same text are decoded by an array lookup. Null values, e.g. for incorrect texts, are not kept and
+     * are decoded again on each call.
+     * @param cell string cell to decode
+     * @param decoder key of the decode table, identifying the decoding function, usually the parser itself
+     * @param function function decoding the text of the cell. The function must give the same value for the same
+     * text.
+     * @param <T> type of the decoded values
+     * @return decoded value
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T decode(@NonNull final Cell cell, @NonNull final Object decoder,
+                               @NonNull final Function<String, T> function) {
+        final int index = getIndex(cell);
+        final T value;
+        if (index < 0) {
+            value = function.apply(cell.getStringCellValue());
+        } else {
+            final SharedStrings table = getTable(cell);
+            final SharedStringCache cache = forTable(table);
+            if (cache == null || index >= cache.size) {
+                value = function.apply(cache == null ? cell.getStringCellValue() : cache.getString(table, index));
+            } else {
+                AtomicReferenceArray<Object> decodeTable = cache.decodeTables.get(decoder);
+                if (decodeTable == null) {
+                    decodeTable = cache.decodeTables.computeIfAbsent(decoder,
+                            key -> new AtomicReferenceArray<>(cache.size));
+                }
+                final Object decoded = decodeTable.get(index);
+                if (decoded == null) {
+                    value = function.apply(cache.getString(table, index));
+                    if (value != null) {
+                        decodeTable.set(index, value);
+                    }
+                } else {
+                    value = (T) decoded;
+                }
+            }
+        }
+        return value;
+    }
+
+    private static SharedStrings getTable(final Cell cell) {
+        return ((XSSFCell) cell).getSheet().getWorkbook().getSharedStringSource();
+    }
+
+    private static SharedStringCache forTable(final SharedStrings table) {
+        final Reference<SharedStringCache> last = LAST_CACHE.get();
+        SharedStringCache cache = last == null ? null : last.get();
+        if (cache == null || cache.closed || cache.owner.get() != table) {
+            cache = CACHES.get(table);
+            if (cache != null) {
+                LAST_CACHE.set(cache.self);
+            }
+        }
+        return cache;
+    }
+
+    private String getString(final SharedStrings table, final int index) {
+        String value;
+        if (index < size) {
+            value = strings.get(index);
+            if (value == null) {
+                value = table.getItemAt(index).getString();
+                if (!strings.compareAndSet(index, null, value)) {
+                    value = strings.get(index);
+                }
+            }
+        } else {
+            // Strings over the bound of the cache, or added after the cache was created, are not cached
+            value = table.getItemAt(index).getString();
+        }
+        return value;
+    }
+}
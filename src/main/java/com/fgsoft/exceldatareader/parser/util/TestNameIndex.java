@@ -0,0 +1,179 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import com.fgsoft.exceldatareader.exception.ExcelReaderException;
+import com.fgsoft.exceldatareader.parser.HeaderDescriptor;
+import lombok.NonNull;
+import org.apache.poi.ss.usermodel.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.UNABLE_TO_OPEN_FILE;
+import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.UNABLE_TO_WRITE_FILE;
+
+/**
+ * Index of the test names of a worksheet, i.e. of the reference names given in the first column of the data rows.
+ * <p>
+ * The index maps each test name to the rows where it appears, so that the rows of a test are found without scanning
+ * the worksheet. Test names are kept in the order of their first appearance in the worksheet. Data rows with an empty
+ * first column are not indexed.
+ * <p>
+ * An index can be saved to a file with {@link #writeTo(Path)} and loaded back with {@link #readFrom(Path)}, which
+ * avoids scanning large worksheets again. The caller is responsible for discarding saved indexes whenever the
+ * workbook changes.
+ */
+public final class TestNameIndex {
+    private static final int FILE_MAGIC = 0x54_4E_49_58; // "TNIX"
+    private static final int FILE_VERSION = 1;
+    private static final int[] NO_ROWS = new int[0];
+    private static final int TEST_NAME_COLUMN = 0;
+
+    private final Map<String, int[]> rowsByTestName;
+    private final List<String> testNames;
+
+    private TestNameIndex(final Map<String, int[]> rowsByTestName) {
+        this.rowsByTestName = rowsByTestName;
+        this.testNames = Collections.unmodifiableList(new ArrayList<>(rowsByTestName.keySet()));
+    }
+
+    /**
+     * Build the index of a worksheet by scanning the first column of its data rows. Formula cells are indexed from
+     * their cached result.
+     * @param worksheet worksheet to index
+     * @param headerDescriptor description of the header rows of the worksheet
+     * @return index of the test names of the worksheet
+     */
+    public static TestNameIndex forSheet(@NonNull final Sheet worksheet,
+                                         @NonNull final HeaderDescriptor headerDescriptor) {
+        final DataFormatter formatter = new DataFormatter();
+        final FormulaEvaluator evaluator = new CachedResultFormulaEvaluator();
+        final Map<String, List<Integer>> rows = new LinkedHashMap<>();
+        for (final Row row : worksheet) {
+            if (row.getRowNum() > headerDescriptor.getLastHeaderRow()) {
+                final Cell cell = row.getCell(TEST_NAME_COLUMN);
+                final String testName = cell == null ? "" : formatter.formatCellValue(cell, evaluator).trim();
+                if (!testName.isEmpty()) {
+                    rows.computeIfAbsent(testName, name -> new ArrayList<>(1)).add(row.getRowNum());
+                }
+            }
+        }
+        final Map<String, int[]> rowsByTestName = new LinkedHashMap<>(rows.size() * 4 / 3 + 1);
+        rows.forEach((testName, testRows) ->
+                rowsByTestName.put(testName, testRows.stream().mapToInt(Integer::intValue).toArray()));
+        return new TestNameIndex(rowsByTestName);
+    }
+
+    /**
+     * Load an index previously saved with {@link #writeTo(Path)}
+     * @param file file to load the index from
+     * @return loaded index
+     */
+    public static TestNameIndex readFrom(@NonNull final Path file) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return readFrom(input);
+        } catch (IOException exc) {
+            throw new ExcelReaderException(exc, UNABLE_TO_OPEN_FILE, file);
+        }
+    }
+
+    /**
+     * Load an index previously saved with {@link #writeTo(DataOutput)}
+     * @param input input to load the index from
+     * @return loaded index
+     * @throws IOException if the input cannot be read or does not contain an index
+     */
+    public static TestNameIndex readFrom(@NonNull final DataInput input) throws IOException {
+        if (input.readInt() != FILE_MAGIC || input.readInt() != FILE_VERSION) {
+            throw new IOException("Not a test name index file");
+        }
+        final int size = input.readInt();
+        final Map<String, int[]> rowsByTestName = new LinkedHashMap<>(size * 4 / 3 + 1);
+        for (int cnt = 0; cnt < size; cnt++) {
+            final String testName = input.readUTF();
+            final int[] rows = new int[input.readInt()];
+            for (int rowCnt = 0; rowCnt < rows.length; rowCnt++) {
+                rows[rowCnt] = input.readInt();
+            }
+            rowsByTestName.put(testName, rows);
+        }
+        return new TestNameIndex(rowsByTestName);
+    }
+
+    /**
+     * Save the index to a file
+     * @param file file to save the index to. Any existing file is replaced.
+     */
+    public void writeTo(@NonNull final Path file) {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            writeTo(output);
+        } catch (IOException exc) {
+            throw new ExcelReaderException(exc, UNABLE_TO_WRITE_FILE, file);
+        }
+    }
+
+    /**
+     * Save the index to an output, e.g. as a section of a larger file
+     * @param output output to save the index to
+     * @throws IOException if the output cannot be written
+     */
+    public void writeTo(@NonNull final DataOutput output) throws IOException {
+        output.writeInt(FILE_MAGIC);
+        output.writeInt(FILE_VERSION);
+        output.writeInt(rowsByTestName.size());
+        for (final Map.Entry<String, int[]> entry : rowsByTestName.entrySet()) {
+            output.writeUTF(entry.getKey());
+            output.writeInt(entry.getValue().length);
+            for (final int row : entry.getValue()) {
+                output.writeInt(row);
+            }
+        }
+    }
+
+    /**
+     * @param testName reference name as given in the first column of the worksheet
+     * @return true if the worksheet contains the test name
+     */
+    public boolean contains(final String testName) {
+        return rowsByTestName.containsKey(testName);
+    }
+
+    /**
+     * @param testName reference name as given in the first column of the worksheet
+     * @return index of the first row of the test, -1 if the worksheet does not contain the test name
+     */
+    public int getFirstRow(final String testName) {
+        final int[] rows = rowsByTestName.getOrDefault(testName, NO_ROWS);
+        return rows.length == 0 ? -1 : rows[0];
+    }
+
+    /**
+     * @param testName reference name as given in the first column of the worksheet
+     * @return indexes of the rows of the test in sheet order, empty if the worksheet does not contain the test name
+     */
+    public int[] getRows(final String testName) {
+        return rowsByTestName.getOrDefault(testName, NO_ROWS).clone();
+    }
+
+    /**
+     * @return unmodifiable list of the test names, in the order of their first appearance in the worksheet
+     */
+    public List<String> getAllTestNames() {
+        return testNames;
+    }
+}
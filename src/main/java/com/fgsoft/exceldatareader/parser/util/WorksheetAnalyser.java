@@ -16,9 +16,11 @@ package com.fgsoft.exceldatareader.parser.util;
 
 import com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode;
 import com.fgsoft.exceldatareader.exception.ExcelReaderException;
+import com.fgsoft.exceldatareader.metrics.HeaderAnalysisEvent;
+import com.fgsoft.exceldatareader.metrics.Metrics;
 import com.fgsoft.exceldatareader.parser.HeaderDescriptor;
+import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.Row;
@@ -38,23 +40,56 @@ import java.util.*;
 public class WorksheetAnalyser {
     private final Sheet worksheet;
     private final HeaderDescriptor headerDescriptor;
+    private final MergedRegionIndex mergedRegionIndex;
+
+    /**
+     * Create an analyser indexing the current merged regions of the worksheet
+     * @param worksheet worksheet to analyse
+     * @param headerDescriptor description of the header rows of the worksheet
+     */
+    public WorksheetAnalyser(@NonNull final Sheet worksheet, final HeaderDescriptor headerDescriptor) {
+        this(worksheet, headerDescriptor, MergedRegionIndex.forSheet(worksheet));
+    }
 
     /**
      * Scan the worksheet in order to get the map of headers and fields of the object to get value from parsing
      * @return Map of object fields headers and columns in worksheet.
      */
     public Map<String, Integer> getHeadersMap() {
-        final Map<String, Integer> retMap = new HashMap<>();
+        return new HashMap<>(getHeaderSchema().asMap());
+    }
+
+    /**
+     * Scan the worksheet in order to get the schema of its headers. Unlike {@link #getHeadersMap()}, the result is
+     * immutable and can be cached and shared by all the parsers of the worksheet.
+     * @return schema of the headers of the worksheet
+     */
+    public HeaderSchema getHeaderSchema() {
+        final long start = Metrics.startTimer();
+        final HeaderAnalysisEvent event = new HeaderAnalysisEvent();
+        event.begin();
+        final Map<String, Integer> headers = new HashMap<>();
         final List<Row> titleRows = buildTitleRows();
         final Row largestTitleRow = findLargestTitleRow(titleRows);
+        final StringBuilder header = new StringBuilder();
         for (Cell cell : largestTitleRow) {
             final int columnIndex = cell.getColumnIndex();
             if (columnIndex > 0) { // First column is assigned to the test name
-                final String headerValue = computeHeader(columnIndex, titleRows).trim();
-                retMap.put(headerValue, columnIndex);
+                header.setLength(0);
+                computeHeader(columnIndex, titleRows, header);
+                headers.put(header.toString().trim(), columnIndex);
             }
         }
-        return retMap;
+        final HeaderSchema schema = new HeaderSchema(headers);
+        Metrics.get().headersAnalysed(worksheet.getSheetName(), Metrics.elapsed(start));
+        event.end();
+        if (event.shouldCommit()) {
+            event.setSheet(worksheet.getSheetName());
+            event.setColumns(schema.size());
+            event.setMerges(mergedRegionIndex.size());
+            event.commit();
+        }
+        return schema;
     }
 
     private List<Row> buildTitleRows() {
@@ -77,16 +112,17 @@ public class WorksheetAnalyser {
         }
     }
 
-    private String computeHeader(int columnIndex, List<Row> titleRows) {
-        final List<String> tmpHeaders = new ArrayList<>(titleRows.size());
-        for (final Row row : titleRows) {
-            final Cell combinedCell = getCellWithMerge(row.getRowNum(), columnIndex);
+    private void computeHeader(int columnIndex, List<Row> titleRows, StringBuilder header) {
+        // Title rows are in reverse order: the upper title is the last one
+        for (int cnt = titleRows.size() - 1; cnt >= 0; cnt--) {
+            final Cell combinedCell = getCellWithMerge(titleRows.get(cnt).getRowNum(), columnIndex);
             if (combinedCell != null && CellType.BLANK != combinedCell.getCellType()) {
-                final String titleHeader = combinedCell.getStringCellValue();
-                tmpHeaders.add(0, titleHeader);
+                if (header.length() > 0) {
+                    header.append('.');
+                }
+                header.append(combinedCell.getStringCellValue());
             }
         }
-        return StringUtils.join(tmpHeaders, '.');
     }
 
     /**
@@ -101,13 +137,10 @@ public class WorksheetAnalyser {
         if (rowIndex >= 0) {
             int topRow = rowIndex;
             int firstColumn = columnIndex;
-            final List<CellRangeAddress> merges = worksheet.getMergedRegions();
-            for  (CellRangeAddress merge : merges) {
-                if (merge.isInRange(rowIndex, columnIndex)) {
-                    topRow = merge.getFirstRow();
-                    firstColumn = merge.getFirstColumn();
-                    break;
-                }
+            final CellRangeAddress merge = mergedRegionIndex.getMergedRegion(rowIndex, columnIndex);
+            if (merge != null) {
+                topRow = merge.getFirstRow();
+                firstColumn = merge.getFirstColumn();
             }
             cell = worksheet.getRow(topRow).getCell(firstColumn);
         } else {
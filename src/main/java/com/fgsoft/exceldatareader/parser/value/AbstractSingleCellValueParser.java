@@ -16,15 +16,22 @@
 package com.fgsoft.exceldatareader.parser.value;
 
 import com.fgsoft.exceldatareader.exception.ExcelReaderException;
+import com.fgsoft.exceldatareader.exception.IncorrectValueForTypeException;
+import com.fgsoft.exceldatareader.exception.ParseErrors;
+import com.fgsoft.exceldatareader.metrics.Metrics;
+import com.fgsoft.exceldatareader.parser.util.CachedResultFormulaEvaluator;
+import com.fgsoft.exceldatareader.parser.util.SharedStringCache;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.CellValue;
 import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.ss.usermodel.Sheet;
 
+import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.INCORRECT_VALUE_FOR_TYPE;
 import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.UNEXPECTED_VALUE;
 
 /**
@@ -36,7 +43,7 @@ import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.UNEXPECT
 @Slf4j
 @RequiredArgsConstructor
 @Getter
-abstract class AbstractSingleCellValueParser<T> {
+public abstract class AbstractSingleCellValueParser<T> {
     /**
      * Parse the value for a given cell
      *
@@ -52,8 +59,10 @@ abstract class AbstractSingleCellValueParser<T> {
             final int rowIndex = cell.getRowIndex();
             final int colIndex = cell.getColumnIndex();
             final Sheet worksheet = cell.getSheet();
+            final CellType cellType = cell.getCellType();
+            Metrics.get().cellParsed(cellType);
             try {
-                switch (cell.getCellType()) {
+                switch (cellType) {
                     case FORMULA:
                         value = getValueFromFormula(cell, evaluator);
                         break;
@@ -61,27 +70,42 @@ abstract class AbstractSingleCellValueParser<T> {
                         value = getValueForEmptyCell(rowIndex, colIndex, worksheet);
                         break;
                     case NUMERIC:
-                        value = getValueForCell(cell.getNumericCellValue(), rowIndex, colIndex, worksheet);
+                        value = getValueForCell(cell.getNumericCellValue(), cell);
                         break;
                     case BOOLEAN:
                         value = getValueForCell(cell.getBooleanCellValue(), rowIndex, colIndex, worksheet);
                         break;
                     case STRING:
-                        value = getValueForCell(cell.getStringCellValue(), rowIndex, colIndex, worksheet);
+                        value = getValueForStringCell(cell, rowIndex, colIndex, worksheet);
                         break;
                     case ERROR:
                     default:
-                        reportError(rowIndex, colIndex, worksheet);
-                        value = null;
+                        value = unexpectedValue(rowIndex, colIndex, worksheet);
                 }
             } catch (IllegalStateException exc) {
-                value = null;
-                reportError(rowIndex, colIndex, worksheet);
+                value = unexpectedValue(rowIndex, colIndex, worksheet);
             }
         }
         return value;
     }
 
+    /**
+     * Parse the value for a given cell in collect-errors mode: errors are recorded in the given buffer instead of
+     * being thrown, and null is returned for incorrect cells.
+     *
+     * @param cell      Cell to parse
+     * @param evaluator Formula evaluator call in case of cell containing a formula
+     * @param errors    buffer recording the errors
+     */
+    public T getValue(final Cell cell, @NonNull final FormulaEvaluator evaluator, @NonNull final ParseErrors errors) {
+        final ParseErrors previous = errors.enter(); // Inline collect, not to allocate an action per cell
+        try {
+            return getValue(cell, evaluator);
+        } finally {
+            ParseErrors.exit(previous);
+        }
+    }
+
     /**
      * @param rowIndex  row index
      * @param colIndex  column index
@@ -98,6 +122,17 @@ abstract class AbstractSingleCellValueParser<T> {
      */
     protected abstract T getValueForCell(double value, int rowIndex, int colIndex, Sheet worksheet);
 
+    /**
+     * Same as {@link #getValueForCell(double, int, int, Sheet)}, given the cell itself. Parsers needing the cell,
+     * e.g. to check its format, override this method rather than getting the cell back from the worksheet.
+     * @param value numeric value of the cell, or numeric result of the formula of the cell
+     * @param cell  cell being parsed
+     * @return the value for this parser in case of a numeric cell
+     */
+    protected T getValueForCell(double value, Cell cell) {
+        return getValueForCell(value, cell.getRowIndex(), cell.getColumnIndex(), cell.getSheet());
+    }
+
     /**
      * @param rowIndex  row index
      * @param colIndex  column index
@@ -114,6 +149,20 @@ abstract class AbstractSingleCellValueParser<T> {
      */
     protected abstract T getValueForCell(String value, int rowIndex, int colIndex, Sheet worksheet);
 
+    /**
+     * Same as {@link #getValueForCell(String, int, int, Sheet)}, given the string cell itself. The text is read through
+     * the shared strings cache, so that cells sharing the same text give the same String instance. Parsers of low
+     * cardinality types override this method to decode the cell with {@link SharedStringCache#decode}.
+     * @param cell      string cell being parsed
+     * @param rowIndex  row index
+     * @param colIndex  column index
+     * @param worksheet current worksheet
+     * @return the value for this parser in case of a string cell
+     */
+    protected T getValueForStringCell(Cell cell, int rowIndex, int colIndex, Sheet worksheet) {
+        return getValueForCell(SharedStringCache.getString(cell), rowIndex, colIndex, worksheet);
+    }
+
     private T getValueForNullCell() {
         return null;
     }
@@ -124,36 +173,59 @@ abstract class AbstractSingleCellValueParser<T> {
         final int colIndex = cell.getColumnIndex();
         final Sheet worksheet = cell.getSheet();
         try {
-            final CellValue cellValue = evaluator.evaluate(cell);
-            switch (cellValue.getCellType()) {
-                case BLANK:
-                    value = getValueForEmptyCell(rowIndex, colIndex, worksheet);
-                    break;
-                case NUMERIC:
-                    value = parseNumericCell(cellValue, rowIndex, colIndex, worksheet);
-                    break;
-                case BOOLEAN:
-                    value = getValueForCell(cellValue.getBooleanValue(), rowIndex, colIndex, worksheet);
-                    break;
-                case STRING:
-                    value = getValueForCell(cellValue.getStringValue(), rowIndex, colIndex, worksheet);
-                    break;
-                default:
-                    value = null;
-                    reportError(rowIndex, colIndex, worksheet);
+            if (evaluator instanceof CachedResultFormulaEvaluator) {
+                // Fast path: the cached result is read from the cell, without building a cell value
+                value = getValueFromCachedResult(cell, rowIndex, colIndex, worksheet);
+            } else {
+                Metrics.get().formulaEvaluated();
+                final CellValue cellValue = evaluator.evaluate(cell);
+                switch (cellValue.getCellType()) {
+                    case BLANK:
+                        value = getValueForEmptyCell(rowIndex, colIndex, worksheet);
+                        break;
+                    case NUMERIC:
+                        value = parseNumericCell(cellValue.getNumberValue(), cell);
+                        break;
+                    case BOOLEAN:
+                        value = getValueForCell(cellValue.getBooleanValue(), rowIndex, colIndex, worksheet);
+                        break;
+                    case STRING:
+                        value = getValueForCell(cellValue.getStringValue(), rowIndex, colIndex, worksheet);
+                        break;
+                    default:
+                        value = unexpectedValue(rowIndex, colIndex, worksheet);
+                }
             }
         } catch (IllegalStateException exc) {
-            value = null;
-            reportError(rowIndex, colIndex, worksheet);
+            value = unexpectedValue(rowIndex, colIndex, worksheet);
         }
         return value;
     }
 
-    private T parseNumericCell(final CellValue cellValue,
-                               final int rowIndex, final int colIndex, final Sheet worksheet) {
+    private T getValueFromCachedResult(Cell cell, int rowIndex, int colIndex, Sheet worksheet) {
         final T value;
-        final T tmpDblValue = getValueForCell(cellValue.getNumberValue(),
-                rowIndex, colIndex, worksheet);
+        switch (cell.getCachedFormulaResultType()) {
+            case BLANK:
+                value = getValueForEmptyCell(rowIndex, colIndex, worksheet);
+                break;
+            case NUMERIC:
+                value = parseNumericCell(cell.getNumericCellValue(), cell);
+                break;
+            case BOOLEAN:
+                value = getValueForCell(cell.getBooleanCellValue(), rowIndex, colIndex, worksheet);
+                break;
+            case STRING:
+                value = getValueForCell(cell.getStringCellValue(), rowIndex, colIndex, worksheet);
+                break;
+            default:
+                value = unexpectedValue(rowIndex, colIndex, worksheet);
+        }
+        return value;
+    }
+
+    private T parseNumericCell(final double numericValue, final Cell cell) {
+        final T value;
+        final T tmpDblValue = getValueForCell(numericValue, cell);
         if ("0.0".equals(tmpDblValue)) {
             value = null;
         } else {
@@ -162,9 +234,49 @@ abstract class AbstractSingleCellValueParser<T> {
         return value;
     }
 
-    private void reportError(final int rowIndex, final int colIndex, final Sheet worksheet) {
-        final String name = worksheet.getSheetName();
-        throw new ExcelReaderException(UNEXPECTED_VALUE, rowIndex, colIndex, name);
+    /**
+     * Report a cell value that cannot be converted to the type of this parser. In collect-errors mode, see
+     * {@link ParseErrors#collect(java.util.function.Supplier)}, the error is recorded and null is returned, otherwise
+     * an {@link IncorrectValueForTypeException} is thrown.
+     *
+     * @param cause     cause of the error, may be null
+     * @param value     value read from the cell
+     * @param typeName  name of the expected type
+     * @param rowIndex  row index
+     * @param colIndex  column index
+     * @param worksheet current worksheet
+     * @return null, the value of an incorrect cell in collect-errors mode
+     */
+    protected final T incorrectValue(final Throwable cause, final Object value, final String typeName,
+                                     final int rowIndex, final int colIndex, final Sheet worksheet) {
+        final ParseErrors errors = ParseErrors.current();
+        if (errors == null) {
+            throw new IncorrectValueForTypeException(cause, value, typeName,
+                    rowIndex, colIndex, getSheetName(worksheet));
+        }
+        errors.add(rowIndex, colIndex, getSheetName(worksheet), INCORRECT_VALUE_FOR_TYPE, typeName, value);
+        return null;
+    }
+
+    /**
+     * Report a cell that cannot be read, e.g. an error cell. In collect-errors mode the error is recorded and null is
+     * returned, otherwise an {@link ExcelReaderException} is thrown.
+     *
+     * @param rowIndex  row index
+     * @param colIndex  column index
+     * @param worksheet current worksheet
+     * @return null, the value of an unexpected cell in collect-errors mode
+     */
+    protected final T unexpectedValue(final int rowIndex, final int colIndex, final Sheet worksheet) {
+        final ParseErrors errors = ParseErrors.current();
+        if (errors == null) {
+            throw new ExcelReaderException(UNEXPECTED_VALUE, rowIndex, colIndex, getSheetName(worksheet));
+        }
+        errors.add(rowIndex, colIndex, getSheetName(worksheet), UNEXPECTED_VALUE, null, null);
+        return null;
     }
 
+    private static String getSheetName(final Sheet worksheet) {
+        return worksheet == null ? null : worksheet.getSheetName(); // Detached cells may have no worksheet
+    }
 }
@@ -14,7 +14,6 @@
  */
 package com.fgsoft.exceldatareader.parser.value;
 
-import com.fgsoft.exceldatareader.exception.IncorrectValueForTypeException;
 import org.apache.poi.ss.usermodel.Sheet;
 
 import java.math.BigDecimal;
@@ -47,18 +46,15 @@ public class BigDecimalValueParser extends AbstractSingleCellValueParser<BigDeci
 
     @Override
     protected BigDecimal getValueForCell(boolean value, int rowIndex, int colIndex, Sheet worksheet) {
-        throw new IncorrectValueForTypeException(null, value, BigDecimal.class.getName(),
-                rowIndex, colIndex, worksheet.getSheetName());
+        return incorrectValue(null, value, BigDecimal.class.getName(), rowIndex, colIndex, worksheet);
     }
 
     @Override
     protected BigDecimal getValueForCell(String value, int rowIndex, int colIndex, Sheet worksheet) {
         try {
-            final Double doubleValue = doubleValueParser.getValueForCell(value, rowIndex, colIndex, worksheet);
-            return transformToBigDecimal(doubleValue);
-        } catch (IncorrectValueForTypeException exc) {
-            throw new IncorrectValueForTypeException(null, value, BigDecimal.class.getName(),
-                    rowIndex, colIndex, worksheet.getSheetName());
+            return transformToBigDecimal(Double.parseDouble(value));
+        } catch (NumberFormatException exc) {
+            return incorrectValue(null, value, BigDecimal.class.getName(), rowIndex, colIndex, worksheet);
         }
     }
 
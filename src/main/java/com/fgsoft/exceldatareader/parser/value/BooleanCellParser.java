@@ -0,0 +1,50 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.value;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.util.BitSet;
+
+/**
+ * Parser of single cell values returning a primitive boolean without boxing. As no boolean value can be used as a
+ * sentinel, blank cells are given a default value, or signalled in a separate presence bitmap for bulk reads.
+ */
+public interface BooleanCellParser {
+    /**
+     * Parse the value for a given cell
+     *
+     * @param cell         Cell to parse, may be null
+     * @param evaluator    Formula evaluator call in case of cell containing a formula
+     * @param defaultValue value to return for a null or blank cell
+     * @return the value of the cell, the default value for a null or blank cell
+     */
+    boolean getBoolean(Cell cell, FormulaEvaluator evaluator, boolean defaultValue);
+
+    /**
+     * Read consecutive cells of a column. Missing rows and cells are read as blank cells.
+     *
+     * @param worksheet   worksheet to read
+     * @param columnIndex index of the column to read
+     * @param firstRow    index of the first row to read
+     * @param evaluator   Formula evaluator call in case of cell containing a formula
+     * @param values      array receiving the values, one per row from the first row. Blank cells are set to false
+     * @param presence    bitmap receiving, for each row from the first row, whether the cell has a value
+     */
+    void readColumn(Sheet worksheet, int columnIndex, int firstRow, FormulaEvaluator evaluator,
+                    boolean[] values, BitSet presence);
+}
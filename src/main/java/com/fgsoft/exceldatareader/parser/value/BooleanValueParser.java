@@ -14,13 +14,21 @@
  */
 package com.fgsoft.exceldatareader.parser.value;
 
-import com.fgsoft.exceldatareader.exception.IncorrectValueForTypeException;
+import com.fgsoft.exceldatareader.parser.util.SharedStringCache;
+import lombok.NonNull;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.ss.usermodel.Sheet;
 
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
 
-public class BooleanValueParser extends AbstractSingleCellValueParser<Boolean> {
+public class BooleanValueParser extends AbstractSingleCellValueParser<Boolean> implements BooleanCellParser {
+    private static final int BLANK = -1;
+    private static final int FALSE = 0;
+    private static final int TRUE = 1;
+
     private static final Map<String, Boolean> MAP_VALUES = new HashMap<>();
     static {
         MAP_VALUES.put("YES", true);
@@ -43,8 +51,7 @@ public class BooleanValueParser extends AbstractSingleCellValueParser<Boolean> {
             // Case of formula return
             return null; //NOSONAR
         } else {
-            throw new IncorrectValueForTypeException(null, String.valueOf(value), Boolean.class.getName(),
-                    rowIndex, colIndex, worksheet.getSheetName());
+            return incorrectValue(null, String.valueOf(value), Boolean.class.getName(), rowIndex, colIndex, worksheet);
         }
     }
 
@@ -58,8 +65,63 @@ public class BooleanValueParser extends AbstractSingleCellValueParser<Boolean> {
         if (MAP_VALUES.containsKey(value)) {
             return MAP_VALUES.get(value);
         } else {
-            throw new IncorrectValueForTypeException(null, value, Boolean.class.getName(),
-                    rowIndex, colIndex, worksheet.getSheetName());
+            return incorrectValue(null, value, Boolean.class.getName(), rowIndex, colIndex, worksheet);
+        }
+    }
+
+    @Override
+    protected Boolean getValueForStringCell(Cell cell, int rowIndex, int colIndex, Sheet worksheet) {
+        return SharedStringCache.decode(cell, this, value -> getValueForCell(value, rowIndex, colIndex, worksheet));
+    }
+
+    @Override
+    public boolean getBoolean(final Cell cell, @NonNull final FormulaEvaluator evaluator, final boolean defaultValue) {
+        final int state = getState(cell, evaluator);
+        return state == BLANK ? defaultValue : state == TRUE;
+    }
+
+    @Override
+    public void readColumn(final Sheet worksheet, final int columnIndex, final int firstRow,
+                           @NonNull final FormulaEvaluator evaluator, final boolean[] values, final BitSet presence) {
+        for (int cnt = 0; cnt < values.length; cnt++) {
+            final int state = getState(PrimitiveCellSupport.getCell(worksheet, firstRow + cnt, columnIndex), evaluator);
+            values[cnt] = state == TRUE;
+            presence.set(cnt, state != BLANK);
+        }
+    }
+
+    /**
+     * @return state of the cell value: BLANK, FALSE or TRUE
+     */
+    private int getState(final Cell cell, final FormulaEvaluator evaluator) {
+        Boolean value = null;
+        try {
+            switch (PrimitiveCellSupport.resolveType(cell, evaluator)) {
+                case BLANK:
+                    break;
+                case FORMULA:
+                    value = getValue(cell, evaluator);
+                    break;
+                case BOOLEAN:
+                    value = cell.getBooleanCellValue();
+                    break;
+                case NUMERIC:
+                    value = getValueForCell(cell.getNumericCellValue(), cell.getRowIndex(), cell.getColumnIndex(),
+                            cell.getSheet());
+                    break;
+                case STRING:
+                    value = getValueForStringCell(cell, cell.getRowIndex(), cell.getColumnIndex(), cell.getSheet());
+                    break;
+                default:
+                    unexpectedValue(cell.getRowIndex(), cell.getColumnIndex(), cell.getSheet());
+            }
+        } catch (IllegalStateException exc) {
+            unexpectedValue(cell.getRowIndex(), cell.getColumnIndex(), cell.getSheet());
         }
+        return value == null ? BLANK : toState(value);
+    }
+
+    private static int toState(final boolean value) {
+        return value ? TRUE : FALSE;
     }
 }
@@ -14,10 +14,8 @@
  */
 package com.fgsoft.exceldatareader.parser.value;
 
-import com.fgsoft.exceldatareader.exception.IncorrectValueForTypeException;
+import com.fgsoft.exceldatareader.parser.util.DateFormatCache;
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.DateUtil;
-import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 
 import java.time.LocalDateTime;
@@ -33,22 +31,24 @@ public class DateValueParser extends AbstractSingleCellValueParser<Date> {
 
     @Override
     protected Date getValueForCell(double value, int rowIndex, int colIndex, Sheet worksheet) {
+        return getValueForCell(value, worksheet.getRow(rowIndex).getCell(colIndex));
+    }
+
+    @Override
+    protected Date getValueForCell(double value, Cell cell) {
         final Date date;
-        final Row row = worksheet.getRow(rowIndex);
-        final Cell cell = row.getCell(colIndex);
-        if (DateUtil.isCellDateFormatted(cell)) {
+        if (DateFormatCache.isCellDateFormatted(cell)) {
             date = cell.getDateCellValue();
         } else {
-            throw new IncorrectValueForTypeException(null, value, Date.class.getName(),
-                    rowIndex, colIndex, worksheet.getSheetName());
+            return incorrectValue(null, value, Date.class.getName(),
+                    cell.getRowIndex(), cell.getColumnIndex(), cell.getSheet());
         }
         return date;
     }
 
     @Override
     protected Date getValueForCell(boolean value, int rowIndex, int colIndex, Sheet worksheet) {
-        throw new IncorrectValueForTypeException(null, value, Date.class.getName(),
-                rowIndex, colIndex, worksheet.getSheetName());
+        return incorrectValue(null, value, Date.class.getName(), rowIndex, colIndex, worksheet);
     }
 
     @Override
@@ -58,8 +58,7 @@ public class DateValueParser extends AbstractSingleCellValueParser<Date> {
             final LocalDateTime localDateTime = LocalDateTime.parse(value);
             date = Date.from(localDateTime.atZone(ZoneId.systemDefault()).toInstant());
         } catch (DateTimeParseException exc) {
-            throw new IncorrectValueForTypeException(exc, value, Date.class.getName(),
-                    rowIndex, colIndex, worksheet.getSheetName());
+            return incorrectValue(exc, value, Date.class.getName(), rowIndex, colIndex, worksheet);
         }
         return date;
     }
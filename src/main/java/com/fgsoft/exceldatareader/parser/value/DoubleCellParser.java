@@ -0,0 +1,62 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.value;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.util.BitSet;
+
+/**
+ * Parser of single cell values returning a primitive double without boxing. Blank cells are signalled by the
+ * {@link #NULL_VALUE} sentinel, {@link Double#NaN}. NaN values are therefore read as blank cells.
+ */
+public interface DoubleCellParser {
+    /**
+     * Value returned for null or blank cells
+     */
+    double NULL_VALUE = Double.NaN;
+
+    /**
+     * Parse the value for a given cell
+     *
+     * @param cell      Cell to parse, may be null
+     * @param evaluator Formula evaluator call in case of cell containing a formula
+     * @return the value of the cell, {@link #NULL_VALUE} for a null or blank cell
+     */
+    double getDouble(Cell cell, FormulaEvaluator evaluator);
+
+    /**
+     * Read consecutive cells of a column. Missing rows and cells are read as blank cells.
+     *
+     * @param worksheet   worksheet to read
+     * @param columnIndex index of the column to read
+     * @param firstRow    index of the first row to read
+     * @param evaluator   Formula evaluator call in case of cell containing a formula
+     * @param values      array receiving the values, one per row from the first row. Blank cells are set to
+     *                    {@link #NULL_VALUE}
+     * @param presence    bitmap receiving, for each row from the first row, whether the cell has a value
+     */
+    default void readColumn(final Sheet worksheet, final int columnIndex, final int firstRow,
+                            final FormulaEvaluator evaluator, final double[] values, final BitSet presence) {
+        for (int cnt = 0; cnt < values.length; cnt++) {
+            final Cell cell = PrimitiveCellSupport.getCell(worksheet, firstRow + cnt, columnIndex);
+            final double value = getDouble(cell, evaluator);
+            values[cnt] = value;
+            presence.set(cnt, !Double.isNaN(value));
+        }
+    }
+}
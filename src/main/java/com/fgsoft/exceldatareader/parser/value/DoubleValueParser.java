@@ -14,7 +14,9 @@
  */
 package com.fgsoft.exceldatareader.parser.value;
 
-import com.fgsoft.exceldatareader.exception.IncorrectValueForTypeException;
+import lombok.NonNull;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.ss.usermodel.Sheet;
 
 /**
@@ -30,7 +32,7 @@ import org.apache.poi.ss.usermodel.Sheet;
  *     <li>For BLANK type cell, a null value is returned</li>
  * </ul>
  */
-public class DoubleValueParser extends AbstractSingleCellValueParser<Double> {
+public class DoubleValueParser extends AbstractSingleCellValueParser<Double> implements DoubleCellParser {
     @Override
     protected Double getValueForEmptyCell(int rowIndex, int colIndex, Sheet worksheet) {
         return null;
@@ -43,19 +45,56 @@ public class DoubleValueParser extends AbstractSingleCellValueParser<Double> {
 
     @Override
     protected Double getValueForCell(boolean value, int rowIndex, int colIndex, Sheet worksheet) {
-        throw new IncorrectValueForTypeException(null, value, Double.class.getName(),
-                rowIndex, colIndex, worksheet.getSheetName());
+        return incorrectValue(null, value, Double.class.getName(), rowIndex, colIndex, worksheet);
     }
 
     @Override
-    protected Double getValueForCell(String value, int rowIndex, int colIndex, Sheet worksheet) {
-        final double retVal;
+    protected Double getValueForCell(String strValue, int rowIndex, int colIndex, Sheet worksheet) {
         try {
-            retVal = Double.parseDouble(value);
+            return Double.parseDouble(strValue);
         } catch (NumberFormatException exc) {
-            throw new IncorrectValueForTypeException(null, value, Double.class.getName(),
-                    rowIndex, colIndex, worksheet.getSheetName());
+            return incorrectValue(null, strValue, Double.class.getName(), rowIndex, colIndex, worksheet);
+        }
+    }
+
+    @Override
+    public double getDouble(final Cell cell, @NonNull final FormulaEvaluator evaluator) {
+        double value = NULL_VALUE;
+        try {
+            switch (PrimitiveCellSupport.resolveType(cell, evaluator)) {
+                case BLANK:
+                    break;
+                case FORMULA:
+                    final Double result = getValue(cell, evaluator);
+                    value = result == null ? NULL_VALUE : result;
+                    break;
+                case NUMERIC:
+                    value = cell.getNumericCellValue();
+                    break;
+                case STRING:
+                    value = parseDouble(cell);
+                    break;
+                case BOOLEAN:
+                    incorrectValue(null, cell.getBooleanCellValue(), Double.class.getName(),
+                            cell.getRowIndex(), cell.getColumnIndex(), cell.getSheet());
+                    break;
+                default:
+                    unexpectedValue(cell.getRowIndex(), cell.getColumnIndex(), cell.getSheet());
+            }
+        } catch (IllegalStateException exc) {
+            unexpectedValue(cell.getRowIndex(), cell.getColumnIndex(), cell.getSheet());
+        }
+        return value;
+    }
+
+    private double parseDouble(final Cell cell) {
+        final String strValue = cell.getStringCellValue();
+        try {
+            return Double.parseDouble(strValue);
+        } catch (NumberFormatException exc) {
+            incorrectValue(null, strValue, Double.class.getName(), cell.getRowIndex(), cell.getColumnIndex(),
+                    cell.getSheet());
+            return NULL_VALUE;
         }
-        return retVal;
     }
 }
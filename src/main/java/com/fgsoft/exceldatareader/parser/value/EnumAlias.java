@@ -0,0 +1,37 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.value;
+
+import java.lang.annotation.*;
+
+/**
+ * Additional values accepted in Excel cells for an enum constant, besides the name of the constant. When the enum is
+ * annotated with {@link CaseInsensitiveEnum}, aliases are case-insensitive too.
+ * <pre>
+ * public enum Status {
+ *     &#64;EnumAlias({"OK", "Done"}) COMPLETED,
+ *     &#64;EnumAlias("KO") FAILED
+ * }
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface EnumAlias {
+    /**
+     * @return values accepted for the annotated constant
+     */
+    String[] value();
+}
@@ -14,21 +14,35 @@
  */
 package com.fgsoft.exceldatareader.parser.value;
 
-import com.fgsoft.exceldatareader.exception.IncorrectValueForTypeException;
+import com.fgsoft.exceldatareader.exception.ExcelReaderException;
+import com.fgsoft.exceldatareader.parser.util.SharedStringCache;
+import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Sheet;
 
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.DUPLICATE_ENUM_VALUE;
+import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.UNKNOWN;
 
 /**
  * Parser for Enum values.
- *
+ * <p>
+ * Cell values are matched against the names of the constants and against the aliases given with {@link EnumAlias}.
+ * When the enum is annotated with {@link CaseInsensitiveEnum}, matching ignores case. The accepted values are
+ * collected in a lookup table when the parser is built, so that each cell is resolved with a single hash lookup.
  */
 public class EnumValueParser extends AbstractSingleCellValueParser<Enum<?>> {
     private final Class<? extends Enum<?>> enumType;
+    private final boolean caseInsensitive;
+    private final Map<String, Enum<?>> constantsByValue;
 
     public EnumValueParser(Class<? extends Enum<?>> type) {
         super();
         this.enumType = type;
+        this.caseInsensitive = type.isAnnotationPresent(CaseInsensitiveEnum.class);
+        this.constantsByValue = buildLookupTable();
     }
 
     @Override
@@ -41,22 +55,59 @@ public class EnumValueParser extends AbstractSingleCellValueParser<Enum<?>> {
         if (value == 0.0) { // Case of formula return
             return null;
         } else {
-            throw new IncorrectValueForTypeException(null, value, enumType.getName(),
-                    rowIndex, colIndex, worksheet.getSheetName());
+            return incorrectValue(null, value, enumType.getName(), rowIndex, colIndex, worksheet);
         }
     }
 
     @Override
     protected Enum<?> getValueForCell(boolean value, int rowIndex, int colIndex, Sheet worksheet) {
-        throw new  IncorrectValueForTypeException(null, value, enumType.getName(),
-                rowIndex, colIndex, worksheet.getSheetName()) ;
+        return incorrectValue(null, value, enumType.getName(), rowIndex, colIndex, worksheet);
     }
 
     @Override
     protected  Enum<?> getValueForCell(String value, int rowIndex, int colIndex, Sheet worksheet) {
-        return Arrays.stream(enumType.getEnumConstants())
-                .filter(e -> e.name().equals(value)).findFirst()
-                .orElseThrow(() -> new  IncorrectValueForTypeException(null, value, enumType.getName(),
-                rowIndex, colIndex, worksheet.getSheetName()));
+        final Enum<?> constant = constantsByValue.get(toKey(value));
+        if (constant == null) {
+            return incorrectValue(null, value, enumType.getName(), rowIndex, colIndex, worksheet);
+        }
+        return constant;
+    }
+
+    @Override
+    protected Enum<?> getValueForStringCell(Cell cell, int rowIndex, int colIndex, Sheet worksheet) {
+        return SharedStringCache.decode(cell, this, value -> getValueForCell(value, rowIndex, colIndex, worksheet));
+    }
+
+    private Map<String, Enum<?>> buildLookupTable() {
+        final Map<String, Enum<?>> table = new HashMap<>();
+        for (final Enum<?> constant : enumType.getEnumConstants()) {
+            addValue(table, constant.name(), constant);
+            final EnumAlias alias = getAlias(constant);
+            if (alias != null) {
+                for (final String value : alias.value()) {
+                    addValue(table, value, constant);
+                }
+            }
+        }
+        return table;
+    }
+
+    private void addValue(final Map<String, Enum<?>> table, final String value, final Enum<?> constant) {
+        final Enum<?> previous = table.put(toKey(value), constant);
+        if (previous != null && previous != constant) {
+            throw new ExcelReaderException(DUPLICATE_ENUM_VALUE, value, enumType.getName());
+        }
+    }
+
+    private EnumAlias getAlias(final Enum<?> constant) {
+        try {
+            return enumType.getField(constant.name()).getAnnotation(EnumAlias.class);
+        } catch (NoSuchFieldException exc) {
+            throw new ExcelReaderException(exc, UNKNOWN);
+        }
+    }
+
+    private String toKey(final String value) {
+        return caseInsensitive && value != null ? value.toLowerCase(Locale.ROOT) : value;
     }
 }
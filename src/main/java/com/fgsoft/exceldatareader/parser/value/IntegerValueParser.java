@@ -14,10 +14,12 @@
  */
 package com.fgsoft.exceldatareader.parser.value;
 
-import com.fgsoft.exceldatareader.exception.IncorrectValueForTypeException;
+import lombok.NonNull;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.ss.usermodel.Sheet;
 
-public class IntegerValueParser extends AbstractSingleCellValueParser<Integer> {
+public class IntegerValueParser extends AbstractSingleCellValueParser<Integer> implements IntCellParser {
     @Override
     protected Integer getValueForEmptyCell(int rowIndex, int colIndex, Sheet worksheet) {
         return null;
@@ -30,19 +32,56 @@ public class IntegerValueParser extends AbstractSingleCellValueParser<Integer> {
 
     @Override
     protected Integer getValueForCell(boolean value, int rowIndex, int colIndex, Sheet worksheet) {
-        throw new IncorrectValueForTypeException(null, value, Integer.class.getName(),
-                rowIndex, colIndex, worksheet.getSheetName());
+        return incorrectValue(null, value, Integer.class.getName(), rowIndex, colIndex, worksheet);
     }
 
     @Override
     protected Integer getValueForCell(String strValue, int rowIndex, int colIndex, Sheet worksheet) {
-        final int intValue;
         try {
-            intValue = Integer.parseInt(strValue);
-        } catch (NumberFormatException exc){
-            throw new IncorrectValueForTypeException(exc, strValue, Integer.class.getName(),
-                    rowIndex, colIndex, worksheet.getSheetName());
+            return Integer.parseInt(strValue);
+        } catch (NumberFormatException exc) {
+            return incorrectValue(exc, strValue, Integer.class.getName(), rowIndex, colIndex, worksheet);
+        }
+    }
+
+    @Override
+    public int getInt(final Cell cell, @NonNull final FormulaEvaluator evaluator) {
+        int value = NULL_VALUE;
+        try {
+            switch (PrimitiveCellSupport.resolveType(cell, evaluator)) {
+                case BLANK:
+                    break;
+                case FORMULA:
+                    final Integer result = getValue(cell, evaluator);
+                    value = result == null ? NULL_VALUE : result;
+                    break;
+                case NUMERIC:
+                    value = (int) cell.getNumericCellValue();
+                    break;
+                case STRING:
+                    value = parseInt(cell);
+                    break;
+                case BOOLEAN:
+                    incorrectValue(null, cell.getBooleanCellValue(), Integer.class.getName(),
+                            cell.getRowIndex(), cell.getColumnIndex(), cell.getSheet());
+                    break;
+                default:
+                    unexpectedValue(cell.getRowIndex(), cell.getColumnIndex(), cell.getSheet());
+            }
+        } catch (IllegalStateException exc) {
+            unexpectedValue(cell.getRowIndex(), cell.getColumnIndex(), cell.getSheet());
+        }
+        return value;
+    }
+
+    private int parseInt(final Cell cell) {
+        final String strValue = cell.getStringCellValue();
+        try {
+            return Integer.parseInt(strValue);
+        } catch (NumberFormatException exc) {
+            incorrectValue(exc, strValue, Integer.class.getName(), cell.getRowIndex(), cell.getColumnIndex(),
+                    cell.getSheet());
+            return NULL_VALUE;
         }
-        return intValue;
     }
 }
@@ -14,10 +14,8 @@
  */
 package com.fgsoft.exceldatareader.parser.value;
 
-import com.fgsoft.exceldatareader.exception.IncorrectValueForTypeException;
+import com.fgsoft.exceldatareader.parser.util.DateFormatCache;
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.DateUtil;
-import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 
 import java.time.LocalDateTime;
@@ -41,22 +39,24 @@ public class LocalDateTimeValueParser extends AbstractSingleCellValueParser<Loca
 
     @Override
     protected LocalDateTime getValueForCell(double value, int rowIndex, int colIndex, Sheet worksheet) {
+        return getValueForCell(value, worksheet.getRow(rowIndex).getCell(colIndex));
+    }
+
+    @Override
+    protected LocalDateTime getValueForCell(double value, Cell cell) {
         final LocalDateTime localDateTime;
-        final Row row = worksheet.getRow(rowIndex);
-        final Cell cell = row.getCell(colIndex);
-        if (DateUtil.isCellDateFormatted(cell)) {
+        if (DateFormatCache.isCellDateFormatted(cell)) {
             localDateTime = cell.getLocalDateTimeCellValue();
         } else {
-            throw new IncorrectValueForTypeException(null, value, LocalDateTime.class.getName(),
-                    rowIndex, colIndex, worksheet.getSheetName());
+            return incorrectValue(null, value, LocalDateTime.class.getName(),
+                    cell.getRowIndex(), cell.getColumnIndex(), cell.getSheet());
         }
         return localDateTime;
     }
 
     @Override
     protected LocalDateTime getValueForCell(boolean value, int rowIndex, int colIndex, Sheet worksheet) {
-        throw new IncorrectValueForTypeException(null, value, LocalDateTime.class.getName(),
-                rowIndex, colIndex, worksheet.getSheetName());
+        return incorrectValue(null, value, LocalDateTime.class.getName(), rowIndex, colIndex, worksheet);
     }
 
     @Override
@@ -65,8 +65,7 @@ public class LocalDateTimeValueParser extends AbstractSingleCellValueParser<Loca
         try {
             localDateTime = LocalDateTime.parse(value);
         } catch (DateTimeParseException exc) {
-            throw new IncorrectValueForTypeException(exc, value, LocalDateTime.class.getName(),
-                    rowIndex, colIndex, worksheet.getSheetName());
+            return incorrectValue(exc, value, LocalDateTime.class.getName(), rowIndex, colIndex, worksheet);
         }
         return localDateTime;
     }
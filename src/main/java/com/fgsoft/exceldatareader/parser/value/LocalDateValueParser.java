@@ -14,7 +14,7 @@
  */
 package com.fgsoft.exceldatareader.parser.value;
 
-import com.fgsoft.exceldatareader.exception.IncorrectValueForTypeException;
+import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Sheet;
 
 import java.time.LocalDate;
@@ -31,13 +31,17 @@ public class LocalDateValueParser extends AbstractSingleCellValueParser<LocalDat
 
     @Override
     protected LocalDate getValueForCell(double value, int rowIndex, int colIndex, Sheet worksheet) {
-        return mainParser.getValueForCell(value, rowIndex, colIndex, worksheet).toLocalDate();
+        return toLocalDate(mainParser.getValueForCell(value, rowIndex, colIndex, worksheet));
+    }
+
+    @Override
+    protected LocalDate getValueForCell(double value, Cell cell) {
+        return toLocalDate(mainParser.getValueForCell(value, cell));
     }
 
     @Override
     protected LocalDate getValueForCell(boolean value, int rowIndex, int colIndex, Sheet worksheet) {
-        throw new IncorrectValueForTypeException(null, value, LocalDate.class.getName(),
-                rowIndex, colIndex, worksheet.getSheetName());
+        return incorrectValue(null, value, LocalDate.class.getName(), rowIndex, colIndex, worksheet);
     }
 
     @Override
@@ -46,9 +50,12 @@ public class LocalDateValueParser extends AbstractSingleCellValueParser<LocalDat
         try {
             localDate = LocalDate.parse(value);
         } catch (DateTimeParseException exc) {
-            throw new IncorrectValueForTypeException(exc, value, LocalDateTime.class.getName(),
-                    rowIndex, colIndex, worksheet.getSheetName());
+            return incorrectValue(exc, value, LocalDateTime.class.getName(), rowIndex, colIndex, worksheet);
         }
         return localDate;
     }
+
+    private static LocalDate toLocalDate(final LocalDateTime localDateTime) {
+        return localDateTime == null ? null : localDateTime.toLocalDate();
+    }
 }
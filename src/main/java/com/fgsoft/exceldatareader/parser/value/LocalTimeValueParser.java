@@ -14,13 +14,10 @@
  */
 package com.fgsoft.exceldatareader.parser.value;
 
-import com.fgsoft.exceldatareader.exception.IncorrectValueForTypeException;
+import com.fgsoft.exceldatareader.parser.util.DateFormatCache;
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.DateUtil;
-import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 
-import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeParseException;
 
@@ -42,23 +39,24 @@ public class LocalTimeValueParser extends AbstractSingleCellValueParser<LocalTim
 
     @Override
     protected LocalTime getValueForCell(double value, int rowIndex, int colIndex, Sheet worksheet) {
+        return getValueForCell(value, worksheet.getRow(rowIndex).getCell(colIndex));
+    }
+
+    @Override
+    protected LocalTime getValueForCell(double value, Cell cell) {
         final LocalTime localTime;
-        final Row row = worksheet.getRow(rowIndex);
-        final Cell cell = row.getCell(colIndex);
-        if (DateUtil.isCellDateFormatted(cell)) {
-            final LocalDateTime localDateTime = cell.getLocalDateTimeCellValue();
-            localTime = localDateTime.toLocalTime();
+        if (DateFormatCache.isCellDateFormatted(cell)) {
+            localTime = cell.getLocalDateTimeCellValue().toLocalTime();
         } else {
-            throw new IncorrectValueForTypeException(null, value, LocalTime.class.getName(),
-                    rowIndex, colIndex, worksheet.getSheetName());
+            return incorrectValue(null, value, LocalTime.class.getName(),
+                    cell.getRowIndex(), cell.getColumnIndex(), cell.getSheet());
         }
         return localTime;
     }
 
     @Override
     protected LocalTime getValueForCell(boolean value, int rowIndex, int colIndex, Sheet worksheet) {
-        throw new IncorrectValueForTypeException(null, value, LocalTime.class.getName(),
-                rowIndex, colIndex, worksheet.getSheetName());
+        return incorrectValue(null, value, LocalTime.class.getName(), rowIndex, colIndex, worksheet);
     }
 
     @Override
@@ -67,8 +65,7 @@ public class LocalTimeValueParser extends AbstractSingleCellValueParser<LocalTim
         try {
             localTime = LocalTime.parse(value);
         } catch (DateTimeParseException exc) {
-            throw new IncorrectValueForTypeException(exc, value, LocalTime.class.getName(),
-                    rowIndex, colIndex, worksheet.getSheetName());
+            return incorrectValue(exc, value, LocalTime.class.getName(), rowIndex, colIndex, worksheet);
         }
         return localTime;
     }
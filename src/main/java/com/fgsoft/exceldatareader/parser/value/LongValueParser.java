@@ -14,10 +14,12 @@
  */
 package com.fgsoft.exceldatareader.parser.value;
 
-import com.fgsoft.exceldatareader.exception.IncorrectValueForTypeException;
+import lombok.NonNull;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.ss.usermodel.Sheet;
 
-public class LongValueParser extends AbstractSingleCellValueParser<Long> {
+public class LongValueParser extends AbstractSingleCellValueParser<Long> implements LongCellParser {
     @Override
     protected Long getValueForEmptyCell(int rowIndex, int colIndex, Sheet worksheet) {
         return null;
@@ -30,19 +32,56 @@ public class LongValueParser extends AbstractSingleCellValueParser<Long> {
 
     @Override
     protected Long getValueForCell(boolean value, int rowIndex, int colIndex, Sheet worksheet) {
-        throw new IncorrectValueForTypeException(null, value, Long.class.getName(),
-                rowIndex, colIndex, worksheet.getSheetName());
+        return incorrectValue(null, value, Long.class.getName(), rowIndex, colIndex, worksheet);
     }
 
     @Override
     protected Long getValueForCell(String strValue, int rowIndex, int colIndex, Sheet worksheet) {
-        final long longValue;
         try {
-            longValue = Long.parseLong(strValue);
-        } catch (NumberFormatException exc){
-            throw new IncorrectValueForTypeException(exc, strValue, Long.class.getName(),
-                    rowIndex, colIndex, worksheet.getSheetName());
+            return Long.parseLong(strValue);
+        } catch (NumberFormatException exc) {
+            return incorrectValue(exc, strValue, Long.class.getName(), rowIndex, colIndex, worksheet);
+        }
+    }
+
+    @Override
+    public long getLong(final Cell cell, @NonNull final FormulaEvaluator evaluator) {
+        long value = NULL_VALUE;
+        try {
+            switch (PrimitiveCellSupport.resolveType(cell, evaluator)) {
+                case BLANK:
+                    break;
+                case FORMULA:
+                    final Long result = getValue(cell, evaluator);
+                    value = result == null ? NULL_VALUE : result;
+                    break;
+                case NUMERIC:
+                    value = (long) cell.getNumericCellValue();
+                    break;
+                case STRING:
+                    value = parseLong(cell);
+                    break;
+                case BOOLEAN:
+                    incorrectValue(null, cell.getBooleanCellValue(), Long.class.getName(),
+                            cell.getRowIndex(), cell.getColumnIndex(), cell.getSheet());
+                    break;
+                default:
+                    unexpectedValue(cell.getRowIndex(), cell.getColumnIndex(), cell.getSheet());
+            }
+        } catch (IllegalStateException exc) {
+            unexpectedValue(cell.getRowIndex(), cell.getColumnIndex(), cell.getSheet());
+        }
+        return value;
+    }
+
+    private long parseLong(final Cell cell) {
+        final String strValue = cell.getStringCellValue();
+        try {
+            return Long.parseLong(strValue);
+        } catch (NumberFormatException exc) {
+            incorrectValue(exc, strValue, Long.class.getName(), cell.getRowIndex(), cell.getColumnIndex(),
+                    cell.getSheet());
+            return NULL_VALUE;
         }
-        return longValue;
     }
 }
@@ -0,0 +1,76 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.value;
+
+import com.fgsoft.exceldatareader.metrics.Metrics;
+import com.fgsoft.exceldatareader.parser.util.CachedResultFormulaEvaluator;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+/**
+ * Common code of the primitive cell parsers. The results of formula cells cached in the file are read from the cell
+ * itself without allocating a {@link org.apache.poi.ss.usermodel.CellValue}. Other formula cells are evaluated
+ * without writing their result into the cell, as the workbook may be read by several threads.
+ */
+final class PrimitiveCellSupport {
+    /**
+     * Prevent instanciation.
+     */
+    private PrimitiveCellSupport() {
+    }
+
+    /**
+     * Resolve the type of the value of a cell, recording the cell in the metrics as the object parsers do. Formula
+     * cells resolved as FORMULA are recorded when read through
+     * {@link AbstractSingleCellValueParser#getValue(Cell, FormulaEvaluator)}.
+     * @param cell cell to read, may be null
+     * @param evaluator formula evaluator used for formula cells
+     * @return type of the value of the cell: BLANK for a null cell, type of the cached result for a formula cell read
+     * with a {@link CachedResultFormulaEvaluator}, FORMULA for other formula cells, to be read from
+     * {@link FormulaEvaluator#evaluate(Cell)}
+     */
+    static CellType resolveType(final Cell cell, final FormulaEvaluator evaluator) {
+        final CellType type;
+        if (cell == null) {
+            type = CellType.BLANK;
+        } else {
+            final CellType cellType = cell.getCellType();
+            if (cellType != CellType.FORMULA) {
+                type = cellType;
+                Metrics.get().cellParsed(cellType);
+            } else if (evaluator instanceof CachedResultFormulaEvaluator) {
+                type = cell.getCachedFormulaResultType();
+                Metrics.get().cellParsed(cellType);
+            } else {
+                type = cellType;
+            }
+        }
+        return type;
+    }
+
+    /**
+     * @param worksheet worksheet to read
+     * @param rowIndex index of the row
+     * @param columnIndex index of the column
+     * @return the cell, null if the row or the cell does not exist
+     */
+    static Cell getCell(final Sheet worksheet, final int rowIndex, final int columnIndex) {
+        final Row row = worksheet.getRow(rowIndex);
+        return row == null ? null : row.getCell(columnIndex);
+    }
+}
@@ -14,37 +14,58 @@
  */
 package com.fgsoft.exceldatareader.parser.value;
 
-import com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode;
-import com.fgsoft.exceldatareader.exception.ExcelReaderException;
 import com.fgsoft.exceldatareader.exception.InvalidTypeException;
+import com.fgsoft.exceldatareader.metrics.Metrics;
+import lombok.NonNull;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.math.BigDecimal;
 import java.time.*;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Class in charge of routing to the relevant value parser given the class of the value to get from
  * parsing.
+ * <p>
+ * Single cell value parsers are stateless: a single parser instance is registered for each type and shared by all
+ * callers. Parsers of enum types are built on first request for each enum type. Parsers found for a type are cached
+ * in a {@link ClassValue}, so that getting a parser is a single lookup. Custom parsers can be registered at runtime
+ * with {@link #register(Class, AbstractSingleCellValueParser)}.
+ * <p>
+ * Parsers of primitive values, returning values without boxing, are given by {@link #getIntParser()},
+ * {@link #getLongParser()}, {@link #getDoubleParser()} and {@link #getBooleanParser()}.
  */
 public final class ValueParserRouter {
-    private static final Map<Class<?>, Class<? extends AbstractSingleCellValueParser<?>>> PARSERS =
-            new HashMap<>();
+    private static final IntegerValueParser INT_PARSER = new IntegerValueParser();
+    private static final LongValueParser LONG_PARSER = new LongValueParser();
+    private static final DoubleValueParser DOUBLE_PARSER = new DoubleValueParser();
+    private static final BooleanValueParser BOOLEAN_PARSER = new BooleanValueParser();
+    private static final Map<Class<?>, AbstractSingleCellValueParser<?>> PARSERS = new ConcurrentHashMap<>();
+    private static final ClassValue<AbstractSingleCellValueParser<?>> PARSER_CACHE =
+            new ClassValue<AbstractSingleCellValueParser<?>>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                protected AbstractSingleCellValueParser<?> computeValue(final Class<?> type) {
+                    AbstractSingleCellValueParser<?> parser = PARSERS.get(type);
+                    if (parser == null && type.isEnum()) {
+                        parser = new EnumValueParser((Class<? extends Enum<?>>) type);
+                    }
+                    return parser;
+                }
+            };
 
     static {
-        PARSERS.put(Double.class, DoubleValueParser.class);
-        PARSERS.put(Integer.class, IntegerValueParser.class);
-        PARSERS.put(Long.class, LongValueParser.class);
-        PARSERS.put(BigDecimal.class, BigDecimalValueParser.class);
-        PARSERS.put(Boolean.class, BooleanValueParser.class);
-        PARSERS.put(String.class, StringValueParser.class);
-        PARSERS.put(Date.class, DateValueParser.class);
-        PARSERS.put(LocalDate.class, LocalDateValueParser.class);
-        PARSERS.put(LocalTime.class, LocalTimeValueParser.class);
-        PARSERS.put(LocalDateTime.class, LocalDateTimeValueParser.class);
+        PARSERS.put(Double.class, DOUBLE_PARSER);
+        PARSERS.put(Integer.class, INT_PARSER);
+        PARSERS.put(Long.class, LONG_PARSER);
+        PARSERS.put(BigDecimal.class, new BigDecimalValueParser());
+        PARSERS.put(Boolean.class, BOOLEAN_PARSER);
+        PARSERS.put(String.class, new StringValueParser());
+        PARSERS.put(Date.class, new DateValueParser());
+        PARSERS.put(LocalDate.class, new LocalDateValueParser());
+        PARSERS.put(LocalTime.class, new LocalTimeValueParser());
+        PARSERS.put(LocalDateTime.class, new LocalDateTimeValueParser());
     }
 
     /**
@@ -60,24 +81,66 @@ public final class ValueParserRouter {
      * @param type type of value to get from parsing
      * @return fond parser
      */
-    @SuppressWarnings({"java:S1905", "unchecked"})
+    @SuppressWarnings("unchecked")
     public static <T> AbstractSingleCellValueParser<T> getParser(Class<T> type) {
-        final AbstractSingleCellValueParser<T> parser;
-        if (type.isEnum()) {
-            parser = (AbstractSingleCellValueParser<T>) new EnumValueParser((Class<? extends Enum<?>>) type);
-        } else if (!PARSERS.containsKey(type)) {
+        Metrics.get().parserLookedUp(type);
+        final AbstractSingleCellValueParser<T> parser = (AbstractSingleCellValueParser<T>) PARSER_CACHE.get(type);
+        if (parser == null) {
             throw new InvalidTypeException(type.getName());
-        } else {
-            final Class<? extends AbstractSingleCellValueParser<?>> parserClass = PARSERS.get(type);
-            try {
-                final Constructor<AbstractSingleCellValueParser<T>> constructor =
-                        (Constructor<AbstractSingleCellValueParser<T>>)
-                                parserClass.getDeclaredConstructor();
-                parser = constructor.newInstance();
-            } catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException exc) {
-                throw new ExcelReaderException(exc, ExcelReaderErrorCode.UNKNOWN);
-            }
         }
         return parser;
     }
+
+    /**
+     * Return the parser for the given class, if any
+     *
+     * @param type type of value to get from parsing
+     * @return found parser, null if the type cannot be parsed from a single cell
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> AbstractSingleCellValueParser<T> findParser(@NonNull final Class<T> type) {
+        Metrics.get().parserLookedUp(type);
+        return (AbstractSingleCellValueParser<T>) PARSER_CACHE.get(type);
+    }
+
+    /**
+     * @return the parser of primitive int values
+     */
+    public static IntCellParser getIntParser() {
+        return INT_PARSER;
+    }
+
+    /**
+     * @return the parser of primitive long values
+     */
+    public static LongCellParser getLongParser() {
+        return LONG_PARSER;
+    }
+
+    /**
+     * @return the parser of primitive double values
+     */
+    public static DoubleCellParser getDoubleParser() {
+        return DOUBLE_PARSER;
+    }
+
+    /**
+     * @return the parser of primitive boolean values
+     */
+    public static BooleanCellParser getBooleanParser() {
+        return BOOLEAN_PARSER;
+    }
+
+    /**
+     * Register a parser for the given class, replacing any parser previously registered or built for this class.
+     * The parser is shared by all callers and must therefore be stateless.
+     *
+     * @param type type of value to get from parsing
+     * @param parser parser to use for the type
+     */
+    public static <T> void register(@NonNull final Class<T> type,
+                                    @NonNull final AbstractSingleCellValueParser<T> parser) {
+        PARSERS.put(type, parser);
+        PARSER_CACHE.remove(type);
+    }
 }
@@ -15,40 +15,530 @@
 package com.fgsoft.exceldatareader.reader;
 
 import com.fgsoft.exceldatareader.exception.ExcelReaderException;
+import com.fgsoft.exceldatareader.metrics.Metrics;
+import com.fgsoft.exceldatareader.metrics.SheetParseEvent;
+import com.fgsoft.exceldatareader.metrics.WorkbookOpenEvent;
 import com.fgsoft.exceldatareader.parser.ExcelFileParser;
+import com.fgsoft.exceldatareader.parser.HeaderDescriptor;
+import com.fgsoft.exceldatareader.parser.grid.ColumnarSheet;
+import com.fgsoft.exceldatareader.parser.grid.GridSheetParser;
+import com.fgsoft.exceldatareader.parser.mapper.MappedSheetParser;
+import com.fgsoft.exceldatareader.parser.mapper.RowMapper;
+import com.fgsoft.exceldatareader.parser.util.FormulaStrategy;
+import com.fgsoft.exceldatareader.parser.util.HeaderSchema;
+import com.fgsoft.exceldatareader.parser.util.MergedRegionIndex;
+import com.fgsoft.exceldatareader.parser.util.SharedResultFormulaEvaluator;
+import com.fgsoft.exceldatareader.parser.util.SharedStringCache;
+import com.fgsoft.exceldatareader.parser.util.TestNameIndex;
+import com.fgsoft.exceldatareader.parser.util.WorksheetAnalyser;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.poi.ooxml.POIXMLException;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
+import org.apache.poi.openxml4j.util.ZipFileZipEntrySource;
+import org.apache.poi.openxml4j.util.ZipSecureFile;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
+import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.FILE_NOT_FOUND;
+import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.SHEET_NOT_FOUND;
 import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.UNABLE_TO_OPEN_FILE;
 
 /**
  * Reader used to retrieve test data from excel file.
- *
+ * <p>
+ * Whenever the file is available on the file system, the workbook is opened from the file rather than from a stream:
+ * the file content is then read on demand instead of being copied in memory before being unzipped.
+ * <p>
+ * Parsers registered with {@link #addParser(ExcelFileParser)} can be run concurrently with {@link #parseAll()}, one
+ * task per parser. The workbook is only read during parsing, and each parser reads its worksheet with its own
+ * formula evaluator, see {@link MappedSheetParser}.
+ * <p>
+ * Workbooks with millions of distinct strings can be opened with {@link SharedStringsStorage#MAPPED_FILE}, their
+ * shared strings table being then kept in memory-mapped temporary files rather than on heap.
  */
-public class ExcelDataReader {
+@Slf4j
+public class ExcelDataReader implements Closeable {
+    private static final int MAGIC_LENGTH = 8;
+    private static final Executor DEFAULT_EXECUTOR = createDefaultExecutor();
+
+    private final SharedStringsStorage sharedStringsStorage;
     private final Workbook workbook;
-    private final List<ExcelFileParser<?>> parsers = new ArrayList<>();
+    private final SharedStringCache sharedStringCache; // Null when the workbook has no cacheable strings table
+    private final List<ExcelFileParser<?>> parsers = Collections.synchronizedList(new ArrayList<>());
+    private final Map<Sheet, MergedRegionIndex> mergedRegionIndexes = new ConcurrentHashMap<>();
+    private final Map<SheetKey, HeaderSchema> headerSchemas = new ConcurrentHashMap<>();
+    private final Map<SheetKey, TestNameIndex> testNameIndexes = new ConcurrentHashMap<>();
+    private final Map<SheetKey, ColumnarSheet> columnarSheets = new ConcurrentHashMap<>();
+    private volatile FormulaStrategy formulaStrategy = FormulaStrategy.EVALUATE;
+    private SharedResultFormulaEvaluator sharedEvaluator; // Guarded by this
 
+    /**
+     * @param filename path of the file in the classpath
+     */
     public ExcelDataReader(final String filename) {
-        this.workbook = getWorkbook(filename);
+        this.sharedStringsStorage = SharedStringsStorage.HEAP;
+        this.workbook = open(() -> getWorkbook(filename), () -> 0L, filename);
+        this.sharedStringCache = SharedStringCache.register(workbook);
+    }
+
+    public ExcelDataReader(final File file) {
+        this(file, SharedStringsStorage.HEAP);
+    }
+
+    /**
+     * @param file file to read
+     * @param sharedStringsStorage storage of the shared strings table of XLSX files
+     */
+    public ExcelDataReader(final File file, @NonNull final SharedStringsStorage sharedStringsStorage) {
+        this.sharedStringsStorage = sharedStringsStorage;
+        this.workbook = open(() -> getWorkbook(file), file::length, file);
+        this.sharedStringCache = SharedStringCache.register(workbook);
+    }
+
+    public ExcelDataReader(final Path path) {
+        this(path, SharedStringsStorage.HEAP);
+    }
+
+    /**
+     * @param path path of the file to read
+     * @param sharedStringsStorage storage of the shared strings table of XLSX files
+     */
+    public ExcelDataReader(final Path path, @NonNull final SharedStringsStorage sharedStringsStorage) {
+        this.sharedStringsStorage = sharedStringsStorage;
+        this.workbook = open(() -> getWorkbook(path), () -> Files.size(path), path);
+        this.sharedStringCache = SharedStringCache.register(workbook);
+    }
+
+    /**
+     * @param channel channel to read the file from. The channel is closed when closing the reader.
+     */
+    public ExcelDataReader(final SeekableByteChannel channel) {
+        this(channel, SharedStringsStorage.HEAP);
+    }
+
+    /**
+     * @param channel channel to read the file from. The channel is closed when closing the reader.
+     * @param sharedStringsStorage storage of the shared strings table of XLSX files
+     */
+    public ExcelDataReader(final SeekableByteChannel channel,
+                           @NonNull final SharedStringsStorage sharedStringsStorage) {
+        this.sharedStringsStorage = sharedStringsStorage;
+        this.workbook = open(() -> getWorkbook(channel, channel.toString(), false), channel::size, channel);
+        this.sharedStringCache = SharedStringCache.register(workbook);
+    }
+
+    /**
+     * Get the schema of the headers of a worksheet. The headers are analysed on first call for a given worksheet and
+     * header descriptor, further calls return the same schema.
+     * @param sheetName name of the worksheet
+     * @param headerDescriptor description of the header rows of the worksheet
+     * @return schema of the headers of the worksheet
+     */
+    public HeaderSchema getHeaderSchema(@NonNull final String sheetName,
+                                        @NonNull final HeaderDescriptor headerDescriptor) {
+        return getHeaderSchema(getSheet(sheetName), headerDescriptor);
+    }
+
+    /**
+     * Get the schema of the headers of a worksheet of the workbook read by this reader. The headers are analysed on
+     * first call for a given worksheet and header descriptor, further calls return the same schema.
+     * @param sheet worksheet
+     * @param headerDescriptor description of the header rows of the worksheet
+     * @return schema of the headers of the worksheet
+     */
+    public HeaderSchema getHeaderSchema(@NonNull final Sheet sheet, @NonNull final HeaderDescriptor headerDescriptor) {
+        return headerSchemas.computeIfAbsent(new SheetKey(sheet, headerDescriptor),
+                key -> new WorksheetAnalyser(key.getSheet(), key.getHeaderDescriptor(),
+                        getMergedRegionIndex(key.getSheet())).getHeaderSchema());
+    }
+
+    /**
+     * Get the index of the merged regions of a worksheet of the workbook read by this reader. The merged regions are
+     * indexed on first call for a given worksheet, further calls return the same index: merged regions added to the
+     * worksheet afterwards are not seen by this reader.
+     * @param sheet worksheet
+     * @return index of the merged regions of the worksheet
+     */
+    public MergedRegionIndex getMergedRegionIndex(@NonNull final Sheet sheet) {
+        return mergedRegionIndexes.computeIfAbsent(sheet, MergedRegionIndex::forSheet);
+    }
+
+    /**
+     * Get the index of the test names of a worksheet. The first column of the data rows is scanned on first call for
+     * a given worksheet and header descriptor, further calls return the same index.
+     * @param sheetName name of the worksheet
+     * @param headerDescriptor description of the header rows of the worksheet
+     * @return index of the test names of the worksheet
+     */
+    public TestNameIndex getTestNameIndex(@NonNull final String sheetName,
+                                          @NonNull final HeaderDescriptor headerDescriptor) {
+        return getTestNameIndex(getSheet(sheetName), headerDescriptor);
+    }
+
+    /**
+     * Get the index of the test names of a worksheet of the workbook read by this reader. The first column of the
+     * data rows is scanned on first call for a given worksheet and header descriptor, further calls return the same
+     * index.
+     * @param sheet worksheet
+     * @param headerDescriptor description of the header rows of the worksheet
+     * @return index of the test names of the worksheet
+     */
+    public TestNameIndex getTestNameIndex(@NonNull final Sheet sheet,
+                                          @NonNull final HeaderDescriptor headerDescriptor) {
+        return testNameIndexes.computeIfAbsent(new SheetKey(sheet, headerDescriptor),
+                key -> TestNameIndex.forSheet(key.getSheet(), key.getHeaderDescriptor()));
+    }
+
+    /**
+     * Get the columnar copy of the data rows of a worksheet, holding the columns of its headers in primitive arrays.
+     * The worksheet is loaded on first call for a given worksheet and header descriptor, formulas being evaluated
+     * following the formula strategy, and further calls return the same copy. Rows of the copy are mapped with a
+     * {@link GridSheetParser}.
+     * @param sheetName name of the worksheet
+     * @param headerDescriptor description of the header rows of the worksheet
+     * @return columnar copy of the worksheet
+     */
+    public ColumnarSheet getColumnarSheet(@NonNull final String sheetName,
+                                          @NonNull final HeaderDescriptor headerDescriptor) {
+        final Sheet sheet = getSheet(sheetName);
+        return columnarSheets.computeIfAbsent(new SheetKey(sheet, headerDescriptor),
+                key -> ColumnarSheet.load(sheet, headerDescriptor, getHeaderSchema(sheet, headerDescriptor),
+                        getTestNameIndex(sheet, headerDescriptor), createFormulaEvaluator()));
+    }
+
+    /**
+     * Set the strategy used by the parsers registered with {@link #addParser(String, HeaderDescriptor, Function)} to
+     * get the results of formula cells. Defaults to {@link FormulaStrategy#EVALUATE}.
+     * @param formulaStrategy strategy used to get the results of formula cells
+     */
+    public void setFormulaStrategy(@NonNull final FormulaStrategy formulaStrategy) {
+        this.formulaStrategy = formulaStrategy;
+    }
+
+    /**
+     * @return strategy used to get the results of formula cells
+     */
+    public FormulaStrategy getFormulaStrategy() {
+        return formulaStrategy;
+    }
+
+    /**
+     * @return new formula evaluator of the workbook read by this reader, following the formula strategy
+     */
+    public FormulaEvaluator createFormulaEvaluator() {
+        return formulaStrategy.createEvaluator(workbook, this::getSharedEvaluator);
     }
 
-    private Workbook getWorkbook(String filename) {
-        final InputStream inputStream = this.getClass().getResourceAsStream(filename);
-        if (inputStream == null) {
+    /**
+     * Register a parser, to be run by {@link #parseAll()}
+     * @param parser parser of a worksheet of the workbook read by this reader
+     * @param <P> type of the parser
+     * @return the registered parser
+     */
+    public <P extends ExcelFileParser<?>> P addParser(@NonNull final P parser) {
+        parsers.add(parser);
+        return parser;
+    }
+
+    /**
+     * Register a parser mapping the data rows of a worksheet, to be run by {@link #parseAll()}
+     * @param sheetName name of the worksheet
+     * @param headerDescriptor description of the header rows of the worksheet
+     * @param mapperFactory factory of the row mapper given the header schema of the worksheet, e.g. the constructor
+     *                      of a generated mapper
+     * @param <T> type of the objects read from the rows
+     * @return the registered parser
+     */
+    public <T> MappedSheetParser<T> addParser(@NonNull final String sheetName,
+                                              @NonNull final HeaderDescriptor headerDescriptor,
+                                              @NonNull final Function<HeaderSchema, RowMapper<T>> mapperFactory) {
+        final Sheet sheet = getSheet(sheetName);
+        return addParser(new MappedSheetParser<>(sheet, headerDescriptor,
+                mapperFactory.apply(getHeaderSchema(sheet, headerDescriptor)), this::createFormulaEvaluator,
+                () -> getTestNameIndex(sheet, headerDescriptor)));
+    }
+
+    /**
+     * @return unmodifiable list of the registered parsers, in registration order
+     */
+    public List<ExcelFileParser<?>> getParsers() {
+        synchronized (parsers) {
+            return Collections.unmodifiableList(new ArrayList<>(parsers));
+        }
+    }
+
+    /**
+     * Run all the registered parsers concurrently on the default executor: virtual threads when the JDK provides
+     * them, the common fork-join pool otherwise.
+     * @return futures of the objects read by each parser, in registration order
+     */
+    public List<CompletableFuture<List<?>>> parseAll() {
+        return parseAll(DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Run all the registered parsers concurrently
+     * @param executor executor running the parsers, one task per parser
+     * @return futures of the objects read by each parser, in registration order
+     */
+    public List<CompletableFuture<List<?>>> parseAll(@NonNull final Executor executor) {
+        final List<CompletableFuture<List<?>>> futures = new ArrayList<>();
+        for (final ExcelFileParser<?> parser : getParsers()) {
+            futures.add(parse(parser, executor).thenApply(values -> values));
+        }
+        return futures;
+    }
+
+    /**
+     * Run a parser asynchronously
+     * @param parser parser of a worksheet of the workbook read by this reader
+     * @param executor executor running the parser
+     * @param <T> type of the objects read by the parser
+     * @return future of the objects read by the parser, in sheet order
+     */
+    public <T> CompletableFuture<List<T>> parse(@NonNull final ExcelFileParser<T> parser,
+                                                @NonNull final Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            final long start = Metrics.startTimer();
+            final SheetParseEvent event = SheetParseEvent.start();
+            final List<T> values = parser.stream().collect(Collectors.toList());
+            if (start != 0L) {
+                Metrics.get().sheetParsed(getSheetName(parser), Metrics.elapsed(start));
+            }
+            event.complete(getSheetName(parser), values.size(), () -> parser instanceof MappedSheetParser
+                    ? ((MappedSheetParser<?>) parser).countDataCells() : 0L);
+            return values;
+        }, executor);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (sharedEvaluator != null) {
+                sharedEvaluator.close();
+                sharedEvaluator = null;
+            }
+        }
+        if (sharedStringCache != null) {
+            sharedStringCache.close();
+        }
+        workbook.close();
+    }
+
+    /**
+     * @param sheetName name of the worksheet
+     * @return worksheet of the workbook read by this reader
+     */
+    public Sheet getSheet(@NonNull final String sheetName) {
+        final Sheet sheet = workbook.getSheet(sheetName);
+        if (sheet == null) {
+            throw new ExcelReaderException(SHEET_NOT_FOUND, sheetName);
+        }
+        return sheet;
+    }
+
+    private synchronized SharedResultFormulaEvaluator getSharedEvaluator() {
+        if (sharedEvaluator == null) {
+            sharedEvaluator = new SharedResultFormulaEvaluator(workbook);
+        }
+        return sharedEvaluator;
+    }
+
+    private static Workbook open(final Supplier<Workbook> opener, final FileSize fileSize, final Object source) {
+        final long start = Metrics.startTimer();
+        final WorkbookOpenEvent event = new WorkbookOpenEvent();
+        event.begin();
+        final Workbook result = opener.get();
+        event.end();
+        final boolean recorded = event.shouldCommit();
+        if (start != 0L || recorded) {
+            final long nanos = Metrics.elapsed(start);
+            long bytes;
+            try {
+                bytes = fileSize.get();
+            } catch (IOException exc) {
+                bytes = 0L;
+            }
+            Metrics.get().workbookOpened(bytes, nanos);
+            if (recorded) {
+                event.setSource(String.valueOf(source));
+                event.setSize(bytes);
+                event.setFormat(result.getClass().getSimpleName());
+                event.commit();
+            }
+        }
+        return result;
+    }
+
+    private static String getSheetName(final ExcelFileParser<?> parser) {
+        return parser instanceof MappedSheetParser
+                ? ((MappedSheetParser<?>) parser).getSheetName() : parser.getClass().getSimpleName();
+    }
+
+    private Workbook getWorkbook(final String filename) {
+        final URL url = this.getClass().getResource(filename);
+        if (url == null) {
             throw new ExcelReaderException(FILE_NOT_FOUND, filename);
         }
         try {
-            return WorkbookFactory.create(inputStream);
-        } catch (IOException exc) {
+            final Workbook result;
+            if ("file".equals(url.getProtocol())) {
+                result = getWorkbook(new File(url.toURI()));
+            } else {
+                try (InputStream inputStream = url.openStream()) {
+                    result = WorkbookFactory.create(inputStream);
+                }
+            }
+            return result;
+        } catch (IOException | URISyntaxException exc) {
             throw new ExcelReaderException(exc, UNABLE_TO_OPEN_FILE, filename);
         }
     }
 
+    private Workbook getWorkbook(final File file) {
+        if (!file.isFile()) {
+            throw new ExcelReaderException(FILE_NOT_FOUND, file);
+        }
+        try {
+            final Workbook result;
+            if (sharedStringsStorage == SharedStringsStorage.MAPPED_FILE
+                    && FileMagic.valueOf(file) == FileMagic.OOXML) {
+                // The shared strings table is spilled while reading the zip entries, ZipSecureFile applying the zip
+                // bomb checks of POI to them
+                final ZipEntrySource source = new ZipFileZipEntrySource(new ZipSecureFile(file));
+                try {
+                    result = MappedStringsWorkbook.open(source);
+                } catch (IOException | InvalidFormatException | RuntimeException exc) {
+                    IOUtils.closeQuietly(source);
+                    throw exc;
+                }
+            } else {
+                result = WorkbookFactory.create(file, null, true);
+            }
+            return result;
+        } catch (IOException | InvalidFormatException | POIXMLException exc) {
+            throw new ExcelReaderException(exc, UNABLE_TO_OPEN_FILE, file);
+        }
+    }
+
+    private Workbook getWorkbook(final Path path) {
+        final Workbook result;
+        if (path.getFileSystem() == FileSystems.getDefault()) {
+            result = getWorkbook(path.toFile());
+        } else if (!Files.isRegularFile(path)) {
+            throw new ExcelReaderException(FILE_NOT_FOUND, path);
+        } else {
+            try {
+                result = getWorkbook(Files.newByteChannel(path), path.toString(), true);
+            } catch (IOException exc) {
+                throw new ExcelReaderException(exc, UNABLE_TO_OPEN_FILE, path);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param channel channel to read the workbook from
+     * @param name name of the file, for error messages
+     * @param ownChannel true if the channel has been opened by this reader, and is to be closed if the workbook cannot
+     *                   be opened. Channels given by the caller are left open on failure.
+     */
+    private Workbook getWorkbook(final SeekableByteChannel channel, final String name, final boolean ownChannel) {
+        SecureZipEntrySource source = null;
+        boolean opened = false;
+        try {
+            final Workbook result;
+            final FileMagic fileMagic = readFileMagic(channel);
+            if (fileMagic == FileMagic.OOXML) {
+                // Zip entries are read from the channel on demand, with the zip bomb checks of POI
+                source = new SecureZipEntrySource(new ZipFile(channel));
+                result = sharedStringsStorage == SharedStringsStorage.MAPPED_FILE
+                        ? MappedStringsWorkbook.open(source) : new XSSFWorkbook(OPCPackage.open(source));
+            } else if (fileMagic == FileMagic.OLE2 && channel instanceof FileChannel) {
+                result = WorkbookFactory.create(new POIFSFileSystem((FileChannel) channel, true, ownChannel));
+            } else {
+                result = WorkbookFactory.create(Channels.newInputStream(channel));
+            }
+            opened = true;
+            return result;
+        } catch (IOException | InvalidFormatException | POIXMLException exc) {
+            throw new ExcelReaderException(exc, UNABLE_TO_OPEN_FILE, name);
+        } finally {
+            if (!opened && ownChannel) {
+                // The zip file is closed along with the channel it reads
+                IOUtils.closeQuietly(source);
+                IOUtils.closeQuietly(channel);
+            }
+        }
+    }
+
+    private static Executor createDefaultExecutor() {
+        Executor executor;
+        try {
+            // Virtual threads are available from Java 21
+            executor = (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException exc) {
+            log.debug("Virtual threads not available, using the common fork-join pool");
+            executor = ForkJoinPool.commonPool();
+        }
+        return executor;
+    }
+
+    private static FileMagic readFileMagic(final SeekableByteChannel channel) throws IOException {
+        final ByteBuffer magic = ByteBuffer.allocate(MAGIC_LENGTH);
+        channel.position(0);
+        while (magic.hasRemaining() && channel.read(magic) > 0) {
+            // Read until the magic is complete or the end of the channel is reached
+        }
+        channel.position(0);
+        return FileMagic.valueOf(magic.array());
+    }
+
+    @FunctionalInterface
+    private interface FileSize {
+        long get() throws IOException;
+    }
+
+    @Value
+    private static class SheetKey {
+        Sheet sheet;
+        HeaderDescriptor headerDescriptor;
+    }
 }
@@ -0,0 +1,132 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.reader;
+
+import com.fgsoft.exceldatareader.parser.util.MappedSharedStringsTable;
+import lombok.NonNull;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * XLSX workbook whose shared strings table is mapped out of heap, see {@link MappedSharedStringsTable}.
+ * <p>
+ * POI parses the shared strings part while loading the workbook, and each cell gets the table of the workbook when
+ * the sheets are loaded. The shared strings part is therefore spilled before the workbook is loaded, then replaced by
+ * an empty table in the package so that POI does not load it again, and the cells are given the mapped table instead.
+ * The workbook is read-only.
+ */
+final class MappedStringsWorkbook extends XSSFWorkbook {
+    private static final ThreadLocal<SharedStringsTable> LOADING = new ThreadLocal<>();
+    private static final byte[] EMPTY_TABLE = ("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+            + "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" count=\"0\" uniqueCount=\"0\"/>")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final SharedStringsTable sharedStrings;
+
+    private MappedStringsWorkbook(final OPCPackage pkg, final SharedStringsTable sharedStrings) throws IOException {
+        super(pkg);
+        this.sharedStrings = sharedStrings;
+    }
+
+    /**
+     * Open a workbook, spilling its shared strings table to memory-mapped temporary files
+     * @param source zip entries of the workbook file. The source is closed when closing the workbook.
+     * @return the opened workbook
+     * @throws IOException if the workbook cannot be read
+     * @throws InvalidFormatException if the file is not a valid XLSX file
+     */
+    static XSSFWorkbook open(@NonNull final ZipEntrySource source) throws IOException, InvalidFormatException {
+        final SubstitutingEntrySource entrySource = new SubstitutingEntrySource(source);
+        final OPCPackage pkg = OPCPackage.open(entrySource);
+        try {
+            MappedSharedStringsTable sharedStrings = null;
+            final List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+            if (!parts.isEmpty()) {
+                final PackagePart part = parts.get(0);
+                try (InputStream input = part.getInputStream()) {
+                    sharedStrings = MappedSharedStringsTable.create(input);
+                }
+                entrySource.substitutedEntry = part.getPartName().getName().substring(1);
+            }
+            LOADING.set(sharedStrings);
+            try {
+                return new MappedStringsWorkbook(pkg, sharedStrings);
+            } finally {
+                LOADING.remove();
+            }
+        } catch (IOException | RuntimeException exc) {
+            pkg.revert();
+            throw exc;
+        }
+    }
+
+    @Override
+    public SharedStringsTable getSharedStringSource() {
+        // Cells get the table while the workbook is loaded, before the field is assigned
+        final SharedStringsTable table = sharedStrings == null ? LOADING.get() : sharedStrings;
+        return table == null ? super.getSharedStringSource() : table;
+    }
+
+    /**
+     * Zip entries of a workbook file, giving an empty shared strings table in place of the substituted entry
+     */
+    private static final class SubstitutingEntrySource implements ZipEntrySource {
+        private final ZipEntrySource source;
+        private String substitutedEntry;
+
+        private SubstitutingEntrySource(final ZipEntrySource source) {
+            this.source = source;
+        }
+
+        @Override
+        public Enumeration<? extends ZipArchiveEntry> getEntries() {
+            return source.getEntries();
+        }
+
+        @Override
+        public ZipArchiveEntry getEntry(final String path) {
+            return source.getEntry(path);
+        }
+
+        @Override
+        public InputStream getInputStream(final ZipArchiveEntry entry) throws IOException {
+            return entry.getName().equals(substitutedEntry)
+                    ? new ByteArrayInputStream(EMPTY_TABLE) : source.getInputStream(entry);
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.close();
+        }
+
+        @Override
+        public boolean isClosed() {
+            return source.isClosed();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.reader;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.poi.openxml4j.util.ZipArchiveThresholdInputStream;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
+import org.apache.poi.openxml4j.util.ZipSecureFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+
+/**
+ * Zip entries of a workbook read from any zip file, checked against zip bombs the way POI checks the files it opens.
+ * <p>
+ * POI only guards the zip files it opens itself, see {@link ZipSecureFile}. The entries of this source are read through
+ * a {@link ZipArchiveThresholdInputStream}, which fails when an entry exceeds the maximum entry size or inflates
+ * beyond the minimum inflate ratio set on {@link ZipSecureFile}.
+ */
+final class SecureZipEntrySource implements ZipEntrySource {
+    private final ZipFile zipFile;
+    private boolean closed;
+
+    /**
+     * @param zipFile zip file of the workbook, closed along with this source
+     */
+    SecureZipEntrySource(final ZipFile zipFile) {
+        this.zipFile = zipFile;
+    }
+
+    @Override
+    public Enumeration<? extends ZipArchiveEntry> getEntries() {
+        checkOpen();
+        return zipFile.getEntries();
+    }
+
+    @Override
+    public ZipArchiveEntry getEntry(final String path) {
+        checkOpen();
+        return zipFile.getEntry(path);
+    }
+
+    @Override
+    public InputStream getInputStream(final ZipArchiveEntry entry) throws IOException {
+        checkOpen();
+        return new ZipArchiveThresholdInputStream(zipFile.getInputStream(entry));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            zipFile.close();
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Zip file has been closed");
+        }
+    }
+}
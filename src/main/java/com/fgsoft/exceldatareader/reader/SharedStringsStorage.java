@@ -0,0 +1,32 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.reader;
+
+/**
+ * Storage of the shared strings table of the XLSX workbooks opened by {@link ExcelDataReader}
+ */
+public enum SharedStringsStorage {
+    /**
+     * Load the shared strings table on heap, as done by POI, the default
+     */
+    HEAP,
+    /**
+     * Spill the shared strings table to memory-mapped temporary files, strings being decoded when their cells are
+     * read. Keeps the heap bounded for workbooks with millions of distinct strings, at the cost of decoding strings
+     * on each read. Only applies to workbooks opened from a file or a channel. The temporary files are limited to the
+     * maximum entry size of {@link org.apache.poi.openxml4j.util.ZipSecureFile}.
+     */
+    MAPPED_FILE
+}
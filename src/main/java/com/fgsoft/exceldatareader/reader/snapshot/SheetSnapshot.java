@@ -0,0 +1,411 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.reader.snapshot;
+
+import com.fgsoft.exceldatareader.exception.ExcelReaderException;
+import com.fgsoft.exceldatareader.parser.HeaderDescriptor;
+import com.fgsoft.exceldatareader.parser.grid.CellGrid;
+import com.fgsoft.exceldatareader.parser.util.DateFormatCache;
+import com.fgsoft.exceldatareader.parser.util.HeaderSchema;
+import com.fgsoft.exceldatareader.parser.util.TestNameIndex;
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.poi.ss.usermodel.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.SNAPSHOT_TOO_LARGE;
+import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.UNABLE_TO_OPEN_FILE;
+import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.UNABLE_TO_WRITE_FILE;
+
+/**
+ * Snapshot of a worksheet: the typed values of its data rows, the schema of its headers and the index of its test
+ * names, saved to a compact binary file and read back by mapping the file in memory.
+ * <p>
+ * The file starts with the metadata of the worksheet, followed by the cell grid stored by column: for each column, the
+ * values of its cells as 8-byte slots (the number, the index of the string in the string table of the snapshot, the
+ * boolean or the error code), then for each column the types of its cells as bytes, and the string table. Formula
+ * cells are stored with their cached result. The grid is written column by column without being built in memory,
+ * and is read directly from the mapped file, strings being decoded once and then shared. A snapshot file is limited
+ * to 2 GB: writing the snapshot of a larger worksheet fails.
+ */
+public final class SheetSnapshot implements CellGrid {
+    private static final int FILE_MAGIC = 0x58_53_4E_50; // "XSNP"
+    private static final int FILE_VERSION = 2;
+    private static final int GRID_HEADER_SIZE = 16;
+    private static final int ALIGNMENT = 8;
+    private static final byte NO_CELL = 0;
+    private static final byte BLANK = 1;
+    private static final byte NUMERIC = 2;
+    private static final byte DATE = 3;
+    private static final byte STRING = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte ERROR = 6;
+    private static final CellType[] CELL_TYPES = {null, CellType.BLANK, CellType.NUMERIC, CellType.NUMERIC,
+            CellType.STRING, CellType.BOOLEAN, CellType.ERROR};
+
+    @Getter
+    private final String sheetName;
+    @Getter
+    private final boolean date1904;
+    @Getter
+    private final HeaderDescriptor headerDescriptor;
+    @Getter
+    private final HeaderSchema headerSchema;
+    @Getter
+    private final TestNameIndex testNameIndex;
+    private final ByteBuffer buffer;
+    private final int firstRow;
+    private final int rowCount;
+    private final int columnCount;
+    private final int presenceOffset; // Bitmap of the rows present in the worksheet
+    private final int valuesOffset; // Values by column
+    private final int typesOffset; // Types by column
+    private final int stringOffsetsOffset; // Offsets of the strings in the string data, plus the end offset
+    private final int stringDataOffset; // UTF-8 bytes of the strings
+    private final String[] strings; // Decoded strings by index, decoded on first access
+
+    private SheetSnapshot(final ByteBuffer buffer) throws IOException {
+        if (buffer.getInt(0) != FILE_MAGIC || buffer.getInt(Integer.BYTES) != FILE_VERSION) {
+            throw new IOException("Not a sheet snapshot file");
+        }
+        final int metadataLength = buffer.getInt(2 * Integer.BYTES);
+        final byte[] metadata = new byte[metadataLength];
+        final ByteBuffer metadataBuffer = buffer.duplicate();
+        metadataBuffer.position(3 * Integer.BYTES);
+        metadataBuffer.get(metadata);
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(metadata))) {
+            this.sheetName = input.readUTF();
+            this.date1904 = input.readBoolean();
+            this.headerDescriptor = new HeaderDescriptor(input.readInt(), input.readInt(), input.readInt());
+            final int headerCount = input.readInt();
+            final Map<String, Integer> headers = new HashMap<>(headerCount * 4 / 3 + 1);
+            for (int cnt = 0; cnt < headerCount; cnt++) {
+                headers.put(input.readUTF(), input.readInt());
+            }
+            this.headerSchema = new HeaderSchema(headers);
+            this.testNameIndex = TestNameIndex.readFrom(input);
+        }
+        final int gridOffset = align(3 * Integer.BYTES + metadataLength);
+        this.buffer = buffer;
+        this.firstRow = buffer.getInt(gridOffset);
+        this.rowCount = buffer.getInt(gridOffset + Integer.BYTES);
+        this.columnCount = buffer.getInt(gridOffset + 2 * Integer.BYTES);
+        this.presenceOffset = gridOffset + GRID_HEADER_SIZE;
+        final long values = presenceOffset + presenceWords(rowCount) * (long) Long.BYTES;
+        final long types = values + (long) columnCount * rowCount * Long.BYTES;
+        final long stringTable = align(types + (long) columnCount * rowCount);
+        if (rowCount < 0 || columnCount < 0 || stringTable + Integer.BYTES > buffer.limit()) {
+            throw new IOException("Truncated sheet snapshot file");
+        }
+        this.valuesOffset = (int) values;
+        this.typesOffset = (int) types;
+        this.strings = new String[buffer.getInt((int) stringTable)];
+        this.stringOffsetsOffset = (int) stringTable + Integer.BYTES;
+        this.stringDataOffset = stringOffsetsOffset + (strings.length + 1) * Integer.BYTES;
+    }
+
+    /**
+     * Map a snapshot file in memory. The file must not be modified while the snapshot is in use.
+     * @param file snapshot file, written by {@link #write(Sheet, HeaderDescriptor, HeaderSchema, TestNameIndex, Path)}
+     * @return the snapshot
+     */
+    public static SheetSnapshot map(@NonNull final Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new SheetSnapshot(buffer); // The mapping remains valid once the channel is closed
+        } catch (IOException | RuntimeException exc) {
+            throw new ExcelReaderException(exc, UNABLE_TO_OPEN_FILE, file);
+        }
+    }
+
+    /**
+     * Write the snapshot of a worksheet to a file
+     * @param sheet worksheet
+     * @param headerDescriptor description of the header rows of the worksheet
+     * @param headerSchema schema of the headers of the worksheet
+     * @param testNameIndex index of the test names of the worksheet
+     * @param file file to write the snapshot to. Any existing file is replaced.
+     */
+    public static void write(@NonNull final Sheet sheet, @NonNull final HeaderDescriptor headerDescriptor,
+                             @NonNull final HeaderSchema headerSchema, @NonNull final TestNameIndex testNameIndex,
+                             @NonNull final Path file) {
+        final Workbook workbook = sheet.getWorkbook();
+        final boolean date1904 = workbook instanceof Date1904Support && ((Date1904Support) workbook).isDate1904();
+        final int firstRow = headerDescriptor.getLastHeaderRow() + 1;
+        final int rowCount = Math.max(sheet.getLastRowNum() + 1 - firstRow, 0);
+        int columnCount = 0;
+        for (int cnt = 0; cnt < rowCount; cnt++) {
+            final Row row = sheet.getRow(firstRow + cnt);
+            if (row != null) {
+                columnCount = Math.max(columnCount, row.getLastCellNum());
+            }
+        }
+        final long[] presence = new long[presenceWords(rowCount)];
+        for (int cnt = 0; cnt < rowCount; cnt++) {
+            if (sheet.getRow(firstRow + cnt) != null) {
+                presence[cnt >>> 6] |= 1L << cnt;
+            }
+        }
+        final DateFormatCache dateFormatCache = DateFormatCache.forSheet(sheet);
+        final byte[] metadata = writeMetadata(sheet, date1904, headerDescriptor, headerSchema, testNameIndex);
+        final long presenceOffset = align(3L * Integer.BYTES + metadata.length) + GRID_HEADER_SIZE;
+        final long stringTableOffset = align(presenceOffset + presence.length * (long) Long.BYTES
+                + (long) columnCount * rowCount * (Long.BYTES + 1));
+        checkSize(stringTableOffset, sheet);
+        boolean written = false;
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            output.writeInt(FILE_MAGIC);
+            output.writeInt(FILE_VERSION);
+            output.writeInt(metadata.length);
+            output.write(metadata);
+            pad(output);
+            output.writeInt(firstRow);
+            output.writeInt(rowCount);
+            output.writeInt(columnCount);
+            output.writeInt(0); // Reserved
+            // The grid is streamed column by column, the strings being collected for the string table that follows
+            final Map<String, Integer> stringIndexes = new HashMap<>();
+            final List<String> strings = new ArrayList<>();
+            for (final long word : presence) {
+                output.writeLong(word);
+            }
+            for (int column = 0; column < columnCount; column++) {
+                for (int cnt = 0; cnt < rowCount; cnt++) {
+                    output.writeLong(getSlotValue(getCell(sheet, firstRow + cnt, column), dateFormatCache,
+                            stringIndexes, strings));
+                }
+            }
+            for (int column = 0; column < columnCount; column++) {
+                for (int cnt = 0; cnt < rowCount; cnt++) {
+                    output.writeByte(getSlotType(getCell(sheet, firstRow + cnt, column), dateFormatCache));
+                }
+            }
+            pad(output);
+            final byte[][] stringBytes = new byte[strings.size()][];
+            long offset = 0;
+            for (int cnt = 0; cnt < stringBytes.length; cnt++) {
+                stringBytes[cnt] = strings.get(cnt).getBytes(StandardCharsets.UTF_8);
+                offset += stringBytes[cnt].length;
+            }
+            checkSize(stringTableOffset + (stringBytes.length + 2L) * Integer.BYTES + offset, sheet);
+            output.writeInt(stringBytes.length);
+            offset = 0;
+            for (final byte[] bytes : stringBytes) {
+                output.writeInt((int) offset);
+                offset += bytes.length;
+            }
+            output.writeInt((int) offset);
+            for (final byte[] bytes : stringBytes) {
+                output.write(bytes);
+            }
+            written = true;
+        } catch (IOException exc) {
+            throw new ExcelReaderException(exc, UNABLE_TO_WRITE_FILE, file);
+        } finally {
+            if (!written) {
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    @Override
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    @Override
+    public int getLastRow() {
+        return firstRow + rowCount - 1;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    @Override
+    public boolean isRowPresent(final int rowIndex) {
+        final int position = rowIndex - firstRow;
+        return position >= 0 && position < rowCount
+                && (buffer.getLong(presenceOffset + (position >>> 6) * Long.BYTES) & (1L << position)) != 0;
+    }
+
+    @Override
+    public CellType getCellType(final int rowIndex, final int columnIndex) {
+        return CELL_TYPES[getType(rowIndex, columnIndex)];
+    }
+
+    @Override
+    public boolean isDateFormatted(final int rowIndex, final int columnIndex) {
+        return getType(rowIndex, columnIndex) == DATE;
+    }
+
+    @Override
+    public double getNumericValue(final int rowIndex, final int columnIndex) {
+        return Double.longBitsToDouble(getValue(rowIndex, columnIndex));
+    }
+
+    @Override
+    public String getStringValue(final int rowIndex, final int columnIndex) {
+        final int index = (int) getValue(rowIndex, columnIndex);
+        String value = strings[index];
+        if (value == null) {
+            // Racy but safe: strings are immutable and decoding the same bytes gives equal strings
+            final int start = buffer.getInt(stringOffsetsOffset + index * Integer.BYTES);
+            final int end = buffer.getInt(stringOffsetsOffset + (index + 1) * Integer.BYTES);
+            final byte[] bytes = new byte[end - start];
+            final ByteBuffer stringBuffer = buffer.duplicate();
+            stringBuffer.position(stringDataOffset + start);
+            stringBuffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[index] = value;
+        }
+        return value;
+    }
+
+    @Override
+    public boolean getBooleanValue(final int rowIndex, final int columnIndex) {
+        return getValue(rowIndex, columnIndex) != 0;
+    }
+
+    @Override
+    public byte getErrorValue(final int rowIndex, final int columnIndex) {
+        return (byte) getValue(rowIndex, columnIndex);
+    }
+
+    private byte getType(final int rowIndex, final int columnIndex) {
+        final int position = rowIndex - firstRow;
+        return position < 0 || position >= rowCount || columnIndex < 0 || columnIndex >= columnCount
+                ? NO_CELL : buffer.get(typesOffset + columnIndex * rowCount + position);
+    }
+
+    private long getValue(final int rowIndex, final int columnIndex) {
+        return buffer.getLong(valuesOffset + (columnIndex * rowCount + rowIndex - firstRow) * Long.BYTES);
+    }
+
+    private static byte[] writeMetadata(final Sheet sheet, final boolean date1904,
+                                        final HeaderDescriptor headerDescriptor, final HeaderSchema headerSchema,
+                                        final TestNameIndex testNameIndex) {
+        final ByteArrayOutputStream metadata = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(metadata)) {
+            output.writeUTF(sheet.getSheetName());
+            output.writeBoolean(date1904);
+            output.writeInt(headerDescriptor.getFirstTitleRow());
+            output.writeInt(headerDescriptor.getLastTitleRow());
+            output.writeInt(headerDescriptor.getLastHeaderRow());
+            output.writeInt(headerSchema.size());
+            for (int position = 0; position < headerSchema.size(); position++) {
+                output.writeUTF(headerSchema.getHeader(position));
+                output.writeInt(headerSchema.getColumn(position));
+            }
+            testNameIndex.writeTo(output);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc); // Not thrown by in memory streams
+        }
+        return metadata.toByteArray();
+    }
+
+    private static Cell getCell(final Sheet sheet, final int rowIndex, final int columnIndex) {
+        final Row row = sheet.getRow(rowIndex);
+        return row == null ? null : row.getCell(columnIndex);
+    }
+
+    /**
+     * @return type of the slot of a cell, the type of the cached result for a formula cell
+     */
+    private static byte getSlotType(final Cell cell, final DateFormatCache dateFormatCache) {
+        if (cell == null) {
+            return NO_CELL;
+        }
+        final CellType type = cell.getCellType() == CellType.FORMULA
+                ? cell.getCachedFormulaResultType() : cell.getCellType();
+        switch (type) {
+            case NUMERIC:
+                return dateFormatCache.isDateFormatted(cell) ? DATE : NUMERIC;
+            case STRING:
+                return STRING;
+            case BOOLEAN:
+                return BOOLEAN;
+            case ERROR:
+                return ERROR;
+            default:
+                return BLANK;
+        }
+    }
+
+    /**
+     * @return value of the slot of a cell, adding the strings to the string table of the snapshot
+     */
+    private static long getSlotValue(final Cell cell, final DateFormatCache dateFormatCache,
+                                     final Map<String, Integer> stringIndexes, final List<String> strings) {
+        switch (getSlotType(cell, dateFormatCache)) {
+            case NUMERIC:
+            case DATE:
+                return Double.doubleToRawLongBits(cell.getNumericCellValue());
+            case STRING:
+                return stringIndexes.computeIfAbsent(cell.getStringCellValue(), value -> {
+                    strings.add(value);
+                    return strings.size() - 1;
+                });
+            case BOOLEAN:
+                return cell.getBooleanCellValue() ? 1 : 0;
+            case ERROR:
+                return cell.getErrorCellValue();
+            default:
+                return 0;
+        }
+    }
+
+    private static void checkSize(final long size, final Sheet sheet) {
+        if (size > Integer.MAX_VALUE) {
+            throw new ExcelReaderException(SNAPSHOT_TOO_LARGE, sheet.getSheetName());
+        }
+    }
+
+    private static void deleteQuietly(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException exc) {
+            // The incomplete file is left behind, the error being reported by the caller
+        }
+    }
+
+    private static int presenceWords(final int rowCount) {
+        return (rowCount + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private static int align(final int offset) {
+        return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static long align(final long offset) {
+        return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static void pad(final DataOutputStream output) throws IOException {
+        while (output.size() % ALIGNMENT != 0) {
+            output.writeByte(0);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.reader.snapshot;
+
+import com.fgsoft.exceldatareader.exception.ExcelReaderException;
+import com.fgsoft.exceldatareader.parser.HeaderDescriptor;
+import com.fgsoft.exceldatareader.parser.grid.GridSheetParser;
+import com.fgsoft.exceldatareader.parser.mapper.RowMapper;
+import com.fgsoft.exceldatareader.parser.util.HeaderSchema;
+import com.fgsoft.exceldatareader.reader.ExcelDataReader;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.FILE_NOT_FOUND;
+import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.UNABLE_TO_OPEN_FILE;
+import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.UNABLE_TO_WRITE_FILE;
+
+/**
+ * On-disk cache of {@link SheetSnapshot}, keyed by the content hash of the workbooks.
+ * <p>
+ * On first request for a worksheet of a given workbook content, the workbook is opened with an
+ * {@link ExcelDataReader} and the snapshot of the worksheet is written to the cache directory. Further requests, from
+ * this cache or from any cache sharing the directory, e.g. after a restart, map the snapshot file without opening the
+ * workbook. A modified workbook gets a new hash, hence new snapshots: stale snapshot files are never read but are not
+ * deleted either.
+ */
+@Slf4j
+public final class SnapshotCache {
+    private static final String EXTENSION = ".snap";
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int SHEET_KEY_LENGTH = 16;
+
+    private final Path directory;
+    private final Map<Path, SheetSnapshot> snapshots = new ConcurrentHashMap<>(); // Mapped snapshots by file
+    private final Map<FileKey, String> hashes = new ConcurrentHashMap<>(); // Content hashes by file version
+
+    /**
+     * @param directory directory of the snapshot files, created if needed
+     */
+    public SnapshotCache(@NonNull final Path directory) {
+        try {
+            this.directory = Files.createDirectories(directory);
+        } catch (IOException exc) {
+            throw new ExcelReaderException(exc, UNABLE_TO_WRITE_FILE, directory);
+        }
+    }
+
+    /**
+     * Get the snapshot of a worksheet, creating it on first request for the content of the workbook
+     * @param workbookFile workbook file
+     * @param sheetName name of the worksheet
+     * @param headerDescriptor description of the header rows of the worksheet
+     * @return snapshot of the worksheet
+     */
+    public SheetSnapshot getSnapshot(@NonNull final Path workbookFile, @NonNull final String sheetName,
+                                     @NonNull final HeaderDescriptor headerDescriptor) {
+        final String hash = getWorkbookHash(workbookFile);
+        final String sheetKey = digest((sheetName + '\0' + headerDescriptor.getFirstTitleRow() + ','
+                + headerDescriptor.getLastTitleRow() + ',' + headerDescriptor.getLastHeaderRow())
+                .getBytes(StandardCharsets.UTF_8)).substring(0, SHEET_KEY_LENGTH);
+        final Path file = directory.resolve(hash + '-' + sheetKey + EXTENSION);
+        return snapshots.computeIfAbsent(file, key -> load(key, workbookFile, sheetName, headerDescriptor));
+    }
+
+    /**
+     * Get a parser mapping the rows of the snapshot of a worksheet, the counterpart of
+     * {@link ExcelDataReader#addParser(String, HeaderDescriptor, Function)}
+     * @param workbookFile workbook file
+     * @param sheetName name of the worksheet
+     * @param headerDescriptor description of the header rows of the worksheet
+     * @param mapperFactory factory of the row mapper given the header schema of the worksheet
+     * @param <T> type of the objects read from the rows
+     * @return parser of the snapshot
+     */
+    public <T> GridSheetParser<T> getParser(@NonNull final Path workbookFile, @NonNull final String sheetName,
+                                            @NonNull final HeaderDescriptor headerDescriptor,
+                                            @NonNull final Function<HeaderSchema, RowMapper<T>> mapperFactory) {
+        final SheetSnapshot snapshot = getSnapshot(workbookFile, sheetName, headerDescriptor);
+        return new GridSheetParser<>(snapshot, snapshot.getTestNameIndex(),
+                mapperFactory.apply(snapshot.getHeaderSchema()));
+    }
+
+    /**
+     * Get the hash of the content of a workbook file. Hashes are kept in memory as long as the size and the
+     * modification time of the file do not change.
+     * @param workbookFile workbook file
+     * @return hexadecimal SHA-256 hash of the content of the file
+     */
+    public String getWorkbookHash(@NonNull final Path workbookFile) {
+        if (!Files.isRegularFile(workbookFile)) {
+            throw new ExcelReaderException(FILE_NOT_FOUND, workbookFile);
+        }
+        try {
+            final FileKey key = new FileKey(workbookFile.toAbsolutePath(), Files.size(workbookFile),
+                    Files.getLastModifiedTime(workbookFile).toMillis());
+            String hash = hashes.get(key);
+            if (hash == null) {
+                hash = hash(workbookFile);
+                hashes.put(key, hash);
+            }
+            return hash;
+        } catch (IOException exc) {
+            throw new ExcelReaderException(exc, UNABLE_TO_OPEN_FILE, workbookFile);
+        }
+    }
+
+    private SheetSnapshot load(final Path file, final Path workbookFile, final String sheetName,
+                               final HeaderDescriptor headerDescriptor) {
+        if (Files.isRegularFile(file)) {
+            try {
+                final SheetSnapshot snapshot = SheetSnapshot.map(file);
+                if (snapshot.getSheetName().equals(sheetName)
+                        && snapshot.getHeaderDescriptor().equals(headerDescriptor)) {
+                    return snapshot;
+                }
+            } catch (ExcelReaderException exc) {
+                log.warn("Unreadable snapshot {}, creating it again", file);
+            }
+        }
+        try (ExcelDataReader reader = new ExcelDataReader(workbookFile)) {
+            final Sheet sheet = reader.getSheet(sheetName);
+            final Path tempFile = Files.createTempFile(directory, "snapshot", ".tmp");
+            SheetSnapshot.write(sheet, headerDescriptor, reader.getHeaderSchema(sheet, headerDescriptor),
+                    reader.getTestNameIndex(sheet, headerDescriptor), tempFile);
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException exc) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException exc) {
+            throw new ExcelReaderException(exc, UNABLE_TO_WRITE_FILE, file);
+        }
+        return SheetSnapshot.map(file);
+    }
+
+    private static String hash(final Path file) throws IOException {
+        final MessageDigest digest = newDigest();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream input = Files.newInputStream(file)) {
+            int count;
+            while ((count = input.read(buffer)) > 0) {
+                digest.update(buffer, 0, count);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static String digest(final byte[] bytes) {
+        return toHex(newDigest().digest(bytes));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException exc) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is required by the Java platform", exc);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (final byte value : bytes) {
+            hex.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    @Value
+    private static class FileKey {
+        Path path;
+        long size;
+        long lastModified;
+    }
+}
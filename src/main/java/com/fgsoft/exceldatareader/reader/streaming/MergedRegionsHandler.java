@@ -0,0 +1,44 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.reader.streaming;
+
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.poi.xssf.usermodel.XSSFRelation.NS_SPREADSHEETML;
+
+/**
+ * SAX handler collecting the merged regions of a worksheet. Merged regions are stored after the cell data in the
+ * worksheet XML, so they have to be collected before the rows can be analysed.
+ */
+class MergedRegionsHandler extends DefaultHandler {
+    private final List<CellRangeAddress> mergedRegions = new ArrayList<>();
+
+    @Override
+    public void startElement(final String uri, final String localName, final String qName,
+                             final Attributes attributes) {
+        if ((uri == null || NS_SPREADSHEETML.equals(uri)) && "mergeCell".equals(localName)) {
+            mergedRegions.add(CellRangeAddress.valueOf(attributes.getValue("ref")));
+        }
+    }
+
+    List<CellRangeAddress> getMergedRegions() {
+        return mergedRegions;
+    }
+}
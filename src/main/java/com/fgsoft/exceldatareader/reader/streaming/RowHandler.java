@@ -0,0 +1,41 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.reader.streaming;
+
+import org.apache.poi.ss.usermodel.Row;
+
+import java.util.Map;
+
+/**
+ * Callback receiving the data rows of a worksheet read in streaming mode.
+ */
+@FunctionalInterface
+public interface RowHandler {
+    /**
+     * Handle the headers of the worksheet, called once before the first data row, or at the end of the worksheet
+     * when it does not contain any data row.
+     * @param headers map of headers and columns computed from the title rows of the worksheet
+     */
+    default void handleHeaders(Map<String, Integer> headers) {
+        // Headers are also given with each row
+    }
+
+    /**
+     * Handle a data row, i.e. a row after the last header row
+     * @param row row to handle. The row is released once handled and must not be kept.
+     * @param headers map of headers and columns computed from the title rows of the worksheet
+     */
+    void handleRow(Row row, Map<String, Integer> headers);
+}
@@ -0,0 +1,289 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.reader.streaming;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellAddress;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+
+import java.time.LocalDateTime;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Read-only cell built from the XML of a worksheet read in streaming mode. Formula cells only hold the result cached
+ * in the file, the formula itself is not available.
+ */
+public class StreamingCell implements Cell {
+    private final StreamingRow row;
+    private final int columnIndex;
+    private final CellType valueType;
+    private final boolean formula;
+    private final double numericValue;
+    private final String stringValue;
+    private final boolean booleanValue;
+    private final CellStyle cellStyle;
+
+    StreamingCell(final StreamingRow row, final int columnIndex, final CellType valueType, final boolean formula,
+                  final double numericValue, final String stringValue, final boolean booleanValue,
+                  final CellStyle cellStyle) {
+        this.row = row;
+        this.columnIndex = columnIndex;
+        this.valueType = valueType;
+        this.formula = formula;
+        this.numericValue = numericValue;
+        this.stringValue = stringValue;
+        this.booleanValue = booleanValue;
+        this.cellStyle = cellStyle;
+    }
+
+    @Override
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    @Override
+    public int getRowIndex() {
+        return row.getRowNum();
+    }
+
+    @Override
+    public Sheet getSheet() {
+        return row.getSheet();
+    }
+
+    @Override
+    public Row getRow() {
+        return row;
+    }
+
+    @Override
+    public CellType getCellType() {
+        return formula ? CellType.FORMULA : valueType;
+    }
+
+    @Override
+    public CellType getCachedFormulaResultType() {
+        if (!formula) {
+            throw new IllegalStateException("Only formula cells have cached results");
+        }
+        return valueType;
+    }
+
+    @Override
+    public double getNumericCellValue() {
+        final double value;
+        if (valueType == CellType.NUMERIC) {
+            value = numericValue;
+        } else if (valueType == CellType.BLANK) {
+            value = 0.0;
+        } else {
+            throw typeMismatch(CellType.NUMERIC);
+        }
+        return value;
+    }
+
+    @Override
+    public Date getDateCellValue() {
+        return valueType == CellType.BLANK ? null
+                : DateUtil.getJavaDate(getNumericCellValue(), row.getSheet().isDate1904());
+    }
+
+    @Override
+    public LocalDateTime getLocalDateTimeCellValue() {
+        return valueType == CellType.BLANK ? null
+                : DateUtil.getLocalDateTime(getNumericCellValue(), row.getSheet().isDate1904());
+    }
+
+    @Override
+    public RichTextString getRichStringCellValue() {
+        return new XSSFRichTextString(getStringCellValue());
+    }
+
+    @Override
+    public String getStringCellValue() {
+        final String value;
+        if (valueType == CellType.STRING) {
+            value = stringValue;
+        } else if (valueType == CellType.BLANK) {
+            value = "";
+        } else {
+            throw typeMismatch(CellType.STRING);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean getBooleanCellValue() {
+        final boolean value;
+        if (valueType == CellType.BOOLEAN) {
+            value = booleanValue;
+        } else if (valueType == CellType.BLANK) {
+            value = false;
+        } else {
+            throw typeMismatch(CellType.BOOLEAN);
+        }
+        return value;
+    }
+
+    @Override
+    public byte getErrorCellValue() {
+        final byte value;
+        if (valueType == CellType.ERROR) {
+            value = (byte) numericValue;
+        } else if (valueType == CellType.BLANK) {
+            value = 0;
+        } else {
+            throw typeMismatch(CellType.ERROR);
+        }
+        return value;
+    }
+
+    @Override
+    public CellStyle getCellStyle() {
+        return cellStyle;
+    }
+
+    @Override
+    public CellAddress getAddress() {
+        return new CellAddress(getRowIndex(), columnIndex);
+    }
+
+    @Override
+    public String getCellFormula() {
+        throw new UnsupportedOperationException("Formulas are not available in streaming mode");
+    }
+
+    @Override
+    public Comment getCellComment() {
+        return null;
+    }
+
+    @Override
+    public Hyperlink getHyperlink() {
+        return null;
+    }
+
+    @Override
+    public CellRangeAddress getArrayFormulaRange() {
+        throw new IllegalStateException("Cell " + getAddress() + " is not part of an array formula.");
+    }
+
+    @Override
+    public boolean isPartOfArrayFormulaGroup() {
+        return false;
+    }
+
+    @Override
+    @Deprecated
+    public void setCellType(final CellType cellType) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setBlank() {
+        throw readOnly();
+    }
+
+    @Override
+    public void setCellValue(final double value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setCellValue(final Date value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setCellValue(final LocalDateTime value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setCellValue(final Calendar value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setCellValue(final RichTextString value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setCellValue(final String value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setCellValue(final boolean value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setCellFormula(final String formula) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeFormula() {
+        throw readOnly();
+    }
+
+    @Override
+    public void setCellErrorValue(final byte value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setCellStyle(final CellStyle style) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setAsActiveCell() {
+        throw readOnly();
+    }
+
+    @Override
+    public void setCellComment(final Comment comment) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeCellComment() {
+        throw readOnly();
+    }
+
+    @Override
+    public void setHyperlink(final Hyperlink link) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeHyperlink() {
+        throw readOnly();
+    }
+
+    private IllegalStateException typeMismatch(final CellType expectedType) {
+        return new IllegalStateException(String.format("Cannot get a %s value from a %s %s cell",
+                expectedType, valueType, formula ? "formula" : "value"));
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Cells read in streaming mode are read-only");
+    }
+}
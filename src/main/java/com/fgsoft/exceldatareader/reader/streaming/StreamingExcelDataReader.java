@@ -0,0 +1,253 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.reader.streaming;
+
+import com.fgsoft.exceldatareader.exception.ExcelReaderException;
+import com.fgsoft.exceldatareader.parser.HeaderDescriptor;
+import com.fgsoft.exceldatareader.parser.util.CachedResultFormulaEvaluator;
+import com.fgsoft.exceldatareader.parser.util.WorksheetAnalyser;
+import lombok.NonNull;
+import org.apache.poi.ooxml.POIXMLTypeLoader;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.xmlbeans.XmlException;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorkbookPr;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.WorkbookDocument;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode.*;
+
+/**
+ * Reader of XLSX files in streaming mode. Unlike {@link com.fgsoft.exceldatareader.reader.ExcelDataReader}, no
+ * workbook is built: worksheets are read with a SAX parser and each data row is given to a {@link RowHandler} as
+ * soon as it has been read. Only the header rows and the row being handled are kept in memory, so that memory stays
+ * roughly constant whatever the size of the worksheet.
+ * <p>
+ * Rows and cells given to the handler can be used with the single cell value parsers, using the formula evaluator
+ * provided by {@link #getFormulaEvaluator()}: formula cells are read from the results cached in the file.
+ */
+public class StreamingExcelDataReader implements Closeable {
+    private final OPCPackage opcPackage;
+    private final XSSFReader xssfReader;
+    private final SharedStrings sharedStrings;
+    private final StylesTable styles;
+    private final boolean date1904;
+    private final FormulaEvaluator formulaEvaluator = new CachedResultFormulaEvaluator();
+
+    /**
+     * @param filename path of the file in the classpath
+     */
+    public StreamingExcelDataReader(final String filename) {
+        this(openPackage(filename), filename);
+    }
+
+    /**
+     * @param path path of the file to read
+     */
+    public StreamingExcelDataReader(@NonNull final Path path) {
+        this(openPackage(path), path);
+    }
+
+    private StreamingExcelDataReader(final OPCPackage opcPackage, final Object source) {
+        this.opcPackage = opcPackage;
+        try {
+            this.xssfReader = new XSSFReader(opcPackage);
+            this.sharedStrings = new ReadOnlySharedStringsTable(opcPackage);
+            this.styles = xssfReader.getStylesTable();
+            this.date1904 = isDate1904(xssfReader);
+        } catch (IOException | OpenXML4JException | SAXException | XmlException exc) {
+            opcPackage.revert();
+            throw new ExcelReaderException(exc, UNABLE_TO_OPEN_FILE, source);
+        }
+    }
+
+    /**
+     * Read a worksheet. The worksheet is read twice: a first pass collects the merged regions, needed to analyse the
+     * header rows, then the rows are read and the data rows are given to the handler in sheet order.
+     * @param sheetName name of the worksheet to read
+     * @param headerDescriptor description of the header rows of the worksheet
+     * @param rowHandler handler of the data rows
+     */
+    public void readSheet(final String sheetName, final HeaderDescriptor headerDescriptor,
+                          final RowHandler rowHandler) {
+        final PackagePart sheetPart = findSheetPart(sheetName);
+        try {
+            final MergedRegionsHandler mergedRegionsHandler = new MergedRegionsHandler();
+            parse(sheetPart, mergedRegionsHandler);
+            final StreamingSheet sheet = new StreamingSheet(sheetName, mergedRegionsHandler.getMergedRegions(),
+                    date1904);
+            final RowDispatcher rowDispatcher = new RowDispatcher(sheet, headerDescriptor, rowHandler);
+            parse(sheetPart, new StreamingSheetHandler(sharedStrings,
+                    new StreamingRowBuilder(sheet, styles, rowDispatcher)));
+            rowDispatcher.endSheet();
+        } catch (IOException | SAXException | ParserConfigurationException exc) {
+            throw new ExcelReaderException(exc, UNABLE_TO_READ_SHEET, sheetName);
+        }
+    }
+
+    /**
+     * @return the formula evaluator to be used to parse the cells read by this reader
+     */
+    public FormulaEvaluator getFormulaEvaluator() {
+        return formulaEvaluator;
+    }
+
+    @Override
+    public void close() {
+        opcPackage.revert();
+    }
+
+    private static OPCPackage openPackage(final String filename) {
+        final URL url = StreamingExcelDataReader.class.getResource(filename);
+        if (url == null) {
+            throw new ExcelReaderException(FILE_NOT_FOUND, filename);
+        }
+        try {
+            final OPCPackage result;
+            if ("file".equals(url.getProtocol())) {
+                // File backed package: parts are unzipped on demand
+                result = OPCPackage.open(new File(url.toURI()), PackageAccess.READ);
+            } else {
+                try (InputStream inputStream = url.openStream()) {
+                    result = OPCPackage.open(inputStream);
+                }
+            }
+            return result;
+        } catch (IOException | InvalidFormatException | URISyntaxException exc) {
+            throw new ExcelReaderException(exc, UNABLE_TO_OPEN_FILE, filename);
+        }
+    }
+
+    private static OPCPackage openPackage(final Path path) {
+        if (!Files.isRegularFile(path)) {
+            throw new ExcelReaderException(FILE_NOT_FOUND, path);
+        }
+        try {
+            final OPCPackage result;
+            if (path.getFileSystem() == FileSystems.getDefault()) {
+                // File backed package: parts are unzipped on demand
+                result = OPCPackage.open(path.toFile(), PackageAccess.READ);
+            } else {
+                try (InputStream inputStream = Files.newInputStream(path)) {
+                    result = OPCPackage.open(inputStream);
+                }
+            }
+            return result;
+        } catch (IOException | InvalidFormatException exc) {
+            throw new ExcelReaderException(exc, UNABLE_TO_OPEN_FILE, path);
+        }
+    }
+
+    private PackagePart findSheetPart(final String sheetName) {
+        try {
+            final XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            while (iterator.hasNext()) {
+                // The iterator opens the stream of each sheet, only the part of the sheet is needed
+                iterator.next().close();
+                if (sheetName.equals(iterator.getSheetName())) {
+                    return iterator.getSheetPart();
+                }
+            }
+        } catch (IOException | InvalidFormatException exc) {
+            throw new ExcelReaderException(exc, UNABLE_TO_READ_SHEET, sheetName);
+        }
+        throw new ExcelReaderException(SHEET_NOT_FOUND, sheetName);
+    }
+
+    private static void parse(final PackagePart sheetPart, final ContentHandler handler)
+            throws IOException, SAXException, ParserConfigurationException {
+        try (InputStream inputStream = sheetPart.getInputStream()) {
+            final XMLReader xmlReader = XMLHelper.newXMLReader();
+            xmlReader.setContentHandler(handler);
+            xmlReader.parse(new InputSource(inputStream));
+        }
+    }
+
+    private static boolean isDate1904(final XSSFReader xssfReader)
+            throws IOException, InvalidFormatException, XmlException {
+        try (InputStream inputStream = xssfReader.getWorkbookData()) {
+            final CTWorkbookPr workbookPr = WorkbookDocument.Factory
+                    .parse(inputStream, POIXMLTypeLoader.DEFAULT_XML_OPTIONS).getWorkbook().getWorkbookPr();
+            return workbookPr != null && workbookPr.isSetDate1904() && workbookPr.getDate1904();
+        }
+    }
+
+    /**
+     * Keeps the header rows in the sheet and gives the data rows to the row handler, once the headers have been
+     * computed from the header rows.
+     */
+    private static class RowDispatcher implements Consumer<StreamingRow> {
+        private final StreamingSheet sheet;
+        private final HeaderDescriptor headerDescriptor;
+        private final RowHandler rowHandler;
+        private Map<String, Integer> headers;
+
+        RowDispatcher(final StreamingSheet sheet, final HeaderDescriptor headerDescriptor,
+                      final RowHandler rowHandler) {
+            this.sheet = sheet;
+            this.headerDescriptor = headerDescriptor;
+            this.rowHandler = rowHandler;
+        }
+
+        @Override
+        public void accept(final StreamingRow row) {
+            if (row.getRowNum() <= headerDescriptor.getLastHeaderRow()) {
+                sheet.retainRow(row);
+            } else {
+                analyseHeaders();
+                sheet.setCurrentRow(row);
+                rowHandler.handleRow(row, headers);
+            }
+        }
+
+        void endSheet() {
+            sheet.setCurrentRow(null);
+            analyseHeaders();
+        }
+
+        private void analyseHeaders() {
+            if (headers == null) {
+                headers = Collections.unmodifiableMap(new WorksheetAnalyser(sheet, headerDescriptor).getHeadersMap());
+                rowHandler.handleHeaders(headers);
+            }
+        }
+    }
+}
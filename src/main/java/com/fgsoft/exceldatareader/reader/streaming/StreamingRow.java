@@ -0,0 +1,223 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.reader.streaming;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only row built from the XML of a worksheet read in streaming mode. Cells are indexed by column so that
+ * {@link #getCell(int)} does not depend on the number of cells in the row.
+ */
+public class StreamingRow implements Row {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final StreamingSheet sheet;
+    private final int rowNum;
+    private StreamingCell[] cells = new StreamingCell[INITIAL_CAPACITY];
+    private int firstCellNum = -1;
+    private int lastCellNum = -1;
+    private int physicalNumberOfCells;
+
+    StreamingRow(final StreamingSheet sheet, final int rowNum) {
+        this.sheet = sheet;
+        this.rowNum = rowNum;
+    }
+
+    void addCell(final int columnIndex, final CellType valueType, final boolean formula, final double numericValue,
+                 final String stringValue, final boolean booleanValue, final CellStyle cellStyle) {
+        if (columnIndex >= cells.length) {
+            cells = Arrays.copyOf(cells, Math.max(columnIndex + 1, cells.length * 2));
+        }
+        if (cells[columnIndex] == null) {
+            physicalNumberOfCells++;
+        }
+        cells[columnIndex] = new StreamingCell(this, columnIndex, valueType, formula,
+                numericValue, stringValue, booleanValue, cellStyle);
+        if (firstCellNum < 0 || columnIndex < firstCellNum) {
+            firstCellNum = columnIndex;
+        }
+        lastCellNum = Math.max(lastCellNum, columnIndex + 1);
+    }
+
+    @Override
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    @Override
+    public StreamingSheet getSheet() {
+        return sheet;
+    }
+
+    @Override
+    public Cell getCell(final int cellnum) {
+        return cellnum >= 0 && cellnum < cells.length ? cells[cellnum] : null;
+    }
+
+    @Override
+    public Cell getCell(final int cellnum, final MissingCellPolicy policy) {
+        final Cell cell = getCell(cellnum);
+        final Cell result;
+        switch (policy) {
+            case RETURN_BLANK_AS_NULL:
+                result = cell != null && cell.getCellType() == CellType.BLANK ? null : cell;
+                break;
+            case CREATE_NULL_AS_BLANK:
+                result = cell != null ? cell
+                        : new StreamingCell(this, cellnum, CellType.BLANK, false, 0.0, null, false, null);
+                break;
+            case RETURN_NULL_AND_BLANK:
+            default:
+                result = cell;
+        }
+        return result;
+    }
+
+    @Override
+    public short getFirstCellNum() {
+        return (short) firstCellNum;
+    }
+
+    @Override
+    public short getLastCellNum() {
+        return (short) lastCellNum;
+    }
+
+    @Override
+    public int getPhysicalNumberOfCells() {
+        return physicalNumberOfCells;
+    }
+
+    @Override
+    public Iterator<Cell> cellIterator() {
+        return new Iterator<Cell>() {
+            private int next = nextCellFrom(Math.max(firstCellNum, 0));
+
+            @Override
+            public boolean hasNext() {
+                return next < lastCellNum;
+            }
+
+            @Override
+            public Cell next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final Cell cell = cells[next];
+                next = nextCellFrom(next + 1);
+                return cell;
+            }
+        };
+    }
+
+    private int nextCellFrom(final int columnIndex) {
+        int index = columnIndex;
+        while (index < lastCellNum && cells[index] == null) {
+            index++;
+        }
+        return index;
+    }
+
+    @Override
+    public short getHeight() {
+        return sheet.getDefaultRowHeight();
+    }
+
+    @Override
+    public float getHeightInPoints() {
+        return sheet.getDefaultRowHeightInPoints();
+    }
+
+    @Override
+    public boolean getZeroHeight() {
+        return false;
+    }
+
+    @Override
+    public boolean isFormatted() {
+        return false;
+    }
+
+    @Override
+    public CellStyle getRowStyle() {
+        return null;
+    }
+
+    @Override
+    public int getOutlineLevel() {
+        return 0;
+    }
+
+    @Override
+    public Cell createCell(final int column) {
+        throw readOnly();
+    }
+
+    @Override
+    public Cell createCell(final int column, final CellType type) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeCell(final Cell cell) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setRowNum(final int rowNum) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setHeight(final short height) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setZeroHeight(final boolean zHeight) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setHeightInPoints(final float height) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setRowStyle(final CellStyle style) {
+        throw readOnly();
+    }
+
+    @Override
+    public void shiftCellsRight(final int firstShiftColumnIndex, final int lastShiftColumnIndex, final int step) {
+        throw readOnly();
+    }
+
+    @Override
+    public void shiftCellsLeft(final int firstShiftColumnIndex, final int lastShiftColumnIndex, final int step) {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Rows read in streaming mode are read-only");
+    }
+}
@@ -0,0 +1,151 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.reader.streaming;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+
+import java.util.function.Consumer;
+
+/**
+ * Builds the {@link StreamingRow} from the cell contents reported by {@link StreamingSheetHandler}. Each row is
+ * given to the row consumer as soon as it is complete.
+ */
+class StreamingRowBuilder implements SheetContentsHandler {
+    private static final String BOOLEAN_TYPE = "b";
+    private static final String ERROR_TYPE = "e";
+    private static final String INLINE_STRING_TYPE = "inlineStr";
+    private static final String SHARED_STRING_TYPE = "s";
+    private static final String FORMULA_STRING_TYPE = "str";
+    private static final String ERROR_PREFIX = "ERROR:";
+
+    private final StreamingSheet sheet;
+    private final StylesTable styles;
+    private final CellStyle[] cellStyles;
+    private final Consumer<StreamingRow> rowConsumer;
+    private StreamingRow row;
+    // Attributes of the cell being read
+    private String cellReference;
+    private String cellType;
+    private int styleIndex;
+    private boolean formula;
+    private boolean cellDone;
+    private int nextColumnIndex;
+
+    StreamingRowBuilder(final StreamingSheet sheet, final StylesTable styles,
+                        final Consumer<StreamingRow> rowConsumer) {
+        this.sheet = sheet;
+        this.styles = styles;
+        this.cellStyles = new CellStyle[styles == null ? 0 : styles.getNumCellStyles()];
+        this.rowConsumer = rowConsumer;
+    }
+
+    void startCell(final String reference, final String type, final String style) {
+        this.cellReference = reference;
+        this.cellType = type;
+        this.styleIndex = style == null ? 0 : Integer.parseInt(style);
+        this.formula = false;
+        this.cellDone = false;
+    }
+
+    void startFormula() {
+        this.formula = true;
+    }
+
+    /**
+     * End of the cell element: cells without any value are kept as blank cells as they are in the workbook.
+     */
+    void endCell() {
+        if (!cellDone) {
+            addCell(CellType.BLANK, 0.0, null, false);
+        }
+    }
+
+    @Override
+    public void startRow(final int rowNum) {
+        row = new StreamingRow(sheet, rowNum);
+        nextColumnIndex = 0;
+    }
+
+    @Override
+    public void endRow(final int rowNum) {
+        rowConsumer.accept(row);
+        row = null;
+    }
+
+    @Override
+    public void cell(final String reference, final String formattedValue, final XSSFComment comment) {
+        if (FORMULA_STRING_TYPE.equals(cellType) || SHARED_STRING_TYPE.equals(cellType)
+                || INLINE_STRING_TYPE.equals(cellType)) {
+            addCell(CellType.STRING, 0.0, formattedValue, false);
+        } else if (BOOLEAN_TYPE.equals(cellType)) {
+            addCell(CellType.BOOLEAN, 0.0, null, Boolean.parseBoolean(formattedValue));
+        } else if (ERROR_TYPE.equals(cellType)) {
+            addCell(CellType.ERROR, errorCode(formattedValue), null, false);
+        } else if (formattedValue == null || formattedValue.isEmpty()) {
+            addCell(CellType.BLANK, 0.0, null, false);
+        } else {
+            addCell(CellType.NUMERIC, Double.parseDouble(formattedValue), null, false);
+        }
+    }
+
+    private void addCell(final CellType valueType, final double numericValue, final String stringValue,
+                         final boolean booleanValue) {
+        final int columnIndex = cellReference == null ? nextColumnIndex : columnIndex(cellReference);
+        row.addCell(columnIndex, valueType, formula, numericValue, stringValue, booleanValue, getCellStyle());
+        nextColumnIndex = columnIndex + 1;
+        cellDone = true;
+    }
+
+    private CellStyle getCellStyle() {
+        CellStyle cellStyle = null;
+        if (styleIndex < cellStyles.length) {
+            cellStyle = cellStyles[styleIndex];
+            if (cellStyle == null) {
+                cellStyle = styles.getStyleAt(styleIndex);
+                cellStyles[styleIndex] = cellStyle;
+            }
+        }
+        return cellStyle;
+    }
+
+    private static int errorCode(final String formattedValue) {
+        final String errorValue = formattedValue.startsWith(ERROR_PREFIX)
+                ? formattedValue.substring(ERROR_PREFIX.length()) : formattedValue;
+        int code;
+        try {
+            code = FormulaError.forString(errorValue).getCode();
+        } catch (IllegalArgumentException exc) {
+            code = FormulaError.NA.getCode();
+        }
+        return code;
+    }
+
+    private static int columnIndex(final String reference) {
+        int column = 0;
+        for (int cnt = 0; cnt < reference.length(); cnt++) {
+            final char letter = reference.charAt(cnt);
+            if (letter < 'A' || letter > 'Z') {
+                break;
+            }
+            column = column * 26 + (letter - 'A' + 1);
+        }
+        return column - 1;
+    }
+}
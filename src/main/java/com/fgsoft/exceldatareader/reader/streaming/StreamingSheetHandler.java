@@ -0,0 +1,61 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.reader.streaming;
+
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.Styles;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+
+import static org.apache.poi.xssf.usermodel.XSSFRelation.NS_SPREADSHEETML;
+
+/**
+ * SAX handler of the worksheet XML. On top of the values extracted by {@link XSSFSheetXMLHandler}, the raw type,
+ * style and formula flag of each cell are collected so that cells can be typed as they are in the workbook.
+ * No styles are given to the parent handler: values are then reported unformatted.
+ */
+class StreamingSheetHandler extends XSSFSheetXMLHandler {
+    private static final String CELL_ELEMENT = "c";
+    private static final String FORMULA_ELEMENT = "f";
+
+    private final StreamingRowBuilder rowBuilder;
+
+    StreamingSheetHandler(final SharedStrings strings, final StreamingRowBuilder rowBuilder) {
+        super((Styles) null, strings, rowBuilder, false);
+        this.rowBuilder = rowBuilder;
+    }
+
+    @Override
+    public void startElement(final String uri, final String localName, final String qName,
+                             final Attributes attributes) throws SAXException {
+        if (uri == null || NS_SPREADSHEETML.equals(uri)) {
+            if (CELL_ELEMENT.equals(localName)) {
+                rowBuilder.startCell(attributes.getValue("r"), attributes.getValue("t"), attributes.getValue("s"));
+            } else if (FORMULA_ELEMENT.equals(localName)) {
+                rowBuilder.startFormula();
+            }
+        }
+        super.startElement(uri, localName, qName, attributes);
+    }
+
+    @Override
+    public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+        super.endElement(uri, localName, qName);
+        if ((uri == null || NS_SPREADSHEETML.equals(uri)) && CELL_ELEMENT.equals(localName)) {
+            rowBuilder.endCell();
+        }
+    }
+}
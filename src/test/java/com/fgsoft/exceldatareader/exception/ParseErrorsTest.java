@@ -0,0 +1,85 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.exception;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParseErrorsTest {
+    private static final String SHEET_NAME = "Sheet name";
+
+    @Test
+    final void testGrow() {
+        // Given
+        final ParseErrors errors = new ParseErrors(1);
+        // When
+        for (int row = 0; row < 10; row++) {
+            errors.add(row, 1, SHEET_NAME, ExcelReaderErrorCode.UNEXPECTED_VALUE, null, null);
+        }
+        // Then
+        assertThat(errors.size()).isEqualTo(10);
+        assertThat(errors.getRow(9)).isEqualTo(9);
+        assertThat(errors.getMessage(9)).isEqualTo(String.format(
+                ExcelReaderErrorCode.UNEXPECTED_VALUE.getMessage(), 9, 1, SHEET_NAME));
+        assertThat(errors.getMessages()).hasSize(10);
+    }
+
+    @Test
+    final void testCollectScope() {
+        // Given
+        final ParseErrors outer = new ParseErrors();
+        final ParseErrors inner = new ParseErrors();
+        // When
+        final ParseErrors current = outer.collect(() -> {
+            assertThat(inner.collect(ParseErrors::current)).isSameAs(inner);
+            return ParseErrors.current();
+        });
+        // Then
+        assertThat(current).isSameAs(outer);
+        assertThat(ParseErrors.current()).isNull();
+        assertThat(outer.isEmpty()).isTrue();
+    }
+
+    @Test
+    final void testEnterExitScope() {
+        // Given
+        final ParseErrors outer = new ParseErrors();
+        final ParseErrors inner = new ParseErrors();
+        // When
+        final ParseErrors outerPrevious = outer.enter();
+        final ParseErrors innerPrevious = inner.enter();
+        final ParseErrors current = ParseErrors.current();
+        ParseErrors.exit(innerPrevious);
+        final ParseErrors restored = ParseErrors.current();
+        ParseErrors.exit(outerPrevious);
+        // Then
+        assertThat(outerPrevious).isNull();
+        assertThat(innerPrevious).isSameAs(outer);
+        assertThat(current).isSameAs(inner);
+        assertThat(restored).isSameAs(outer);
+        assertThat(ParseErrors.current()).isNull();
+    }
+
+    @Test
+    final void testIndexOutOfBounds() {
+        // Given
+        final ParseErrors errors = new ParseErrors();
+        // When
+        // Then
+        assertThrows(IndexOutOfBoundsException.class, () -> errors.getRow(0));
+    }
+}
@@ -0,0 +1,268 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.generator;
+
+import com.fgsoft.exceldatareader.parser.HeaderDescriptor;
+import lombok.Builder;
+import lombok.Getter;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Generator of synthetic workbooks, used for load and benchmark testing. It is not part of the library: it ships in
+ * the test jar of the library, which the benchmarks module depends on.
+ * <p>
+ * Workbooks are written with {@link SXSSFWorkbook}, keeping only a window of rows in memory, so that workbooks of
+ * millions of rows can be generated. Contents are deterministic: a generator with the same settings and seed always
+ * writes the same values, so that a test run can be reproduced without storing the workbook.
+ * <p>
+ * Each worksheet starts with {@code headerDepth} title rows, see {@link #getHeaderDescriptor()}. The first column
+ * holds the test names, {@code TEST-1}, {@code TEST-2}... Each other column gets a field title in the last title row
+ * and, in the upper title rows, group titles merged over 2, 4, 8... columns, giving headers such as
+ * {@code g0_1.g1_2.f5}. Data columns are given a random type: integer, decimal, string, boolean or date, the date
+ * columns being formatted as dates. A ratio of the numeric cells are written as formulas, with their cached result.
+ * <p>
+ * Settings are checked when the generator is built: a worksheet holds at most {@link #getMaxRowCount(int)} data rows,
+ * the XLSX row limit less the title rows, and {@link SpreadsheetVersion#EXCEL2007} columns. Larger data sets are
+ * generated over several worksheets with {@code sheetCount}.
+ */
+@Getter
+@Builder
+public class WorkbookGenerator {
+    private static final int ROW_WINDOW = 100;
+    private static final String DATE_FORMAT = "yyyy-mm-dd hh:mm:ss";
+    private static final LocalDateTime FIRST_DATE = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final int DATE_RANGE_MINUTES = 30 * 365 * 24 * 60;
+    private static final int VALUE_RANGE = 1_000_000;
+    private static final int STRING_COUNT = 1000; // Number of distinct strings, shared strings being deduplicated
+    private static final int MAX_HEADER_DEPTH = Integer.SIZE - 1; // Group width doubles at each title row
+
+    /**
+     * Seed of the generated values
+     */
+    @Builder.Default
+    private final long seed = 0;
+    @Builder.Default
+    private final int sheetCount = 1;
+    /**
+     * Number of data rows of each worksheet
+     */
+    @Builder.Default
+    private final int rowCount = 1000;
+    /**
+     * Number of columns of each worksheet, including the test name column
+     */
+    @Builder.Default
+    private final int columnCount = 10;
+    /**
+     * Number of title rows, the upper ones containing merged group titles
+     */
+    @Builder.Default
+    private final int headerDepth = 1;
+    /**
+     * Ratio of the numeric cells written as formulas, between 0 and 1
+     */
+    @Builder.Default
+    private final double formulaRatio = 0;
+    /**
+     * Ratio of the data columns containing dates, between 0 and 1
+     */
+    @Builder.Default
+    private final double dateRatio = 0.1;
+
+    /**
+     * Settings are given by the builder
+     * @throws IllegalArgumentException if a setting is out of range
+     */
+    private WorkbookGenerator(final long seed, final int sheetCount, final int rowCount, final int columnCount,
+                              final int headerDepth, final double formulaRatio, final double dateRatio) {
+        checkRange("sheetCount", sheetCount, 1, Integer.MAX_VALUE);
+        checkRange("headerDepth", headerDepth, 1, MAX_HEADER_DEPTH);
+        checkRange("rowCount", rowCount, 0, getMaxRowCount(headerDepth));
+        checkRange("columnCount", columnCount, 1, SpreadsheetVersion.EXCEL2007.getMaxColumns());
+        checkRatio("formulaRatio", formulaRatio);
+        checkRatio("dateRatio", dateRatio);
+        this.seed = seed;
+        this.sheetCount = sheetCount;
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.headerDepth = headerDepth;
+        this.formulaRatio = formulaRatio;
+        this.dateRatio = dateRatio;
+    }
+
+    /**
+     * @param headerDepth number of title rows
+     * @return maximum number of data rows of a worksheet with the given number of title rows
+     */
+    public static int getMaxRowCount(final int headerDepth) {
+        return SpreadsheetVersion.EXCEL2007.getMaxRows() - headerDepth;
+    }
+
+    /**
+     * @return description of the header rows of the generated worksheets
+     */
+    public HeaderDescriptor getHeaderDescriptor() {
+        return new HeaderDescriptor(0, headerDepth - 1, headerDepth - 1);
+    }
+
+    /**
+     * @param sheetIndex index of the worksheet
+     * @return name of the worksheet
+     */
+    public String getSheetName(final int sheetIndex) {
+        return "Sheet" + (sheetIndex + 1);
+    }
+
+    /**
+     * Write the workbook to a file
+     * @param file file to write. Any existing file is replaced.
+     * @throws IOException if the file cannot be written
+     */
+    public void write(final Path file) throws IOException {
+        try (OutputStream output = Files.newOutputStream(file)) {
+            write(output);
+        }
+    }
+
+    /**
+     * Write the workbook to a stream
+     * @param output stream to write to. The stream is not closed.
+     */
+    public void write(final OutputStream output) throws IOException {
+        final SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        try {
+            workbook.setCompressTempFiles(true);
+            final CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat(DATE_FORMAT));
+            final SplittableRandom random = new SplittableRandom(seed);
+            for (int sheetIndex = 0; sheetIndex < sheetCount; sheetIndex++) {
+                writeSheet(workbook.createSheet(getSheetName(sheetIndex)), random.split(), dateStyle);
+            }
+            workbook.write(output);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private void writeSheet(final SXSSFSheet sheet, final SplittableRandom random, final CellStyle dateStyle) {
+        final ColumnType[] types = new ColumnType[columnCount];
+        for (int column = 1; column < columnCount; column++) {
+            types[column] = random.nextDouble() < dateRatio ? ColumnType.DATE
+                    : ColumnType.OTHER_TYPES[random.nextInt(ColumnType.OTHER_TYPES.length)];
+        }
+        writeTitles(sheet);
+        for (int cnt = 1; cnt <= rowCount; cnt++) {
+            final Row row = sheet.createRow(headerDepth - 1 + cnt);
+            row.createCell(0).setCellValue("TEST-" + cnt);
+            for (int column = 1; column < columnCount; column++) {
+                writeValue(row.createCell(column), types[column], random, dateStyle);
+            }
+        }
+    }
+
+    private void writeTitles(final SXSSFSheet sheet) {
+        for (int level = 0; level < headerDepth; level++) {
+            final Row row = sheet.createRow(level);
+            if (level == headerDepth - 1) {
+                row.createCell(0).setCellValue("Name");
+                for (int column = 1; column < columnCount; column++) {
+                    row.createCell(column).setCellValue("f" + column);
+                }
+            } else {
+                final int width = 1 << (headerDepth - 1 - level); // Group width halves at each level
+                for (int first = 1; first < columnCount; first += width) {
+                    final int last = Math.min(first + width, columnCount) - 1;
+                    row.createCell(first).setCellValue("g" + level + "_" + (first - 1) / width);
+                    if (last > first) {
+                        sheet.addMergedRegionUnsafe(new CellRangeAddress(level, level, first, last));
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeValue(final Cell cell, final ColumnType type, final SplittableRandom random,
+                            final CellStyle dateStyle) {
+        final boolean formula = type.isNumeric() && random.nextDouble() < formulaRatio;
+        switch (type) {
+            case INTEGER:
+                final int intValue = random.nextInt(VALUE_RANGE);
+                if (formula) {
+                    cell.setCellFormula(intValue + "+0");
+                }
+                cell.setCellValue(intValue); // Cached result of a formula cell
+                break;
+            case DECIMAL:
+                final double doubleValue = random.nextInt(VALUE_RANGE) / 100.0;
+                if (formula) {
+                    cell.setCellFormula(doubleValue + "+0");
+                }
+                cell.setCellValue(doubleValue);
+                break;
+            case DATE:
+                final LocalDateTime date = FIRST_DATE.plusMinutes(random.nextInt(DATE_RANGE_MINUTES));
+                if (formula) {
+                    cell.setCellFormula(String.format("DATE(%d,%d,%d)+TIME(%d,%d,0)", date.getYear(),
+                            date.getMonthValue(), date.getDayOfMonth(), date.getHour(), date.getMinute()));
+                }
+                cell.setCellValue(date);
+                cell.setCellStyle(dateStyle);
+                break;
+            case BOOLEAN:
+                cell.setCellValue(random.nextBoolean());
+                break;
+            case STRING:
+            default:
+                cell.setCellValue("Value " + random.nextInt(STRING_COUNT));
+        }
+    }
+
+    private static void checkRange(final String name, final int value, final int min, final int max) {
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(
+                    String.format("%s must be between %d and %d, got %d", name, min, max, value));
+        }
+    }
+
+    private static void checkRatio(final String name, final double value) {
+        if (!(value >= 0 && value <= 1)) {
+            throw new IllegalArgumentException(String.format("%s must be between 0 and 1, got %s", name, value));
+        }
+    }
+
+    private enum ColumnType {
+        INTEGER, DECIMAL, STRING, BOOLEAN, DATE;
+
+        private static final ColumnType[] OTHER_TYPES = {INTEGER, DECIMAL, STRING, BOOLEAN};
+
+        boolean isNumeric() {
+            return this == INTEGER || this == DECIMAL || this == DATE;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.generator;
+
+import com.fgsoft.exceldatareader.parser.util.HeaderSchema;
+import com.fgsoft.exceldatareader.parser.util.TestNameIndex;
+import com.fgsoft.exceldatareader.reader.ExcelDataReader;
+import org.apache.poi.ss.usermodel.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WorkbookGeneratorTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    final void testLayout() throws IOException {
+        // Given
+        final WorkbookGenerator generator = WorkbookGenerator.builder()
+                .sheetCount(2).rowCount(300).columnCount(9).headerDepth(3).build();
+        final Path file = tempDir.resolve("layout.xlsx");
+        // When
+        generator.write(file);
+        // Then
+        try (ExcelDataReader reader = new ExcelDataReader(file);
+             Workbook workbook = WorkbookFactory.create(file.toFile())) {
+            assertThat(workbook.getNumberOfSheets()).isEqualTo(2);
+            final Sheet sheet = workbook.getSheet(generator.getSheetName(1));
+            assertThat(sheet.getLastRowNum()).isEqualTo(302);
+            assertThat(sheet.getNumMergedRegions()).isEqualTo(6);
+            final HeaderSchema schema = reader.getHeaderSchema(generator.getSheetName(1),
+                    generator.getHeaderDescriptor());
+            assertThat(schema.size()).isEqualTo(8);
+            assertThat(schema.getColumn("g0_0.g1_0.f1")).isEqualTo(1);
+            assertThat(schema.getColumn("g0_1.g1_3.f8")).isEqualTo(8);
+            final TestNameIndex index = reader.getTestNameIndex(generator.getSheetName(0),
+                    generator.getHeaderDescriptor());
+            assertThat(index.getAllTestNames()).hasSize(300);
+            assertThat(index.getFirstRow("TEST-1")).isEqualTo(3);
+        }
+    }
+
+    @Test
+    final void testFormulasWithCachedResults() throws IOException {
+        // Given
+        final WorkbookGenerator generator = WorkbookGenerator.builder()
+                .rowCount(50).columnCount(20).formulaRatio(1).dateRatio(0.5).build();
+        final Path file = tempDir.resolve("formulas.xlsx");
+        // When
+        generator.write(file);
+        // Then
+        try (Workbook workbook = WorkbookFactory.create(file.toFile())) {
+            final FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+            int formulaCount = 0;
+            for (final Row row : workbook.getSheetAt(0)) {
+                for (final Cell cell : row) {
+                    if (cell.getCellType() == CellType.FORMULA) {
+                        formulaCount++;
+                        assertThat(evaluator.evaluate(cell).getNumberValue()).isEqualTo(cell.getNumericCellValue());
+                    }
+                }
+            }
+            assertThat(formulaCount).isPositive();
+        }
+    }
+
+    @Test
+    final void testDeterministic() throws IOException {
+        // Given
+        final WorkbookGenerator generator = WorkbookGenerator.builder()
+                .seed(42).rowCount(200).columnCount(12).formulaRatio(0.2).build();
+        final Path first = tempDir.resolve("first.xlsx");
+        final Path second = tempDir.resolve("second.xlsx");
+        final Path other = tempDir.resolve("other.xlsx");
+        // When
+        generator.write(first);
+        generator.write(second);
+        WorkbookGenerator.builder().seed(43).rowCount(200).columnCount(12).formulaRatio(0.2).build().write(other);
+        // Then
+        assertThat(readValues(second)).isEqualTo(readValues(first)).isNotEqualTo(readValues(other));
+    }
+
+    @Test
+    final void testInvalidSettings() {
+        // Given
+        final int maxRowCount = WorkbookGenerator.getMaxRowCount(2);
+        // When
+        final Throwable exception = assertThrows(IllegalArgumentException.class,
+                () -> WorkbookGenerator.builder().headerDepth(2).rowCount(maxRowCount + 1).build());
+        // Then
+        assertThat(exception.getMessage()).isEqualTo("rowCount must be between 0 and 1048574, got 1048575");
+        assertThat(WorkbookGenerator.builder().headerDepth(2).rowCount(maxRowCount).build().getRowCount())
+                .isEqualTo(maxRowCount);
+        assertThrows(IllegalArgumentException.class, () -> WorkbookGenerator.builder().headerDepth(0).build());
+        assertThrows(IllegalArgumentException.class, () -> WorkbookGenerator.builder().columnCount(0).build());
+        assertThrows(IllegalArgumentException.class, () -> WorkbookGenerator.builder().formulaRatio(1.5).build());
+    }
+
+    private static List<String> readValues(final Path file) throws IOException {
+        final List<String> values = new ArrayList<>();
+        final DataFormatter formatter = new DataFormatter();
+        try (Workbook workbook = WorkbookFactory.create(file.toFile())) {
+            for (final Row row : workbook.getSheetAt(0)) {
+                for (final Cell cell : row) {
+                    values.add(formatter.formatCellValue(cell) + "|" + cell.getCellType());
+                }
+            }
+        }
+        return values;
+    }
+}
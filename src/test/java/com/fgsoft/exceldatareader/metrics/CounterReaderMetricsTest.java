@@ -0,0 +1,156 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.metrics;
+
+import com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode;
+import com.fgsoft.exceldatareader.exception.ExcelReaderException;
+import com.fgsoft.exceldatareader.exception.ParseErrors;
+import com.fgsoft.exceldatareader.parser.HeaderDescriptor;
+import com.fgsoft.exceldatareader.parser.util.FormulaStrategy;
+import com.fgsoft.exceldatareader.parser.util.SharedResultFormulaEvaluator;
+import com.fgsoft.exceldatareader.parser.value.ValueParserRouter;
+import com.fgsoft.exceldatareader.reader.ExcelDataReader;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CounterReaderMetricsTest {
+    private static final String SAMPLE_FILE_PATH = "/testData/SampleDataFile.xlsx";
+
+    private final CounterReaderMetrics metrics = new CounterReaderMetrics();
+
+    @BeforeEach
+    final void setUp() {
+        Metrics.register(metrics);
+    }
+
+    @AfterEach
+    final void tearDown() {
+        Metrics.disable();
+    }
+
+    @Test
+    final void testDisabledByDefault() {
+        // When
+        Metrics.disable();
+        // Then
+        assertThat(Metrics.isEnabled()).isFalse();
+        assertThat(Metrics.startTimer()).isZero();
+        assertThat(Metrics.elapsed(0L)).isZero();
+    }
+
+    @Test
+    final void testWorkbookOpened() throws IOException, URISyntaxException {
+        // Given
+        final File file = new File(Objects.requireNonNull(getClass().getResource(SAMPLE_FILE_PATH)).toURI());
+        // When
+        try (ExcelDataReader reader = new ExcelDataReader(file)) {
+            reader.getHeaderSchema("SampleInstancePrimaryOnly", new HeaderDescriptor(0, 1, 1));
+        }
+        // Then
+        assertThat(metrics.getWorkbooksOpened()).isEqualTo(1);
+        assertThat(metrics.getBytesRead()).isEqualTo(file.length());
+        assertThat(metrics.getWorkbookOpenTime()).isPositive();
+        assertThat(metrics.getHeadersAnalysed()).isEqualTo(1);
+        assertThat(metrics.getHeaderAnalysisTime()).isPositive();
+    }
+
+    @Test
+    final void testCellsParsed() throws IOException {
+        try (Workbook workbook = createWorkbook()) {
+            // Given
+            final Row row = workbook.getSheetAt(0).getRow(0);
+            final FormulaEvaluator evaluator = FormulaStrategy.EVALUATE.createEvaluator(workbook,
+                    () -> new SharedResultFormulaEvaluator(workbook));
+            // When
+            for (final Cell cell : row) {
+                ValueParserRouter.getParser(String.class).getValue(cell, evaluator);
+            }
+            // Then
+            assertThat(metrics.getParserLookups()).isEqualTo(3);
+            assertThat(metrics.getCellsParsed()).isEqualTo(3);
+            assertThat(metrics.getCellsParsed(CellType.NUMERIC)).isEqualTo(1);
+            assertThat(metrics.getCellsParsed(CellType.STRING)).isEqualTo(1);
+            assertThat(metrics.getCellsParsed(CellType.FORMULA)).isEqualTo(1);
+            assertThat(metrics.getFormulaEvaluations()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    final void testPrimitiveCellsParsed() throws IOException {
+        try (Workbook workbook = createWorkbook()) {
+            // Given
+            final Row row = workbook.getSheetAt(0).getRow(0);
+            final FormulaEvaluator evaluator = FormulaStrategy.EVALUATE.createEvaluator(workbook,
+                    () -> new SharedResultFormulaEvaluator(workbook));
+            // When
+            ValueParserRouter.getIntParser().getInt(row.getCell(0), evaluator);
+            ValueParserRouter.getLongParser().getLong(row.getCell(2), evaluator);
+            ValueParserRouter.getDoubleParser().getDouble(null, evaluator);
+            // Then
+            assertThat(metrics.getCellsParsed()).isEqualTo(2);
+            assertThat(metrics.getCellsParsed(CellType.NUMERIC)).isEqualTo(1);
+            assertThat(metrics.getCellsParsed(CellType.FORMULA)).isEqualTo(1);
+        }
+    }
+
+    @Test
+    final void testParseErrors() throws IOException {
+        try (Workbook workbook = createWorkbook()) {
+            // Given
+            final Cell cell = workbook.getSheetAt(0).getRow(0).getCell(1);
+            final FormulaEvaluator evaluator = FormulaStrategy.CACHED_RESULTS.createEvaluator(workbook,
+                    () -> new SharedResultFormulaEvaluator(workbook));
+            // When
+            assertThrows(ExcelReaderException.class,
+                    () -> ValueParserRouter.getParser(Integer.class).getValue(cell, evaluator));
+            ValueParserRouter.getParser(Integer.class).getValue(cell, evaluator, new ParseErrors());
+            // Then
+            assertThat(metrics.getParseErrors(ExcelReaderErrorCode.INCORRECT_VALUE_FOR_TYPE)).isEqualTo(2);
+            assertThat(metrics.getFormulaEvaluations()).isZero();
+        }
+    }
+
+    @Test
+    final void testReset() {
+        // Given
+        metrics.cellParsed(CellType.BOOLEAN);
+        metrics.sheetParsed("Sheet1", 10L);
+        // When
+        metrics.reset();
+        // Then
+        assertThat(metrics.getCellsParsed()).isZero();
+        assertThat(metrics.getSheetParseTimes()).isEmpty();
+    }
+
+    private static Workbook createWorkbook() {
+        final Workbook workbook = new XSSFWorkbook();
+        final Row row = workbook.createSheet("Values").createRow(0);
+        row.createCell(0).setCellValue(7);
+        row.createCell(1).setCellValue("Not a number");
+        row.createCell(2).setCellFormula("A1*2");
+        return workbook;
+    }
+}
@@ -0,0 +1,97 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.metrics;
+
+import com.fgsoft.exceldatareader.exception.ExcelReaderException;
+import com.fgsoft.exceldatareader.parser.HeaderDescriptor;
+import com.fgsoft.exceldatareader.reader.ExcelDataReader;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReaderEventsTest {
+    private static final String SAMPLE_FILE_PATH = "/testData/SampleDataFile.xlsx";
+    private static final String SHEET_NAME = "SampleInstancePrimaryOnly";
+    private static final HeaderDescriptor HEADER_DESCRIPTOR = new HeaderDescriptor(0, 1, 1);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    final void testEvents() throws IOException {
+        // Given
+        final Path file = tempDir.resolve("recording.jfr");
+        // When
+        try (Recording recording = new Recording()) {
+            recording.enable(WorkbookOpenEvent.class);
+            recording.enable(HeaderAnalysisEvent.class);
+            recording.enable(ParseErrorEvent.class);
+            recording.enable(SheetParseEvent.class);
+            recording.start();
+            try (ExcelDataReader reader = new ExcelDataReader(SAMPLE_FILE_PATH)) {
+                reader.addParser(SHEET_NAME, HEADER_DESCRIPTOR, schema -> (row, evaluator) -> row.getRowNum());
+                reader.parseAll().forEach(CompletableFuture::join);
+                assertThrows(ExcelReaderException.class, () -> reader.getHeaderSchema("Unknown", HEADER_DESCRIPTOR));
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+        // Then
+        final Map<String, RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .collect(Collectors.toMap(event -> event.getEventType().getName(), Function.identity(),
+                        (first, second) -> first));
+        final RecordedEvent open = events.get("com.fgsoft.exceldatareader.WorkbookOpen");
+        assertThat(open).isNotNull();
+        assertThat(open.getString("source")).isEqualTo(SAMPLE_FILE_PATH);
+        assertThat(open.getString("format")).isEqualTo("XSSFWorkbook");
+        final RecordedEvent headers = events.get("com.fgsoft.exceldatareader.HeaderAnalysis");
+        assertThat(headers).isNotNull();
+        assertThat(headers.getString("sheet")).isEqualTo(SHEET_NAME);
+        assertThat(headers.getInt("columns")).isPositive();
+        final RecordedEvent parse = events.get("com.fgsoft.exceldatareader.SheetParse");
+        assertThat(parse).isNotNull();
+        assertThat(parse.getString("sheet")).isEqualTo(SHEET_NAME);
+        assertThat(parse.getInt("rows")).isEqualTo(2);
+        assertThat(parse.getLong("cells")).isPositive();
+        final RecordedEvent error = events.get("com.fgsoft.exceldatareader.ParseError");
+        assertThat(error).isNotNull();
+        assertThat(error.getString("code")).isEqualTo("SHEET_NOT_FOUND");
+        assertThat(error.getStackTrace()).isNull();
+    }
+
+    @Test
+    final void testNoEventWhenNotRecording() {
+        // When
+        final SheetParseEvent event = SheetParseEvent.start();
+        // Then
+        assertThat(event.isEnabled()).isFalse();
+        assertThat(ParseErrorEvent.isRecorded()).isFalse();
+        event.complete(SHEET_NAME, 1, () -> {
+            throw new AssertionError("Cells must not be counted");
+        });
+    }
+}
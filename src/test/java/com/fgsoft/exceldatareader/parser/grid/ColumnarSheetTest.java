@@ -0,0 +1,203 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.grid;
+
+import com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode;
+import com.fgsoft.exceldatareader.exception.ParseErrors;
+import com.fgsoft.exceldatareader.parser.HeaderDescriptor;
+import com.fgsoft.exceldatareader.parser.util.CachedResultFormulaEvaluator;
+import com.fgsoft.exceldatareader.parser.util.TestNameIndex;
+import com.fgsoft.exceldatareader.parser.util.WorksheetAnalyser;
+import com.fgsoft.exceldatareader.parser.value.ValueParserRouter;
+import org.apache.poi.ss.formula.eval.NotImplementedException;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.BitSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ColumnarSheetTest {
+    private static final HeaderDescriptor HEADER_DESCRIPTOR = new HeaderDescriptor(0, 0, 0);
+    private static final FormulaEvaluator EVALUATOR = new CachedResultFormulaEvaluator();
+    private static final int ROW_COUNT = 5;
+
+    private Workbook workbook;
+    private ColumnarSheet columnarSheet;
+
+    /**
+     * Sheet with a numeric column with a blank and a missing cell, a string column, a mixed column, a formula column
+     * and a date column, followed by a column without header
+     */
+    @BeforeEach
+    final void setUp() {
+        workbook = new XSSFWorkbook();
+        final Sheet sheet = workbook.createSheet("Values");
+        final Row header = sheet.createRow(0);
+        final String[] titles = {"", "number", "text", "mixed", "formula", "date"};
+        for (int column = 0; column < titles.length; column++) {
+            header.createCell(column).setCellValue(titles[column]);
+        }
+        final CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+        for (int cnt = 1; cnt <= ROW_COUNT; cnt++) {
+            final Row row = sheet.createRow(cnt);
+            row.createCell(0).setCellValue("TEST-" + cnt);
+            if (cnt == 2) {
+                row.createCell(1).setBlank();
+            } else if (cnt != 3) {
+                row.createCell(1).setCellValue(cnt * 1.5);
+            }
+            row.createCell(2).setCellValue(cnt % 2 == 0 ? "even" : "odd");
+            row.createCell(4).setCellFormula("B" + (cnt + 1) + "*2");
+            final Cell date = row.createCell(5);
+            date.setCellValue(LocalDate.of(2023, 7, cnt));
+            date.setCellStyle(dateStyle);
+            row.createCell(6).setCellValue("No header");
+        }
+        sheet.getRow(1).createCell(3).setCellValue(1.0);
+        sheet.getRow(2).createCell(3).setCellValue("one");
+        sheet.getRow(3).createCell(3).setCellValue(true);
+        sheet.getRow(4).createCell(3).setCellErrorValue(FormulaError.NA.getCode());
+        columnarSheet = ColumnarSheet.load(sheet, HEADER_DESCRIPTOR);
+    }
+
+    @AfterEach
+    final void tearDown() throws IOException {
+        workbook.close();
+    }
+
+    @Test
+    final void testShape() {
+        // Then
+        assertThat(columnarSheet.getSheetName()).isEqualTo("Values");
+        assertThat(columnarSheet.getFirstRow()).isEqualTo(1);
+        assertThat(columnarSheet.getLastRow()).isEqualTo(ROW_COUNT);
+        assertThat(columnarSheet.getRowCount()).isEqualTo(ROW_COUNT);
+        assertThat(columnarSheet.getColumnCount()).isEqualTo(6);
+        assertThat(columnarSheet.getTestNameIndex().getFirstRow("TEST-3")).isEqualTo(3);
+        assertThat(columnarSheet.getCellType(1, 6)).isNull(); // Column without header is not loaded
+    }
+
+    @Test
+    final void testNumericColumn() {
+        // Then
+        assertThat(columnarSheet.getCellType(1, 1)).isEqualTo(CellType.NUMERIC);
+        assertThat(columnarSheet.getCellType(2, 1)).isEqualTo(CellType.BLANK);
+        assertThat(columnarSheet.getCellType(3, 1)).isNull();
+        assertThat(columnarSheet.getNumericValue(4, 1)).isEqualTo(6.0);
+        assertThat(columnarSheet.getRow(3).getCell(1)).isNull();
+    }
+
+    @Test
+    final void testDictionaryEncodedStrings() {
+        // When
+        final String first = columnarSheet.getStringValue(1, 2);
+        final String second = columnarSheet.getStringValue(3, 2);
+        // Then
+        assertThat(first).isEqualTo("odd").isSameAs(second);
+        assertThat(columnarSheet.getStringValue(2, 2)).isEqualTo("even");
+    }
+
+    @Test
+    final void testMixedColumn() {
+        // Then
+        assertThat(columnarSheet.getCellType(1, 3)).isEqualTo(CellType.NUMERIC);
+        assertThat(columnarSheet.getCellType(2, 3)).isEqualTo(CellType.STRING);
+        assertThat(columnarSheet.getCellType(3, 3)).isEqualTo(CellType.BOOLEAN);
+        assertThat(columnarSheet.getCellType(4, 3)).isEqualTo(CellType.ERROR);
+        assertThat(columnarSheet.getCellType(5, 3)).isNull();
+        assertThat(columnarSheet.getStringValue(2, 3)).isEqualTo("one");
+        assertThat(columnarSheet.getBooleanValue(3, 3)).isTrue();
+        assertThat(columnarSheet.getErrorValue(4, 3)).isEqualTo(FormulaError.NA.getCode());
+    }
+
+    @Test
+    final void testParsedValues() {
+        // Given
+        final Row row = columnarSheet.getRow(4);
+        // When
+        final Object[] actual = {
+                ValueParserRouter.getParser(Double.class).getValue(row.getCell(1), EVALUATOR),
+                ValueParserRouter.getParser(String.class).getValue(row.getCell(2), EVALUATOR),
+                ValueParserRouter.getParser(Integer.class).getValue(row.getCell(4), EVALUATOR),
+                ValueParserRouter.getParser(LocalDate.class).getValue(row.getCell(5), EVALUATOR)};
+        // Then
+        assertThat(actual).containsExactly(6.0, "even", 12, LocalDate.of(2023, 7, 4));
+    }
+
+    @Test
+    final void testIncorrectValueReportsSheetName() {
+        // Given
+        final Cell cell = columnarSheet.getRow(1).getCell(2);
+        final ParseErrors errors = new ParseErrors();
+        // When
+        final Integer value = ValueParserRouter.getParser(Integer.class).getValue(cell, EVALUATOR, errors);
+        // Then
+        assertThat(value).isNull();
+        assertThat(cell.getSheet().getSheetName()).isEqualTo("Values");
+        assertThat(errors.size()).isEqualTo(1);
+        assertThat(errors.getCode(0)).isEqualTo(ExcelReaderErrorCode.INCORRECT_VALUE_FOR_TYPE);
+        assertThat(errors.getSheetName(0)).isEqualTo("Values");
+    }
+
+    @Test
+    final void testFormulaNotImplemented() {
+        // Given
+        final Sheet sheet = workbook.getSheet("Values");
+        final FormulaEvaluator evaluator = mock(FormulaEvaluator.class);
+        when(evaluator.evaluate(any())).thenThrow(new NotImplementedException("Function not implemented"));
+        // When
+        final ColumnarSheet actual = ColumnarSheet.load(sheet, HEADER_DESCRIPTOR,
+                new WorksheetAnalyser(sheet, HEADER_DESCRIPTOR).getHeaderSchema(),
+                TestNameIndex.forSheet(sheet, HEADER_DESCRIPTOR), evaluator);
+        // Then
+        assertThat(actual.getCellType(1, 4)).isEqualTo(CellType.ERROR);
+        assertThat(actual.getErrorValue(1, 4)).isEqualTo(FormulaError.FUNCTION_NOT_IMPLEMENTED.getCode());
+        assertThat(actual.getNumericValue(1, 1)).isEqualTo(1.5);
+    }
+
+    @Test
+    final void testReadColumn() {
+        // Given
+        final double[] values = new double[ROW_COUNT];
+        final BitSet presence = new BitSet();
+        // When
+        columnarSheet.readColumn(1, values, presence);
+        // Then
+        assertThat(values).containsExactly(1.5, Double.NaN, Double.NaN, 6.0, 7.5);
+        assertThat(presence.stream()).containsExactly(0, 3, 4);
+    }
+
+    @Test
+    final void testReadMixedColumn() {
+        // Given
+        final double[] values = new double[ROW_COUNT];
+        final BitSet presence = new BitSet();
+        // When
+        columnarSheet.readColumn(3, values, presence);
+        // Then
+        assertThat(values[0]).isEqualTo(1.0);
+        assertThat(presence.stream()).containsExactly(0);
+    }
+}
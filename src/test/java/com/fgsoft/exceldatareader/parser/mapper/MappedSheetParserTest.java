@@ -0,0 +1,235 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.mapper;
+
+import com.fgsoft.exceldatareader.parser.HeaderDescriptor;
+import com.fgsoft.exceldatareader.parser.util.CachedResultFormulaEvaluator;
+import com.fgsoft.exceldatareader.parser.util.TestNameIndex;
+import com.fgsoft.exceldatareader.parser.value.ValueParserRouter;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedSheetParserTest {
+    private static final HeaderDescriptor HEADER_DESCRIPTOR = new HeaderDescriptor(0, 0, 0);
+    private static final int ROW_COUNT = 5000;
+    private static final RowMapper<String> MAPPER = MappedSheetParserTest::map;
+
+    @Test
+    final void testStreamInSheetOrder() throws IOException {
+        try (XSSFWorkbook workbook = buildWorkbook()) {
+            // Given
+            final MappedSheetParser<String> parser = new MappedSheetParser<>(workbook.getSheetAt(0),
+                    HEADER_DESCRIPTOR, MAPPER);
+            // When
+            final List<String> values = parser.stream().collect(Collectors.toList());
+            // Then
+            assertThat(values).hasSize(ROW_COUNT - 1).startsWith("TEST-1=1", "TEST-2=2").endsWith("TEST-4999=4999");
+        }
+    }
+
+    @Test
+    final void testIteratorSkipsMissingRows() throws IOException {
+        try (XSSFWorkbook workbook = buildWorkbook()) {
+            // Given
+            final Sheet sheet = workbook.getSheetAt(0);
+            sheet.removeRow(sheet.getRow(2));
+            final MappedSheetParser<String> parser = new MappedSheetParser<>(sheet, HEADER_DESCRIPTOR, MAPPER);
+            // When
+            final Iterator<String> iterator = parser.iterator();
+            // Then
+            assertThat(iterator.next()).isEqualTo("TEST-1=1");
+            assertThat(iterator.next()).isEqualTo("TEST-3=3");
+        }
+    }
+
+    @Test
+    final void testParallelStream() throws IOException {
+        try (XSSFWorkbook workbook = buildWorkbook()) {
+            // Given
+            final MappedSheetParser<String> parser = new MappedSheetParser<>(workbook.getSheetAt(0),
+                    HEADER_DESCRIPTOR, MAPPER, CachedResultFormulaEvaluator::new);
+            final List<String> expected = IntStream.range(1, ROW_COUNT).mapToObj(cnt -> "TEST-" + cnt + "=" + cnt)
+                    .collect(Collectors.toList());
+            // When
+            final List<String> values = StreamSupport.stream(parser.spliterator(), true)
+                    .collect(Collectors.toList());
+            // Then
+            assertThat(values).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    final void testSplitByRowRange() throws IOException {
+        try (XSSFWorkbook workbook = buildWorkbook()) {
+            // Given
+            final Spliterator<String> suffix = new MappedSheetParser<>(workbook.getSheetAt(0), HEADER_DESCRIPTOR,
+                    MAPPER).spliterator();
+            // When
+            final Spliterator<String> prefix = suffix.trySplit();
+            // Then
+            assertThat(prefix).isNotNull();
+            assertThat(prefix.estimateSize() + suffix.estimateSize()).isEqualTo(ROW_COUNT - 1);
+            prefix.tryAdvance(value -> assertThat(value).isEqualTo("TEST-1=1"));
+            final int middle = ROW_COUNT / 2;
+            suffix.tryAdvance(value -> assertThat(value).isEqualTo("TEST-" + middle + "=" + middle));
+        }
+    }
+
+    @Test
+    final void testParseParallelInSheetOrder() throws IOException {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try (XSSFWorkbook workbook = buildWorkbook()) {
+            // Given
+            final Sheet sheet = workbook.getSheetAt(0);
+            sheet.removeRow(sheet.getRow(3000));
+            final MappedSheetParser<String> parser = new MappedSheetParser<>(sheet, HEADER_DESCRIPTOR, MAPPER,
+                    CachedResultFormulaEvaluator::new);
+            final List<String> expected = parser.stream().collect(Collectors.toList());
+            // When
+            final List<String> values = parser.parseParallel(pool);
+            // Then
+            assertThat(values).hasSize(ROW_COUNT - 2).isEqualTo(expected).doesNotContain("TEST-3000=3000");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    final void testGetValue() throws IOException {
+        try (XSSFWorkbook workbook = buildWorkbook()) {
+            // Given
+            final MappedSheetParser<String> parser = new MappedSheetParser<>(workbook.getSheetAt(0),
+                    HEADER_DESCRIPTOR, MAPPER);
+            // When
+            // Then
+            assertThat(parser.getValue("TEST-12")).isEqualTo("TEST-12=12");
+            assertThat(parser.getValue("Unknown")).isNull();
+            assertThat(parser.getAllTestNames()).hasSize(ROW_COUNT - 1);
+        }
+    }
+
+    @Test
+    final void testGetValueReusesEvaluator() throws IOException {
+        try (XSSFWorkbook workbook = buildWorkbook()) {
+            // Given
+            final AtomicInteger evaluatorCount = new AtomicInteger();
+            final MappedSheetParser<String> parser = new MappedSheetParser<>(workbook.getSheetAt(0),
+                    HEADER_DESCRIPTOR, MAPPER, () -> {
+                        evaluatorCount.incrementAndGet();
+                        return new CachedResultFormulaEvaluator();
+                    });
+            // When
+            for (int cnt = 1; cnt <= 100; cnt++) {
+                assertThat(parser.getValue("TEST-" + cnt)).isEqualTo("TEST-" + cnt + "=" + cnt);
+            }
+            // Then
+            assertThat(evaluatorCount).hasValue(1);
+        }
+    }
+
+    @Test
+    final void testGetValueUsesTestNameIndexFactory() throws IOException {
+        try (XSSFWorkbook workbook = buildWorkbook()) {
+            // Given
+            final Sheet sheet = workbook.getSheetAt(0);
+            final TestNameIndex index = TestNameIndex.forSheet(sheet, HEADER_DESCRIPTOR);
+            final AtomicInteger indexCount = new AtomicInteger();
+            final MappedSheetParser<String> parser = new MappedSheetParser<>(sheet, HEADER_DESCRIPTOR, MAPPER,
+                    CachedResultFormulaEvaluator::new, () -> {
+                        indexCount.incrementAndGet();
+                        return index;
+                    });
+            // When
+            final String value = parser.getValue("TEST-12");
+            // Then
+            assertThat(value).isEqualTo("TEST-12=12");
+            assertThat(parser.getAllTestNames()).isSameAs(index.getAllTestNames());
+            assertThat(indexCount).hasValue(1);
+        }
+    }
+
+    @Test
+    final void testGetValueEvaluatorsReleasedWithParser()
+            throws IOException, InterruptedException, ExecutionException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (XSSFWorkbook workbook = buildWorkbook()) {
+            // Given
+            final WeakReference<FormulaEvaluator> evaluator = lookUp(workbook.getSheetAt(0), executor);
+            // When
+            for (int cnt = 0; cnt < 50 && evaluator.get() != null; cnt++) {
+                System.gc();
+                Thread.sleep(20);
+            }
+            // Then
+            assertThat(evaluator.get()).isNull();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Look up a test name on the thread of an executor, which outlives the parser
+     */
+    private static WeakReference<FormulaEvaluator> lookUp(final Sheet sheet, final ExecutorService executor)
+            throws InterruptedException, ExecutionException {
+        final List<FormulaEvaluator> evaluators = new ArrayList<>();
+        final MappedSheetParser<String> parser = new MappedSheetParser<>(sheet, HEADER_DESCRIPTOR, MAPPER, () -> {
+            final FormulaEvaluator evaluator = new CachedResultFormulaEvaluator();
+            evaluators.add(evaluator);
+            return evaluator;
+        });
+        assertThat(executor.submit(() -> parser.getValue("TEST-12")).get()).isEqualTo("TEST-12=12");
+        return new WeakReference<>(evaluators.get(0));
+    }
+
+    private static String map(final Row row, final FormulaEvaluator evaluator) {
+        return ValueParserRouter.getParser(String.class).getValue(row.getCell(0), evaluator) + "="
+                + ValueParserRouter.getIntParser().getInt(row.getCell(1), evaluator);
+    }
+
+    private static XSSFWorkbook buildWorkbook() {
+        final XSSFWorkbook workbook = new XSSFWorkbook();
+        final Sheet sheet = workbook.createSheet("Data");
+        final Row title = sheet.createRow(0);
+        title.createCell(0).setCellValue("Name");
+        title.createCell(1).setCellValue("intValue");
+        for (int cnt = 1; cnt < ROW_COUNT; cnt++) {
+            final Row row = sheet.createRow(cnt);
+            row.createCell(0).setCellValue("TEST-" + cnt);
+            row.createCell(1).setCellValue(cnt);
+        }
+        return workbook;
+    }
+}
@@ -14,6 +14,12 @@
  */
 package com.fgsoft.exceldatareader.parser.util;
 
+import com.fgsoft.exceldatareader.parser.value.AbstractSingleCellValueParser;
+import com.fgsoft.exceldatareader.parser.value.EnumValueParser;
+import com.fgsoft.exceldatareader.parser.value.ValueParserRouter;
+import com.fgsoft.exceldatareader.util.Sample;
+import com.fgsoft.exceldatareader.util.SampleCompositeClass;
+import com.fgsoft.exceldatareader.util.SampleInstancePrimaryOnly;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
@@ -110,4 +116,54 @@ class BeanAnalyzerTest {
         // When Then
         assertThat(beanAnalyzer.hasSingleCellValue(string)).isTrue();
     }
+
+    @Test
+    final void testMetadataOfCompositeClass() {
+        // When
+        final BeanMetadata metadata = beanAnalyzer.getMetadata(SampleCompositeClass.class);
+        // Then
+        assertThat(metadata.getFields()).hasSize(14);
+        final FieldMetadata intValue = metadata.getField("intValue");
+        assertThat(intValue.isSingleCell()).isTrue();
+        assertThat(intValue.getParser()).isSameAs(ValueParserRouter.getParser(Integer.class));
+        assertThat(metadata.getField("sample").getParser()).isSameAs(ValueParserRouter.getParser(Sample.class));
+        final FieldMetadata composite = metadata.getField("composite");
+        assertThat(composite.isSingleCell()).isFalse();
+        assertThat(composite.isMultiple()).isFalse();
+        assertThat(composite.getElementType()).isEqualTo(SampleInstancePrimaryOnly.class);
+        final FieldMetadata listOfComposites = metadata.getField("listOfComposites");
+        assertThat(listOfComposites.isMultiple()).isTrue();
+        assertThat(listOfComposites.getElementType()).isEqualTo(SampleInstancePrimaryOnly.class);
+        assertThat(metadata.getField("listOfStrings").getElementType()).isEqualTo(String.class);
+    }
+
+    @Test
+    final void testMetadataCached() {
+        // When
+        // Then
+        assertThat(beanAnalyzer.getMetadata(SampleCompositeClass.class))
+                .isSameAs(new BeanAnalyzer().getMetadata(SampleCompositeClass.class));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    final void testMetadataUsesParserRegisteredLater() {
+        // Given
+        final FieldMetadata level = beanAnalyzer.getMetadata(LevelHolder.class).getField("level");
+        final AbstractSingleCellValueParser defaultParser = level.getParser();
+        final EnumValueParser parser = new EnumValueParser(Level.class);
+        // When
+        ValueParserRouter.register((Class) Level.class, parser);
+        // Then
+        assertThat(defaultParser).isNotNull().isNotSameAs(parser);
+        assertThat(level.getParser()).isSameAs(parser);
+    }
+
+    enum Level {
+        LOW, HIGH
+    }
+
+    static class LevelHolder {
+        Level level;
+    }
 }
@@ -0,0 +1,128 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import com.fgsoft.exceldatareader.util.Sample;
+import com.fgsoft.exceldatareader.util.SampleInstancePrimaryOnly;
+import com.fgsoft.exceldatareader.util.SampleParent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeanSettersTest {
+
+    @Test
+    final void testSetterMethods() {
+        // Given
+        final BeanSetters setters = BeanSetters.forClass(SampleInstancePrimaryOnly.class);
+        final SampleInstancePrimaryOnly instance = new SampleInstancePrimaryOnly();
+        final SampleInstancePrimaryOnly expected = SampleInstancePrimaryOnly.builder()
+                .intValue(12).longValue(12345678901L).doubleValue(1.5).booleanValue(true)
+                .bigDecimal(BigDecimal.TEN).localDate(LocalDate.of(2023, 7, 1)).sample(Sample.TWO)
+                .stringValue("value").build();
+        // When
+        setters.getSetter("intValue").setInt(instance, 12);
+        setters.getSetter("longValue").setLong(instance, 12345678901L);
+        setters.getSetter("doubleValue").setDouble(instance, 1.5);
+        setters.getSetter("booleanValue").setBoolean(instance, true);
+        setters.getSetter("bigDecimal").set(instance, BigDecimal.TEN);
+        setters.getSetter("localDate").set(instance, LocalDate.of(2023, 7, 1));
+        setters.getSetter("sample").set(instance, Sample.TWO);
+        setters.getSetter("stringValue").set(instance, "value");
+        // Then
+        assertThat(instance).isEqualTo(expected);
+    }
+
+    @Test
+    final void testFieldsWithoutSetterMethods() {
+        // Given
+        final BeanSetters setters = BeanSetters.forClass(FieldsOnly.class);
+        final FieldsOnly instance = new FieldsOnly();
+        // When
+        setters.getSetter("shortValue").set(instance, (short) 3);
+        setters.getSetter("intValue").setInt(instance, 4);
+        setters.getSetter("inherited").set(instance, "value");
+        setters.getSetter("intValue").set(instance, null);
+        // Then
+        assertThat(instance.shortValue).isEqualTo((short) 3);
+        assertThat(instance.intValue).isEqualTo(4);
+        assertThat(instance.getInherited()).isEqualTo("value");
+        assertThat(setters.getPropertyNames()).containsExactly("shortValue", "intValue", "inherited");
+        assertThat(setters.getSetter("CONSTANT")).isNull();
+    }
+
+    @Test
+    final void testInheritedPrivateFieldsOfOtherPackage() {
+        // Given
+        final BeanSetters setters = BeanSetters.forClass(Child.class);
+        final Child instance = new Child();
+        // When
+        setters.getSetter("secret").set(instance, "value");
+        setters.getSetter("intValue").setInt(instance, 4);
+        setters.getSetter("longValue").setLong(instance, 12345678901L);
+        setters.getSetter("doubleValue").setDouble(instance, 1.5);
+        setters.getSetter("booleanValue").setBoolean(instance, true);
+        setters.getSetter("intValue").set(instance, null);
+        // Then
+        assertThat(instance.getSecret()).isEqualTo("value");
+        assertThat(instance.getIntValue()).isEqualTo(4);
+        assertThat(instance.getLongValue()).isEqualTo(12345678901L);
+        assertThat(instance.getDoubleValue()).isEqualTo(1.5);
+        assertThat(instance.isBooleanValue()).isTrue();
+    }
+
+    @Test
+    final void testPrimitiveFieldSetters() {
+        // Given
+        final BeanSetters setters = BeanSetters.forClass(Child.class);
+        final Child instance = new Child();
+        // When
+        setters.getSetter("longValue").setInt(instance, 7);
+        setters.getSetter("doubleValue").set(instance, 2);
+        // Then
+        assertThat(setters.getSetter("intValue").getType()).isEqualTo(int.class);
+        assertThat(setters.getSetter("intValue").getClass().getSimpleName()).isEqualTo("IntPropertySetter");
+        assertThat(instance.getLongValue()).isEqualTo(7L);
+        assertThat(instance.getDoubleValue()).isEqualTo(2.0);
+    }
+
+    @Test
+    final void testCachedSetters() {
+        // When
+        // Then
+        assertThat(BeanSetters.forClass(SampleInstancePrimaryOnly.class))
+                .isSameAs(BeanSetters.forClass(SampleInstancePrimaryOnly.class));
+    }
+
+    private static class Parent {
+        private String inherited;
+
+        String getInherited() {
+            return inherited;
+        }
+    }
+
+    private static final class Child extends SampleParent {
+    }
+
+    private static final class FieldsOnly extends Parent {
+        private static final int CONSTANT = 1;
+        private short shortValue;
+        private int intValue;
+    }
+}
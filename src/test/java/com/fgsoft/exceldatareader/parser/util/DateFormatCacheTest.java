@@ -0,0 +1,91 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DateFormatCacheTest {
+    @Mock
+    private CellStyle cellStyle;
+
+    @Test
+    final void testCellDateFormatted() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            // Given
+            final CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("dd/mm/yyyy"));
+            final Sheet sheet = workbook.createSheet("Dates");
+            final Cell dateCell = sheet.createRow(0).createCell(0);
+            dateCell.setCellValue(44693.0);
+            dateCell.setCellStyle(dateStyle);
+            final Cell numericCell = sheet.createRow(1).createCell(0);
+            numericCell.setCellValue(44693.0);
+            // When
+            // Then
+            assertThat(DateFormatCache.isCellDateFormatted(dateCell)).isTrue();
+            assertThat(DateFormatCache.isCellDateFormatted(numericCell)).isFalse();
+            assertThat(DateFormatCache.isCellDateFormatted(null)).isFalse();
+            assertThat(DateFormatCache.forCell(numericCell)).isSameAs(DateFormatCache.forCell(dateCell));
+            assertThat(DateFormatCache.forSheet(sheet)).isSameAs(DateFormatCache.forCell(dateCell));
+        }
+    }
+
+    @Test
+    final void testCachePerWorkbook() throws IOException {
+        try (XSSFWorkbook first = new XSSFWorkbook(); XSSFWorkbook second = new XSSFWorkbook()) {
+            // Given
+            final Sheet firstSheet = first.createSheet("First");
+            final Sheet secondSheet = second.createSheet("Second");
+            // When
+            final DateFormatCache firstCache = DateFormatCache.forSheet(firstSheet);
+            final DateFormatCache secondCache = DateFormatCache.forSheet(secondSheet);
+            // Then
+            assertThat(secondCache).isNotSameAs(firstCache);
+            assertThat(DateFormatCache.forSheet(first.createSheet("Other"))).isSameAs(firstCache);
+            assertThat(DateFormatCache.forSheet(secondSheet)).isSameAs(secondCache);
+        }
+    }
+
+    @Test
+    final void testFormatClassifiedOnce() {
+        // Given
+        final DateFormatCache cache = new DateFormatCache();
+        when(cellStyle.getIndex()).thenReturn((short) 200);
+        when(cellStyle.getDataFormat()).thenReturn((short) 15);
+        when(cellStyle.getDataFormatString()).thenReturn("d-mmm-yy");
+        // When
+        final boolean first = cache.isDateFormat(cellStyle);
+        final boolean second = cache.isDateFormat(cellStyle);
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        verify(cellStyle, times(1)).getDataFormatString();
+    }
+}
@@ -0,0 +1,70 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import com.fgsoft.exceldatareader.parser.value.ValueParserRouter;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FormulaStrategyTest {
+
+    @ParameterizedTest
+    @CsvSource({"EVALUATE, 14", "CACHED_RESULTS, 99", "SHARED_CACHE, 14", "EVALUATE_ALL, 14"})
+    final void testFormulaValue(final FormulaStrategy strategy, final int expected) throws IOException {
+        try (Workbook workbook = createWorkbook();
+             SharedResultFormulaEvaluator shared = new SharedResultFormulaEvaluator(workbook)) {
+            // Given
+            final Cell cell = workbook.getSheetAt(0).getRow(0).getCell(1);
+            final FormulaEvaluator evaluator = strategy.createEvaluator(workbook, () -> shared);
+            // When
+            final Integer actual = ValueParserRouter.getParser(Integer.class).getValue(cell, evaluator);
+            // Then
+            assertThat(actual).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    final void testSharedEvaluator() throws IOException {
+        try (Workbook workbook = createWorkbook();
+             SharedResultFormulaEvaluator shared = new SharedResultFormulaEvaluator(workbook)) {
+            // When
+            final FormulaEvaluator actual = FormulaStrategy.EVALUATE_ALL.createEvaluator(workbook, () -> shared);
+            // Then
+            assertThat(actual).isSameAs(shared)
+                    .isSameAs(FormulaStrategy.SHARED_CACHE.createEvaluator(workbook, () -> shared));
+            assertThat(((SharedResultFormulaEvaluator) actual).size()).isEqualTo(1);
+        }
+    }
+
+    /**
+     * @return workbook with a formula cell whose cached result (99) differs from its evaluated result (14)
+     */
+    private static Workbook createWorkbook() {
+        final Workbook workbook = new XSSFWorkbook();
+        final Row row = workbook.createSheet("Formulas").createRow(0);
+        row.createCell(0).setCellValue(7);
+        final Cell cell = row.createCell(1);
+        cell.setCellFormula("A1*2");
+        cell.setCellValue(99);
+        return workbook;
+    }
+}
@@ -0,0 +1,82 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HeaderSchemaTest {
+    private static final Map<String, Integer> HEADERS = new HashMap<>();
+
+    static {
+        HEADERS.put("intValue", 2);
+        HEADERS.put("bigDecimal", 1);
+        HEADERS.put("composite.intValue", 4);
+        HEADERS.put("composite.bigDecimal", 3);
+        HEADERS.put("compositeList.intValue", 5);
+        HEADERS.put("composite", 6);
+    }
+
+    @Test
+    final void testPositionsInColumnOrder() {
+        // Given
+        // When
+        final HeaderSchema schema = new HeaderSchema(HEADERS);
+        // Then
+        assertThat(schema.size()).isEqualTo(6);
+        assertThat(schema.getHeader(0)).isEqualTo("bigDecimal");
+        assertThat(schema.getColumn(0)).isEqualTo(1);
+        assertThat(schema.getHeader(5)).isEqualTo("composite");
+        assertThat(schema.getColumn(5)).isEqualTo(6);
+    }
+
+    @Test
+    final void testColumnByHeader() {
+        // Given
+        final HeaderSchema schema = new HeaderSchema(HEADERS);
+        // When
+        // Then
+        assertThat(schema.getColumn("composite.bigDecimal")).isEqualTo(3);
+        assertThat(schema.getColumn("unknown")).isEqualTo(-1);
+    }
+
+    @Test
+    final void testGroup() {
+        // Given
+        final HeaderSchema schema = new HeaderSchema(HEADERS);
+        // When
+        final Map<String, Integer> actual = schema.getGroup("composite");
+        // Then
+        assertThat(actual).containsOnlyKeys("bigDecimal", "intValue")
+                .containsEntry("bigDecimal", 3)
+                .containsEntry("intValue", 4);
+    }
+
+    @Test
+    final void testUnmodifiable() {
+        // Given
+        final HeaderSchema schema = new HeaderSchema(HEADERS);
+        // When
+        final Map<String, Integer> actual = schema.asMap();
+        // Then
+        assertThat(actual).isEqualTo(HEADERS);
+        assertThrows(UnsupportedOperationException.class, () -> actual.put("other", 7));
+    }
+}
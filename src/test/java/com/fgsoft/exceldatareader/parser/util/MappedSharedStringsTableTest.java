@@ -0,0 +1,103 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedSharedStringsTableTest {
+    private static final String TABLE = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+            + "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" count=\"5\" uniqueCount=\"4\">"
+            + "<si><t>ONE</t></si>"
+            + "<si><r><rPr><b/></rPr><t>Rich </t></r><r><t>text</t></r><rPh sb=\"0\" eb=\"1\"><t>ignored</t></rPh></si>"
+            + "<si><t xml:space=\"preserve\"> \u00dcn\u00efcod\u00e9 &amp; spaces </t></si>"
+            + "<si><t/></si>"
+            + "</sst>";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    final void testStrings() throws IOException {
+        // Given
+        final MappedSharedStringsTable table;
+        // When
+        try (InputStream input = new ByteArrayInputStream(TABLE.getBytes(StandardCharsets.UTF_8))) {
+            table = MappedSharedStringsTable.create(input, directory);
+        }
+        // Then
+        assertThat(table.getUniqueCount()).isEqualTo(4);
+        assertThat(table.getCount()).isEqualTo(5);
+        assertThat(table.getItemAt(0).getString()).isEqualTo("ONE");
+        assertThat(table.getItemAt(1).getString()).isEqualTo("Rich text");
+        assertThat(table.getItemAt(2).getString()).isEqualTo(" \u00dcn\u00efcod\u00e9 & spaces ");
+        assertThat(table.getItemAt(3).getString()).isEmpty();
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getItemAt(4));
+    }
+
+    @Test
+    final void testTemporaryFilesDeleted() throws IOException {
+        // Given
+        final MappedSharedStringsTable table;
+        // When
+        try (InputStream input = new ByteArrayInputStream(TABLE.getBytes(StandardCharsets.UTF_8))) {
+            table = MappedSharedStringsTable.create(input, directory);
+        }
+        // Then
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+        assertThat(table.getItemAt(0).getString()).isEqualTo("ONE");
+    }
+
+    @Test
+    final void testMaxSizeExceeded() throws IOException {
+        // Given
+        try (InputStream input = new ByteArrayInputStream(TABLE.getBytes(StandardCharsets.UTF_8))) {
+            // When
+            final Throwable exception = assertThrows(IOException.class,
+                    () -> MappedSharedStringsTable.create(input, directory, 32L));
+            // Then
+            assertThat(exception.getMessage()).contains("32 bytes");
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    final void testReadOnly() throws IOException {
+        // Given
+        final MappedSharedStringsTable table;
+        try (InputStream input = new ByteArrayInputStream(TABLE.getBytes(StandardCharsets.UTF_8))) {
+            table = MappedSharedStringsTable.create(input, directory);
+        }
+        // When
+        // Then
+        assertThrows(UnsupportedOperationException.class,
+                () -> table.addSharedStringItem(table.getItemAt(0)));
+    }
+}
@@ -0,0 +1,89 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MergedRegionIndexTest {
+    private static final List<CellRangeAddress> MERGED_REGIONS = Arrays.asList(
+            CellRangeAddress.valueOf("A1:A2"),
+            CellRangeAddress.valueOf("M1:W1"),
+            CellRangeAddress.valueOf("Y1:AI1"),
+            CellRangeAddress.valueOf("C5:D1000"),
+            CellRangeAddress.valueOf("C1001:C1002"));
+
+    @Mock
+    private Sheet sheet;
+
+    @ParameterizedTest
+    @CsvSource({"0, 0, A1:A2", "1, 0, A1:A2", "0, 12, M1:W1", "0, 17, M1:W1", "0, 22, M1:W1", "0, 34, Y1:AI1",
+            "4, 2, C5:D1000", "999, 3, C5:D1000", "1000, 2, C1001:C1002", "1001, 2, C1001:C1002"})
+    final void testMergedCell(final int rowIndex, final int columnIndex, final String expected) {
+        // Given
+        final MergedRegionIndex index = new MergedRegionIndex(MERGED_REGIONS);
+        // When
+        final CellRangeAddress actual = index.getMergedRegion(rowIndex, columnIndex);
+        // Then
+        assertThat(actual).isEqualTo(CellRangeAddress.valueOf(expected));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"2, 0", "0, 1", "1, 12", "0, 23", "0, 35", "3, 2", "1000, 3", "1002, 2", "-1, 0", "0, -1"})
+    final void testNotMergedCell(final int rowIndex, final int columnIndex) {
+        // Given
+        final MergedRegionIndex index = new MergedRegionIndex(MERGED_REGIONS);
+        // When
+        final CellRangeAddress actual = index.getMergedRegion(rowIndex, columnIndex);
+        // Then
+        assertThat(actual).isNull();
+    }
+
+    @Test
+    final void testEmptyIndex() {
+        // Given
+        final MergedRegionIndex index = new MergedRegionIndex(Collections.emptyList());
+        // When
+        final CellRangeAddress actual = index.getMergedRegion(0, 0);
+        // Then
+        assertThat(actual).isNull();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    final void testIndexForSheet() {
+        // Given
+        when(sheet.getMergedRegions()).thenReturn(MERGED_REGIONS);
+        // When
+        final MergedRegionIndex actual = MergedRegionIndex.forSheet(sheet);
+        // Then
+        assertThat(actual.size()).isEqualTo(MERGED_REGIONS.size());
+        assertThat(actual.getMergedRegion(999, 3)).isEqualTo(CellRangeAddress.valueOf("C5:D1000"));
+    }
+}
@@ -0,0 +1,155 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SharedResultFormulaEvaluatorTest {
+    private static final int ROW_COUNT = 100;
+
+    private Workbook workbook;
+    private Sheet sheet;
+
+    @BeforeEach
+    final void setUp() {
+        workbook = new XSSFWorkbook();
+        sheet = workbook.createSheet("Formulas");
+        for (int rowIndex = 0; rowIndex < ROW_COUNT; rowIndex++) {
+            final Row row = sheet.createRow(rowIndex);
+            row.createCell(0).setCellValue(rowIndex);
+            row.createCell(1).setCellFormula("A" + (rowIndex + 1) + "*2");
+            row.createCell(2).setCellFormula("\"T\"&A" + (rowIndex + 1));
+        }
+    }
+
+    @AfterEach
+    final void tearDown() throws IOException {
+        workbook.close();
+    }
+
+    @Test
+    final void testClose() {
+        // Given
+        final SharedResultFormulaEvaluator evaluator = new SharedResultFormulaEvaluator(workbook);
+        CompletableFuture.runAsync(() -> evaluator.evaluate(sheet.getRow(1).getCell(1))).join();
+        evaluator.evaluate(sheet.getRow(2).getCell(1));
+        // When
+        evaluator.close();
+        // Then
+        assertThat(evaluator.size()).isZero();
+        final Cell cell = sheet.getRow(3).getCell(1);
+        assertThrows(IllegalStateException.class, () -> evaluator.evaluate(cell));
+        assertThrows(CompletionException.class,
+                () -> CompletableFuture.runAsync(() -> evaluator.evaluate(cell)).join());
+    }
+
+    @Test
+    final void testEvaluatorsPooled() throws InterruptedException {
+        // Given
+        final SharedResultFormulaEvaluator evaluator = new SharedResultFormulaEvaluator(workbook);
+        // When
+        for (int rowIndex = 0; rowIndex < ROW_COUNT; rowIndex++) {
+            final Cell cell = sheet.getRow(rowIndex).getCell(1);
+            final Thread thread = new Thread(() -> evaluator.evaluate(cell));
+            thread.start();
+            thread.join();
+        }
+        // Then
+        assertThat(evaluator.size()).isEqualTo(ROW_COUNT);
+        assertThat(evaluator.getEvaluatorCount()).isOne();
+    }
+
+    @Test
+    final void testEvaluate() {
+        // Given
+        final SharedResultFormulaEvaluator evaluator = new SharedResultFormulaEvaluator(workbook);
+        // When
+        final CellValue number = evaluator.evaluate(sheet.getRow(10).getCell(1));
+        final CellValue string = evaluator.evaluate(sheet.getRow(10).getCell(2));
+        final CellValue constant = evaluator.evaluate(sheet.getRow(10).getCell(0));
+        // Then
+        assertThat(number.getNumberValue()).isEqualTo(20.0);
+        assertThat(string.getStringValue()).isEqualTo("T10");
+        assertThat(constant.getNumberValue()).isEqualTo(10.0);
+        assertThat(evaluator.size()).isEqualTo(2);
+    }
+
+    @Test
+    final void testEvaluateAll() {
+        // Given
+        final SharedResultFormulaEvaluator evaluator = new SharedResultFormulaEvaluator(workbook);
+        // When
+        evaluator.evaluateAll();
+        // Then
+        assertThat(evaluator.size()).isEqualTo(ROW_COUNT * 2);
+        assertThat(sheet.getRow(5).getCell(1).getNumericCellValue()).isZero(); // Results are not written into cells
+        assertThat(evaluator.evaluate(sheet.getRow(5).getCell(1)).getNumberValue()).isEqualTo(10.0);
+    }
+
+    @Test
+    final void testEvaluateConcurrently() {
+        // Given
+        final SharedResultFormulaEvaluator evaluator = new SharedResultFormulaEvaluator(workbook);
+        // When
+        final List<CompletableFuture<Double>> futures = IntStream.range(0, ROW_COUNT)
+                .mapToObj(rowIndex -> CompletableFuture.supplyAsync(
+                        () -> evaluator.evaluate(sheet.getRow(rowIndex).getCell(1)).getNumberValue()))
+                .collect(Collectors.toList());
+        // Then
+        assertThat(futures.stream().map(CompletableFuture::join))
+                .containsExactlyElementsOf(IntStream.range(0, ROW_COUNT).mapToObj(value -> value * 2.0)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    final void testEvaluateFormulaCell() {
+        // Given
+        final SharedResultFormulaEvaluator evaluator = new SharedResultFormulaEvaluator(workbook);
+        final Cell cell = sheet.getRow(3).getCell(1);
+        // When
+        final CellType actual = evaluator.evaluateFormulaCell(cell);
+        // Then
+        assertThat(actual).isEqualTo(CellType.NUMERIC);
+        assertThat(cell.getNumericCellValue()).isEqualTo(6.0);
+    }
+
+    @Test
+    final void testNotifyUpdateCell() {
+        // Given
+        final SharedResultFormulaEvaluator evaluator = new SharedResultFormulaEvaluator(workbook);
+        final Cell cell = sheet.getRow(3).getCell(0);
+        evaluator.evaluateAll();
+        // When
+        cell.setCellValue(50);
+        evaluator.notifyUpdateCell(cell);
+        // Then
+        assertThat(evaluator.size()).isZero();
+        assertThat(evaluator.evaluate(sheet.getRow(3).getCell(1)).getNumberValue()).isEqualTo(100.0);
+    }
+}
@@ -0,0 +1,214 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SharedStringCacheTest {
+    @Test
+    final void testIndex() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            // Given
+            final Row row = workbook.createSheet("Strings").createRow(0);
+            final Cell first = createCell(row, 0, "ONE");
+            final Cell second = createCell(row, 1, "TWO");
+            final Cell third = createCell(row, 2, "ONE");
+            final Cell numeric = row.createCell(3);
+            numeric.setCellValue(1.0);
+            final Cell formula = row.createCell(4);
+            formula.setCellFormula("A1");
+            // When
+            // Then
+            assertThat(SharedStringCache.getIndex(first)).isNotNegative().isEqualTo(SharedStringCache.getIndex(third));
+            assertThat(SharedStringCache.getIndex(second)).isNotNegative().isNotEqualTo(SharedStringCache.getIndex(first));
+            assertThat(SharedStringCache.getIndex(numeric)).isEqualTo(-1);
+            assertThat(SharedStringCache.getIndex(formula)).isEqualTo(-1);
+            assertThat(SharedStringCache.getIndex(null)).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    final void testCanonicalString() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            // Given
+            final Row row = workbook.createSheet("Strings").createRow(0);
+            final Cell first = createCell(row, 0, "ONE");
+            final Cell second = createCell(row, 1, "ONE");
+            try (SharedStringCache ignored = SharedStringCache.register(workbook)) {
+                // When
+                final String firstValue = SharedStringCache.getString(first);
+                final String secondValue = SharedStringCache.getString(second);
+                // Then
+                assertThat(firstValue).isEqualTo("ONE").isSameAs(secondValue);
+            }
+        }
+    }
+
+    @Test
+    final void testStringNotShared() throws IOException {
+        try (Workbook workbook = new HSSFWorkbook()) {
+            // Given
+            final Cell cell = createCell(workbook.createSheet("Strings").createRow(0), 0, "ONE");
+            // When
+            final String value = SharedStringCache.getString(cell);
+            // Then
+            assertThat(SharedStringCache.getIndex(cell)).isEqualTo(-1);
+            assertThat(value).isEqualTo("ONE");
+        }
+    }
+
+    @Test
+    final void testDecodedOncePerString() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            // Given
+            final Row row = workbook.createSheet("Strings").createRow(0);
+            final List<Cell> cells = new ArrayList<>();
+            for (int cnt = 0; cnt < 6; cnt++) {
+                cells.add(createCell(row, cnt, cnt % 2 == 0 ? "ONE" : "TWO"));
+            }
+            final List<String> decoded = new ArrayList<>();
+            final Function<String, Integer> function = value -> {
+                decoded.add(value);
+                return value.length();
+            };
+            final Object decoder = new Object();
+            try (SharedStringCache ignored = SharedStringCache.register(workbook)) {
+                // When
+                for (final Cell cell : cells) {
+                    assertThat(SharedStringCache.decode(cell, decoder, function)).isEqualTo(3);
+                }
+            }
+            // Then
+            assertThat(decoded).containsExactly("ONE", "TWO");
+        }
+    }
+
+    @Test
+    final void testNullNotKept() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            // Given
+            final Row row = workbook.createSheet("Strings").createRow(0);
+            final Cell first = createCell(row, 0, "UNKNOWN");
+            final Cell second = createCell(row, 1, "UNKNOWN");
+            final List<String> decoded = new ArrayList<>();
+            final Function<String, Integer> function = value -> {
+                decoded.add(value);
+                return null;
+            };
+            final Object decoder = new Object();
+            final Integer actual;
+            try (SharedStringCache ignored = SharedStringCache.register(workbook)) {
+                // When
+                SharedStringCache.decode(first, decoder, function);
+                actual = SharedStringCache.decode(second, decoder, function);
+            }
+            // Then
+            assertThat(actual).isNull();
+            assertThat(decoded).containsExactly("UNKNOWN", "UNKNOWN");
+        }
+    }
+
+    @Test
+    final void testUnregisteredWorkbook() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            // Given
+            final Row row = workbook.createSheet("Strings").createRow(0);
+            final Cell first = createCell(row, 0, "ONE");
+            final Cell second = createCell(row, 1, "ONE");
+            final List<String> decoded = new ArrayList<>();
+            final Function<String, Integer> function = value -> {
+                decoded.add(value);
+                return value.length();
+            };
+            final Object decoder = new Object();
+            SharedStringCache.register(workbook).close();
+            // When
+            SharedStringCache.decode(first, decoder, function);
+            SharedStringCache.decode(second, decoder, function);
+            // Then
+            assertThat(SharedStringCache.getString(first)).isEqualTo("ONE");
+            assertThat(decoded).containsExactly("ONE", "ONE");
+        }
+    }
+
+    @Test
+    final void testBoundedCache() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            // Given
+            final Row row = workbook.createSheet("Strings").createRow(0);
+            final Cell first = createCell(row, 0, "ONE");
+            final Cell second = createCell(row, 1, "TWO");
+            final Cell third = createCell(row, 2, "TWO");
+            final List<String> decoded = new ArrayList<>();
+            final Function<String, Integer> function = value -> {
+                decoded.add(value);
+                return value.length();
+            };
+            final Object decoder = new Object();
+            try (SharedStringCache ignored = SharedStringCache.register(workbook, 1)) {
+                // When
+                SharedStringCache.decode(first, decoder, function);
+                SharedStringCache.decode(first, decoder, function);
+                SharedStringCache.decode(second, decoder, function);
+                SharedStringCache.decode(third, decoder, function);
+            }
+            // Then
+            assertThat(decoded).containsExactly("ONE", "TWO", "TWO");
+        }
+    }
+
+    @Test
+    final void testUnclosedCacheDoesNotKeepWorkbook() throws InterruptedException {
+        // Given
+        final WeakReference<XSSFWorkbook> workbook = registerUnclosedCache();
+        // When
+        for (int cnt = 0; cnt < 50 && workbook.get() != null; cnt++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        // Then
+        assertThat(workbook.get()).isNull();
+    }
+
+    /**
+     * Register the cache of a workbook that is neither closed nor referenced once the method returns
+     */
+    private static WeakReference<XSSFWorkbook> registerUnclosedCache() {
+        final XSSFWorkbook workbook = new XSSFWorkbook();
+        final Cell cell = createCell(workbook.createSheet("Strings").createRow(0), 0, "ONE");
+        SharedStringCache.register(workbook);
+        assertThat(SharedStringCache.getString(cell)).isEqualTo("ONE");
+        return new WeakReference<>(workbook);
+    }
+
+    private static Cell createCell(final Row row, final int column, final String value) {
+        final Cell cell = row.createCell(column);
+        cell.setCellValue(value);
+        return cell;
+    }
+}
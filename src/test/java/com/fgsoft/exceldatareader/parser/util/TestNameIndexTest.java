@@ -0,0 +1,100 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.parser.util;
+
+import com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode;
+import com.fgsoft.exceldatareader.exception.ExcelReaderException;
+import com.fgsoft.exceldatareader.parser.HeaderDescriptor;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TestNameIndexTest {
+    private static final HeaderDescriptor HEADER_DESCRIPTOR = new HeaderDescriptor(0, 0, 1);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    final void testIndexInSheetOrder() throws IOException {
+        try (XSSFWorkbook workbook = buildWorkbook()) {
+            // Given
+            final Sheet sheet = workbook.getSheetAt(0);
+            // When
+            final TestNameIndex index = TestNameIndex.forSheet(sheet, HEADER_DESCRIPTOR);
+            // Then
+            assertThat(index.getAllTestNames()).containsExactly("TEST-02", "TEST-01", "123");
+            assertThat(index.getRows("TEST-01")).containsExactly(3, 4, 6);
+            assertThat(index.getFirstRow("TEST-02")).isEqualTo(2);
+            assertThat(index.contains("Title")).isFalse();
+            assertThat(index.getFirstRow("Unknown")).isEqualTo(-1);
+            assertThat(index.getRows("Unknown")).isEmpty();
+        }
+    }
+
+    @Test
+    final void testWriteAndRead() throws IOException {
+        try (XSSFWorkbook workbook = buildWorkbook()) {
+            // Given
+            final TestNameIndex expected = TestNameIndex.forSheet(workbook.getSheetAt(0), HEADER_DESCRIPTOR);
+            final Path file = tempDir.resolve("index.bin");
+            // When
+            expected.writeTo(file);
+            final TestNameIndex actual = TestNameIndex.readFrom(file);
+            // Then
+            assertThat(actual.getAllTestNames()).isEqualTo(expected.getAllTestNames());
+            for (final String testName : expected.getAllTestNames()) {
+                assertThat(actual.getRows(testName)).isEqualTo(expected.getRows(testName));
+            }
+        }
+    }
+
+    @Test
+    final void testReadInvalidFile() throws IOException {
+        // Given
+        final Path file = Files.write(tempDir.resolve("invalid.bin"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        final String message = String.format(ExcelReaderErrorCode.UNABLE_TO_OPEN_FILE.getMessage(), file);
+        // When
+        final Throwable exception = assertThrows(ExcelReaderException.class, () -> TestNameIndex.readFrom(file));
+        // Then
+        assertThat(exception.getMessage()).isEqualTo(message);
+    }
+
+    private static XSSFWorkbook buildWorkbook() {
+        final XSSFWorkbook workbook = new XSSFWorkbook();
+        final Sheet sheet = workbook.createSheet("Data");
+        sheet.createRow(0).createCell(0).setCellValue("Title");
+        sheet.createRow(1).createCell(0).setCellValue("Comment");
+        sheet.createRow(2).createCell(0).setCellValue("TEST-02");
+        sheet.createRow(3).createCell(0).setCellValue("TEST-01");
+        sheet.createRow(4).createCell(0).setCellValue(" TEST-01 ");
+        final Row blankRow = sheet.createRow(5);
+        blankRow.createCell(0);
+        blankRow.createCell(1).setCellValue("value");
+        sheet.createRow(6).createCell(0).setCellFormula("\"TEST-0\"&1");
+        sheet.getRow(6).getCell(0).setCellValue("TEST-01");
+        sheet.createRow(7).createCell(0).setCellValue(123);
+        return workbook;
+    }
+}
@@ -18,6 +18,7 @@ import com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode;
 import com.fgsoft.exceldatareader.exception.ExcelReaderException;
 import com.fgsoft.exceldatareader.exception.IncorrectValueForTypeException;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -26,6 +27,9 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.util.BitSet;
+
 import static com.fgsoft.exceldatareader.util.TestConstants.SHEET_NAME;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -179,4 +183,47 @@ class BooleanValueParserTest {
         // Then
         assertThat(value).isNull();
     }
+
+    @ParameterizedTest
+    @CsvSource({"Y, true", "No, false"})
+    final void testPrimitiveStringValueOK(String strValue, boolean expected) {
+        // Given
+        final BooleanValueParser parser = new BooleanValueParser();
+        when(cell.getStringCellValue()).thenReturn(strValue);
+        when(cell.getCellType()).thenReturn(CellType.STRING);
+        when(cell.getSheet()).thenReturn(sheet);
+        // When
+        final boolean value = parser.getBoolean(cell, evaluator, !expected);
+        // Then
+        assertThat(value).isEqualTo(expected);
+    }
+
+    @Test
+    final void testPrimitiveBlankValueOK() {
+        // Given
+        final BooleanValueParser parser = new BooleanValueParser();
+        when(cell.getCellType()).thenReturn(CellType.BLANK);
+        // When
+        final boolean value = parser.getBoolean(cell, evaluator, true);
+        // Then
+        assertThat(value).isTrue();
+    }
+
+    @Test
+    final void testReadColumn() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            // Given
+            final Sheet worksheet = workbook.createSheet(SHEET_NAME);
+            worksheet.createRow(0).createCell(0).setCellValue(true);
+            worksheet.createRow(1).createCell(0).setCellValue("N");
+            worksheet.createRow(3).createCell(0).setCellValue("Yes");
+            final boolean[] values = new boolean[4];
+            final BitSet presence = new BitSet();
+            // When
+            new BooleanValueParser().readColumn(worksheet, 0, 0, evaluator, values, presence);
+            // Then
+            assertThat(values).containsExactly(true, false, false, true);
+            assertThat(presence.toString()).isEqualTo("{0, 1, 3}");
+        }
+    }
 }
@@ -64,8 +64,6 @@ class DateValueParserTest {
     @Mock
     private Sheet sheet;
     @Mock
-    private Row row;
-    @Mock
     private FormulaEvaluator evaluator;
 
     @Test
@@ -114,8 +112,6 @@ class DateValueParserTest {
         when(cell.getSheet()).thenReturn(sheet);
         when(cell.getRowIndex()).thenReturn(ROW_NUM);
         when(cell.getColumnIndex()).thenReturn(COL_NUM);
-        when(sheet.getRow(ROW_NUM)).thenReturn(row);
-        when(row.getCell(COL_NUM)).thenReturn(cell);
         when(cell.getCellType()).thenReturn(CellType.NUMERIC);
         when(cell.getCellStyle()).thenReturn(cellStyle);
         when(cellStyle.getDataFormat()).thenReturn((short) 15);
@@ -136,8 +132,6 @@ class DateValueParserTest {
         when(cell.getRowIndex()).thenReturn(ROW_NUM);
         when(cell.getColumnIndex()).thenReturn(COL_NUM);
         when(sheet.getSheetName()).thenReturn(SHEET_NAME);
-        when(sheet.getRow(ROW_NUM)).thenReturn(row);
-        when(row.getCell(COL_NUM)).thenReturn(cell);
         when(cell.getCellType()).thenReturn(CellType.NUMERIC);
         when(cell.getCellStyle()).thenReturn(cellStyle);
         when(cellStyle.getDataFormat()).thenReturn((short) 0);
@@ -144,4 +144,45 @@ class DoubleValueParserTest {
         // Then
         assertThat(value).isEqualTo(dblValue);
     }
+
+    @Test
+    final void testPrimitiveFormula() {
+        // Given
+        final DoubleValueParser parser = new DoubleValueParser();
+        when(cell.getCellType()).thenReturn(CellType.FORMULA);
+        when(evaluator.evaluate(cell)).thenReturn(new CellValue(1.5));
+        // When
+        final double value = parser.getDouble(cell, evaluator);
+        // Then
+        assertThat(value).isEqualTo(1.5);
+    }
+
+    @Test
+    final void testPrimitiveBooleanValueKO() {
+        // Given
+        final DoubleValueParser parser = new DoubleValueParser();
+        when(cell.getCellType()).thenReturn(CellType.BOOLEAN);
+        when(cell.getBooleanCellValue()).thenReturn(true);
+        when(sheet.getSheetName()).thenReturn(SHEET_NAME);
+        when(cell.getSheet()).thenReturn(sheet);
+        when(cell.getRowIndex()).thenReturn(0);
+        when(cell.getColumnIndex()).thenReturn(0);
+        final String message = String.format(ExcelReaderErrorCode.INCORRECT_VALUE_FOR_TYPE.getMessage(),
+                "true", Double.class.getName(), 0, 0, SHEET_NAME);
+        // When
+        final Throwable exception = assertThrows(IncorrectValueForTypeException.class,
+                () -> parser.getDouble(cell, evaluator));
+        // Then
+        assertThat(exception.getMessage()).isEqualTo(message);
+    }
+
+    @Test
+    final void testPrimitiveBlankValueOK() {
+        // Given
+        final DoubleValueParser parser = new DoubleValueParser();
+        // When
+        final double value = parser.getDouble(null, evaluator);
+        // Then
+        assertThat(Double.isNaN(value)).isTrue();
+    }
 }
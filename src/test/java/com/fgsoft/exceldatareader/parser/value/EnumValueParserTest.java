@@ -16,12 +16,14 @@ package com.fgsoft.exceldatareader.parser.value;
 
 import com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode;
 import com.fgsoft.exceldatareader.exception.ExcelReaderException;
+import com.fgsoft.exceldatareader.exception.IncorrectValueForTypeException;
 import com.fgsoft.exceldatareader.util.Sample;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -224,4 +226,91 @@ class EnumValueParserTest {
         assertThat(actual).isNull();
     }
 
+
+    @ParameterizedTest
+    @CsvSource({"COMPLETED, COMPLETED", "OK, COMPLETED", "Done, COMPLETED", "KO, FAILED"})
+    final void testParseAliasOK(String strValue, Status expected) {
+        // Given
+        final EnumValueParser parser = new EnumValueParser(Status.class);
+        when(cell.getStringCellValue()).thenReturn(strValue);
+        when(cell.getCellType()).thenReturn(CellType.STRING);
+        // When
+        final Status value = (Status) parser.getValue(cell, evaluator);
+        // Then
+        assertThat(value).isEqualTo(expected);
+    }
+
+    @Test
+    final void testParseAliasCaseSensitive() {
+        // Given
+        final EnumValueParser parser = new EnumValueParser(Status.class);
+        when(cell.getStringCellValue()).thenReturn("done");
+        when(cell.getCellType()).thenReturn(CellType.STRING);
+        when(sheet.getSheetName()).thenReturn(SHEET_NAME);
+        when(cell.getSheet()).thenReturn(sheet);
+        // When
+        // Then
+        assertThrows(IncorrectValueForTypeException.class, () -> parser.getValue(cell, evaluator));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"red", "Red", "RED", "rouge", "ROUGE"})
+    final void testParseCaseInsensitiveOK(String strValue) {
+        // Given
+        final EnumValueParser parser = new EnumValueParser(Color.class);
+        when(cell.getStringCellValue()).thenReturn(strValue);
+        when(cell.getCellType()).thenReturn(CellType.STRING);
+        // When
+        final Color value = (Color) parser.getValue(cell, evaluator);
+        // Then
+        assertThat(value).isEqualTo(Color.RED);
+    }
+
+    @Test
+    final void testDuplicateAliasKO() {
+        // Given
+        final String message = String.format(ExcelReaderErrorCode.DUPLICATE_ENUM_VALUE.getMessage(),
+                "ONE", Duplicate.class.getName());
+        // When
+        final Throwable exception = assertThrows(ExcelReaderException.class,
+                () -> new EnumValueParser(Duplicate.class));
+        // Then
+        assertThat(exception.getMessage()).isEqualTo(message);
+    }
+
+    enum Status {
+        @EnumAlias({"OK", "Done"}) COMPLETED,
+        @EnumAlias("KO") FAILED
+    }
+
+    @CaseInsensitiveEnum
+    enum Color {
+        @EnumAlias("Rouge") RED,
+        BLUE
+    }
+
+    enum Duplicate {
+        ONE,
+        @EnumAlias("ONE") TWO
+    }
+
+    @Test
+    final void testSharedStringsDecoded() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            // Given
+            final Row dataRow = workbook.createSheet(SHEET_NAME).createRow(ROW_NUM);
+            for (int column = 0; column < 4; column++) {
+                dataRow.createCell(column).setCellValue(column == 3 ? "UNKNOWN" : "TWO");
+            }
+            final EnumValueParser parser = new EnumValueParser(Sample.class);
+            // When
+            final Sample first = (Sample) parser.getValue(dataRow.getCell(0), evaluator);
+            final Sample second = (Sample) parser.getValue(dataRow.getCell(1), evaluator);
+            // Then
+            assertThat(first).isEqualTo(Sample.TWO);
+            assertThat(second).isEqualTo(Sample.TWO);
+            assertThrows(IncorrectValueForTypeException.class, () -> parser.getValue(dataRow.getCell(3), evaluator));
+            assertThrows(IncorrectValueForTypeException.class, () -> parser.getValue(dataRow.getCell(3), evaluator));
+        }
+    }
 }
@@ -17,15 +17,23 @@ package com.fgsoft.exceldatareader.parser.value;
 import com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode;
 import com.fgsoft.exceldatareader.exception.ExcelReaderException;
 import com.fgsoft.exceldatareader.exception.IncorrectValueForTypeException;
+import com.fgsoft.exceldatareader.exception.ParseErrors;
+import com.fgsoft.exceldatareader.parser.util.CachedResultFormulaEvaluator;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.CellValue;
 import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.util.BitSet;
+
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
@@ -78,6 +86,51 @@ class IntegerValueParserTest {
         assertThat(exception.getMessage()).isEqualTo(message);
     }
 
+    @Test
+    final void testParseStringValueCollected() {
+        // Given
+        final String strValue = "Sample string";
+        final IntegerValueParser parser = new IntegerValueParser();
+        final ParseErrors errors = new ParseErrors();
+        when(sheet.getSheetName()).thenReturn(SHEET_NAME);
+        when(cell.getStringCellValue()).thenReturn(strValue);
+        when(cell.getCellType()).thenReturn(CellType.STRING);
+        when(cell.getSheet()).thenReturn(sheet);
+        when(cell.getRowIndex()).thenReturn(2);
+        when(cell.getColumnIndex()).thenReturn(3);
+        final String message = String.format(ExcelReaderErrorCode.INCORRECT_VALUE_FOR_TYPE.getMessage(),
+                strValue, Integer.class.getName(), 2, 3, SHEET_NAME);
+        // When
+        final Integer value = parser.getValue(cell, evaluator, errors);
+        // Then
+        assertThat(value).isNull();
+        assertThat(errors.size()).isEqualTo(1);
+        assertThat(errors.getCode(0)).isEqualTo(ExcelReaderErrorCode.INCORRECT_VALUE_FOR_TYPE);
+        assertThat(errors.getRow(0)).isEqualTo(2);
+        assertThat(errors.getColumn(0)).isEqualTo(3);
+        assertThat(errors.getSheetName(0)).isEqualTo(SHEET_NAME);
+        assertThat(errors.getRawValue(0)).isEqualTo(strValue);
+        assertThat(errors.getMessage(0)).isEqualTo(message);
+        assertThat(ParseErrors.current()).isNull();
+    }
+
+    @Test
+    final void testPrimitiveBooleanValueCollected() {
+        // Given
+        final IntegerValueParser parser = new IntegerValueParser();
+        final ParseErrors errors = new ParseErrors();
+        when(sheet.getSheetName()).thenReturn(SHEET_NAME);
+        when(cell.getBooleanCellValue()).thenReturn(true);
+        when(cell.getCellType()).thenReturn(CellType.BOOLEAN);
+        when(cell.getSheet()).thenReturn(sheet);
+        // When
+        final int value = errors.collect(() -> parser.getInt(cell, evaluator));
+        // Then
+        assertThat(value).isEqualTo(IntCellParser.NULL_VALUE);
+        assertThat(errors.size()).isEqualTo(1);
+        assertThat(errors.getRawValue(0)).isEqualTo(true);
+    }
+
     @Test
     final void testParseIntegerValueOK() {
         // Given
@@ -135,4 +188,86 @@ class IntegerValueParserTest {
         // Then
         assertThat(value).isNull();
     }
+
+    @Test
+    final void testPrimitiveNumericValueOK() {
+        // Given
+        final IntegerValueParser parser = new IntegerValueParser();
+        when(cell.getNumericCellValue()).thenReturn(12.3);
+        when(cell.getCellType()).thenReturn(CellType.NUMERIC);
+        // When
+        final int value = parser.getInt(cell, evaluator);
+        // Then
+        assertThat(value).isEqualTo(12);
+    }
+
+    @Test
+    final void testPrimitiveFormulaValueOK() {
+        // Given
+        final IntegerValueParser parser = new IntegerValueParser();
+        when(cell.getCellType()).thenReturn(CellType.FORMULA);
+        when(evaluator.evaluate(cell)).thenReturn(new CellValue("45"));
+        // When
+        final int value = parser.getInt(cell, evaluator);
+        // Then
+        assertThat(value).isEqualTo(45);
+    }
+
+    @Test
+    final void testPrimitiveFormulaNotWrittenToCell() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            // Given
+            final Cell formulaCell = workbook.createSheet(SHEET_NAME).createRow(0).createCell(0);
+            formulaCell.setCellFormula("1+2");
+            final FormulaEvaluator workbookEvaluator = workbook.getCreationHelper().createFormulaEvaluator();
+            // When
+            final int value = new IntegerValueParser().getInt(formulaCell, workbookEvaluator);
+            // Then
+            assertThat(value).isEqualTo(3);
+            assertThat(formulaCell.getNumericCellValue()).isZero();
+        }
+    }
+
+    @Test
+    final void testPrimitiveCachedFormulaValueOK() {
+        // Given
+        final IntegerValueParser parser = new IntegerValueParser();
+        when(cell.getCellType()).thenReturn(CellType.FORMULA);
+        when(cell.getCachedFormulaResultType()).thenReturn(CellType.NUMERIC);
+        when(cell.getNumericCellValue()).thenReturn(12.0);
+        // When
+        final int value = parser.getInt(cell, new CachedResultFormulaEvaluator());
+        // Then
+        assertThat(value).isEqualTo(12);
+    }
+
+    @Test
+    final void testPrimitiveBlankValueOK() {
+        // Given
+        final IntegerValueParser parser = new IntegerValueParser();
+        // When
+        final int value = parser.getInt(null, evaluator);
+        // Then
+        assertThat(value).isEqualTo(IntCellParser.NULL_VALUE);
+    }
+
+    @Test
+    final void testReadColumn() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            // Given
+            final Sheet worksheet = workbook.createSheet(SHEET_NAME);
+            worksheet.createRow(1).createCell(2).setCellValue(3);
+            worksheet.createRow(2).createCell(2).setCellValue("4");
+            final Row row = worksheet.createRow(3);
+            row.createCell(2);
+            worksheet.createRow(5).createCell(2).setCellValue(6);
+            final int[] values = new int[5];
+            final BitSet presence = new BitSet();
+            // When
+            new IntegerValueParser().readColumn(worksheet, 2, 1, evaluator, values, presence);
+            // Then
+            assertThat(values).containsExactly(3, 4, IntCellParser.NULL_VALUE, IntCellParser.NULL_VALUE, 6);
+            assertThat(presence.toString()).isEqualTo("{0, 1, 4}");
+        }
+    }
 }
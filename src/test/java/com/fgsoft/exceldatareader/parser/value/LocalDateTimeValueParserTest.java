@@ -55,8 +55,6 @@ class LocalDateTimeValueParserTest {
     @Mock
     private Sheet sheet;
     @Mock
-    private Row row;
-    @Mock
     private FormulaEvaluator evaluator;
 
     private final LocalDateTimeValueParser parser = new LocalDateTimeValueParser();
@@ -102,8 +100,6 @@ class LocalDateTimeValueParserTest {
         when(cell.getSheet()).thenReturn(sheet);
         when(cell.getRowIndex()).thenReturn(ROW_NUM);
         when(cell.getColumnIndex()).thenReturn(COL_NUM);
-        when(sheet.getRow(ROW_NUM)).thenReturn(row);
-        when(row.getCell(COL_NUM)).thenReturn(cell);
         when(cell.getCellType()).thenReturn(CellType.NUMERIC);
         when(cell.getCellStyle()).thenReturn(cellStyle);
         when(cellStyle.getDataFormat()).thenReturn((short) 15);
@@ -123,8 +119,6 @@ class LocalDateTimeValueParserTest {
         when(cell.getRowIndex()).thenReturn(ROW_NUM);
         when(cell.getColumnIndex()).thenReturn(COL_NUM);
         when(sheet.getSheetName()).thenReturn(SHEET_NAME);
-        when(sheet.getRow(ROW_NUM)).thenReturn(row);
-        when(row.getCell(COL_NUM)).thenReturn(cell);
         when(cell.getCellType()).thenReturn(CellType.NUMERIC);
         when(cell.getCellStyle()).thenReturn(cellStyle);
         when(cellStyle.getDataFormat()).thenReturn((short) 0);
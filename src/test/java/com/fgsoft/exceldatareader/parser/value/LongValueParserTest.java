@@ -135,4 +135,27 @@ class LongValueParserTest {
         // Then
         assertThat(value).isNull();
     }
+
+    @Test
+    final void testPrimitiveStringValueOK() {
+        // Given
+        final LongValueParser parser = new LongValueParser();
+        when(cell.getStringCellValue()).thenReturn("12345678901");
+        when(cell.getCellType()).thenReturn(CellType.STRING);
+        // When
+        final long value = parser.getLong(cell, evaluator);
+        // Then
+        assertThat(value).isEqualTo(12345678901L);
+    }
+
+    @Test
+    final void testPrimitiveBlankValueOK() {
+        // Given
+        final LongValueParser parser = new LongValueParser();
+        when(cell.getCellType()).thenReturn(CellType.BLANK);
+        // When
+        final long value = parser.getLong(cell, evaluator);
+        // Then
+        assertThat(value).isEqualTo(LongCellParser.NULL_VALUE);
+    }
 }
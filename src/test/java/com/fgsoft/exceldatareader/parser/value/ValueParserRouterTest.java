@@ -17,6 +17,8 @@ package com.fgsoft.exceldatareader.parser.value;
 import com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode;
 import com.fgsoft.exceldatareader.exception.ExcelReaderException;
 import com.fgsoft.exceldatareader.exception.InvalidTypeException;
+import com.fgsoft.exceldatareader.util.Sample;
+import org.apache.poi.ss.usermodel.Sheet;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
@@ -61,6 +63,52 @@ class ValueParserRouterTest {
         assertThat(exception.getMessage()).isEqualTo(message);
     }
 
+    @Test
+    final void parsersAreShared() {
+        // Given
+        // When
+        final AbstractSingleCellValueParser<String> parser = ValueParserRouter.getParser(String.class);
+        final AbstractSingleCellValueParser<Sample> enumParser = ValueParserRouter.getParser(Sample.class);
+        // Then
+        assertThat(ValueParserRouter.getParser(String.class)).isSameAs(parser);
+        assertThat(ValueParserRouter.getParser(Sample.class)).isSameAs(enumParser);
+    }
+
+    @Test
+    final void registeredParserIsReturned() {
+        // Given
+        final RegisteredClassParser parser = new RegisteredClassParser();
+        // When
+        ValueParserRouter.register(RegisteredClass.class, parser);
+        // Then
+        assertThat(ValueParserRouter.getParser(RegisteredClass.class)).isSameAs(parser);
+    }
+
     static class TestClass {
     }
+
+    static class RegisteredClass {
+    }
+
+    static class RegisteredClassParser extends AbstractSingleCellValueParser<RegisteredClass> {
+        @Override
+        protected RegisteredClass getValueForEmptyCell(int rowIndex, int colIndex, Sheet worksheet) {
+            return null;
+        }
+
+        @Override
+        protected RegisteredClass getValueForCell(double value, int rowIndex, int colIndex, Sheet worksheet) {
+            return new RegisteredClass();
+        }
+
+        @Override
+        protected RegisteredClass getValueForCell(boolean value, int rowIndex, int colIndex, Sheet worksheet) {
+            return new RegisteredClass();
+        }
+
+        @Override
+        protected RegisteredClass getValueForCell(String value, int rowIndex, int colIndex, Sheet worksheet) {
+            return new RegisteredClass();
+        }
+    }
 }
@@ -14,13 +14,53 @@
  */
 package com.fgsoft.exceldatareader.reader;
 
+import com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode;
+import com.fgsoft.exceldatareader.exception.ExcelReaderException;
+import com.fgsoft.exceldatareader.parser.HeaderDescriptor;
+import com.fgsoft.exceldatareader.parser.grid.ColumnarSheet;
+import com.fgsoft.exceldatareader.parser.grid.GridSheetParser;
+import com.fgsoft.exceldatareader.parser.mapper.RowMapper;
+import com.fgsoft.exceldatareader.parser.util.FormulaStrategy;
+import com.fgsoft.exceldatareader.parser.util.HeaderSchema;
+import com.fgsoft.exceldatareader.parser.util.MappedSharedStringsTable;
+import com.fgsoft.exceldatareader.parser.util.MergedRegionIndex;
+import com.fgsoft.exceldatareader.parser.util.SharedResultFormulaEvaluator;
+import com.fgsoft.exceldatareader.parser.util.TestNameIndex;
+import com.fgsoft.exceldatareader.parser.value.ValueParserRouter;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class ExcelDataReaderTest {
     private static final String SAMPLE_FILE_PATH = "/testData/SampleDataFile.xlsx";
 
+    @TempDir
+    Path tempDir;
+
     @Test
     final void testCreationOK() {
         // Given
@@ -29,4 +69,294 @@ class ExcelDataReaderTest {
         // Then
         assertThat(reader).isNotNull();
     }
+
+    @Test
+    final void testCreationFromFileOK() throws URISyntaxException, IOException {
+        // Given
+        final File file = getSamplePath().toFile();
+        // When
+        try (ExcelDataReader reader = new ExcelDataReader(file)) {
+            // Then
+            assertThat(reader).isNotNull();
+        }
+    }
+
+    @Test
+    final void testCreationFromPathOK() throws URISyntaxException, IOException {
+        // Given
+        final Path path = getSamplePath();
+        // When
+        try (ExcelDataReader reader = new ExcelDataReader(path)) {
+            // Then
+            assertThat(reader).isNotNull();
+        }
+    }
+
+    @Test
+    final void testCreationFromChannelOK() throws URISyntaxException, IOException {
+        // Given
+        final SeekableByteChannel channel = Files.newByteChannel(getSamplePath());
+        // When
+        try (ExcelDataReader reader = new ExcelDataReader(channel)) {
+            // Then
+            assertThat(reader).isNotNull();
+        }
+        assertThat(channel.isOpen()).isFalse();
+    }
+
+    @Test
+    final void testCreationFromCorruptChannelKO() throws IOException {
+        // Given
+        final Path path = Files.write(tempDir.resolve("corrupt.xlsx"), new byte[]{'P', 'K', 3, 4, 0, 0, 0, 0, 0, 0});
+        try (SeekableByteChannel channel = Files.newByteChannel(path)) {
+            // When
+            assertThrows(ExcelReaderException.class, () -> new ExcelDataReader(channel));
+            // Then
+            assertThat(channel.isOpen()).isTrue();
+        }
+    }
+
+    @Test
+    final void testCreationFromCorruptFileMappedKO() throws IOException {
+        // Given
+        final File file = Files.write(tempDir.resolve("corrupt.xlsx"), new byte[]{'P', 'K', 3, 4, 0, 0, 0, 0})
+                .toFile();
+        final String message = String.format(ExcelReaderErrorCode.UNABLE_TO_OPEN_FILE.getMessage(), file);
+        // When
+        final Throwable exception = assertThrows(ExcelReaderException.class,
+                () -> new ExcelDataReader(file, SharedStringsStorage.MAPPED_FILE));
+        // Then
+        assertThat(exception.getMessage()).isEqualTo(message);
+        Files.delete(file.toPath());
+    }
+
+    @Test
+    final void testCreationFromZipBombChannelKO() throws IOException {
+        // Given
+        final Path path = writeZipBomb(tempDir.resolve("bomb.xlsx"));
+        try (SeekableByteChannel channel = Files.newByteChannel(path)) {
+            // When
+            final Throwable exception = assertThrows(ExcelReaderException.class, () -> new ExcelDataReader(channel));
+            // Then
+            assertThat(exception).hasStackTraceContaining("Zip bomb detected");
+        }
+    }
+
+    @Test
+    final void testCreationFromZipBombFileMappedKO() throws IOException {
+        // Given
+        final File file = writeZipBomb(tempDir.resolve("bomb.xlsx")).toFile();
+        // When
+        final Throwable exception = assertThrows(ExcelReaderException.class,
+                () -> new ExcelDataReader(file, SharedStringsStorage.MAPPED_FILE));
+        // Then
+        assertThat(exception).hasStackTraceContaining("Zip bomb detected");
+        Files.delete(file.toPath());
+    }
+
+    @Test
+    final void testCreationFromUnknownPathKO() {
+        // Given
+        final Path path = Paths.get("unknown", "file.xlsx");
+        final String message = String.format(ExcelReaderErrorCode.FILE_NOT_FOUND.getMessage(), path.toFile());
+        // When
+        final Throwable exception = assertThrows(ExcelReaderException.class, () -> new ExcelDataReader(path));
+        // Then
+        assertThat(exception.getMessage()).isEqualTo(message);
+    }
+
+    @Test
+    final void testHeaderSchemaCached() throws IOException {
+        // Given
+        try (ExcelDataReader reader = new ExcelDataReader(SAMPLE_FILE_PATH)) {
+            final HeaderSchema expected = reader.getHeaderSchema("SampleInstanceComposite",
+                    new HeaderDescriptor(0, 1, 1));
+            // When
+            final HeaderSchema actual = reader.getHeaderSchema("SampleInstanceComposite",
+                    new HeaderDescriptor(0, 1, 1));
+            // Then
+            assertThat(actual).isSameAs(expected);
+            assertThat(actual.getColumn("composite.intValue")).isEqualTo(16);
+            assertThat(reader.getHeaderSchema("SampleInstanceComposite", new HeaderDescriptor(0, 1, 2)))
+                    .isNotSameAs(expected);
+        }
+    }
+
+    @Test
+    final void testMergedRegionIndexCached() throws IOException {
+        // Given
+        try (ExcelDataReader reader = new ExcelDataReader(SAMPLE_FILE_PATH)) {
+            final Sheet sheet = reader.getSheet("SampleInstanceComposite");
+            final MergedRegionIndex expected = reader.getMergedRegionIndex(sheet);
+            // When
+            final MergedRegionIndex actual = reader.getMergedRegionIndex(sheet);
+            // Then
+            assertThat(actual).isSameAs(expected);
+            assertThat(actual.size()).isEqualTo(sheet.getNumMergedRegions());
+        }
+    }
+
+    @Test
+    final void testHeaderSchemaUnknownSheetKO() throws IOException {
+        // Given
+        final String message = String.format(ExcelReaderErrorCode.SHEET_NOT_FOUND.getMessage(), "Unknown");
+        try (ExcelDataReader reader = new ExcelDataReader(SAMPLE_FILE_PATH)) {
+            // When
+            final Throwable exception = assertThrows(ExcelReaderException.class,
+                    () -> reader.getHeaderSchema("Unknown", new HeaderDescriptor(0, 1, 1)));
+            // Then
+            assertThat(exception.getMessage()).isEqualTo(message);
+        }
+    }
+
+    @Test
+    final void testTestNameIndexCached() throws IOException {
+        // Given
+        try (ExcelDataReader reader = new ExcelDataReader(SAMPLE_FILE_PATH)) {
+            final TestNameIndex expected = reader.getTestNameIndex("SampleDataRecord", new HeaderDescriptor(0, 1, 1));
+            // When
+            final TestNameIndex actual = reader.getTestNameIndex("SampleDataRecord", new HeaderDescriptor(0, 1, 1));
+            // Then
+            assertThat(actual).isSameAs(expected);
+            assertThat(actual.getAllTestNames()).containsExactly("TEST-01", "TEST-02", "TEST-03", "TEST-04");
+            assertThat(actual.getFirstRow("TEST-03")).isEqualTo(4);
+        }
+    }
+
+    @Test
+    final void testParseAllConcurrently() throws IOException, ExecutionException, InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try (ExcelDataReader reader = new ExcelDataReader(SAMPLE_FILE_PATH)) {
+            // Given
+            final HeaderDescriptor headerDescriptor = new HeaderDescriptor(0, 1, 1);
+            for (final String sheetName : Arrays.asList("SampleDataRecord", "SampleInstancePrimaryOnly",
+                    "SampleInstanceComposite")) {
+                reader.addParser(sheetName, headerDescriptor, ExcelDataReaderTest::testNameMapper);
+            }
+            final List<List<String>> expected = reader.getParsers().stream()
+                    .map(parser -> parser.stream().map(String.class::cast).collect(Collectors.toList()))
+                    .collect(Collectors.toList());
+            // When
+            final List<CompletableFuture<List<?>>> futures = reader.parseAll(executor);
+            // Then
+            assertThat(futures).hasSize(3);
+            for (int cnt = 0; cnt < futures.size(); cnt++) {
+                assertThat(futures.get(cnt).get()).isEqualTo(expected.get(cnt));
+            }
+            assertThat(expected.get(0)).containsExactly("TEST-01", "TEST-02", "TEST-03", "TEST-04");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    final void testParseAllOnDefaultExecutor() throws IOException {
+        try (ExcelDataReader reader = new ExcelDataReader(SAMPLE_FILE_PATH)) {
+            // Given
+            reader.addParser("SampleDataRecord", new HeaderDescriptor(0, 1, 1), ExcelDataReaderTest::testNameMapper);
+            // When
+            final List<CompletableFuture<List<?>>> futures = reader.parseAll();
+            // Then
+            assertThat(futures).hasSize(1);
+            assertThat(futures.get(0).join()).hasSize(4);
+        }
+    }
+
+    @Test
+    final void testColumnarSheet() throws IOException {
+        try (ExcelDataReader reader = new ExcelDataReader(SAMPLE_FILE_PATH)) {
+            // Given
+            final HeaderDescriptor headerDescriptor = new HeaderDescriptor(0, 1, 1);
+            final List<String> expected = reader.addParser("SampleDataRecord", headerDescriptor,
+                    ExcelDataReaderTest::testNameMapper).stream().collect(Collectors.toList());
+            // When
+            final ColumnarSheet actual = reader.getColumnarSheet("SampleDataRecord", headerDescriptor);
+            // Then
+            assertThat(actual).isSameAs(reader.getColumnarSheet("SampleDataRecord", headerDescriptor));
+            assertThat(new GridSheetParser<>(actual, actual.getTestNameIndex(),
+                    testNameMapper(actual.getHeaderSchema())).stream()).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    final void testSharedEvaluatorClosedWithReader() throws IOException {
+        // Given
+        final ExcelDataReader reader = new ExcelDataReader(SAMPLE_FILE_PATH);
+        reader.setFormulaStrategy(FormulaStrategy.SHARED_CACHE);
+        final FormulaEvaluator evaluator = reader.createFormulaEvaluator();
+        final Cell cell = reader.getSheet("SampleDataRecord").getRow(3).getCell(1);
+        assertThat(evaluator).isSameAs(reader.createFormulaEvaluator());
+        assertThat(evaluator.evaluate(cell)).isNotNull();
+        // When
+        reader.close();
+        // Then
+        assertThat(((SharedResultFormulaEvaluator) evaluator).size()).isZero();
+        assertThrows(IllegalStateException.class, () -> evaluator.evaluate(cell));
+    }
+
+    @Test
+    final void testMappedSharedStrings() throws IOException, URISyntaxException {
+        // Given
+        final HeaderDescriptor headerDescriptor = new HeaderDescriptor(0, 1, 1);
+        final List<String> sheetNames = Arrays.asList("SampleDataRecord", "SampleInstancePrimaryOnly",
+                "SampleInstanceComposite");
+        final List<List<String>> expected;
+        try (ExcelDataReader reader = new ExcelDataReader(getSamplePath())) {
+            expected = readAllValues(reader, sheetNames, headerDescriptor);
+        }
+        // When
+        try (ExcelDataReader reader = new ExcelDataReader(getSamplePath(), SharedStringsStorage.MAPPED_FILE)) {
+            final List<List<String>> actual = readAllValues(reader, sheetNames, headerDescriptor);
+            // Then
+            assertThat(((XSSFWorkbook) reader.getSheet("SampleDataRecord").getWorkbook()).getSharedStringSource())
+                    .isInstanceOf(MappedSharedStringsTable.class);
+            assertThat(actual).isEqualTo(expected);
+            assertThat(actual.get(0)).isNotEmpty();
+        }
+    }
+
+    /**
+     * Write a workbook whose shared strings part inflates far beyond the minimum inflate ratio of POI
+     */
+    private static Path writeZipBomb(final Path path) throws IOException {
+        final char[] text = new char[SpreadsheetVersion.EXCEL2007.getMaxTextLength() - 10];
+        Arrays.fill(text, 'a');
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream output = Files.newOutputStream(path)) {
+            final Sheet sheet = workbook.createSheet("Bomb");
+            for (int cnt = 0; cnt < 200; cnt++) {
+                sheet.createRow(cnt).createCell(0).setCellValue(new String(text) + cnt);
+            }
+            workbook.write(output);
+        }
+        return path;
+    }
+
+    private static List<List<String>> readAllValues(final ExcelDataReader reader, final List<String> sheetNames,
+                                                    final HeaderDescriptor headerDescriptor) {
+        return sheetNames.stream()
+                .map(sheetName -> reader.addParser(sheetName, headerDescriptor, ExcelDataReaderTest::allValuesMapper)
+                        .stream().collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+
+    private static RowMapper<String> allValuesMapper(final HeaderSchema schema) {
+        return (row, evaluator) -> {
+            final StringBuilder values = new StringBuilder();
+            for (int position = 0; position < schema.size(); position++) {
+                values.append(ValueParserRouter.getParser(String.class)
+                        .getValue(row.getCell(schema.getColumn(position)), evaluator)).append('|');
+            }
+            return values.toString();
+        };
+    }
+
+    private static RowMapper<String> testNameMapper(final HeaderSchema schema) {
+        return (row, evaluator) -> ValueParserRouter.getParser(String.class).getValue(row.getCell(0), evaluator);
+    }
+
+    private Path getSamplePath() throws URISyntaxException {
+        final URL url = getClass().getResource(SAMPLE_FILE_PATH);
+        assertThat(url).isNotNull();
+        return Paths.get(url.toURI());
+    }
 }
@@ -0,0 +1,184 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.reader.snapshot;
+
+import com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode;
+import com.fgsoft.exceldatareader.exception.ExcelReaderException;
+import com.fgsoft.exceldatareader.parser.HeaderDescriptor;
+import com.fgsoft.exceldatareader.parser.util.CachedResultFormulaEvaluator;
+import com.fgsoft.exceldatareader.parser.util.HeaderSchema;
+import com.fgsoft.exceldatareader.parser.util.TestNameIndex;
+import com.fgsoft.exceldatareader.parser.util.WorksheetAnalyser;
+import com.fgsoft.exceldatareader.parser.value.ValueParserRouter;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SheetSnapshotTest {
+    private static final HeaderDescriptor HEADER_DESCRIPTOR = new HeaderDescriptor(0, 0, 0);
+    private static final LocalDateTime DATE = LocalDateTime.of(2023, 7, 1, 12, 15, 45);
+    private static final FormulaEvaluator EVALUATOR = new CachedResultFormulaEvaluator();
+
+    @TempDir
+    Path tempDir;
+
+    private SheetSnapshot snapshot;
+
+    @BeforeEach
+    final void setUp() throws IOException {
+        final Path file = tempDir.resolve("sheet.snap");
+        try (Workbook workbook = new XSSFWorkbook()) {
+            final Sheet sheet = workbook.createSheet("Values");
+            final Row header = sheet.createRow(0);
+            final String[] titles = {"", "number", "text", "flag", "date", "formula", "error"};
+            for (int column = 0; column < titles.length; column++) {
+                header.createCell(column).setCellValue(titles[column]);
+            }
+            final CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+            final Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue("TEST-1");
+            row.createCell(1).setCellValue(12.5);
+            row.createCell(2).setCellValue("Some text");
+            row.createCell(3).setCellValue(true);
+            final Cell date = row.createCell(4);
+            date.setCellValue(DATE);
+            date.setCellStyle(dateStyle);
+            final Cell formula = row.createCell(5);
+            formula.setCellFormula("\"Cached\"");
+            formula.setCellValue("Cached");
+            row.createCell(6).setCellErrorValue(FormulaError.DIV0.getCode());
+            final Row other = sheet.createRow(3); // Row 2 is missing
+            other.createCell(0).setCellValue("TEST-2");
+            other.createCell(2).setCellValue("Some text");
+            other.createCell(3);
+            final HeaderSchema schema = new WorksheetAnalyser(sheet, HEADER_DESCRIPTOR).getHeaderSchema();
+            SheetSnapshot.write(sheet, HEADER_DESCRIPTOR, schema, TestNameIndex.forSheet(sheet, HEADER_DESCRIPTOR),
+                    file);
+        }
+        snapshot = SheetSnapshot.map(file);
+    }
+
+    @Test
+    final void testMetadata() {
+        // Then
+        assertThat(snapshot.getSheetName()).isEqualTo("Values");
+        assertThat(snapshot.isDate1904()).isFalse();
+        assertThat(snapshot.getHeaderDescriptor()).isEqualTo(HEADER_DESCRIPTOR);
+        assertThat(snapshot.getHeaderSchema().getColumn("date")).isEqualTo(4);
+        assertThat(snapshot.getTestNameIndex().getAllTestNames()).containsExactly("TEST-1", "TEST-2");
+        assertThat(snapshot.getFirstRow()).isEqualTo(1);
+        assertThat(snapshot.getLastRow()).isEqualTo(3);
+        assertThat(snapshot.getColumnCount()).isEqualTo(7);
+    }
+
+    @Test
+    final void testCellTypes() {
+        // Then
+        assertThat(snapshot.getCellType(1, 1)).isEqualTo(CellType.NUMERIC);
+        assertThat(snapshot.getCellType(1, 4)).isEqualTo(CellType.NUMERIC);
+        assertThat(snapshot.isDateFormatted(1, 4)).isTrue();
+        assertThat(snapshot.isDateFormatted(1, 1)).isFalse();
+        assertThat(snapshot.getCellType(1, 5)).isEqualTo(CellType.STRING);
+        assertThat(snapshot.getCellType(1, 6)).isEqualTo(CellType.ERROR);
+        assertThat(snapshot.getCellType(3, 3)).isEqualTo(CellType.BLANK);
+        assertThat(snapshot.getCellType(3, 1)).isNull();
+        assertThat(snapshot.getCellType(0, 1)).isNull();
+        assertThat(snapshot.getCellType(1, 7)).isNull();
+    }
+
+    @Test
+    final void testRows() {
+        // Then
+        assertThat(snapshot.isRowPresent(2)).isFalse();
+        assertThat(snapshot.getRow(2)).isNull();
+        assertThat(snapshot.getRow(3).getCell(1)).isNull();
+        assertThat(snapshot.getRow(3).getPhysicalNumberOfCells()).isEqualTo(3);
+        assertThat(snapshot.getRow(3).getLastCellNum()).isEqualTo((short) 4);
+    }
+
+    @Test
+    final void testParsedValues() {
+        // Given
+        final Row row = snapshot.getRow(1);
+        // When
+        final Object[] actual = {
+                ValueParserRouter.getParser(Double.class).getValue(row.getCell(1), EVALUATOR),
+                ValueParserRouter.getParser(String.class).getValue(row.getCell(2), EVALUATOR),
+                ValueParserRouter.getParser(Boolean.class).getValue(row.getCell(3), EVALUATOR),
+                ValueParserRouter.getParser(LocalDateTime.class).getValue(row.getCell(4), EVALUATOR),
+                ValueParserRouter.getParser(String.class).getValue(row.getCell(5), EVALUATOR)};
+        // Then
+        assertThat(actual).containsExactly(12.5, "Some text", true, DATE, "Cached");
+    }
+
+    @Test
+    final void testSharedStrings() {
+        // When
+        final String first = snapshot.getStringValue(1, 2);
+        final String second = snapshot.getStringValue(3, 2);
+        // Then
+        assertThat(first).isEqualTo("Some text").isSameAs(second);
+    }
+
+    @Test
+    final void testReadOnlyCell() {
+        // Given
+        final Cell cell = snapshot.getRow(1).getCell(2);
+        // When
+        final Throwable exception = assertThrows(IllegalStateException.class, cell::getNumericCellValue);
+        // Then
+        assertThat(exception.getMessage()).isEqualTo("Cannot get a NUMERIC value from a STRING cell");
+        assertThrows(UnsupportedOperationException.class, () -> cell.setCellValue(1.0));
+    }
+
+    @Test
+    final void testNotASnapshot() throws IOException {
+        // Given
+        final Path file = Files.write(tempDir.resolve("other.snap"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+        // When
+        assertThrows(ExcelReaderException.class, () -> SheetSnapshot.map(file));
+    }
+
+    @Test
+    final void testSnapshotTooLarge() throws IOException {
+        final Path file = tempDir.resolve("large.snap");
+        try (Workbook workbook = new XSSFWorkbook()) {
+            // Given
+            final Sheet sheet = workbook.createSheet("Large");
+            sheet.createRow(0).createCell(0).setCellValue("");
+            sheet.createRow(1_000_000).createCell(16_000).setCellValue(1.0);
+            final HeaderSchema schema = new WorksheetAnalyser(sheet, HEADER_DESCRIPTOR).getHeaderSchema();
+            final TestNameIndex index = TestNameIndex.forSheet(sheet, HEADER_DESCRIPTOR);
+            // When
+            final ExcelReaderException exception = assertThrows(ExcelReaderException.class,
+                    () -> SheetSnapshot.write(sheet, HEADER_DESCRIPTOR, schema, index, file));
+            // Then
+            assertThat(exception.getMessage())
+                    .isEqualTo(String.format(ExcelReaderErrorCode.SNAPSHOT_TOO_LARGE.getMessage(), "Large"));
+            assertThat(file).doesNotExist();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.reader.snapshot;
+
+import com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode;
+import com.fgsoft.exceldatareader.exception.ExcelReaderException;
+import com.fgsoft.exceldatareader.metrics.CounterReaderMetrics;
+import com.fgsoft.exceldatareader.metrics.Metrics;
+import com.fgsoft.exceldatareader.parser.HeaderDescriptor;
+import com.fgsoft.exceldatareader.parser.grid.GridSheetParser;
+import com.fgsoft.exceldatareader.parser.mapper.RowMapper;
+import com.fgsoft.exceldatareader.parser.util.CachedResultFormulaEvaluator;
+import com.fgsoft.exceldatareader.parser.util.HeaderSchema;
+import com.fgsoft.exceldatareader.parser.value.ValueParserRouter;
+import com.fgsoft.exceldatareader.util.Sample;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SnapshotCacheTest {
+    private static final String SAMPLE_FILE_PATH = "/testData/SampleDataFile.xlsx";
+    private static final String SHEET_NAME = "SampleInstancePrimaryOnly";
+    private static final HeaderDescriptor HEADER_DESCRIPTOR = new HeaderDescriptor(0, 1, 1);
+
+    @TempDir
+    Path tempDir;
+
+    private Path workbookFile;
+    private Path cacheDirectory;
+
+    @BeforeEach
+    final void setUp() throws IOException {
+        workbookFile = tempDir.resolve("workbook.xlsx");
+        try (InputStream input = getClass().getResourceAsStream(SAMPLE_FILE_PATH)) {
+            assertThat(input).isNotNull();
+            Files.copy(input, workbookFile);
+        }
+        cacheDirectory = tempDir.resolve("cache");
+    }
+
+    @AfterEach
+    final void tearDown() {
+        Metrics.disable();
+    }
+
+    @Test
+    final void testParseSnapshot() {
+        // Given
+        final SnapshotCache cache = new SnapshotCache(cacheDirectory);
+        // When
+        final GridSheetParser<Object[]> parser = cache.getParser(workbookFile, SHEET_NAME, HEADER_DESCRIPTOR,
+                SnapshotCacheTest::createMapper);
+        final List<Object[]> actual = parser.stream().collect(Collectors.toList());
+        // Then
+        assertThat(parser.getSheetName()).isEqualTo(SHEET_NAME);
+        assertThat(actual).hasSize(2);
+        assertThat(actual.get(0)).containsExactly(123, true, LocalDateTime.of(2023, 7, 1, 12, 15, 45), Sample.ONE);
+        assertThat(actual.get(1)).containsExactly(123, false, LocalDateTime.of(2023, 7, 1, 12, 15, 45), Sample.TWO);
+        assertThat(parser.getValue(parser.getAllTestNames().get(1))).isEqualTo(actual.get(1));
+    }
+
+    @Test
+    final void testSnapshotReusedWithoutOpeningWorkbook() throws IOException {
+        // Given
+        new SnapshotCache(cacheDirectory).getSnapshot(workbookFile, SHEET_NAME, HEADER_DESCRIPTOR);
+        final CounterReaderMetrics metrics = new CounterReaderMetrics();
+        Metrics.register(metrics);
+        // When
+        final SheetSnapshot actual = new SnapshotCache(cacheDirectory)
+                .getSnapshot(workbookFile, SHEET_NAME, HEADER_DESCRIPTOR);
+        // Then
+        assertThat(metrics.getWorkbooksOpened()).isZero();
+        assertThat(actual.getHeaderSchema().getColumn("intValue")).isPositive();
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            assertThat(files.count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    final void testSameSnapshotInstance() {
+        // Given
+        final SnapshotCache cache = new SnapshotCache(cacheDirectory);
+        // When
+        final SheetSnapshot actual = cache.getSnapshot(workbookFile, SHEET_NAME, HEADER_DESCRIPTOR);
+        // Then
+        assertThat(actual).isSameAs(cache.getSnapshot(workbookFile, SHEET_NAME, HEADER_DESCRIPTOR));
+    }
+
+    @Test
+    final void testModifiedWorkbook() throws IOException {
+        // Given
+        final SnapshotCache cache = new SnapshotCache(cacheDirectory);
+        final String hash = cache.getWorkbookHash(workbookFile);
+        cache.getSnapshot(workbookFile, SHEET_NAME, HEADER_DESCRIPTOR);
+        // When
+        Files.write(workbookFile, new byte[]{0}, StandardOpenOption.APPEND); // Zip files allow trailing bytes
+        cache.getSnapshot(workbookFile, SHEET_NAME, HEADER_DESCRIPTOR);
+        // Then
+        assertThat(cache.getWorkbookHash(workbookFile)).hasSize(64).isNotEqualTo(hash);
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            assertThat(files.count()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    final void testFormulaCachedValues() {
+        // Given
+        final SnapshotCache cache = new SnapshotCache(cacheDirectory);
+        // When
+        final SheetSnapshot snapshot = cache.getSnapshot(workbookFile, "SampleDataRecord", HEADER_DESCRIPTOR);
+        // Then
+        assertThat(ValueParserRouter.getParser(String.class).getValue(snapshot.getRow(3).getCell(1),
+                new CachedResultFormulaEvaluator()))
+                .isEqualTo("This is a string value");
+    }
+
+    @Test
+    final void testUnknownSheet() {
+        // Given
+        final SnapshotCache cache = new SnapshotCache(cacheDirectory);
+        final String message = String.format(ExcelReaderErrorCode.SHEET_NOT_FOUND.getMessage(), "Unknown");
+        // When
+        final Throwable exception = assertThrows(ExcelReaderException.class,
+                () -> cache.getSnapshot(workbookFile, "Unknown", HEADER_DESCRIPTOR));
+        // Then
+        assertThat(exception.getMessage()).isEqualTo(message);
+    }
+
+    private static RowMapper<Object[]> createMapper(final HeaderSchema schema) {
+        return (row, evaluator) -> new Object[]{
+                ValueParserRouter.getParser(Integer.class)
+                        .getValue(RowMapper.getCell(row, schema.getColumn("intValue")), evaluator),
+                ValueParserRouter.getParser(Boolean.class)
+                        .getValue(RowMapper.getCell(row, schema.getColumn("booleanValue")), evaluator),
+                ValueParserRouter.getParser(LocalDateTime.class)
+                        .getValue(RowMapper.getCell(row, schema.getColumn("localDateTime")), evaluator),
+                ValueParserRouter.getParser(Sample.class)
+                        .getValue(RowMapper.getCell(row, schema.getColumn("sample")), evaluator)};
+    }
+}
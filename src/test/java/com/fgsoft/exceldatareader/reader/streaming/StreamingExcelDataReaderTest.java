@@ -0,0 +1,205 @@
+/* Copyright 2023 Frederic GEDIN
+ *
+ *       Licensed under the Apache License,Version2.0(the"License");
+ *       you may not use this file except in compliance with the License.
+ *       You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       Unless required by applicable law or agreed to in writing,software
+ *       distributed under the License is distributed on an"AS IS"BASIS,
+ *       WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,either express or implied.
+ *       See the License for the specific language governing permissions and
+ *       limitations under the License.
+ */
+package com.fgsoft.exceldatareader.reader.streaming;
+
+import com.fgsoft.exceldatareader.exception.ExcelReaderErrorCode;
+import com.fgsoft.exceldatareader.exception.ExcelReaderException;
+import com.fgsoft.exceldatareader.parser.HeaderDescriptor;
+import com.fgsoft.exceldatareader.parser.util.WorksheetAnalyser;
+import com.fgsoft.exceldatareader.parser.value.ValueParserRouter;
+import com.fgsoft.exceldatareader.util.Sample;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StreamingExcelDataReaderTest {
+    private static final String SAMPLE_FILE_PATH = "/testData/SampleDataFile.xlsx";
+    private static final HeaderDescriptor HEADER_DESCRIPTOR = new HeaderDescriptor(0, 1, 1);
+
+    @ParameterizedTest
+    @ValueSource(strings = {"SampleDataRecord", "SampleInstancePrimaryOnly", "SampleInstanceComposite"})
+    final void testHeadersAsWorkbook(final String sheetName) throws IOException {
+        // Given
+        final Map<String, Integer> expected;
+        try (Workbook workbook = openWorkbook()) {
+            expected = new WorksheetAnalyser(workbook.getSheet(sheetName), HEADER_DESCRIPTOR).getHeadersMap();
+        }
+        final List<Map<String, Integer>> actual = new ArrayList<>();
+        // When
+        try (StreamingExcelDataReader reader = new StreamingExcelDataReader(SAMPLE_FILE_PATH)) {
+            reader.readSheet(sheetName, HEADER_DESCRIPTOR, new RowHandler() {
+                @Override
+                public void handleHeaders(final Map<String, Integer> headers) {
+                    actual.add(headers);
+                }
+
+                @Override
+                public void handleRow(final Row row, final Map<String, Integer> headers) {
+                    assertThat(headers).isSameAs(actual.get(0));
+                }
+            });
+        }
+        // Then
+        assertThat(actual).hasSize(1);
+        assertThat(actual.get(0)).isEqualTo(expected);
+    }
+
+    @Test
+    final void testValuesAsWorkbook() throws IOException {
+        // Given
+        final String sheetName = "SampleInstancePrimaryOnly";
+        final List<String> expected = new ArrayList<>();
+        try (Workbook workbook = openWorkbook()) {
+            final FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+            final Sheet sheet = workbook.getSheet(sheetName);
+            final Map<String, Integer> headers = new WorksheetAnalyser(sheet, HEADER_DESCRIPTOR).getHeadersMap();
+            for (int rowNum = HEADER_DESCRIPTOR.getLastHeaderRow() + 1; rowNum <= sheet.getLastRowNum(); rowNum++) {
+                readValues(sheet.getRow(rowNum), headers, evaluator, expected);
+            }
+        }
+        final List<String> actual = new ArrayList<>();
+        // When
+        try (StreamingExcelDataReader reader = new StreamingExcelDataReader(SAMPLE_FILE_PATH)) {
+            reader.readSheet(sheetName, HEADER_DESCRIPTOR,
+                    (row, headers) -> readValues(row, headers, reader.getFormulaEvaluator(), actual));
+        }
+        // Then
+        assertThat(actual).isNotEmpty().isEqualTo(expected);
+    }
+
+    @Test
+    final void testTypedValues() {
+        // Given
+        final List<Object[]> actual = new ArrayList<>();
+        // When
+        try (StreamingExcelDataReader reader = new StreamingExcelDataReader(SAMPLE_FILE_PATH)) {
+            reader.readSheet("SampleInstancePrimaryOnly", HEADER_DESCRIPTOR, (row, headers) -> {
+                final FormulaEvaluator evaluator = reader.getFormulaEvaluator();
+                actual.add(new Object[]{
+                        ValueParserRouter.getParser(Integer.class)
+                                .getValue(row.getCell(headers.get("intValue")), evaluator),
+                        ValueParserRouter.getParser(Boolean.class)
+                                .getValue(row.getCell(headers.get("booleanValue")), evaluator),
+                        ValueParserRouter.getParser(LocalDateTime.class)
+                                .getValue(row.getCell(headers.get("localDateTime")), evaluator),
+                        ValueParserRouter.getParser(Sample.class)
+                                .getValue(row.getCell(headers.get("sample")), evaluator)});
+            });
+        }
+        // Then
+        assertThat(actual).hasSize(2);
+        assertThat(actual.get(0)).containsExactly(123, true,
+                LocalDateTime.of(2023, 7, 1, 12, 15, 45), Sample.ONE);
+        assertThat(actual.get(1)).containsExactly(123, false,
+                LocalDateTime.of(2023, 7, 1, 12, 15, 45), Sample.TWO);
+    }
+
+    @Test
+    final void testFormulaCachedValues() {
+        // Given
+        final List<Object> actual = new ArrayList<>();
+        // When
+        try (StreamingExcelDataReader reader = new StreamingExcelDataReader(SAMPLE_FILE_PATH)) {
+            reader.readSheet("SampleDataRecord", HEADER_DESCRIPTOR, (row, headers) -> {
+                if (row.getRowNum() == 3) {
+                    final FormulaEvaluator evaluator = reader.getFormulaEvaluator();
+                    actual.add(row.getCell(1).getCellType());
+                    actual.add(ValueParserRouter.getParser(String.class).getValue(row.getCell(1), evaluator));
+                    actual.add(ValueParserRouter.getParser(Date.class).getValue(row.getCell(2), evaluator));
+                }
+            });
+        }
+        // Then
+        assertThat(actual).hasSize(3);
+        assertThat(actual.get(0)).isEqualTo(CellType.FORMULA);
+        assertThat(actual.get(1)).isEqualTo("This is a string value");
+        assertThat(actual.get(2)).isNotNull();
+    }
+
+    @Test
+    final void testUnknownSheet() {
+        // Given
+        final String sheetName = "Unknown";
+        final String message = String.format(ExcelReaderErrorCode.SHEET_NOT_FOUND.getMessage(), sheetName);
+        try (StreamingExcelDataReader reader = new StreamingExcelDataReader(SAMPLE_FILE_PATH)) {
+            // When
+            final Throwable exception = assertThrows(ExcelReaderException.class,
+                    () -> reader.readSheet(sheetName, HEADER_DESCRIPTOR, (row, headers) -> { }));
+            // Then
+            assertThat(exception.getMessage()).isEqualTo(message);
+        }
+    }
+
+    @Test
+    final void testReadFromPath() throws URISyntaxException {
+        // Given
+        final Path path = Paths.get(getClass().getResource(SAMPLE_FILE_PATH).toURI());
+        final List<String> expected = new ArrayList<>();
+        final List<String> actual = new ArrayList<>();
+        try (StreamingExcelDataReader reader = new StreamingExcelDataReader(SAMPLE_FILE_PATH)) {
+            reader.readSheet("SampleInstancePrimaryOnly", HEADER_DESCRIPTOR,
+                    (row, headers) -> readValues(row, headers, reader.getFormulaEvaluator(), expected));
+        }
+        // When
+        try (StreamingExcelDataReader reader = new StreamingExcelDataReader(path)) {
+            reader.readSheet("SampleInstancePrimaryOnly", HEADER_DESCRIPTOR,
+                    (row, headers) -> readValues(row, headers, reader.getFormulaEvaluator(), actual));
+        }
+        // Then
+        assertThat(actual).isNotEmpty().isEqualTo(expected);
+    }
+
+    @Test
+    final void testUnknownFile() {
+        // Given
+        final String filename = "/testData/Unknown.xlsx";
+        final String message = String.format(ExcelReaderErrorCode.FILE_NOT_FOUND.getMessage(), filename);
+        // When
+        final Throwable exception = assertThrows(ExcelReaderException.class,
+                () -> new StreamingExcelDataReader(filename));
+        // Then
+        assertThat(exception.getMessage()).isEqualTo(message);
+    }
+
+    private Workbook openWorkbook() throws IOException {
+        try (InputStream inputStream = getClass().getResourceAsStream(SAMPLE_FILE_PATH)) {
+            assertThat(inputStream).isNotNull();
+            return new XSSFWorkbook(inputStream);
+        }
+    }
+
+    private static void readValues(final Row row, final Map<String, Integer> headers,
+                                   final FormulaEvaluator evaluator, final List<String> values) {
+        values.add(ValueParserRouter.getParser(String.class).getValue(row.getCell(0), evaluator));
+        headers.values().stream().sorted().forEach(column -> values.add(
+                ValueParserRouter.getParser(String.class).getValue(row.getCell(column), evaluator)));
+    }
+}